@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.benchmarks.btree;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.gdx.ai.btree.BehaviorTree;
+import com.badlogic.gdx.ai.btree.FlyweightArchetype;
+import com.badlogic.gdx.ai.btree.FlyweightBehaviorTree;
+import com.badlogic.gdx.ai.btree.LeafTask;
+import com.badlogic.gdx.ai.btree.Task;
+import com.badlogic.gdx.ai.btree.annotation.StatelessTask;
+import com.badlogic.gdx.ai.btree.branch.Parallel;
+import com.badlogic.gdx.ai.btree.branch.Selector;
+import com.badlogic.gdx.ai.btree.branch.Sequence;
+import com.badlogic.gdx.ai.btree.decorator.AlwaysSucceed;
+import com.badlogic.gdx.ai.btree.decorator.Invert;
+import com.badlogic.gdx.ai.btree.leaf.Wait;
+
+/** Measures {@link BehaviorTree#step()} over many trees cloned from the same archetype, as well as the cost of cloning the
+ * archetype itself. The same measures are taken for {@link FlyweightBehaviorTree flyweight trees} sharing the archetype. Idle
+ * trees waiting for a long time are stepped both polling and {@link BehaviorTree#setEventDriven(boolean) event-driven}.
+ * 
+ * @author agent */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BehaviorTreeBenchmark {
+
+	@Param({"1000", "10000"})
+	public int treeCount;
+
+	private BehaviorTree<Worker> archetype;
+	private BehaviorTree<Worker>[] trees;
+	private FlyweightArchetype<Worker> flyweightArchetype;
+	private FlyweightBehaviorTree<Worker>[] flyweightTrees;
+	private BehaviorTree<Worker>[] idleTrees;
+	private BehaviorTree<Worker>[] eventDrivenIdleTrees;
+
+	@SuppressWarnings("unchecked")
+	@Setup
+	public void setup () {
+		archetype = new BehaviorTree<Worker>(createWorkerBehavior());
+		trees = new BehaviorTree[treeCount];
+		for (int i = 0; i < treeCount; i++) {
+			trees[i] = (BehaviorTree<Worker>)archetype.cloneTask();
+			// Stagger the agents so that they don't all run the same branch on the same step
+			trees[i].setObject(new Worker(i % 100));
+		}
+		flyweightArchetype = new FlyweightArchetype<Worker>(createWorkerBehavior());
+		flyweightTrees = new FlyweightBehaviorTree[treeCount];
+		for (int i = 0; i < treeCount; i++)
+			flyweightTrees[i] = flyweightArchetype.createBehaviorTree(new Worker(i % 100));
+		idleTrees = new BehaviorTree[treeCount];
+		eventDrivenIdleTrees = new BehaviorTree[treeCount];
+		for (int i = 0; i < treeCount; i++) {
+			idleTrees[i] = new BehaviorTree<Worker>(createIdleBehavior(), new Worker(i % 100));
+			eventDrivenIdleTrees[i] = new BehaviorTree<Worker>(createIdleBehavior(), new Worker(i % 100));
+			eventDrivenIdleTrees[i].setEventDriven(true);
+		}
+	}
+
+	@Benchmark
+	public int stepAll () {
+		BehaviorTree<Worker>[] trees = this.trees;
+		for (int i = 0; i < trees.length; i++)
+			trees[i].step();
+		return trees[0].getObject().energy;
+	}
+
+	@Benchmark
+	public Task<Worker> cloneArchetype () {
+		return archetype.cloneTask();
+	}
+
+	@Benchmark
+	public int stepAllFlyweight () {
+		FlyweightBehaviorTree<Worker>[] trees = this.flyweightTrees;
+		for (int i = 0; i < trees.length; i++)
+			trees[i].step();
+		return trees[0].getObject().energy;
+	}
+
+	@Benchmark
+	public int stepAllIdle () {
+		BehaviorTree<Worker>[] trees = this.idleTrees;
+		for (int i = 0; i < trees.length; i++)
+			trees[i].step();
+		return trees[0].getObject().energy;
+	}
+
+	@Benchmark
+	public int stepAllIdleEventDriven () {
+		BehaviorTree<Worker>[] trees = this.eventDrivenIdleTrees;
+		for (int i = 0; i < trees.length; i++)
+			trees[i].step();
+		return trees[0].getObject().energy;
+	}
+
+	@Benchmark
+	public Task<Worker> createFlyweight () {
+		return flyweightArchetype.createBehaviorTree(null);
+	}
+
+	/** Creates the behavior of a worker that rests when tired and works otherwise, with some decorators thrown in to exercise the
+	 * usual control flow. */
+	public static Task<Worker> createWorkerBehavior () {
+		Selector<Worker> root = new Selector<Worker>();
+
+		Sequence<Worker> rest = new Sequence<Worker>();
+		rest.addChild(new IsTired());
+		rest.addChild(new Act(3, 30));
+		root.addChild(rest);
+
+		Parallel<Worker> work = new Parallel<Worker>();
+		work.addChild(new Act(2, -5));
+		work.addChild(new AlwaysSucceed<Worker>(new Invert<Worker>(new IsTired())));
+		Sequence<Worker> chores = new Sequence<Worker>();
+		chores.addChild(new AlwaysSucceed<Worker>(new IsTired()));
+		chores.addChild(new Act(1, -1));
+		work.addChild(new Invert<Worker>(new Invert<Worker>(new AlwaysSucceed<Worker>(chores))));
+		root.addChild(work);
+
+		return root;
+	}
+
+	/** Creates the behavior of a worker that is waiting most of the time, like the idle agents of a large world. */
+	public static Task<Worker> createIdleBehavior () {
+		Selector<Worker> root = new Selector<Worker>();
+		Sequence<Worker> rest = new Sequence<Worker>();
+		rest.addChild(new IsTired());
+		rest.addChild(new Act(3, 30));
+		root.addChild(rest);
+		root.addChild(new Wait<Worker>(3600f));
+		return root;
+	}
+
+	/** The blackboard of the worker.
+	 * 
+	 * @author agent */
+	public static class Worker {
+		public int energy;
+
+		public Worker (int energy) {
+			this.energy = energy;
+		}
+	}
+
+	/** A condition succeeding when the worker's energy is low.
+	 * 
+	 * @author agent */
+	@StatelessTask
+	public static class IsTired extends LeafTask<Worker> {
+		@Override
+		public void run () {
+			if (getObject().energy < 20)
+				success();
+			else
+				fail();
+		}
+
+		@Override
+		protected Task<Worker> copyTo (Task<Worker> task) {
+			return task;
+		}
+	}
+
+	/** An action that keeps running for the given number of steps and then changes the worker's energy.
+	 * 
+	 * @author agent */
+	public static class Act extends LeafTask<Worker> {
+		public int steps;
+		public int energyDelta;
+
+		private int count;
+
+		public Act () {
+		}
+
+		public Act (int steps, int energyDelta) {
+			this.steps = steps;
+			this.energyDelta = energyDelta;
+		}
+
+		@Override
+		public void start () {
+			count = 0;
+		}
+
+		@Override
+		public void run () {
+			if (++count < steps) {
+				running();
+			} else {
+				getObject().energy += energyDelta;
+				success();
+			}
+		}
+
+		@Override
+		protected Task<Worker> copyTo (Task<Worker> task) {
+			Act act = (Act)task;
+			act.steps = steps;
+			act.energyDelta = energyDelta;
+			return task;
+		}
+	}
+}
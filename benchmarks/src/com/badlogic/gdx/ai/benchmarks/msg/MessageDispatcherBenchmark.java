@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.benchmarks.msg;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.gdx.ai.msg.BatchTelegraph;
+import com.badlogic.gdx.ai.msg.MessageDispatcher;
+import com.badlogic.gdx.ai.msg.PriorityTelegramQueue;
+import com.badlogic.gdx.ai.msg.Telegram;
+import com.badlogic.gdx.ai.msg.TelegramBatch;
+import com.badlogic.gdx.ai.msg.TelegramQueue;
+import com.badlogic.gdx.ai.msg.Telegraph;
+import com.badlogic.gdx.ai.msg.TimingWheelTelegramQueue;
+
+/** Measures the {@link MessageDispatcher} with many delayed telegrams:
+ * <ul>
+ * <li>{@code dispatchAndDrain}: dispatches all the telegrams and then drains the queue with a single update;</li>
+ * <li>{@code steadyStateUpdate}: one frame update while the queue is kept at a constant size by receivers that reschedule the
+ * telegram they handle;</li>
+ * <li>{@code dispatchImmediate}: one immediate broadcast to a handful of listeners;</li>
+ * <li>{@code broadcastBurst} and {@code broadcastBurstBatched}: a burst of immediate broadcasts with the same message code to a
+ * handful of batch listeners, dispatched one by one or as a batch.</li>
+ * </ul>
+ * The {@code queue} parameter selects the queue of delayed telegrams: {@code priority} for the {@link PriorityTelegramQueue} or
+ * {@code timingWheel} for the {@link TimingWheelTelegramQueue}.
+ * 
+ * @author agent */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageDispatcherBenchmark {
+
+	private static final int MSG = 1;
+	private static final int BURST_MSG = 2;
+	private static final int BURST_SIZE = 5000;
+	private static final float MAX_DELAY = 5f;
+	private static final float FRAME_TIME = 1f / 60f;
+
+	@Param({"10000"})
+	public int telegramCount;
+
+	@Param({"priority", "timingWheel"})
+	public String queue;
+
+	private MessageDispatcher dispatcher;
+	private MessageDispatcher steadyDispatcher;
+	private Receiver[] receivers;
+	private float[] delays;
+
+	@Setup(Level.Trial)
+	public void setup () {
+		Random random = new Random(42);
+		delays = new float[telegramCount];
+		for (int i = 0; i < telegramCount; i++)
+			delays[i] = 0.001f + random.nextFloat() * MAX_DELAY;
+
+		dispatcher = new MessageDispatcher(createQueue());
+		receivers = new Receiver[telegramCount];
+		for (int i = 0; i < telegramCount; i++)
+			receivers[i] = new Receiver(null, delays[i]);
+		for (int i = 0; i < 16; i++) {
+			dispatcher.addListener(receivers[i], MSG);
+			dispatcher.addListener(new BatchReceiver(), BURST_MSG);
+		}
+
+		steadyDispatcher = new MessageDispatcher(createQueue());
+		for (int i = 0; i < telegramCount; i++) {
+			Receiver receiver = new Receiver(steadyDispatcher, delays[i]);
+			steadyDispatcher.dispatchMessage(delays[i], null, receiver, MSG);
+		}
+	}
+
+	private TelegramQueue createQueue () {
+		return "timingWheel".equals(queue) ? new TimingWheelTelegramQueue(FRAME_TIME) : new PriorityTelegramQueue();
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public int dispatchAndDrain () {
+		MessageDispatcher dispatcher = this.dispatcher;
+		for (int i = 0; i < telegramCount; i++)
+			dispatcher.dispatchMessage(delays[i], null, receivers[i], MSG);
+		dispatcher.update(MAX_DELAY + 1f);
+		return Receiver.handled;
+	}
+
+	@Benchmark
+	public int steadyStateUpdate () {
+		steadyDispatcher.update(FRAME_TIME);
+		return Receiver.handled;
+	}
+
+	@Benchmark
+	public int dispatchImmediate () {
+		dispatcher.dispatchMessage(MSG);
+		return Receiver.handled;
+	}
+
+	@Benchmark
+	public int broadcastBurst () {
+		MessageDispatcher dispatcher = this.dispatcher;
+		for (int i = 0; i < BURST_SIZE; i++)
+			dispatcher.dispatchMessage(BURST_MSG);
+		return Receiver.handled;
+	}
+
+	@Benchmark
+	public int broadcastBurstBatched () {
+		MessageDispatcher dispatcher = this.dispatcher;
+		dispatcher.beginBatch();
+		for (int i = 0; i < BURST_SIZE; i++)
+			dispatcher.dispatchMessage(BURST_MSG);
+		dispatcher.endBatch();
+		return Receiver.handled;
+	}
+
+	/** A receiver that handles batches of telegrams at once.
+	 * 
+	 * @author agent */
+	static class BatchReceiver implements BatchTelegraph {
+
+		@Override
+		public boolean handleMessage (Telegram msg) {
+			Receiver.handled++;
+			return true;
+		}
+
+		@Override
+		public boolean handleMessages (TelegramBatch batch) {
+			Receiver.handled += batch.size();
+			return true;
+		}
+	}
+
+	/** A receiver that optionally reschedules the telegram it handles.
+	 * 
+	 * @author agent */
+	static class Receiver implements Telegraph {
+		static int handled;
+
+		final MessageDispatcher rescheduler;
+		final float delay;
+
+		Receiver (MessageDispatcher rescheduler, float delay) {
+			this.rescheduler = rescheduler;
+			this.delay = delay;
+		}
+
+		@Override
+		public boolean handleMessage (Telegram msg) {
+			handled++;
+			if (rescheduler != null) rescheduler.dispatchMessage(delay, null, this, msg.message);
+			return true;
+		}
+	}
+}
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.benchmarks.pfa;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.gdx.ai.benchmarks.utils.GridGraph;
+import com.badlogic.gdx.ai.benchmarks.utils.GridNode;
+import com.badlogic.gdx.ai.benchmarks.utils.HierarchicalGridGraph;
+import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
+import com.badlogic.gdx.ai.pfa.Heuristic;
+import com.badlogic.gdx.ai.pfa.HierarchicalPathFinder;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedAStarPathFinder;
+import com.badlogic.gdx.utils.Array;
+
+/** Measures a {@link HierarchicalPathFinder} search between random floor tiles of a {@link HierarchicalGridGraph}, using an
+ * {@link IndexedAStarPathFinder} as level path finder.
+ * 
+ * @author agent */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class HierarchicalPathFinderBenchmark {
+
+	private static final int PAIRS = 256;
+
+	@Param({"256", "1024"})
+	public int gridSize;
+
+	@Param({"16", "32"})
+	public int clusterSize;
+
+	private HierarchicalGridGraph graph;
+	private HierarchicalPathFinder<GridNode> pathFinder;
+	private Heuristic<GridNode> heuristic;
+	private Array<GridNode> startNodes;
+	private Array<GridNode> endNodes;
+	private DefaultGraphPath<GridNode> outPath;
+	private int pair;
+
+	@Setup
+	public void setup () {
+		graph = new HierarchicalGridGraph(gridSize, gridSize, clusterSize, 0.2f, 1234L);
+		pathFinder = new HierarchicalPathFinder<GridNode>(graph, new IndexedAStarPathFinder<GridNode>(graph));
+		heuristic = new GridGraph.ManhattanDistance();
+		startNodes = graph.randomFloorTiles(PAIRS, 1L);
+		endNodes = graph.randomFloorTiles(PAIRS, 2L);
+		outPath = new DefaultGraphPath<GridNode>();
+		pair = 0;
+	}
+
+	@Benchmark
+	public boolean searchNodePath () {
+		int i = pair++ & (PAIRS - 1);
+		outPath.clear();
+		return pathFinder.searchNodePath(startNodes.get(i), endNodes.get(i), heuristic, outPath);
+	}
+}
@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.benchmarks.pfa;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.gdx.ai.benchmarks.utils.GridGraph;
+import com.badlogic.gdx.ai.benchmarks.utils.GridNode;
+import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
+import com.badlogic.gdx.ai.pfa.Heuristic;
+import com.badlogic.gdx.ai.pfa.PathFinder;
+import com.badlogic.gdx.ai.pfa.indexed.BidirectionalIndexedAStarPathFinder;
+import com.badlogic.gdx.ai.pfa.indexed.FlatIndexedAStarPathFinder;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedAStarPathFinder;
+import com.badlogic.gdx.utils.Array;
+
+/** Measures a single node path search between random floor tiles of a square {@link GridGraph}.
+ * 
+ * @author agent */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class IndexedAStarPathFinderBenchmark {
+
+	private static final int PAIRS = 256;
+
+	@Param({"64", "256", "1024", "2048"})
+	public int gridSize;
+
+	@Param({"indexed", "flat", "bidirectional"})
+	public String finder;
+
+	private GridGraph graph;
+	private PathFinder<GridNode> pathFinder;
+	private Heuristic<GridNode> heuristic;
+	private Array<GridNode> startNodes;
+	private Array<GridNode> endNodes;
+	private DefaultGraphPath<GridNode> outPath;
+	private int pair;
+
+	@Setup
+	public void setup () {
+		graph = new GridGraph(gridSize, gridSize, 0.2f, 1234L);
+		if (finder.equals("flat"))
+			pathFinder = new FlatIndexedAStarPathFinder<GridNode>(graph);
+		else if (finder.equals("bidirectional"))
+			pathFinder = new BidirectionalIndexedAStarPathFinder<GridNode>(graph);
+		else
+			pathFinder = new IndexedAStarPathFinder<GridNode>(graph);
+		heuristic = new GridGraph.ManhattanDistance();
+		startNodes = graph.randomFloorNodes(PAIRS, 1L);
+		endNodes = graph.randomFloorNodes(PAIRS, 2L);
+		outPath = new DefaultGraphPath<GridNode>();
+		pair = 0;
+	}
+
+	@Benchmark
+	public boolean searchNodePath () {
+		int i = pair++ & (PAIRS - 1);
+		outPath.clear();
+		return pathFinder.searchNodePath(startNodes.get(i), endNodes.get(i), heuristic, outPath);
+	}
+}
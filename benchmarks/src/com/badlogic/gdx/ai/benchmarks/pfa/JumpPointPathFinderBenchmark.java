@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.benchmarks.pfa;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.gdx.ai.benchmarks.utils.TileGridGraph;
+import com.badlogic.gdx.ai.benchmarks.utils.TileGridGraph.Tile;
+import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
+import com.badlogic.gdx.ai.pfa.Heuristic;
+import com.badlogic.gdx.ai.pfa.PathFinder;
+import com.badlogic.gdx.ai.pfa.grid.JumpPointPathFinder;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedAStarPathFinder;
+import com.badlogic.gdx.utils.Array;
+
+/** Measures a single node path search between random floor tiles of a square 8-connected {@link TileGridGraph}, comparing Jump
+ * Point Search with A*.
+ * 
+ * @author agent */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class JumpPointPathFinderBenchmark {
+
+	private static final int PAIRS = 256;
+
+	@Param({"256", "1024"})
+	public int gridSize;
+
+	@Param({"0.05", "0.2"})
+	public float wallDensity;
+
+	@Param({"astar", "jps"})
+	public String finder;
+
+	private PathFinder<Tile> pathFinder;
+	private Heuristic<Tile> heuristic;
+	private Array<Tile> startNodes;
+	private Array<Tile> endNodes;
+	private DefaultGraphPath<Tile> outPath;
+	private int pair;
+
+	@Setup
+	public void setup () {
+		TileGridGraph graph = new TileGridGraph(gridSize, gridSize, wallDensity, 1234L);
+		pathFinder = finder.equals("jps") ? new JumpPointPathFinder<Tile>(graph) : new IndexedAStarPathFinder<Tile>(graph);
+		heuristic = new TileGridGraph.OctileDistance();
+		startNodes = graph.randomFloorNodes(PAIRS, 1L);
+		endNodes = graph.randomFloorNodes(PAIRS, 2L);
+		outPath = new DefaultGraphPath<Tile>();
+		pair = 0;
+	}
+
+	@Benchmark
+	public boolean searchNodePath () {
+		int i = pair++ & (PAIRS - 1);
+		outPath.clear();
+		return pathFinder.searchNodePath(startNodes.get(i), endNodes.get(i), heuristic, outPath);
+	}
+}
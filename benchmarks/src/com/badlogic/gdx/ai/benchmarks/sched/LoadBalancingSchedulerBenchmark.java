@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.benchmarks.sched;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.gdx.ai.sched.LoadBalancingScheduler;
+import com.badlogic.gdx.ai.sched.Schedulable;
+
+/** Measures one frame of a {@link LoadBalancingScheduler} running many cheap tasks sharing the same frequency, with their phases
+ * spread evenly, so that only {@code schedulableCount / frequency} tasks are due on each frame.
+ * 
+ * @author agent */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoadBalancingSchedulerBenchmark {
+
+	private static final long TIME_TO_RUN = 1000000L;
+
+	@Param({"50000"})
+	public int schedulableCount;
+
+	@Param({"30"})
+	public int frequency;
+
+	private LoadBalancingScheduler scheduler;
+	private Task[] tasks;
+
+	@Setup
+	public void setup () {
+		scheduler = new LoadBalancingScheduler(frequency);
+		tasks = new Task[schedulableCount];
+		for (int i = 0; i < schedulableCount; i++) {
+			tasks[i] = new Task();
+			scheduler.add(tasks[i], frequency, i % frequency);
+		}
+	}
+
+	@Benchmark
+	public void run () {
+		scheduler.run(TIME_TO_RUN);
+	}
+
+	static class Task implements Schedulable {
+		int runs;
+
+		@Override
+		public void run (long nanoTimeToRun) {
+			runs++;
+		}
+	}
+
+}
@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.benchmarks.steer;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.gdx.ai.benchmarks.utils.HeadlessFrames;
+import com.badlogic.gdx.ai.steer.Proximity;
+import com.badlogic.gdx.ai.steer.Proximity.ProximityCallback;
+import com.badlogic.gdx.ai.steer.Steerable;
+import com.badlogic.gdx.ai.steer.SteerableAdapter;
+import com.badlogic.gdx.ai.steer.proximities.RadiusProximity;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+
+/** Measures a single {@link Proximity#findNeighbors(ProximityCallback) findNeighbors} call of a {@link RadiusProximity} on a new
+ * frame, for a random owner among the given number of agents. Agents are scattered with a constant density, so that the number
+ * of neighbors found is roughly independent of the number of agents.
+ * 
+ * @author agent */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RadiusProximityBenchmark {
+
+	private static final float RADIUS = 3f;
+	private static final float AREA_PER_AGENT = 4f;
+
+	@Param({"1000", "10000", "50000"})
+	public int agentCount;
+
+	private Array<Agent> agents;
+	private Proximity<Vector2> proximity;
+	private CountingCallback callback;
+	private int ownerIndex;
+
+	@Setup
+	public void setup () {
+		HeadlessFrames.install();
+
+		float side = (float)Math.sqrt(agentCount * AREA_PER_AGENT);
+		Random random = new Random(42);
+		agents = new Array<Agent>(agentCount);
+		for (int i = 0; i < agentCount; i++)
+			agents.add(new Agent(new Vector2(random.nextFloat() * side, random.nextFloat() * side), 0.5f));
+
+		proximity = createProximity(agents.first(), agents, RADIUS);
+		callback = new CountingCallback();
+		ownerIndex = 0;
+	}
+
+	protected Proximity<Vector2> createProximity (Steerable<Vector2> owner, Array<Agent> agents, float radius) {
+		return new RadiusProximity<Vector2>(owner, agents, radius);
+	}
+
+	@Benchmark
+	public int findNeighbors () {
+		HeadlessFrames.nextFrame();
+		proximity.setOwner(agents.get(ownerIndex));
+		if (++ownerIndex == agentCount) ownerIndex = 0;
+		return proximity.findNeighbors(callback);
+	}
+
+	/** A motionless agent.
+	 * 
+	 * @author agent */
+	public static class Agent extends SteerableAdapter<Vector2> {
+		private final Vector2 position;
+		private final float boundingRadius;
+		private boolean tagged;
+
+		public Agent (Vector2 position, float boundingRadius) {
+			this.position = position;
+			this.boundingRadius = boundingRadius;
+		}
+
+		@Override
+		public Vector2 getPosition () {
+			return position;
+		}
+
+		@Override
+		public float getBoundingRadius () {
+			return boundingRadius;
+		}
+
+		@Override
+		public boolean isTagged () {
+			return tagged;
+		}
+
+		@Override
+		public void setTagged (boolean tagged) {
+			this.tagged = tagged;
+		}
+	}
+
+	static class CountingCallback implements ProximityCallback<Vector2> {
+		@Override
+		public boolean reportNeighbor (Steerable<Vector2> neighbor) {
+			return true;
+		}
+	}
+}
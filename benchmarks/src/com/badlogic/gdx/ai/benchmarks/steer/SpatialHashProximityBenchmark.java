@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.benchmarks.steer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import com.badlogic.gdx.ai.steer.Proximity;
+import com.badlogic.gdx.ai.steer.Steerable;
+import com.badlogic.gdx.ai.steer.proximities.SpatialHash;
+import com.badlogic.gdx.ai.steer.proximities.SpatialHashProximity;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+
+/** Same as {@link RadiusProximityBenchmark} but using a {@link SpatialHashProximity}. Since the agents don't move, the spatial hash
+ * is built once and the cost of rebuilding it, which is paid once per frame for all the agents, is measured separately.
+ * 
+ * @author agent */
+public class SpatialHashProximityBenchmark extends RadiusProximityBenchmark {
+
+	private SpatialHash<Vector2> spatialHash;
+
+	@Override
+	protected Proximity<Vector2> createProximity (Steerable<Vector2> owner, Array<Agent> agents, float radius) {
+		spatialHash = new SpatialHash<Vector2>(agents, radius + 1f) {
+			@Override
+			public void refresh () {
+				// Agents are motionless, no need to rebuild the hash on each frame
+			}
+		};
+		spatialHash.rebuild();
+		return new SpatialHashProximity<Vector2>(owner, spatialHash, radius);
+	}
+
+	@Benchmark
+	public float rebuild () {
+		spatialHash.rebuild();
+		return spatialHash.getMaxBoundingRadius();
+	}
+}
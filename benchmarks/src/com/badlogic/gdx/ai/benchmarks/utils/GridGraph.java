@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.benchmarks.utils;
+
+import java.util.Random;
+
+import com.badlogic.gdx.ai.pfa.DefaultConnection;
+import com.badlogic.gdx.ai.pfa.Heuristic;
+import com.badlogic.gdx.ai.pfa.indexed.DefaultReversibleIndexedGraph;
+import com.badlogic.gdx.utils.Array;
+
+/** A randomly generated 4-connected tiled graph. Walls are scattered uniformly with the given density, which keeps the vast
+ * majority of the floor tiles in a single connected region for densities up to about 0.35.
+ * 
+ * @author agent */
+public class GridGraph extends DefaultReversibleIndexedGraph<GridNode> {
+
+	public final int width;
+	public final int height;
+
+	/** Creates a {@code GridGraph} with the given size.
+	 * @param width the number of tiles along the x-axis
+	 * @param height the number of tiles along the y-axis
+	 * @param wallDensity the probability of a tile to be a wall
+	 * @param seed the seed of the random generator, so that the same graph can be generated on each fork */
+	public GridGraph (int width, int height, float wallDensity, long seed) {
+		super(width * height);
+		this.width = width;
+		this.height = height;
+		generateTiles(nodes, width, height, wallDensity, seed);
+	}
+
+	/** Appends the tiles of a grid with the given size to the specified array of nodes and connects them.
+	 * @param nodes the array of nodes; the index of the first tile is its current size
+	 * @param width the number of tiles along the x-axis
+	 * @param height the number of tiles along the y-axis
+	 * @param wallDensity the probability of a tile to be a wall
+	 * @param seed the seed of the random generator */
+	static void generateTiles (Array<GridNode> nodes, int width, int height, float wallDensity, long seed) {
+		int offset = nodes.size;
+		Random random = new Random(seed);
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				nodes.add(new GridNode(x, y, random.nextFloat() < wallDensity, nodes.size, 4));
+			}
+		}
+
+		// Each node has up to 4 neighbors, therefore no diagonal movement is possible
+		for (int i = offset, n = nodes.size; i < n; i++) {
+			GridNode node = nodes.get(i);
+			if (node.wall) continue;
+			if (node.x > 0) addConnection(node, nodes.get(i - 1));
+			if (node.y > 0) addConnection(node, nodes.get(i - width));
+			if (node.x < width - 1) addConnection(node, nodes.get(i + 1));
+			if (node.y < height - 1) addConnection(node, nodes.get(i + width));
+		}
+	}
+
+	public GridNode getNode (int x, int y) {
+		return nodes.get(y * width + x);
+	}
+
+	/** Returns the given number of random floor tiles. */
+	public Array<GridNode> randomFloorNodes (int count, long seed) {
+		Random random = new Random(seed);
+		Array<GridNode> result = new Array<GridNode>(count);
+		while (result.size < count) {
+			GridNode n = getNode(random.nextInt(width), random.nextInt(height));
+			if (!n.wall) result.add(n);
+		}
+		return result;
+	}
+
+	private static void addConnection (GridNode n, GridNode target) {
+		if (!target.wall) n.getConnections().add(new DefaultConnection<GridNode>(n, target));
+	}
+
+	/** The Manhattan distance, an admissible heuristic for 4-connected unit-cost grids.
+	 * 
+	 * @author agent */
+	public static class ManhattanDistance implements Heuristic<GridNode> {
+		@Override
+		public float estimate (GridNode node, GridNode endNode) {
+			return Math.abs(endNode.x - node.x) + Math.abs(endNode.y - node.y);
+		}
+	}
+}
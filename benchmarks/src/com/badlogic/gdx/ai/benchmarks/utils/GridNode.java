@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.benchmarks.utils;
+
+import com.badlogic.gdx.ai.pfa.Connection;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedNode;
+import com.badlogic.gdx.utils.Array;
+
+/** A tile of a {@link GridGraph}.
+ * 
+ * @author agent */
+public class GridNode implements IndexedNode<GridNode> {
+
+	public final int x;
+	public final int y;
+	public final boolean wall;
+	private final int index;
+	private final Array<Connection<GridNode>> connections;
+
+	public GridNode (int x, int y, boolean wall, int index, int capacity) {
+		this.x = x;
+		this.y = y;
+		this.wall = wall;
+		this.index = index;
+		this.connections = new Array<Connection<GridNode>>(capacity);
+	}
+
+	@Override
+	public int getIndex () {
+		return index;
+	}
+
+	@Override
+	public Array<Connection<GridNode>> getConnections () {
+		return connections;
+	}
+
+	/** Returns the node of the next level of the hierarchy this node belongs to, if any. */
+	public GridNode getLowerLevelNode () {
+		return null;
+	}
+}
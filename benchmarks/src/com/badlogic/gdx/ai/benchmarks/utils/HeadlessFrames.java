@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.benchmarks.utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
+
+/** Installs a minimal headless {@link Graphics} into {@link Gdx#graphics} whose frame id and delta time are controlled by the
+ * benchmark. Some parts of the library, like the proximities, rely on the frame id to cache their results.
+ * 
+ * @author agent */
+public final class HeadlessFrames {
+
+	private static long frameId;
+	private static float deltaTime = 1f / 60f;
+
+	private HeadlessFrames () {
+	}
+
+	/** Installs the headless graphics, if not already done. */
+	public static synchronized void install () {
+		if (Gdx.graphics != null) return;
+		Gdx.graphics = (Graphics)Proxy.newProxyInstance(Graphics.class.getClassLoader(), new Class<?>[] {Graphics.class},
+			new InvocationHandler() {
+				@Override
+				public Object invoke (Object proxy, Method method, Object[] args) throws Throwable {
+					String name = method.getName();
+					if (name.equals("getFrameId")) return frameId;
+					if (name.equals("getDeltaTime") || name.equals("getRawDeltaTime")) return deltaTime;
+					Class<?> type = method.getReturnType();
+					if (type == boolean.class) return Boolean.FALSE;
+					if (type == int.class) return 0;
+					if (type == long.class) return 0L;
+					if (type == float.class) return 0f;
+					return null;
+				}
+			});
+	}
+
+	/** Advances the frame id. */
+	public static void nextFrame () {
+		frameId++;
+	}
+}
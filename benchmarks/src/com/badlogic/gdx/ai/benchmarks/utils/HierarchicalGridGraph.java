@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.benchmarks.utils;
+
+import java.util.Random;
+
+import com.badlogic.gdx.ai.pfa.DefaultConnection;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedHierarchicalGraph;
+import com.badlogic.gdx.utils.Array;
+
+/** A two-level hierarchical version of the {@link GridGraph}. Level 0 contains the tiles; level 1 contains one node per square
+ * cluster of tiles, connected to the adjacent clusters whenever at least one pair of floor tiles crosses their common border.
+ * 
+ * @author agent */
+public class HierarchicalGridGraph extends IndexedHierarchicalGraph<GridNode> {
+
+	public final int width;
+	public final int height;
+	public final int clusterSize;
+	public final int clustersX;
+	public final int clustersY;
+
+	/** Creates a {@code HierarchicalGridGraph} with the given size.
+	 * @param width the number of tiles along the x-axis; must be a multiple of the cluster size
+	 * @param height the number of tiles along the y-axis; must be a multiple of the cluster size
+	 * @param clusterSize the side of a cluster in tiles
+	 * @param wallDensity the probability of a tile to be a wall
+	 * @param seed the seed of the random generator */
+	public HierarchicalGridGraph (int width, int height, int clusterSize, float wallDensity, long seed) {
+		super(2, width * height + (width / clusterSize) * (height / clusterSize));
+		this.width = width;
+		this.height = height;
+		this.clusterSize = clusterSize;
+		this.clustersX = width / clusterSize;
+		this.clustersY = height / clusterSize;
+
+		// Create level 0
+		GridGraph.generateTiles(nodes, width, height, wallDensity, seed);
+
+		// Create level 1
+		for (int y = 0; y < clustersY; y++) {
+			for (int x = 0; x < clustersX; x++) {
+				final GridNode lowerLevelNode = findFloorTileClosestToCenter(x, y);
+				nodes.add(new GridNode(x, y, lowerLevelNode == null, nodes.size, 4) {
+					@Override
+					public GridNode getLowerLevelNode () {
+						return lowerLevelNode;
+					}
+				});
+			}
+		}
+		for (int y = 0; y < clustersY; y++) {
+			for (int x = 0; x < clustersX; x++) {
+				if (x < clustersX - 1 && isBorderOpen(x, y, 1, 0)) addBidirectionalConnection(getCluster(x, y), getCluster(x + 1, y));
+				if (y < clustersY - 1 && isBorderOpen(x, y, 0, 1)) addBidirectionalConnection(getCluster(x, y), getCluster(x, y + 1));
+			}
+		}
+	}
+
+	public GridNode getTile (int x, int y) {
+		return nodes.get(y * width + x);
+	}
+
+	public GridNode getCluster (int x, int y) {
+		return nodes.get(width * height + y * clustersX + x);
+	}
+
+	@Override
+	public GridNode convertNodeBetweenLevels (int inputLevel, GridNode node, int outputLevel) {
+		if (inputLevel < outputLevel) return getCluster(node.x / clusterSize, node.y / clusterSize);
+		if (inputLevel > outputLevel) return node.getLowerLevelNode();
+		return node;
+	}
+
+	/** Returns the given number of random floor tiles. */
+	public Array<GridNode> randomFloorTiles (int count, long seed) {
+		Random random = new Random(seed);
+		Array<GridNode> result = new Array<GridNode>(count);
+		while (result.size < count) {
+			GridNode n = getTile(random.nextInt(width), random.nextInt(height));
+			if (!n.wall) result.add(n);
+		}
+		return result;
+	}
+
+	private GridNode findFloorTileClosestToCenter (int clusterX, int clusterY) {
+		int x0 = clusterX * clusterSize, y0 = clusterY * clusterSize;
+		int cx = x0 + clusterSize / 2, cy = y0 + clusterSize / 2;
+		GridNode closest = null;
+		int closestDist = Integer.MAX_VALUE;
+		for (int y = y0; y < y0 + clusterSize; y++) {
+			for (int x = x0; x < x0 + clusterSize; x++) {
+				GridNode n = getTile(x, y);
+				int dist = Math.abs(x - cx) + Math.abs(y - cy);
+				if (!n.wall && dist < closestDist) {
+					closest = n;
+					closestDist = dist;
+				}
+			}
+		}
+		return closest;
+	}
+
+	private boolean isBorderOpen (int clusterX, int clusterY, int dx, int dy) {
+		for (int i = 0; i < clusterSize; i++) {
+			int x = dx != 0 ? (clusterX + 1) * clusterSize - 1 : clusterX * clusterSize + i;
+			int y = dy != 0 ? (clusterY + 1) * clusterSize - 1 : clusterY * clusterSize + i;
+			if (!getTile(x, y).wall && !getTile(x + dx, y + dy).wall) return true;
+		}
+		return false;
+	}
+
+	private static void addBidirectionalConnection (GridNode a, GridNode b) {
+		if (a.wall || b.wall) return;
+		a.getConnections().add(new DefaultConnection<GridNode>(a, b));
+		b.getConnections().add(new DefaultConnection<GridNode>(b, a));
+	}
+}
@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.benchmarks.utils;
+
+import java.util.Random;
+
+import com.badlogic.gdx.ai.pfa.Connection;
+import com.badlogic.gdx.ai.pfa.Heuristic;
+import com.badlogic.gdx.ai.pfa.grid.BitmapGridGraph;
+import com.badlogic.gdx.ai.pfa.grid.GridNode;
+import com.badlogic.gdx.utils.Array;
+
+/** A randomly generated 8-connected tiled graph backed by a walkability bitmap.
+ * 
+ * @author agent */
+public class TileGridGraph extends BitmapGridGraph<TileGridGraph.Tile> {
+
+	/** Creates a {@code TileGridGraph} with the given size.
+	 * @param width the number of tiles along the x-axis
+	 * @param height the number of tiles along the y-axis
+	 * @param wallDensity the probability of a tile to be a wall
+	 * @param seed the seed of the random generator, so that the same graph can be generated on each fork */
+	public TileGridGraph (int width, int height, float wallDensity, long seed) {
+		super(width, height);
+		Random random = new Random(seed);
+		boolean[][] walkable = new boolean[width][height];
+		for (int y = 0; y < height; y++)
+			for (int x = 0; x < width; x++)
+				walkable[x][y] = random.nextFloat() >= wallDensity;
+		setWalkable(walkable);
+	}
+
+	@Override
+	protected Tile createNode (int x, int y, int index) {
+		return new Tile(x, y, index);
+	}
+
+	/** Returns the given number of random floor tiles. */
+	public Array<Tile> randomFloorNodes (int count, long seed) {
+		Random random = new Random(seed);
+		Array<Tile> result = new Array<Tile>(count);
+		while (result.size < count) {
+			int x = random.nextInt(width);
+			int y = random.nextInt(height);
+			if (isWalkable(x, y)) result.add(getNode(x, y));
+		}
+		return result;
+	}
+
+	/** A tile of a {@link TileGridGraph}.
+	 * 
+	 * @author agent */
+	public static class Tile implements GridNode<Tile> {
+		private final int x;
+		private final int y;
+		private final int index;
+		private final Array<Connection<Tile>> connections;
+
+		public Tile (int x, int y, int index) {
+			this.x = x;
+			this.y = y;
+			this.index = index;
+			this.connections = new Array<Connection<Tile>>(8);
+		}
+
+		@Override
+		public int getX () {
+			return x;
+		}
+
+		@Override
+		public int getY () {
+			return y;
+		}
+
+		@Override
+		public int getIndex () {
+			return index;
+		}
+
+		@Override
+		public Array<Connection<Tile>> getConnections () {
+			return connections;
+		}
+	}
+
+	/** The octile distance, an admissible heuristic for 8-connected grids.
+	 * 
+	 * @author agent */
+	public static class OctileDistance implements Heuristic<Tile> {
+		@Override
+		public float estimate (Tile node, Tile endNode) {
+			int dx = Math.abs(endNode.x - node.x);
+			int dy = Math.abs(endNode.y - node.y);
+			return Math.max(dx, dy) + 0.41421356f * Math.min(dx, dy);
+		}
+	}
+}
@@ -16,19 +16,54 @@
 
 package com.badlogic.gdx.ai.btree;
 
+import com.badlogic.gdx.ai.msg.Telegram;
+import com.badlogic.gdx.ai.msg.Telegraph;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.TimeUtils;
 
 /** The behavior tree itself.
+ * <p>
+ * By default each {@link #step()} runs the tree from the root down to the running leaves. When the tree is
+ * {@link #setEventDriven(boolean) event-driven}, leaves can suspend themselves until a wake condition fires instead of polling, see
+ * {@link LeafTask#suspendFor(float)}, {@link LeafTask#suspendUntilMessage(int)} and {@link LeafTask#suspendUntilBlackboardChanged()}.
+ * As soon as a step ends with all the running leaves suspended, the tree becomes {@link #isSuspended() suspended} and the next
+ * steps do nothing, in constant time, until one of the wake conditions fires:
+ * <ul>
+ * <li>the earliest timeout elapses, which is checked by {@code step};</li>
+ * <li>an awaited telegram is {@link #handleMessage(Telegram) received}, so the tree must be registered as a listener for those
+ * message codes or be the receiver of the telegrams;</li>
+ * <li>the blackboard {@link #notifyBlackboardChanged() changes}, if awaited;</li>
+ * <li>the tree is explicitly {@link #wakeUp() woken up}.</li>
+ * </ul>
+ * Then the tree runs again normally, and each leaf either ends or suspends itself again. The skipped steps are the ones where the
+ * suspended leaves would have just reported running, so the only observable difference is that the listeners are not notified of
+ * those steps.
  * 
  * @param <E> type of the blackboard object that tasks use to read or modify game state
  * 
  * @author implicit-invocation
  * @author davebaol */
-public class BehaviorTree<E> extends Task<E> {
+public class BehaviorTree<E> extends Task<E> implements Telegraph {
 
 	private Task<E> rootTask;
 	private E object;
 
+	private boolean eventDriven;
+	private boolean suspended;
+
+	/** The leaves that have suspended themselves on the current step, or the last one if the tree is suspended. */
+	private Array<Task<E>> suspendedLeaves;
+
+	/** The earliest time in nanoseconds when a suspended leaf needs to run again, or {@code Long.MAX_VALUE} if none. */
+	private long wakeTime;
+	private boolean wakeOnBlackboardChange;
+	private IntArray awaitedMessages;
+
+	/** The awaited telegrams received before the current step and the ones received since. */
+	private IntArray receivedMessages;
+	private IntArray pendingMessages;
+
 	/** Creates a {@code BehaviorTree} with no root task and no blackboard object. Both the root task and the blackboard object must
 	 * be set before running this behavior tree, see {@link #addChild(Task) addChild()} and {@link #setObject(Object) setObject()}
 	 * respectively. */
@@ -68,6 +103,7 @@ public class BehaviorTree<E> extends Task<E> {
 	 * @param object the new blackboard */
 	public void setObject (E object) {
 		this.object = object;
+		notifyBlackboardChanged();
 	}
 
 	/** This method will add a child, namely the root, to this behavior tree.
@@ -108,11 +144,155 @@ public class BehaviorTree<E> extends Task<E> {
 	/** This method should be called when game entity needs to make decisions: call this in game loop or after a fixed time slice if
 	 * the game is real-time, or on entity's turn if the game is turn-based */
 	public void step () {
+		if (eventDriven) {
+			if (suspended && !wakeUpIfDue()) return;
+			beginStep();
+		}
 		if (rootTask.status != Status.RUNNING) {
 			rootTask.setControl(this);
 			rootTask.start();
 		}
 		rootTask.run();
+		if (eventDriven) endStep();
+	}
+
+	/** Returns {@code true} if this tree is event-driven; {@code false} otherwise. */
+	public boolean isEventDriven () {
+		return eventDriven;
+	}
+
+	/** Sets whether this tree is event-driven, i.e. whether leaves can suspend it. Disabling it wakes the tree up.
+	 * @param eventDriven whether this tree is event-driven */
+	public void setEventDriven (boolean eventDriven) {
+		if (eventDriven && suspendedLeaves == null) {
+			suspendedLeaves = new Array<Task<E>>(false, 4);
+			awaitedMessages = new IntArray(false, 4);
+			receivedMessages = new IntArray(false, 4);
+			pendingMessages = new IntArray(false, 4);
+			clearSuspension();
+		}
+		if (!eventDriven) suspended = false;
+		this.eventDriven = eventDriven;
+	}
+
+	/** Returns {@code true} if this tree is suspended, meaning that its steps do nothing until one of the wake conditions of its
+	 * leaves fires; {@code false} otherwise. */
+	public boolean isSuspended () {
+		return suspended;
+	}
+
+	/** Wakes this tree up, so that the next step runs it even if no wake condition has fired. */
+	public void wakeUp () {
+		suspended = false;
+	}
+
+	/** Informs this tree that its blackboard has changed, waking it up if a suspended leaf is waiting for that. This method is
+	 * called by {@link #setObject(Object)}, while the game must call it when the state of the blackboard changes. */
+	public void notifyBlackboardChanged () {
+		if (suspended && wakeOnBlackboardChange) suspended = false;
+	}
+
+	/** Receives a telegram, waking this tree up if a suspended leaf is waiting for its message code. This tree can be registered as
+	 * a listener of the awaited message codes or be the receiver of the telegrams.
+	 * @param msg the telegram
+	 * @return {@code true} if this tree is event-driven; {@code false} otherwise */
+	@Override
+	public boolean handleMessage (Telegram msg) {
+		if (!eventDriven) return false;
+		if (suspended) {
+			// Keep only the awaited telegrams while suspended
+			if (!awaitedMessages.contains(msg.message)) return true;
+			suspended = false;
+		}
+		pendingMessages.add(msg.message);
+		return true;
+	}
+
+	/** Returns {@code true} if this event-driven tree has received a telegram with the given message code between the previous step
+	 * and the current one; {@code false} otherwise. While the tree is suspended only the awaited telegrams are taken into account.
+	 * @param msg the message code */
+	public boolean hasReceivedMessage (int msg) {
+		return receivedMessages != null && receivedMessages.contains(msg);
+	}
+
+	void suspend (Task<E> leaf, long wakeTime) {
+		if (!eventDriven) return;
+		suspendedLeaves.add(leaf);
+		if (wakeTime < this.wakeTime) this.wakeTime = wakeTime;
+	}
+
+	void suspendUntilMessage (Task<E> leaf, int msg, long wakeTime) {
+		if (!eventDriven) return;
+		suspend(leaf, wakeTime);
+		awaitedMessages.add(msg);
+	}
+
+	void suspendUntilBlackboardChanged (Task<E> leaf) {
+		if (!eventDriven) return;
+		suspend(leaf, Long.MAX_VALUE);
+		wakeOnBlackboardChange = true;
+	}
+
+	/** Wakes this suspended tree up if the earliest timeout has elapsed.
+	 * @return {@code true} if this tree has been woken up; {@code false} otherwise */
+	boolean wakeUpIfDue () {
+		if (wakeTime == Long.MAX_VALUE || TimeUtils.nanoTime() < wakeTime) return false;
+		suspended = false;
+		return true;
+	}
+
+	/** Clears the wake conditions before running an event-driven tree, since each suspended leaf sets them again. */
+	void beginStep () {
+		clearSuspension();
+		IntArray received = receivedMessages;
+		receivedMessages = pendingMessages;
+		pendingMessages = received;
+		pendingMessages.clear();
+	}
+
+	/** Suspends this event-driven tree if all the running leaves have suspended themselves and no awaited telegram has been
+	 * received in the meantime. */
+	void endStep () {
+		if (suspendedLeaves.size == 0) return;
+		for (int i = 0; i < pendingMessages.size; i++)
+			if (awaitedMessages.contains(pendingMessages.get(i))) return;
+		suspended = areRunningLeavesSuspended();
+	}
+
+	void clearSuspension () {
+		suspended = false;
+		if (suspendedLeaves == null) return;
+		suspendedLeaves.clear();
+		wakeTime = Long.MAX_VALUE;
+		wakeOnBlackboardChange = false;
+		awaitedMessages.clear();
+	}
+
+	/** Returns {@code true} if the root task is running and all the running leaves have suspended themselves on this step;
+	 * {@code false} otherwise. */
+	boolean areRunningLeavesSuspended () {
+		return rootTask.status == Status.RUNNING && areRunningLeavesSuspended(rootTask);
+	}
+
+	boolean areRunningLeavesSuspended (Task<E> task) {
+		int n = task.getChildCount();
+		if (n == 0) return suspendedLeaves.contains(task, true);
+		boolean running = false;
+		for (int i = 0; i < n; i++) {
+			Task<E> child = task.getChild(i);
+			if (child.status == Status.RUNNING) {
+				if (!areRunningLeavesSuspended(child)) return false;
+				running = true;
+			}
+		}
+		// A running task without running children is running on its own
+		return running;
+	}
+
+	@Override
+	public void reset () {
+		super.reset();
+		clearSuspension();
 	}
 
 	@Override
@@ -123,6 +303,7 @@ public class BehaviorTree<E> extends Task<E> {
 	protected Task<E> copyTo (Task<E> task) {
 		BehaviorTree<E> tree = (BehaviorTree<E>)task;
 		tree.rootTask = rootTask.cloneTask();
+		tree.setEventDriven(eventDriven);
 
 		return task;
 	}
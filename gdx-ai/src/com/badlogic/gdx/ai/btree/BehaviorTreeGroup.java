@@ -0,0 +1,423 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.btree;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.badlogic.gdx.ai.btree.annotation.ParallelSafeTask;
+import com.badlogic.gdx.ai.btree.branch.Parallel;
+import com.badlogic.gdx.ai.btree.branch.Selector;
+import com.badlogic.gdx.ai.btree.branch.Sequence;
+import com.badlogic.gdx.ai.btree.decorator.AlwaysFail;
+import com.badlogic.gdx.ai.btree.decorator.AlwaysSucceed;
+import com.badlogic.gdx.ai.btree.decorator.Invert;
+import com.badlogic.gdx.ai.btree.decorator.Repeat;
+import com.badlogic.gdx.ai.btree.decorator.UntilFail;
+import com.badlogic.gdx.ai.btree.decorator.UntilSuccess;
+import com.badlogic.gdx.ai.btree.leaf.Failure;
+import com.badlogic.gdx.ai.btree.leaf.Success;
+import com.badlogic.gdx.ai.btree.leaf.Wait;
+import com.badlogic.gdx.ai.msg.MessageDispatcher;
+import com.badlogic.gdx.ai.msg.Telegraph;
+import com.badlogic.gdx.ai.utils.random.ConstantFloatDistribution;
+import com.badlogic.gdx.ai.utils.random.ConstantIntegerDistribution;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.BooleanArray;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongArray;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.badlogic.gdx.utils.reflect.ClassReflection;
+
+/** A {@code BehaviorTreeGroup} owns a set of independent behavior trees and steps all of them at once, running the trees that are
+ * safe to run on any thread in parallel chunks on a {@link ForkJoinPool}. Each tree is stepped through its usual
+ * {@link BehaviorTree#step()} method.
+ * <p>
+ * A tree is stepped in parallel when it's {@link #isParallelSafe(BehaviorTree) parallel safe}, which is decided once when the
+ * tree is added to the group. The built-in tasks that don't use shared state are parallel safe; user tasks opt in through the
+ * {@link ParallelSafeTask} annotation, which can also be applied to a subclass of {@code BehaviorTree} to declare the whole tree
+ * safe. All the other trees are stepped on the thread calling {@link #step()}.
+ * <p>
+ * Each call to {@code step} goes through the following phases:
+ * <ol>
+ * <li>the parallel trees are stepped in chunks on the pool, while the calling thread waits, unless they fit a single chunk, which is
+ * stepped by the calling thread;</li>
+ * <li>the telegrams dispatched by the parallel trees through a {@link GroupMessageDispatcher} are dispatched on the calling
+ * thread, in the order of the trees in the group and then in the order they have been dispatched by each tree;</li>
+ * <li>the other trees are stepped in order on the calling thread, dispatching their telegrams immediately as usual.</li>
+ * </ol>
+ * This way the side effects on the dispatchers are the same no matter how many threads the pool has and how the chunks are
+ * scheduled. Keep in mind that the {@link BehaviorTree.Listener listeners} of parallel trees are notified on the threads of the
+ * pool.
+ * <p>
+ * The time it took to step each tree on the last frame is available through {@link #getStepTime(int)}, which helps finding the
+ * most expensive agents.
+ * <p>
+ * Remember to call {@link #dispose()} to shut down the pool created by the group when it's no longer needed.
+ * <p>
+ * This class is not available on GWT.
+ * 
+ * @param <E> type of the blackboard object that tasks use to read or modify game state
+ * 
+ * @author agent */
+public class BehaviorTreeGroup<E> implements Disposable {
+
+	/** The default number of trees stepped by each chunk. */
+	public static final int DEFAULT_CHUNK_SIZE = 64;
+
+	/** The chunk stepped by the current thread, used by {@link GroupMessageDispatcher} to defer telegrams. */
+	static final ThreadLocal<Chunk> CURRENT_CHUNK = new ThreadLocal<Chunk>();
+
+	private final Array<BehaviorTree<E>> trees;
+	private final BooleanArray parallel;
+	private final LongArray stepTimes;
+
+	/** The indices of the trees stepped in parallel and of the other trees, rebuilt when the group changes. */
+	private final IntArray parallelTrees;
+	private final IntArray sequentialTrees;
+
+	private Chunk[] chunks;
+	private final StepAction stepAction;
+	private boolean dirty;
+
+	private final ForkJoinPool pool;
+	private final boolean ownsPool;
+	private final int chunkSize;
+
+	/** Creates a {@code BehaviorTreeGroup} with a new pool using all the available processors and the default chunk size. */
+	public BehaviorTreeGroup () {
+		this(new ForkJoinPool(), true, DEFAULT_CHUNK_SIZE);
+	}
+
+	/** Creates a {@code BehaviorTreeGroup} using the given pool and chunk size. The pool is not shut down by {@link #dispose()}.
+	 * @param pool the pool stepping the parallel trees
+	 * @param chunkSize the number of trees stepped by each task submitted to the pool */
+	public BehaviorTreeGroup (ForkJoinPool pool, int chunkSize) {
+		this(pool, false, chunkSize);
+	}
+
+	private BehaviorTreeGroup (ForkJoinPool pool, boolean ownsPool, int chunkSize) {
+		if (pool == null) throw new IllegalArgumentException("pool cannot be null");
+		if (chunkSize < 1) throw new IllegalArgumentException("chunkSize must be at least 1");
+		this.trees = new Array<BehaviorTree<E>>();
+		this.parallel = new BooleanArray();
+		this.stepTimes = new LongArray();
+		this.parallelTrees = new IntArray();
+		this.sequentialTrees = new IntArray();
+		this.chunks = new Chunk[0];
+		this.stepAction = new StepAction();
+		this.pool = pool;
+		this.ownsPool = ownsPool;
+		this.chunkSize = chunkSize;
+	}
+
+	/** Returns the pool stepping the parallel trees. */
+	public ForkJoinPool getPool () {
+		return pool;
+	}
+
+	/** Returns the number of trees stepped by each task submitted to the pool. */
+	public int getChunkSize () {
+		return chunkSize;
+	}
+
+	/** Adds the given tree to this group. Whether the tree is stepped in parallel is decided now, so the structure of the tree must
+	 * not change afterwards.
+	 * @param tree the tree to add
+	 * @return the index of the tree in this group */
+	public int add (BehaviorTree<E> tree) {
+		trees.add(tree);
+		parallel.add(isParallelSafe(tree));
+		stepTimes.add(0);
+		dirty = true;
+		return trees.size - 1;
+	}
+
+	/** Removes the given tree from this group. The index of the following trees is decreased by one.
+	 * @param tree the tree to remove
+	 * @return {@code true} if the tree was in this group; {@code false} otherwise */
+	public boolean remove (BehaviorTree<E> tree) {
+		int index = trees.indexOf(tree, true);
+		if (index < 0) return false;
+		trees.removeIndex(index);
+		parallel.removeIndex(index);
+		stepTimes.removeIndex(index);
+		dirty = true;
+		return true;
+	}
+
+	/** Removes all the trees from this group. */
+	public void clear () {
+		trees.clear();
+		parallel.clear();
+		stepTimes.clear();
+		dirty = true;
+	}
+
+	/** Returns the number of trees in this group. */
+	public int size () {
+		return trees.size;
+	}
+
+	/** Returns the tree at the given index. */
+	public BehaviorTree<E> get (int index) {
+		return trees.get(index);
+	}
+
+	/** Returns {@code true} if the tree at the given index is stepped in parallel; {@code false} otherwise. */
+	public boolean isParallel (int index) {
+		return parallel.get(index);
+	}
+
+	/** Returns the time in nanoseconds it took to step the tree at the given index on the last call to {@link #step()}, or 0 if
+	 * the tree has never been stepped. */
+	public long getStepTime (int index) {
+		return stepTimes.get(index);
+	}
+
+	/** Steps all the trees of this group, as explained in the {@link BehaviorTreeGroup class documentation}. This method must be
+	 * called once per frame, always by the same thread, and never by a thread of the pool.
+	 * @throws RuntimeException if a tree has thrown an exception on the pool; the telegrams deferred on the current frame are
+	 *            discarded and the other trees are not stepped */
+	public void step () {
+		if (dirty) rebuild();
+
+		// Step the parallel trees
+		Chunk[] chunks = this.chunks;
+		if (chunks.length == 1) {
+			// Not worth a trip to the pool
+			chunks[0].compute();
+		} else if (chunks.length > 1) {
+			for (int i = 0; i < chunks.length; i++)
+				chunks[i].reinitialize();
+			stepAction.reinitialize();
+			pool.invoke(stepAction);
+		}
+
+		// Dispatch the deferred telegrams in tree order
+		for (int i = 0; i < chunks.length; i++)
+			chunks[i].dispatchDeferredMessages();
+
+		// Step the other trees
+		int[] indices = sequentialTrees.items;
+		for (int i = 0, n = sequentialTrees.size; i < n; i++)
+			stepTree(indices[i]);
+	}
+
+	void stepTree (int index) {
+		long startTime = TimeUtils.nanoTime();
+		trees.get(index).step();
+		stepTimes.set(index, TimeUtils.nanoTime() - startTime);
+	}
+
+	private void rebuild () {
+		parallelTrees.clear();
+		sequentialTrees.clear();
+		for (int i = 0; i < trees.size; i++)
+			(parallel.get(i) ? parallelTrees : sequentialTrees).add(i);
+		int chunkCount = (parallelTrees.size + chunkSize - 1) / chunkSize;
+		if (chunks.length != chunkCount) {
+			Chunk[] newChunks = new Chunk[chunkCount];
+			for (int i = 0; i < chunkCount; i++)
+				newChunks[i] = i < chunks.length ? chunks[i] : new Chunk(this);
+			chunks = newChunks;
+			stepAction.chunks = newChunks;
+		}
+		for (int i = 0; i < chunkCount; i++) {
+			chunks[i].from = i * chunkSize;
+			chunks[i].to = Math.min(parallelTrees.size, (i + 1) * chunkSize);
+		}
+		dirty = false;
+	}
+
+	/** Shuts down the pool if it has been created by this group. */
+	@Override
+	public void dispose () {
+		if (ownsPool) pool.shutdown();
+	}
+
+	/** Returns {@code true} if the given tree can be stepped on any thread; {@code false} otherwise. A tree is parallel safe when:
+	 * <ul>
+	 * <li>its class is annotated with {@link ParallelSafeTask}, or</li>
+	 * <li>it's a plain {@link BehaviorTree} and all of its tasks are parallel safe, or</li>
+	 * <li>it's a {@link FlyweightBehaviorTree} without listeners whose archetype shares no leaves and all of the tasks of its
+	 * archetype are parallel safe.</li>
+	 * </ul>
+	 * A task is parallel safe when its class is annotated with {@link ParallelSafeTask} or when it's one of the built-in branches,
+	 * decorators and leaves that use no shared state, i.e. deterministic {@link Sequence} and {@link Selector}, {@link Parallel},
+	 * {@link AlwaysFail}, {@link AlwaysSucceed}, {@link Invert}, {@link UntilFail}, {@link UntilSuccess}, {@link Success},
+	 * {@link Failure}, and {@link Repeat} and {@link Wait} with a constant distribution.
+	 * @param tree the tree to check */
+	public static boolean isParallelSafe (BehaviorTree<?> tree) {
+		if (ClassReflection.getDeclaredAnnotation(tree.getClass(), ParallelSafeTask.class) != null) return true;
+		if (tree.getClass() == FlyweightBehaviorTree.class) {
+			// Shared leaves and the archetype tasks notified to the listeners are written by each instance
+			if (tree.listeners != null && tree.listeners.size > 0) return false;
+			FlyweightArchetype<?> archetype = ((FlyweightBehaviorTree<?>)tree).getArchetype();
+			for (int i = 0; i < archetype.tasks.length; i++) {
+				int instruction = archetype.code[i << 1];
+				if ((instruction & 0xFF) == FlyweightArchetype.LEAF) {
+					if (instruction >>> 8 == 0 || !isParallelSafeSubtree(archetype.tasks[i])) return false;
+				} else if (!isParallelSafeTask(archetype.tasks[i])) return false;
+			}
+			return true;
+		}
+		return tree.getClass() == BehaviorTree.class && (tree.getChildCount() == 0 || isParallelSafeSubtree(tree.getChild(0)));
+	}
+
+	private static boolean isParallelSafeSubtree (Task<?> task) {
+		if (!isParallelSafeTask(task)) return false;
+		for (int i = 0, n = task.getChildCount(); i < n; i++)
+			if (!isParallelSafeSubtree(task.getChild(i))) return false;
+		return true;
+	}
+
+	@SuppressWarnings("rawtypes")
+	private static boolean isParallelSafeTask (Task<?> task) {
+		// Exact classes only, since subclasses can change the behavior
+		Class<? extends Task> type = task.getClass();
+		if (type == Sequence.class || type == Selector.class) return ((SingleRunningChildBranch)task).deterministic;
+		if (type == Repeat.class) return ((Repeat)task).times instanceof ConstantIntegerDistribution;
+		if (type == Wait.class) return ((Wait)task).seconds instanceof ConstantFloatDistribution;
+		if (type == Parallel.class || type == AlwaysFail.class || type == AlwaysSucceed.class || type == Invert.class
+			|| type == UntilFail.class || type == UntilSuccess.class || type == Success.class || type == Failure.class) return true;
+		return ClassReflection.getDeclaredAnnotation(type, ParallelSafeTask.class) != null;
+	}
+
+	/** The task of the pool stepping all the chunks.
+	 * 
+	 * @author agent */
+	static class StepAction extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		Chunk[] chunks;
+
+		@Override
+		protected void compute () {
+			invokeAll(chunks);
+		}
+	}
+
+	/** A range of parallel trees stepped by a single task of the pool, with the telegrams they have dispatched.
+	 * 
+	 * @author agent */
+	static class Chunk extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		final BehaviorTreeGroup<?> group;
+		int from;
+		int to;
+
+		final Array<DeferredMessage> messages = new Array<DeferredMessage>();
+		int messageCount;
+
+		Chunk (BehaviorTreeGroup<?> group) {
+			this.group = group;
+		}
+
+		@Override
+		protected void compute () {
+			messageCount = 0;
+			int[] indices = group.parallelTrees.items;
+			CURRENT_CHUNK.set(this);
+			try {
+				for (int i = from; i < to; i++)
+					group.stepTree(indices[i]);
+			} finally {
+				CURRENT_CHUNK.set(null);
+			}
+		}
+
+		void defer (GroupMessageDispatcher dispatcher, float delay, Telegraph sender, Telegraph receiver, int msg,
+			Object extraInfo) {
+			if (messageCount == messages.size) messages.add(new DeferredMessage());
+			DeferredMessage message = messages.get(messageCount++);
+			message.dispatcher = dispatcher;
+			message.delay = delay;
+			message.sender = sender;
+			message.receiver = receiver;
+			message.message = msg;
+			message.extraInfo = extraInfo;
+		}
+
+		void dispatchDeferredMessages () {
+			for (int i = 0, n = messageCount; i < n; i++) {
+				DeferredMessage message = messages.get(i);
+				GroupMessageDispatcher dispatcher = message.dispatcher;
+				Telegraph sender = message.sender;
+				Telegraph receiver = message.receiver;
+				Object extraInfo = message.extraInfo;
+				// Release the references before dispatching
+				message.dispatcher = null;
+				message.sender = null;
+				message.receiver = null;
+				message.extraInfo = null;
+				dispatcher.dispatchNow(message.delay, sender, receiver, message.message, extraInfo);
+			}
+			messageCount = 0;
+		}
+	}
+
+	/** A telegram dispatched by a parallel tree and not dispatched yet.
+	 * 
+	 * @author agent */
+	static class DeferredMessage {
+		GroupMessageDispatcher dispatcher;
+		float delay;
+		Telegraph sender;
+		Telegraph receiver;
+		int message;
+		Object extraInfo;
+	}
+
+	/** A {@code GroupMessageDispatcher} is a {@link MessageDispatcher} that can be used by the trees stepped in parallel by a
+	 * {@link BehaviorTreeGroup}. When {@code dispatchMessage} is called while stepping a parallel tree, the telegram is deferred
+	 * and dispatched by the thread calling {@link BehaviorTreeGroup#step()} in a deterministic order, as explained in the
+	 * {@link BehaviorTreeGroup class documentation}. The delay of a deferred telegram starts when it's actually dispatched. In any
+	 * other case the telegram is dispatched as usual.
+	 * <p>
+	 * All the other methods, including {@link #update(float) update}, must be called by a single thread as usual.
+	 * 
+	 * @author agent */
+	public static class GroupMessageDispatcher extends MessageDispatcher {
+
+		/** Creates a {@code GroupMessageDispatcher}. */
+		public GroupMessageDispatcher () {
+		}
+
+		/** Defers the telegram if called while stepping a parallel tree; otherwise dispatches it as usual.
+		 * @param delay the delay in seconds
+		 * @param sender the sender of the telegram
+		 * @param receiver the receiver of the telegram; if it's {@code null} the telegram is broadcasted to all the receivers
+		 *           registered for the specified message code
+		 * @param msg the message code
+		 * @param extraInfo an optional object */
+		@Override
+		public void dispatchMessage (float delay, Telegraph sender, Telegraph receiver, int msg, Object extraInfo) {
+			Chunk chunk = CURRENT_CHUNK.get();
+			if (chunk != null)
+				chunk.defer(this, delay, sender, receiver, msg, extraInfo);
+			else
+				super.dispatchMessage(delay, sender, receiver, msg, extraInfo);
+		}
+
+		void dispatchNow (float delay, Telegraph sender, Telegraph receiver, int msg, Object extraInfo) {
+			super.dispatchMessage(delay, sender, receiver, msg, extraInfo);
+		}
+	}
+}
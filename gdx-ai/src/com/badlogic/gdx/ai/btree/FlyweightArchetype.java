@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.btree;
+
+import com.badlogic.gdx.ai.btree.annotation.StatelessTask;
+import com.badlogic.gdx.ai.btree.branch.Parallel;
+import com.badlogic.gdx.ai.btree.branch.Selector;
+import com.badlogic.gdx.ai.btree.branch.Sequence;
+import com.badlogic.gdx.ai.btree.decorator.AlwaysFail;
+import com.badlogic.gdx.ai.btree.decorator.AlwaysSucceed;
+import com.badlogic.gdx.ai.btree.decorator.Include;
+import com.badlogic.gdx.ai.btree.decorator.Invert;
+import com.badlogic.gdx.ai.btree.decorator.Random;
+import com.badlogic.gdx.ai.btree.decorator.Repeat;
+import com.badlogic.gdx.ai.btree.decorator.SemaphoreGuard;
+import com.badlogic.gdx.ai.btree.decorator.UntilFail;
+import com.badlogic.gdx.ai.btree.decorator.UntilSuccess;
+import com.badlogic.gdx.ai.btree.utils.BehaviorTreeLibraryManager;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.reflect.ClassReflection;
+
+/** A {@code FlyweightArchetype} is the immutable structure of a behavior tree shared by all the {@link FlyweightBehaviorTree}
+ * instances created from it. Creating the archetype compiles the tree into a linear program, where each task becomes an
+ * instruction identified by its index in depth-first order, the root being instruction 0. Each instruction is made of two ints:
+ * <ul>
+ * <li>the opcode, in the low 8 bits, and the slot of the per-instance state used by the instruction plus 1, in the high bits, 0
+ * meaning no slot;</li>
+ * <li>the index of the first instruction after the subtree of the task, which is both the jump offset used to skip the subtree and
+ * the index of the next sibling. The first child of a branch or decorator is always the next instruction.</li>
+ * </ul>
+ * The built-in branches and decorators are interpreted by the flyweight trees, so they are never cloned. Leaf tasks annotated with
+ * {@link StatelessTask} are shared too, while other leaf tasks are cloned by each instance the first time they start. Tasks of any
+ * other type, like custom branches and decorators or non-deterministic branches, are treated as leaves and their whole subtree is
+ * cloned by each instance the first time it starts. {@link Include} decorators are grafted when the archetype is created, no matter
+ * whether they are lazy or not.
+ * <p>
+ * The archetype tasks must not be modified or run once the archetype has been created.
+ * 
+ * @param <E> type of the blackboard object that tasks use to read or modify game state
+ * 
+ * @author agent */
+public class FlyweightArchetype<E> {
+
+	static final int LEAF = 0;
+	static final int SEQUENCE = 1;
+	static final int SELECTOR = 2;
+	static final int PARALLEL_SEQUENCE = 3;
+	static final int PARALLEL_SELECTOR = 4;
+	static final int ALWAYS_FAIL = 5;
+	static final int ALWAYS_SUCCEED = 6;
+	static final int INVERT = 7;
+	static final int RANDOM = 8;
+	static final int SEMAPHORE_GUARD = 9;
+	static final int UNTIL_FAIL = 10;
+	static final int UNTIL_SUCCESS = 11;
+	static final int REPEAT = 12;
+
+	/** The archetype task of each instruction. */
+	final Task<E>[] tasks;
+
+	/** The program, two ints per instruction. */
+	final int[] code;
+
+	/** The number of per-instance data slots used by branches and decorators. */
+	final int dataCount;
+
+	/** The number of per-instance clone slots used by leaves. */
+	final int cloneCount;
+
+	/** Creates a {@code FlyweightArchetype} compiling the given root task.
+	 * @param rootTask the root task of the archetype tree */
+	@SuppressWarnings("unchecked")
+	public FlyweightArchetype (Task<E> rootTask) {
+		Compiler<E> compiler = new Compiler<E>();
+		compiler.compile(rootTask);
+		this.tasks = compiler.tasks.toArray(Task.class);
+		this.code = compiler.code.toArray();
+		this.dataCount = compiler.dataCount;
+		this.cloneCount = compiler.cloneCount;
+	}
+
+	/** Returns the number of nodes, i.e. instructions, of this archetype. */
+	public int getNodeCount () {
+		return tasks.length;
+	}
+
+	/** Returns the archetype task of the given node. */
+	public Task<E> getTask (int node) {
+		return tasks[node];
+	}
+
+	/** Returns the node of the given archetype task, or -1 if the task doesn't belong to this archetype. */
+	public int getNode (Task<E> task) {
+		for (int i = 0; i < tasks.length; i++)
+			if (tasks[i] == task) return i;
+		return -1;
+	}
+
+	/** Returns the number of leaves, or subtrees treated as leaves, that each instance clones. */
+	public int getCloneCount () {
+		return cloneCount;
+	}
+
+	/** Creates a new {@link FlyweightBehaviorTree} sharing this archetype.
+	 * @param blackboard the blackboard object (it can be {@code null}). */
+	public FlyweightBehaviorTree<E> createBehaviorTree (E blackboard) {
+		return new FlyweightBehaviorTree<E>(this, blackboard);
+	}
+
+	@SuppressWarnings("rawtypes")
+	static int opcodeOf (Task<?> task) {
+		// Exact classes only, since subclasses can change the behavior
+		Class<? extends Task> type = task.getClass();
+		if (type == Sequence.class) return ((Sequence)task).deterministic ? SEQUENCE : LEAF;
+		if (type == Selector.class) return ((Selector)task).deterministic ? SELECTOR : LEAF;
+		if (type == Parallel.class) return ((Parallel)task).policy == Parallel.Policy.Selector ? PARALLEL_SELECTOR : PARALLEL_SEQUENCE;
+		if (type == AlwaysFail.class) return ALWAYS_FAIL;
+		if (type == AlwaysSucceed.class) return ALWAYS_SUCCEED;
+		if (type == Invert.class) return INVERT;
+		if (type == Random.class) return RANDOM;
+		if (type == SemaphoreGuard.class) return SEMAPHORE_GUARD;
+		if (type == UntilFail.class) return UNTIL_FAIL;
+		if (type == UntilSuccess.class) return UNTIL_SUCCESS;
+		if (type == Repeat.class) return REPEAT;
+		return LEAF;
+	}
+
+	/** Compiles a tree in depth-first order. */
+	static class Compiler<E> {
+		final Array<Task<E>> tasks = new Array<Task<E>>();
+		final IntArray code = new IntArray();
+		int dataCount;
+		int cloneCount;
+
+		@SuppressWarnings("unchecked")
+		void compile (Task<E> task) {
+			// Graft included subtrees
+			while (task.getClass() == Include.class)
+				task = BehaviorTreeLibraryManager.getInstance().createRootTask(((Include<E>)task).subtree);
+
+			int pc = tasks.size;
+			int opcode = opcodeOf(task);
+			int slot = -1;
+			if (opcode == LEAF) {
+				if (!isShared(task)) slot = cloneCount++;
+			} else if (opcode != PARALLEL_SEQUENCE && opcode != PARALLEL_SELECTOR && opcode != ALWAYS_FAIL
+				&& opcode != ALWAYS_SUCCEED && opcode != INVERT && opcode != UNTIL_FAIL && opcode != UNTIL_SUCCESS) {
+				slot = dataCount++;
+			}
+			tasks.add(task);
+			code.add(opcode | (slot + 1) << 8);
+			code.add(0);
+			if (opcode != LEAF) {
+				for (int i = 0, n = task.getChildCount(); i < n; i++)
+					compile(task.getChild(i));
+			}
+			// Jump offset to the end of the subtree
+			code.set(2 * pc + 1, tasks.size);
+		}
+
+		private static boolean isShared (Task<?> task) {
+			return task.getChildCount() == 0 && ClassReflection.getDeclaredAnnotation(task.getClass(), StatelessTask.class) != null;
+		}
+	}
+
+}
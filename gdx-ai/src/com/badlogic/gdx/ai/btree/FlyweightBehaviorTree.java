@@ -0,0 +1,382 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.btree;
+
+import com.badlogic.gdx.ai.btree.decorator.Repeat;
+import com.badlogic.gdx.ai.btree.decorator.SemaphoreGuard;
+import com.badlogic.gdx.ai.utils.NonBlockingSemaphoreRepository;
+import com.badlogic.gdx.math.MathUtils;
+
+/** A {@code FlyweightBehaviorTree} is a behavior tree sharing its structure with all the other instances created from the same
+ * {@link FlyweightArchetype}. Only the mutable state lives in the instance: the status of each node, a compact data slot for the
+ * nodes that need one (like the current child of sequences and selectors or the count of repeat decorators) and the
+ * clones of the leaves that are not {@link com.badlogic.gdx.ai.btree.annotation.StatelessTask stateless}. This way, the memory and
+ * the time it takes to create an instance scale with the size of its state rather than with the size of the tree.
+ * <p>
+ * The tree is run by interpreting the program compiled by the archetype: branches loop over their children by following the jump
+ * offsets and the control of branches and decorators is never set, so the overhead of a branch or a decorator is reduced to a few
+ * array reads. Leaf tasks are still run through their usual methods.
+ * <p>
+ * A flyweight tree runs with the same semantics of a {@link BehaviorTree} cloned from the archetype, including the notifications
+ * to the {@link BehaviorTree.Listener listeners}. The listeners receive the archetype task of branches and decorators, whose
+ * status is set to the one of the node in this tree right before the notification, and the shared or cloned task of leaves.
+ * <p>
+ * The children of this tree are the shared archetype tasks, so they must never be run or modified directly.
+ * 
+ * @param <E> type of the blackboard object that tasks use to read or modify game state
+ * 
+ * @author agent */
+public class FlyweightBehaviorTree<E> extends BehaviorTree<E> {
+
+	private static final Status[] STATUSES = Status.values();
+	private static final byte RUNNING = (byte)(Status.RUNNING.ordinal() + 1);
+	private static final byte FAILED = (byte)(Status.FAILED.ordinal() + 1);
+	private static final byte SUCCEEDED = (byte)(Status.SUCCEEDED.ordinal() + 1);
+	private static final byte CANCELLED = (byte)(Status.CANCELLED.ordinal() + 1);
+
+	private final FlyweightArchetype<E> archetype;
+
+	/** The status of each node as ordinal plus 1, or 0 if the node has never run. */
+	private final byte[] statuses;
+
+	/** The data slots of branches and decorators. */
+	private final int[] data;
+
+	/** The cloned leaves, created the first time they start. */
+	private final Task<E>[] clones;
+
+	/** The control of all the leaves run by this tree. */
+	private final LeafControl<E> leafControl;
+
+	/** Creates a {@code FlyweightBehaviorTree} sharing the given archetype.
+	 * @param archetype the archetype
+	 * @param object the blackboard. It can be {@code null}. */
+	@SuppressWarnings("unchecked")
+	public FlyweightBehaviorTree (FlyweightArchetype<E> archetype, E object) {
+		super(archetype.tasks[0], object);
+		this.archetype = archetype;
+		this.statuses = new byte[archetype.tasks.length];
+		this.data = new int[archetype.dataCount];
+		this.clones = new Task[archetype.cloneCount];
+		this.leafControl = new LeafControl<E>(this);
+	}
+
+	/** Returns the archetype shared by this tree. */
+	public FlyweightArchetype<E> getArchetype () {
+		return archetype;
+	}
+
+	/** Returns the status of the given node in this tree or {@code null} if the node has never run.
+	 * @param node the node, see {@link FlyweightArchetype#getNode(Task)} */
+	public Status getTaskStatus (int node) {
+		int status = statuses[node];
+		return status == 0 ? null : STATUSES[status - 1];
+	}
+
+	@Override
+	public void step () {
+		if (isEventDriven()) {
+			if (isSuspended() && !wakeUpIfDue()) return;
+			beginStep();
+		}
+		exec(0);
+		if (isEventDriven()) endStep();
+	}
+
+	@Override
+	boolean areRunningLeavesSuspended () {
+		return statuses[0] == RUNNING && areRunningLeavesSuspended(0);
+	}
+
+	private boolean areRunningLeavesSuspended (int node) {
+		final int[] code = archetype.code;
+		int instruction = code[node << 1];
+		// Leaves might be subtrees cloned as a whole
+		if ((instruction & 0xFF) == FlyweightArchetype.LEAF) return areRunningLeavesSuspended(leaf(node, (instruction >>> 8) - 1));
+		boolean running = false;
+		for (int child = node + 1, end = code[(node << 1) + 1]; child < end; child = code[(child << 1) + 1]) {
+			if (statuses[child] == RUNNING) {
+				if (!areRunningLeavesSuspended(child)) return false;
+				running = true;
+			}
+		}
+		return running;
+	}
+
+	@Override
+	public void reset () {
+		if (statuses[0] == RUNNING) cancel(0);
+		for (int i = 0; i < data.length; i++)
+			data[i] = 0;
+		for (int i = 0; i < clones.length; i++)
+			if (clones[i] != null) clones[i].reset();
+		clearSuspension();
+	}
+
+	/** Creates a new {@code FlyweightBehaviorTree} sharing the same archetype, without blackboard object and with the same
+	 * event-driven mode. */
+	@Override
+	public Task<E> cloneTask () {
+		FlyweightBehaviorTree<E> tree = new FlyweightBehaviorTree<E>(archetype, null);
+		tree.setEventDriven(isEventDriven());
+		return tree;
+	}
+
+	/** Runs the node at the given pc and returns its status as ordinal plus 1. The node is started first unless it's running, so
+	 * that each instruction is decoded only once per step. */
+	@SuppressWarnings("rawtypes")
+	private byte exec (int pc) {
+		final int[] code = archetype.code;
+		int instruction = code[pc << 1];
+		int slot = (instruction >>> 8) - 1;
+		boolean start = statuses[pc] != RUNNING;
+		switch (instruction & 0xFF) {
+		case FlyweightArchetype.LEAF:
+			return execLeaf(pc, slot, start);
+		case FlyweightArchetype.SEQUENCE:
+			return execSequence(pc, slot, start, SUCCEEDED);
+		case FlyweightArchetype.SELECTOR:
+			return execSequence(pc, slot, start, FAILED);
+		case FlyweightArchetype.PARALLEL_SEQUENCE:
+			return execParallel(pc, true);
+		case FlyweightArchetype.PARALLEL_SELECTOR:
+			return execParallel(pc, false);
+		case FlyweightArchetype.ALWAYS_FAIL:
+			return setStatus(pc, exec(pc + 1) == RUNNING ? RUNNING : FAILED);
+		case FlyweightArchetype.ALWAYS_SUCCEED:
+			return setStatus(pc, exec(pc + 1) == RUNNING ? RUNNING : SUCCEEDED);
+		case FlyweightArchetype.INVERT: {
+			byte status = exec(pc + 1);
+			return setStatus(pc, status == RUNNING ? RUNNING : status == SUCCEEDED ? FAILED : SUCCEEDED);
+		}
+		case FlyweightArchetype.RANDOM:
+			if (start) data[slot] = Float
+				.floatToRawIntBits(((com.badlogic.gdx.ai.btree.decorator.Random)archetype.tasks[pc]).success.nextFloat());
+			// The child, if any, is run until it ends, then the result is decided randomly
+			if (code[(pc << 1) + 1] > pc + 1 && exec(pc + 1) == RUNNING) return setStatus(pc, RUNNING);
+			return setStatus(pc, MathUtils.random() <= Float.intBitsToFloat(data[slot]) ? SUCCEEDED : FAILED);
+		case FlyweightArchetype.SEMAPHORE_GUARD: {
+			if (start) {
+				String name = ((SemaphoreGuard)archetype.tasks[pc]).name;
+				data[slot] = NonBlockingSemaphoreRepository.getSemaphore(name).acquire() ? 1 : 0;
+			}
+			if (data[slot] == 0) return setStatus(pc, FAILED);
+			byte status = setStatus(pc, exec(pc + 1));
+			// Like any task, the guard ends after notifying the listeners
+			if (status != RUNNING) end(pc);
+			return status;
+		}
+		case FlyweightArchetype.UNTIL_FAIL:
+			return execLoop(pc, FAILED);
+		case FlyweightArchetype.UNTIL_SUCCESS:
+			return execLoop(pc, SUCCEEDED);
+		case FlyweightArchetype.REPEAT:
+			if (start) data[slot] = ((Repeat)archetype.tasks[pc]).times.nextInt();
+			return execRepeat(pc, slot);
+		default:
+			throw new IllegalStateException("Unexpected opcode " + (instruction & 0xFF));
+		}
+	}
+
+	/** Runs a sequence or a selector, which moves to the next child when a child ends with {@code next} and ends as soon as a
+	 * child doesn't. The data slot holds the running child. */
+	private byte execSequence (int pc, int slot, boolean start, byte next) {
+		final int[] code = archetype.code;
+		for (int child = start ? pc + 1 : data[slot], end = code[(pc << 1) + 1]; child < end; child = code[(child << 1) + 1]) {
+			byte status = exec(child);
+			if (status != next) {
+				data[slot] = child;
+				return setStatus(pc, status);
+			}
+		}
+		return setStatus(pc, next);
+	}
+
+	private byte execParallel (int pc, boolean sequencePolicy) {
+		final int[] code = archetype.code;
+		boolean noRunningTasks = true;
+		for (int child = pc + 1, end = code[(pc << 1) + 1]; child < end;) {
+			byte status = exec(child);
+			child = code[(child << 1) + 1];
+			byte result = 0;
+			if (status == RUNNING) {
+				noRunningTasks = false;
+			} else {
+				boolean last = noRunningTasks && child == end;
+				if (status == SUCCEEDED)
+					result = !sequencePolicy || last ? SUCCEEDED : 0;
+				else
+					result = sequencePolicy || last ? FAILED : 0;
+			}
+			if (result != 0) {
+				cancelRunningChildren(pc, noRunningTasks ? child : pc + 1);
+				return setStatus(pc, result);
+			}
+		}
+		return setStatus(pc, RUNNING);
+	}
+
+	/** Runs an {@code UntilFail} or an {@code UntilSuccess} decorator, which succeeds when the child ends with {@code stop}. */
+	private byte execLoop (int pc, byte stop) {
+		while (true) {
+			byte status = exec(pc + 1);
+			if (status == RUNNING) return setStatus(pc, RUNNING);
+			if (status == stop) return setStatus(pc, SUCCEEDED);
+		}
+	}
+
+	private byte execRepeat (int pc, int slot) {
+		while (data[slot] != 0) {
+			byte status = exec(pc + 1);
+			if (status == RUNNING) return setStatus(pc, RUNNING);
+			if (data[slot] > 0) data[slot]--;
+			if (data[slot] == 0) return setStatus(pc, SUCCEEDED);
+		}
+		// Nothing to repeat
+		return setStatus(pc, RUNNING);
+	}
+
+	private byte execLeaf (int node, int slot, boolean start) {
+		Task<E> task = leaf(node, slot);
+		if (start) task.start();
+		LeafControl<E> leafControl = this.leafControl;
+		leafControl.result = 0;
+		task.run();
+		byte result = leafControl.result;
+		if (result == 0) {
+			// A leaf not reporting any result is considered still running
+			result = RUNNING;
+			task.status = Status.RUNNING;
+		}
+		statuses[node] = result;
+		return result;
+	}
+
+	private byte setStatus (int node, byte status) {
+		if (listeners != null && listeners.size > 0) {
+			Status previousStatus = getTaskStatus(node);
+			statuses[node] = status;
+			// Let the listeners see the status of the node in this tree
+			Task<E> task = archetype.tasks[node];
+			task.status = STATUSES[status - 1];
+			notifyStatusUpdated(task, previousStatus);
+		} else {
+			statuses[node] = status;
+		}
+		return status;
+	}
+
+	/** Returns the task of the given leaf ready to run. Shared leaves take the control and the status of this tree every time,
+	 * while clones keep them since they only run in this tree. */
+	private Task<E> leaf (int node, int slot) {
+		if (slot < 0) {
+			Task<E> task = archetype.tasks[node];
+			task.setControl(leafControl);
+			task.status = getTaskStatus(node);
+			return task;
+		}
+		Task<E> clone = clones[slot];
+		return clone != null ? clone : createClone(node, slot);
+	}
+
+	private Task<E> createClone (int node, int slot) {
+		Task<E> clone = archetype.tasks[node].cloneTask();
+		clone.setControl(leafControl);
+		return clones[slot] = clone;
+	}
+
+	/** Releases the semaphore acquired by the given semaphore guard, if any. */
+	private void end (int node) {
+		int slot = (archetype.code[node << 1] >>> 8) - 1;
+		if (data[slot] != 0) {
+			NonBlockingSemaphoreRepository.getSemaphore(((SemaphoreGuard<?>)archetype.tasks[node]).name).release();
+			data[slot] = 0;
+		}
+	}
+
+	private void cancel (int node) {
+		int instruction = archetype.code[node << 1];
+		if ((instruction & 0xFF) == FlyweightArchetype.LEAF) {
+			// The leaf notifies the listeners on its own
+			leaf(node, (instruction >>> 8) - 1).cancel();
+			statuses[node] = CANCELLED;
+		} else {
+			cancelRunningChildren(node, node + 1);
+			setStatus(node, CANCELLED);
+			if ((instruction & 0xFF) == FlyweightArchetype.SEMAPHORE_GUARD) end(node);
+		}
+	}
+
+	/** Cancels the running children of the given node, starting from the given child up to the last one. */
+	private void cancelRunningChildren (int node, int firstChild) {
+		int[] code = archetype.code;
+		for (int child = firstChild, end = code[(node << 1) + 1]; child < end; child = code[(child << 1) + 1])
+			if (statuses[child] == RUNNING) cancel(child);
+	}
+
+	/** The control of the leaves run by a flyweight tree, recording the status they report.
+	 * 
+	 * @author agent */
+	static class LeafControl<E> extends Task<E> {
+		/** The status reported by the leaf as ordinal plus 1, or 0 if it didn't report any. */
+		byte result;
+
+		LeafControl (BehaviorTree<E> tree) {
+			this.tree = tree;
+		}
+
+		@Override
+		protected int addChildToTask (Task<E> child) {
+			throw new IllegalStateException("A leaf control cannot have any children");
+		}
+
+		@Override
+		public int getChildCount () {
+			return 0;
+		}
+
+		@Override
+		public Task<E> getChild (int i) {
+			throw new IndexOutOfBoundsException("A leaf control can not have any child");
+		}
+
+		@Override
+		public void run () {
+		}
+
+		@Override
+		public void childSuccess (Task<E> task) {
+			result = SUCCEEDED;
+		}
+
+		@Override
+		public void childFail (Task<E> task) {
+			result = FAILED;
+		}
+
+		@Override
+		public void childRunning (Task<E> runningTask, Task<E> reporter) {
+			result = RUNNING;
+		}
+
+		@Override
+		protected Task<E> copyTo (Task<E> task) {
+			return task;
+		}
+	}
+
+}
@@ -17,6 +17,8 @@
 package com.badlogic.gdx.ai.btree;
 
 import com.badlogic.gdx.ai.btree.annotation.TaskConstraint;
+import com.badlogic.gdx.ai.msg.Telegram;
+import com.badlogic.gdx.utils.TimeUtils;
 
 /** A {@code LeafTask} is a terminal task of a behavior tree, contains action or condition logic, can not have any child.
  * 
@@ -59,4 +61,42 @@ public abstract class LeafTask<E> extends Task<E> {
 	public final void childSuccess (Task<E> runningTask) {
 	}
 
+	/** This method can be called in {@link #run()} instead of {@link #running()} to inform control that this task needs to run again,
+	 * while letting an {@link BehaviorTree#setEventDriven(boolean) event-driven} tree skip its steps until the given number of
+	 * seconds has elapsed. In any other tree it's the same as {@code running()}.
+	 * @param seconds the number of seconds after which this task needs to run again */
+	public final void suspendFor (float seconds) {
+		tree.suspend(this, TimeUtils.nanoTime() + (long)(seconds * 1000000000L));
+		running();
+	}
+
+	/** This method can be called in {@link #run()} instead of {@link #running()} to inform control that this task needs to run again,
+	 * while letting an {@link BehaviorTree#setEventDriven(boolean) event-driven} tree skip its steps until it receives a telegram
+	 * with the given message code, see {@link BehaviorTree#handleMessage(Telegram)}. In any other tree it's the same as
+	 * {@code running()}. On next run, {@link BehaviorTree#hasReceivedMessage(int)} tells whether the telegram has been received.
+	 * @param msg the message code */
+	public final void suspendUntilMessage (int msg) {
+		tree.suspendUntilMessage(this, msg, Long.MAX_VALUE);
+		running();
+	}
+
+	/** This method can be called in {@link #run()} instead of {@link #running()} to inform control that this task needs to run again,
+	 * while letting an {@link BehaviorTree#setEventDriven(boolean) event-driven} tree skip its steps until it receives a telegram
+	 * with the given message code or the given number of seconds has elapsed, whichever comes first. In any other tree it's the
+	 * same as {@code running()}.
+	 * @param msg the message code
+	 * @param timeout the number of seconds after which this task needs to run again anyway */
+	public final void suspendUntilMessage (int msg, float timeout) {
+		tree.suspendUntilMessage(this, msg, TimeUtils.nanoTime() + (long)(timeout * 1000000000L));
+		running();
+	}
+
+	/** This method can be called in {@link #run()} instead of {@link #running()} to inform control that this task needs to run again,
+	 * while letting an {@link BehaviorTree#setEventDriven(boolean) event-driven} tree skip its steps until the blackboard changes,
+	 * see {@link BehaviorTree#notifyBlackboardChanged()}. In any other tree it's the same as {@code running()}. */
+	public final void suspendUntilBlackboardChanged () {
+		tree.suspendUntilBlackboardChanged(this);
+		running();
+	}
+
 }
@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.btree.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/** This annotation declares that a task can be run on any thread, so that the trees made of such tasks can be stepped in parallel
+ * by a {@link com.badlogic.gdx.ai.btree.BehaviorTreeGroup BehaviorTreeGroup}. It is applied to the task class.
+ * <p>
+ * A parallel safe task is still run by one thread at a time, but not always the same one. It must access the game state only
+ * through its blackboard object, which must not be shared with trees stepped by other threads, and must dispatch telegrams only
+ * through a {@link com.badlogic.gdx.ai.btree.BehaviorTreeGroup.GroupMessageDispatcher GroupMessageDispatcher}. Static or shared
+ * mutable state, including the random generator of {@code MathUtils}, must not be used.
+ * <p>
+ * When applied to a subclass of {@link com.badlogic.gdx.ai.btree.BehaviorTree BehaviorTree}, the whole tree is declared parallel
+ * safe without checking its tasks. The annotation is deliberately not inherited, since subclasses might break the contract.
+ * 
+ * @author agent */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Documented
+public @interface ParallelSafeTask {
+}
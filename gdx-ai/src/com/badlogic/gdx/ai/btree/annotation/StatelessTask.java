@@ -0,0 +1,38 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.btree.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/** This annotation declares that a leaf task keeps no state between runs, so that a single instance can be shared by all the
+ * {@link com.badlogic.gdx.ai.btree.FlyweightBehaviorTree flyweight} trees created from the same archetype. It is applied to the
+ * task class.
+ * <p>
+ * A stateless task must not change its own fields in {@code start}, {@code run} and {@code end}, and must access the game state
+ * only through its blackboard object. The annotation is deliberately not inherited, since subclasses might add state of their
+ * own.
+ * 
+ * @author agent */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Documented
+public @interface StatelessTask {
+}
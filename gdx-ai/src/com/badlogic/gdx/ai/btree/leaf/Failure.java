@@ -18,12 +18,14 @@ package com.badlogic.gdx.ai.btree.leaf;
 
 import com.badlogic.gdx.ai.btree.LeafTask;
 import com.badlogic.gdx.ai.btree.Task;
+import com.badlogic.gdx.ai.btree.annotation.StatelessTask;
 
 /** {@code Failure} is a leaf that immediately fails.
  * 
  * @param <E> type of the blackboard object that tasks use to read or modify game state
  * 
  * @author davebaol */
+@StatelessTask
 public class Failure<E> extends LeafTask<E> {
 
 	/** Creates a {@code Failure} task. */
@@ -18,12 +18,14 @@ package com.badlogic.gdx.ai.btree.leaf;
 
 import com.badlogic.gdx.ai.btree.LeafTask;
 import com.badlogic.gdx.ai.btree.Task;
+import com.badlogic.gdx.ai.btree.annotation.StatelessTask;
 
 /** {@code Success} is a leaf that immediately succeeds.
  * 
  * @param <E> type of the blackboard object that tasks use to read or modify game state
  * 
  * @author davebaol */
+@StatelessTask
 public class Success<E> extends LeafTask<E> {
 
 	/** Creates a {@code Success} task. */
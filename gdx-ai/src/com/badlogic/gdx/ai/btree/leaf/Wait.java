@@ -23,7 +23,8 @@ import com.badlogic.gdx.ai.utils.random.ConstantFloatDistribution;
 import com.badlogic.gdx.ai.utils.random.FloatDistribution;
 import com.badlogic.gdx.utils.TimeUtils;
 
-/** {@code Wait} is a leaf that keeps running for the specified amount of time then succeeds.
+/** {@code Wait} is a leaf that keeps running for the specified amount of time then succeeds. It suspends itself while waiting,
+ * so that an event-driven tree can skip its steps while waiting.
  * 
  * @param <E> type of the blackboard object that tasks use to read or modify game state
  * 
@@ -64,10 +65,13 @@ public class Wait<E> extends LeafTask<E> {
 		startTime = TimeUtils.nanoTime();
 	}
 
+	/** Succeeds if the timeout has elapsed; otherwise suspends this task for the remaining time, which lets an
+	 * {@link com.badlogic.gdx.ai.btree.BehaviorTree#setEventDriven(boolean) event-driven} tree skip its steps in the meantime. */
 	@Override
 	public void run () {
-		if ((TimeUtils.nanoTime() - startTime) / 1000000000f < timeout)
-			running();
+		float elapsed = (TimeUtils.nanoTime() - startTime) / 1000000000f;
+		if (elapsed < timeout)
+			suspendFor(timeout - elapsed);
 		else
 			success();
 	}
@@ -17,6 +17,8 @@
 package com.badlogic.gdx.ai.btree.utils;
 
 import com.badlogic.gdx.ai.btree.BehaviorTree;
+import com.badlogic.gdx.ai.btree.FlyweightArchetype;
+import com.badlogic.gdx.ai.btree.FlyweightBehaviorTree;
 import com.badlogic.gdx.ai.btree.Task;
 import com.badlogic.gdx.ai.btree.TaskCloneException;
 import com.badlogic.gdx.assets.AssetManager;
@@ -33,6 +35,8 @@ public class BehaviorTreeLibrary {
 
 	protected ObjectMap<String, BehaviorTree<?>> repository;
 
+	protected ObjectMap<String, FlyweightArchetype<?>> flyweightRepository;
+
 //	protected AssetManager assetManager;
 	protected FileHandleResolver resolver;
 	protected BehaviorTreeParser<?> parser;
@@ -74,6 +78,7 @@ public class BehaviorTreeLibrary {
 		this.resolver = resolver;
 //		this.assetManager = assetManager;
 		this.repository = new ObjectMap<String, BehaviorTree<?>>();
+		this.flyweightRepository = new ObjectMap<String, FlyweightArchetype<?>>();
 		this.parser = new BehaviorTreeParser(parseDebugLevel);
 	}
 
@@ -109,6 +114,33 @@ public class BehaviorTreeLibrary {
 		return bt;
 	}
 
+	/** Creates a {@link FlyweightBehaviorTree} for the specified reference and blackboard object. Unlike
+	 * {@link #createBehaviorTree(String, Object)}, the tree shares its structure with all the other flyweight trees created for the
+	 * same reference, so only its state is allocated.
+	 * @param treeReference the tree identifier, typically a path
+	 * @param blackboard the blackboard object (it can be {@code null}).
+	 * @return the tree sharing the flyweight archetype.
+	 * @throws SerializationException if the reference cannot be successfully parsed. */
+	@SuppressWarnings("unchecked")
+	public <T> FlyweightBehaviorTree<T> createFlyweightBehaviorTree (String treeReference, T blackboard) {
+		return ((FlyweightArchetype<T>)retrieveFlyweightArchetype(treeReference)).createBehaviorTree(blackboard);
+	}
+
+	/** Retrieves the flyweight archetype from the library. If the library doesn't contain the flyweight archetype it is created from
+	 * the archetype tree, which is loaded if necessary.
+	 * @param treeReference the tree identifier, typically a path
+	 * @return the flyweight archetype.
+	 * @throws SerializationException if the reference cannot be successfully parsed. */
+	@SuppressWarnings({"rawtypes", "unchecked"})
+	protected FlyweightArchetype<?> retrieveFlyweightArchetype (String treeReference) {
+		FlyweightArchetype<?> flyweightArchetype = flyweightRepository.get(treeReference);
+		if (flyweightArchetype == null) {
+			flyweightArchetype = new FlyweightArchetype(retrieveArchetypeTree(treeReference).getChild(0));
+			flyweightRepository.put(treeReference, flyweightArchetype);
+		}
+		return flyweightArchetype;
+	}
+
 	/** Retrieves the archetype tree from the library. If the library doesn't contain the archetype tree it is loaded and added to
 	 * the library.
 	 * @param treeReference the tree identifier, typically a path
@@ -139,6 +171,7 @@ public class BehaviorTreeLibrary {
 			throw new IllegalArgumentException("The registered archetype must not be null.");
 		}
 		repository.put(treeReference, archetypeTree);
+		flyweightRepository.remove(treeReference);
 	}
 
 }
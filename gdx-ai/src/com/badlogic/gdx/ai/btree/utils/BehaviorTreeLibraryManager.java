@@ -17,6 +17,7 @@
 package com.badlogic.gdx.ai.btree.utils;
 
 import com.badlogic.gdx.ai.btree.BehaviorTree;
+import com.badlogic.gdx.ai.btree.FlyweightBehaviorTree;
 import com.badlogic.gdx.ai.btree.Task;
 import com.badlogic.gdx.ai.btree.TaskCloneException;
 import com.badlogic.gdx.assets.loaders.resolvers.InternalFileHandleResolver;
@@ -82,4 +83,13 @@ public class BehaviorTreeLibraryManager {
 		return library.createBehaviorTree(treeReference, blackboard);
 	}
 
+	/** Creates a {@link FlyweightBehaviorTree} for the specified reference and blackboard object.
+	 * @param treeReference the tree identifier, typically a path
+	 * @param blackboard the blackboard object (it can be {@code null}).
+	 * @return the tree sharing the flyweight archetype.
+	 * @throws SerializationException if the reference cannot be successfully parsed. */
+	public <T> FlyweightBehaviorTree<T> createFlyweightBehaviorTree (String treeReference, T blackboard) {
+		return library.createFlyweightBehaviorTree(treeReference, blackboard);
+	}
+
 }
@@ -0,0 +1,309 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.badlogic.gdx.ai.btree.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+
+import com.badlogic.gdx.ai.btree.BehaviorTree;
+import com.badlogic.gdx.ai.btree.Task;
+import com.badlogic.gdx.ai.utils.random.ConstantDoubleDistribution;
+import com.badlogic.gdx.ai.utils.random.ConstantFloatDistribution;
+import com.badlogic.gdx.ai.utils.random.ConstantIntegerDistribution;
+import com.badlogic.gdx.ai.utils.random.ConstantLongDistribution;
+import com.badlogic.gdx.ai.utils.random.GaussianDoubleDistribution;
+import com.badlogic.gdx.ai.utils.random.GaussianFloatDistribution;
+import com.badlogic.gdx.ai.utils.random.TriangularDoubleDistribution;
+import com.badlogic.gdx.ai.utils.random.TriangularFloatDistribution;
+import com.badlogic.gdx.ai.utils.random.TriangularIntegerDistribution;
+import com.badlogic.gdx.ai.utils.random.TriangularLongDistribution;
+import com.badlogic.gdx.ai.utils.random.UniformDoubleDistribution;
+import com.badlogic.gdx.ai.utils.random.UniformFloatDistribution;
+import com.badlogic.gdx.ai.utils.random.UniformIntegerDistribution;
+import com.badlogic.gdx.ai.utils.random.UniformLongDistribution;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.badlogic.gdx.utils.reflect.Field;
+import com.badlogic.gdx.utils.reflect.ReflectionException;
+
+/** Compiles behavior trees into the binary format read by the {@link BinaryBehaviorTreeParser}. Text files are parsed by a
+ * {@link BehaviorTreeParser}, so they are fully validated at compile time, then the resulting tree is written with the current value
+ * of every attribute of each task, distributions included. Since the binary format stores class and field names, trees have to be
+ * recompiled when their task classes rename or remove attributes.
+ * <p>
+ * The {@link #main(String[]) main} method compiles files offline, for instance as a build step:
+ * 
+ * <pre>
+ * java com.badlogic.gdx.ai.btree.utils.BinaryBehaviorTreeCompiler &lt;input&gt; &lt;output&gt;
+ * </pre>
+ * 
+ * where {@code input} is either a {@code .tree} file, compiled into the {@code output} file, or a directory whose {@code .tree} files
+ * are recursively compiled into {@code .btree} files with the same relative path in the {@code output} directory. The task classes
+ * must be in the classpath.
+ * 
+ * @author agent */
+public class BinaryBehaviorTreeCompiler {
+
+	/** The extension of the binary files written by the {@link #main(String[]) main} method. */
+	public static final String EXTENSION = "btree";
+
+	protected BehaviorTreeParser<?> parser;
+
+	private final ObjectIntMap<Class<?>> classIndices = new ObjectIntMap<Class<?>>();
+	private final Array<Class<?>> classes = new Array<Class<?>>();
+	private final Array<Array<Field>> fields = new Array<Array<Field>>();
+
+	public BinaryBehaviorTreeCompiler () {
+		this(new BehaviorTreeParser<Object>());
+	}
+
+	/** Creates a {@code BinaryBehaviorTreeCompiler} parsing text files with the given parser. */
+	public BinaryBehaviorTreeCompiler (BehaviorTreeParser<?> parser) {
+		this.parser = parser;
+	}
+
+	/** Compiles the given text file into the given binary file. */
+	public void compile (FileHandle treeFile, FileHandle binaryFile) {
+		Reader reader = null;
+		OutputStream output = null;
+		try {
+			reader = treeFile.reader();
+			output = binaryFile.write(false);
+			compile(reader, output);
+		} finally {
+			StreamUtils.closeQuietly(reader);
+			StreamUtils.closeQuietly(output);
+		}
+	}
+
+	/** Compiles the tree read from the given reader into the given output stream. Neither the reader nor the stream is closed. */
+	public void compile (Reader reader, OutputStream output) {
+		write(parser.parse(reader, null), output);
+	}
+
+	/** Writes the given tree to the given output stream, which is not closed. The tree may have been created programmatically. */
+	public void write (BehaviorTree<?> tree, OutputStream output) {
+		write(tree.getChild(0), output);
+	}
+
+	/** Writes the tree of the given root task to the given output stream, which is not closed.
+	 * @throws GdxRuntimeException if an attribute holds a value that the binary format cannot represent, like an instance of a
+	 *            custom distribution class. */
+	public void write (Task<?> root, OutputStream output) {
+		try {
+			collectClasses(root);
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output));
+			out.writeInt(BinaryBehaviorTreeParser.MAGIC);
+			out.writeShort(BinaryBehaviorTreeParser.VERSION);
+			out.writeShort(classes.size);
+			for (int i = 0; i < classes.size; i++) {
+				out.writeUTF(classes.get(i).getName());
+				Array<Field> classFields = fields.get(i);
+				out.writeShort(classFields.size);
+				for (int j = 0; j < classFields.size; j++)
+					out.writeUTF(classFields.get(j).getName());
+			}
+			writeTask(out, root);
+			out.flush();
+		} catch (IOException e) {
+			throw new GdxRuntimeException("Cannot write binary behavior tree", e);
+		} finally {
+			classIndices.clear();
+			classes.clear();
+			fields.clear();
+		}
+	}
+
+	private void collectClasses (Task<?> task) {
+		Class<?> clazz = task.getClass();
+		if (!classIndices.containsKey(clazz)) {
+			classIndices.put(clazz, classes.size);
+			classes.add(clazz);
+			Array<Field> classFields = BinaryBehaviorTreeParser.getAttributeFields(clazz);
+			for (Field f : classFields)
+				f.setAccessible(true);
+			fields.add(classFields);
+		}
+		for (int i = 0; i < task.getChildCount(); i++)
+			collectClasses(task.getChild(i));
+	}
+
+	private void writeTask (DataOutputStream out, Task<?> task) throws IOException {
+		int classIndex = classIndices.get(task.getClass(), -1);
+		out.writeShort(classIndex);
+		Array<Field> classFields = fields.get(classIndex);
+		for (int i = 0; i < classFields.size; i++) {
+			Field field = classFields.get(i);
+			try {
+				writeValue(out, task, field, field.get(task));
+			} catch (ReflectionException e) {
+				throw new GdxRuntimeException(e);
+			}
+		}
+		out.writeShort(task.getChildCount());
+		for (int i = 0; i < task.getChildCount(); i++)
+			writeTask(out, task.getChild(i));
+	}
+
+	private void writeValue (DataOutputStream out, Task<?> task, Field field, Object value) throws IOException {
+		if (value == null) {
+			out.writeByte(BinaryBehaviorTreeParser.NULL);
+		} else if (value instanceof Boolean) {
+			out.writeByte(BinaryBehaviorTreeParser.BOOLEAN);
+			out.writeBoolean((Boolean)value);
+		} else if (value instanceof Byte) {
+			out.writeByte(BinaryBehaviorTreeParser.BYTE);
+			out.writeByte((Byte)value);
+		} else if (value instanceof Short) {
+			out.writeByte(BinaryBehaviorTreeParser.SHORT);
+			out.writeShort((Short)value);
+		} else if (value instanceof Integer) {
+			out.writeByte(BinaryBehaviorTreeParser.INT);
+			out.writeInt((Integer)value);
+		} else if (value instanceof Long) {
+			out.writeByte(BinaryBehaviorTreeParser.LONG);
+			out.writeLong((Long)value);
+		} else if (value instanceof Float) {
+			out.writeByte(BinaryBehaviorTreeParser.FLOAT);
+			out.writeFloat((Float)value);
+		} else if (value instanceof Double) {
+			out.writeByte(BinaryBehaviorTreeParser.DOUBLE);
+			out.writeDouble((Double)value);
+		} else if (value instanceof Character) {
+			out.writeByte(BinaryBehaviorTreeParser.CHAR);
+			out.writeChar((Character)value);
+		} else if (value instanceof String) {
+			out.writeByte(BinaryBehaviorTreeParser.STRING);
+			out.writeUTF((String)value);
+		} else if (value instanceof Enum) {
+			out.writeByte(BinaryBehaviorTreeParser.ENUM);
+			out.writeUTF(((Enum<?>)value).name());
+		} else if (!writeDistribution(out, value)) {
+			throw new GdxRuntimeException(task.getClass().getSimpleName() + ": attribute field '" + field.getName()
+				+ "' has an unsupported value of type " + value.getClass().getName());
+		}
+	}
+
+	private boolean writeDistribution (DataOutputStream out, Object value) throws IOException {
+		// Distribution classes are final, so exact class checks are enough
+		Class<?> type = value.getClass();
+		if (type == ConstantIntegerDistribution.class) {
+			out.writeByte(BinaryBehaviorTreeParser.CONSTANT_INTEGER);
+			out.writeInt(((ConstantIntegerDistribution)value).getValue());
+		} else if (type == UniformIntegerDistribution.class) {
+			UniformIntegerDistribution d = (UniformIntegerDistribution)value;
+			out.writeByte(BinaryBehaviorTreeParser.UNIFORM_INTEGER);
+			out.writeInt(d.getLow());
+			out.writeInt(d.getHigh());
+		} else if (type == TriangularIntegerDistribution.class) {
+			TriangularIntegerDistribution d = (TriangularIntegerDistribution)value;
+			out.writeByte(BinaryBehaviorTreeParser.TRIANGULAR_INTEGER);
+			out.writeInt(d.getLow());
+			out.writeInt(d.getHigh());
+			out.writeFloat(d.getMode());
+		} else if (type == ConstantLongDistribution.class) {
+			out.writeByte(BinaryBehaviorTreeParser.CONSTANT_LONG);
+			out.writeLong(((ConstantLongDistribution)value).getValue());
+		} else if (type == UniformLongDistribution.class) {
+			UniformLongDistribution d = (UniformLongDistribution)value;
+			out.writeByte(BinaryBehaviorTreeParser.UNIFORM_LONG);
+			out.writeLong(d.getLow());
+			out.writeLong(d.getHigh());
+		} else if (type == TriangularLongDistribution.class) {
+			TriangularLongDistribution d = (TriangularLongDistribution)value;
+			out.writeByte(BinaryBehaviorTreeParser.TRIANGULAR_LONG);
+			out.writeLong(d.getLow());
+			out.writeLong(d.getHigh());
+			out.writeDouble(d.getMode());
+		} else if (type == ConstantFloatDistribution.class) {
+			out.writeByte(BinaryBehaviorTreeParser.CONSTANT_FLOAT);
+			out.writeFloat(((ConstantFloatDistribution)value).getValue());
+		} else if (type == UniformFloatDistribution.class) {
+			UniformFloatDistribution d = (UniformFloatDistribution)value;
+			out.writeByte(BinaryBehaviorTreeParser.UNIFORM_FLOAT);
+			out.writeFloat(d.getLow());
+			out.writeFloat(d.getHigh());
+		} else if (type == TriangularFloatDistribution.class) {
+			TriangularFloatDistribution d = (TriangularFloatDistribution)value;
+			out.writeByte(BinaryBehaviorTreeParser.TRIANGULAR_FLOAT);
+			out.writeFloat(d.getLow());
+			out.writeFloat(d.getHigh());
+			out.writeFloat(d.getMode());
+		} else if (type == GaussianFloatDistribution.class) {
+			GaussianFloatDistribution d = (GaussianFloatDistribution)value;
+			out.writeByte(BinaryBehaviorTreeParser.GAUSSIAN_FLOAT);
+			out.writeFloat(d.getMean());
+			out.writeFloat(d.getStandardDeviation());
+		} else if (type == ConstantDoubleDistribution.class) {
+			out.writeByte(BinaryBehaviorTreeParser.CONSTANT_DOUBLE);
+			out.writeDouble(((ConstantDoubleDistribution)value).getValue());
+		} else if (type == UniformDoubleDistribution.class) {
+			UniformDoubleDistribution d = (UniformDoubleDistribution)value;
+			out.writeByte(BinaryBehaviorTreeParser.UNIFORM_DOUBLE);
+			out.writeDouble(d.getLow());
+			out.writeDouble(d.getHigh());
+		} else if (type == TriangularDoubleDistribution.class) {
+			TriangularDoubleDistribution d = (TriangularDoubleDistribution)value;
+			out.writeByte(BinaryBehaviorTreeParser.TRIANGULAR_DOUBLE);
+			out.writeDouble(d.getLow());
+			out.writeDouble(d.getHigh());
+			out.writeDouble(d.getMode());
+		} else if (type == GaussianDoubleDistribution.class) {
+			GaussianDoubleDistribution d = (GaussianDoubleDistribution)value;
+			out.writeByte(BinaryBehaviorTreeParser.GAUSSIAN_DOUBLE);
+			out.writeDouble(d.getMean());
+			out.writeDouble(d.getStandardDeviation());
+		} else {
+			return false;
+		}
+		return true;
+	}
+
+	/** Compiles a {@code .tree} file, or all the {@code .tree} files of a directory tree, into binary files.
+	 * @param args the input file or directory and the output file or directory */
+	public static void main (String[] args) {
+		if (args.length != 2) {
+			System.err.println("Usage: " + BinaryBehaviorTreeCompiler.class.getName() + " <input> <output>");
+			System.exit(1);
+		}
+		BinaryBehaviorTreeCompiler compiler = new BinaryBehaviorTreeCompiler();
+		FileHandle input = new FileHandle(new File(args[0]));
+		FileHandle output = new FileHandle(new File(args[1]));
+		if (input.isDirectory())
+			compiler.compileDirectory(input, output);
+		else
+			compiler.compile(input, output);
+	}
+
+	private void compileDirectory (FileHandle inputDir, FileHandle outputDir) {
+		for (FileHandle file : inputDir.list()) {
+			if (file.isDirectory())
+				compileDirectory(file, outputDir.child(file.name()));
+			else if (file.extension().equals("tree")) {
+				FileHandle binaryFile = outputDir.child(file.nameWithoutExtension() + "." + EXTENSION);
+				System.out.println(file.path() + " -> " + binaryFile.path());
+				compile(file, binaryFile);
+			}
+		}
+	}
+}
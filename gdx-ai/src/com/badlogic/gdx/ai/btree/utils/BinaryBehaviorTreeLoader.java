@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.badlogic.gdx.ai.btree.utils;
+
+import com.badlogic.gdx.ai.btree.BehaviorTree;
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetLoaderParameters;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.AssetLoader;
+import com.badlogic.gdx.assets.loaders.AsynchronousAssetLoader;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+
+/** {@link AssetLoader} for {@link BehaviorTree} instances precompiled by the {@link BinaryBehaviorTreeCompiler}. The behavior tree
+ * is loaded asynchronously. Unless a parser is given through the {@link BinaryBehaviorTreeParameter}, the loader keeps using the
+ * same {@link BinaryBehaviorTreeParser}, so that task classes and attribute fields are only looked up once for all the loaded
+ * files.
+ * <p>
+ * Register the loader for the binary file extension, for instance:
+ * 
+ * <pre>
+ * assetManager.setLoader(BehaviorTree.class, ".btree", new BinaryBehaviorTreeLoader(new InternalFileHandleResolver()));
+ * </pre>
+ * 
+ * @author agent */
+@SuppressWarnings("rawtypes")
+public class BinaryBehaviorTreeLoader extends
+	AsynchronousAssetLoader<BehaviorTree, BinaryBehaviorTreeLoader.BinaryBehaviorTreeParameter> {
+
+	private final BinaryBehaviorTreeParser defaultParser = new BinaryBehaviorTreeParser();
+
+	public BinaryBehaviorTreeLoader (FileHandleResolver resolver) {
+		super(resolver);
+	}
+
+	BehaviorTree behaviorTree;
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void loadAsync (AssetManager manager, String fileName, FileHandle file, BinaryBehaviorTreeParameter parameter) {
+		this.behaviorTree = null;
+
+		Object blackboard = null;
+		BinaryBehaviorTreeParser parser = defaultParser;
+		if (parameter != null) {
+			blackboard = parameter.blackboard;
+			if (parameter.parser != null) parser = parameter.parser;
+		}
+
+		this.behaviorTree = parser.parse(file, blackboard);
+	}
+
+	@Override
+	public BehaviorTree loadSync (AssetManager manager, String fileName, FileHandle file, BinaryBehaviorTreeParameter parameter) {
+		BehaviorTree bundle = this.behaviorTree;
+		this.behaviorTree = null;
+		return bundle;
+	}
+
+	@Override
+	public Array<AssetDescriptor> getDependencies (String fileName, FileHandle file, BinaryBehaviorTreeParameter parameter) {
+		return null;
+	}
+
+	static public class BinaryBehaviorTreeParameter extends AssetLoaderParameters<BehaviorTree> {
+		public final Object blackboard;
+		public final BinaryBehaviorTreeParser parser;
+
+		public BinaryBehaviorTreeParameter () {
+			this(null);
+		}
+
+		public BinaryBehaviorTreeParameter (Object blackboard) {
+			this(blackboard, null);
+		}
+
+		public BinaryBehaviorTreeParameter (Object blackboard, BinaryBehaviorTreeParser parser) {
+			this.blackboard = blackboard;
+			this.parser = parser;
+		}
+	}
+
+}
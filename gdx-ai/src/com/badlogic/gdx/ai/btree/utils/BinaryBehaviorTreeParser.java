@@ -0,0 +1,299 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.badlogic.gdx.ai.btree.utils;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.badlogic.gdx.ai.btree.BehaviorTree;
+import com.badlogic.gdx.ai.btree.Task;
+import com.badlogic.gdx.ai.btree.annotation.TaskAttribute;
+import com.badlogic.gdx.ai.utils.random.ConstantDoubleDistribution;
+import com.badlogic.gdx.ai.utils.random.ConstantFloatDistribution;
+import com.badlogic.gdx.ai.utils.random.ConstantIntegerDistribution;
+import com.badlogic.gdx.ai.utils.random.ConstantLongDistribution;
+import com.badlogic.gdx.ai.utils.random.GaussianDoubleDistribution;
+import com.badlogic.gdx.ai.utils.random.GaussianFloatDistribution;
+import com.badlogic.gdx.ai.utils.random.TriangularDoubleDistribution;
+import com.badlogic.gdx.ai.utils.random.TriangularFloatDistribution;
+import com.badlogic.gdx.ai.utils.random.TriangularIntegerDistribution;
+import com.badlogic.gdx.ai.utils.random.TriangularLongDistribution;
+import com.badlogic.gdx.ai.utils.random.UniformDoubleDistribution;
+import com.badlogic.gdx.ai.utils.random.UniformFloatDistribution;
+import com.badlogic.gdx.ai.utils.random.UniformIntegerDistribution;
+import com.badlogic.gdx.ai.utils.random.UniformLongDistribution;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.SerializationException;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.badlogic.gdx.utils.reflect.ClassReflection;
+import com.badlogic.gdx.utils.reflect.Field;
+import com.badlogic.gdx.utils.reflect.ReflectionException;
+
+/** A parser of behavior trees precompiled into the binary format written by the {@link BinaryBehaviorTreeCompiler}. Unlike the
+ * {@link BehaviorTreeParser}, it neither tokenizes text nor parses distributions: the file starts with a table of the task
+ * classes along with the fields of their attributes, which the parser resolves once, and the values of the attributes are stored
+ * in binary form. Task classes and the fields annotated with {@link TaskAttribute} are cached by the parser, so that parsing many
+ * files with the same parser only looks them up the first time.
+ * <p>
+ * The binary format is made of:
+ * <ul>
+ * <li>the magic number and the version;</li>
+ * <li>the class table: the number of classes and, for each class, its fully qualified name followed by the number and the field
+ * names of the attributes that the tasks of that class specify;</li>
+ * <li>the tasks in depth-first order: for each task, the index of its class, the tagged value of each of its attributes and the
+ * number of its children.</li>
+ * </ul>
+ * 
+ * @param <E> type of the blackboard object that tasks use to read or modify game state
+ * 
+ * @author agent */
+public class BinaryBehaviorTreeParser<E> {
+
+	static final int MAGIC = 0x42545245; // "BTRE"
+	static final int VERSION = 1;
+
+	static final int NULL = 0;
+	static final int BOOLEAN = 1;
+	static final int BYTE = 2;
+	static final int SHORT = 3;
+	static final int INT = 4;
+	static final int LONG = 5;
+	static final int FLOAT = 6;
+	static final int DOUBLE = 7;
+	static final int CHAR = 8;
+	static final int STRING = 9;
+	static final int ENUM = 10;
+	static final int CONSTANT_INTEGER = 16;
+	static final int UNIFORM_INTEGER = 17;
+	static final int TRIANGULAR_INTEGER = 18;
+	static final int CONSTANT_LONG = 20;
+	static final int UNIFORM_LONG = 21;
+	static final int TRIANGULAR_LONG = 22;
+	static final int CONSTANT_FLOAT = 24;
+	static final int UNIFORM_FLOAT = 25;
+	static final int TRIANGULAR_FLOAT = 26;
+	static final int GAUSSIAN_FLOAT = 27;
+	static final int CONSTANT_DOUBLE = 28;
+	static final int UNIFORM_DOUBLE = 29;
+	static final int TRIANGULAR_DOUBLE = 30;
+	static final int GAUSSIAN_DOUBLE = 31;
+
+	public int debug;
+
+	private final ObjectMap<String, Class<?>> classCache = new ObjectMap<String, Class<?>>();
+	private final ObjectMap<Class<?>, ObjectMap<String, Field>> setterCache = new ObjectMap<Class<?>, ObjectMap<String, Field>>();
+
+	private final Array<Class<?>> classes = new Array<Class<?>>();
+	private final Array<Field[]> setters = new Array<Field[]>();
+
+	public BinaryBehaviorTreeParser () {
+		this(BehaviorTreeParser.DEBUG_NONE);
+	}
+
+	public BinaryBehaviorTreeParser (int debug) {
+		this.debug = debug;
+	}
+
+	/** Parses the given file.
+	 * @param file the file to parse
+	 * @param object the blackboard object. It can be {@code null}.
+	 * @return the behavior tree
+	 * @throws SerializationException if the file cannot be successfully parsed. */
+	public BehaviorTree<E> parse (FileHandle file, E object) {
+		InputStream input = null;
+		try {
+			input = file.read();
+			return parse(input, object);
+		} finally {
+			StreamUtils.closeQuietly(input);
+		}
+	}
+
+	/** Parses the given input stream. The stream is not closed.
+	 * @param input the input stream to parse
+	 * @param object the blackboard object. It can be {@code null}.
+	 * @return the behavior tree
+	 * @throws SerializationException if the input stream cannot be successfully parsed. */
+	public BehaviorTree<E> parse (InputStream input, E object) {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(input));
+		try {
+			int magic = in.readInt();
+			if (magic != MAGIC) throw new SerializationException("Not a binary behavior tree");
+			int version = in.readShort();
+			if (version != VERSION) throw new SerializationException("Unsupported binary behavior tree version: " + version);
+			readClassTable(in);
+			return createBehaviorTree(readTask(in), object);
+		} catch (IOException e) {
+			throw new SerializationException("Cannot parse binary behavior tree", e);
+		} finally {
+			classes.clear();
+			setters.clear();
+		}
+	}
+
+	protected BehaviorTree<E> createBehaviorTree (Task<E> root, E object) {
+		if (debug > BehaviorTreeParser.DEBUG_LOW) printTree(root, 0);
+		return new BehaviorTree<E>(root, object);
+	}
+
+	protected void printTree (Task<E> task, int indent) {
+		for (int i = 0; i < indent; i++)
+			System.out.print(' ');
+		System.out.println(task.getClass().getSimpleName());
+		for (int i = 0; i < task.getChildCount(); i++) {
+			printTree(task.getChild(i), indent + 2);
+		}
+	}
+
+	private void readClassTable (DataInputStream in) throws IOException {
+		int classCount = in.readShort();
+		for (int i = 0; i < classCount; i++) {
+			Class<?> clazz = findClass(in.readUTF());
+			ObjectMap<String, Field> classSetters = findSetters(clazz);
+			Field[] fields = new Field[in.readShort()];
+			for (int j = 0; j < fields.length; j++) {
+				String fieldName = in.readUTF();
+				Field field = classSetters.get(fieldName);
+				if (field == null)
+					throw new GdxRuntimeException(clazz.getSimpleName() + ": unknown attribute field '" + fieldName + "'");
+				fields[j] = field;
+			}
+			classes.add(clazz);
+			setters.add(fields);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private Task<E> readTask (DataInputStream in) throws IOException {
+		int classIndex = in.readShort();
+		Task<E> task;
+		try {
+			task = (Task<E>)ClassReflection.newInstance(classes.get(classIndex));
+		} catch (ReflectionException e) {
+			throw new GdxRuntimeException("Cannot parse behavior tree!!!", e);
+		}
+		Field[] fields = setters.get(classIndex);
+		for (int i = 0; i < fields.length; i++) {
+			try {
+				fields[i].set(task, readValue(in, fields[i]));
+			} catch (ReflectionException e) {
+				throw new GdxRuntimeException(e);
+			}
+		}
+		int childCount = in.readShort();
+		for (int i = 0; i < childCount; i++)
+			task.addChild(readTask(in));
+		return task;
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private Object readValue (DataInputStream in, Field field) throws IOException {
+		int tag = in.readByte();
+		switch (tag) {
+		case NULL:
+			return null;
+		case BOOLEAN:
+			return in.readBoolean();
+		case BYTE:
+			return in.readByte();
+		case SHORT:
+			return in.readShort();
+		case INT:
+			return in.readInt();
+		case LONG:
+			return in.readLong();
+		case FLOAT:
+			return in.readFloat();
+		case DOUBLE:
+			return in.readDouble();
+		case CHAR:
+			return in.readChar();
+		case STRING:
+			return in.readUTF();
+		case ENUM:
+			return Enum.valueOf((Class<Enum>)field.getType(), in.readUTF());
+		case CONSTANT_INTEGER:
+			return new ConstantIntegerDistribution(in.readInt());
+		case UNIFORM_INTEGER:
+			return new UniformIntegerDistribution(in.readInt(), in.readInt());
+		case TRIANGULAR_INTEGER:
+			return new TriangularIntegerDistribution(in.readInt(), in.readInt(), in.readFloat());
+		case CONSTANT_LONG:
+			return new ConstantLongDistribution(in.readLong());
+		case UNIFORM_LONG:
+			return new UniformLongDistribution(in.readLong(), in.readLong());
+		case TRIANGULAR_LONG:
+			return new TriangularLongDistribution(in.readLong(), in.readLong(), in.readDouble());
+		case CONSTANT_FLOAT:
+			return new ConstantFloatDistribution(in.readFloat());
+		case UNIFORM_FLOAT:
+			return new UniformFloatDistribution(in.readFloat(), in.readFloat());
+		case TRIANGULAR_FLOAT:
+			return new TriangularFloatDistribution(in.readFloat(), in.readFloat(), in.readFloat());
+		case GAUSSIAN_FLOAT:
+			return new GaussianFloatDistribution(in.readFloat(), in.readFloat());
+		case CONSTANT_DOUBLE:
+			return new ConstantDoubleDistribution(in.readDouble());
+		case UNIFORM_DOUBLE:
+			return new UniformDoubleDistribution(in.readDouble(), in.readDouble());
+		case TRIANGULAR_DOUBLE:
+			return new TriangularDoubleDistribution(in.readDouble(), in.readDouble(), in.readDouble());
+		case GAUSSIAN_DOUBLE:
+			return new GaussianDoubleDistribution(in.readDouble(), in.readDouble());
+		default:
+			throw new SerializationException("Unknown value tag " + tag + " for attribute field '" + field.getName() + "'");
+		}
+	}
+
+	private Class<?> findClass (String className) {
+		Class<?> clazz = classCache.get(className);
+		if (clazz == null) {
+			try {
+				clazz = ClassReflection.forName(className);
+			} catch (ReflectionException e) {
+				throw new GdxRuntimeException("Cannot parse behavior tree!!!", e);
+			}
+			classCache.put(className, clazz);
+		}
+		return clazz;
+	}
+
+	private ObjectMap<String, Field> findSetters (Class<?> clazz) {
+		ObjectMap<String, Field> classSetters = setterCache.get(clazz);
+		if (classSetters == null) {
+			classSetters = new ObjectMap<String, Field>();
+			for (Field f : getAttributeFields(clazz)) {
+				f.setAccessible(true);
+				classSetters.put(f.getName(), f);
+			}
+			setterCache.put(clazz, classSetters);
+		}
+		return classSetters;
+	}
+
+	/** Returns the fields annotated with {@link TaskAttribute} of the given class. */
+	static Array<Field> getAttributeFields (Class<?> clazz) {
+		Array<Field> attributeFields = new Array<Field>();
+		for (Field f : ClassReflection.getFields(clazz))
+			if (f.getDeclaredAnnotation(TaskAttribute.class) != null) attributeFields.add(f);
+		return attributeFields;
+	}
+}
@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.msg;
+
+/** A {@code BatchTelegraph} is a {@link Telegraph} able to handle all at once the broadcast telegrams with the same message code
+ * collected by a {@link MessageDispatcher} between {@link MessageDispatcher#beginBatch() beginBatch} and
+ * {@link MessageDispatcher#endBatch() endBatch}. Telegrams dispatched outside a batch are still handled one by one by
+ * {@link #handleMessage(Telegram)}.
+ * 
+ * @author agent */
+public interface BatchTelegraph extends Telegraph {
+
+	/** Handles the batch of telegrams just received. The batch and its telegrams are only valid during this call.
+	 * @param batch The batch of telegrams sharing the same message code
+	 * @return {@code true} if the batch has been successfully handled; {@code false} otherwise. */
+	public boolean handleMessages (TelegramBatch batch);
+
+}
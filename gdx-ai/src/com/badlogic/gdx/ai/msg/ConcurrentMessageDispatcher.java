@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.msg;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/** A {@code ConcurrentMessageDispatcher} is a {@link MessageDispatcher} that accepts telegrams from any thread. Telegrams are
+ * always delivered on the thread owning the dispatcher, which is the thread that created it unless changed through
+ * {@link #setOwnerThread(Thread)}.
+ * <p>
+ * When {@code dispatchMessage} is called on the owner thread, the telegram is dispatched as usual. When it's called on any other
+ * thread, the telegram is posted to a lock-free multiple-producer single-consumer queue, and then dispatched by the owner thread at
+ * the beginning of the next {@link #update(float) update}, or as soon as {@link #dispatchPostedMessages()} is called. Posted
+ * telegrams are dispatched in the order they have been posted, and the delay of delayed telegrams starts when they are dispatched.
+ * This way worker threads can send results back to the game without ad-hoc queues, and receivers never have to worry about
+ * synchronization.
+ * <p>
+ * A telegram posted while an update is running may be left, together with the telegrams posted after it, for the next update,
+ * so it's delivered one update later.
+ * <p>
+ * All the other methods, like the ones registering listeners and providers, must be called on the owner thread.
+ * <p>
+ * This class is not available on GWT.
+ * 
+ * @author agent */
+public class ConcurrentMessageDispatcher extends MessageDispatcher {
+
+	/** The last posted message, where producers append the new ones. */
+	private final AtomicReference<PostedMessage> tail;
+
+	/** The last message dispatched by the owner thread, whose successor is the next message to dispatch. */
+	private PostedMessage head;
+
+	private volatile Thread ownerThread;
+
+	/** Creates a {@code ConcurrentMessageDispatcher} owned by the current thread and using a {@link PriorityTelegramQueue} for
+	 * delayed telegrams. */
+	public ConcurrentMessageDispatcher () {
+		this(new PriorityTelegramQueue());
+	}
+
+	/** Creates a {@code ConcurrentMessageDispatcher} owned by the current thread and using the given queue for delayed telegrams.
+	 * @param queue the queue of delayed telegrams */
+	public ConcurrentMessageDispatcher (TelegramQueue queue) {
+		super(queue);
+		this.head = new PostedMessage();
+		this.tail = new AtomicReference<PostedMessage>(head);
+		this.ownerThread = Thread.currentThread();
+	}
+
+	/** Returns the thread owning this dispatcher. */
+	public Thread getOwnerThread () {
+		return ownerThread;
+	}
+
+	/** Sets the thread owning this dispatcher, for instance when the dispatcher is not created by the game thread.
+	 * @param ownerThread the thread owning this dispatcher */
+	public void setOwnerThread (Thread ownerThread) {
+		if (ownerThread == null) throw new IllegalArgumentException("ownerThread cannot be null");
+		this.ownerThread = ownerThread;
+	}
+
+	/** Dispatches the telegram immediately if called on the owner thread; otherwise posts it to be dispatched by the owner thread.
+	 * This method can be called from any thread.
+	 * @param delay the delay in seconds
+	 * @param sender the sender of the telegram
+	 * @param receiver the receiver of the telegram; if it's {@code null} the telegram is broadcasted to all the receivers
+	 *           registered for the specified message code
+	 * @param msg the message code
+	 * @param extraInfo an optional object */
+	@Override
+	public void dispatchMessage (float delay, Telegraph sender, Telegraph receiver, int msg, Object extraInfo) {
+		if (Thread.currentThread() == ownerThread) {
+			super.dispatchMessage(delay, sender, receiver, msg, extraInfo);
+			return;
+		}
+
+		PostedMessage message = new PostedMessage();
+		message.delay = delay;
+		message.sender = sender;
+		message.receiver = receiver;
+		message.message = msg;
+		message.extraInfo = extraInfo;
+
+		// Append the message: producers are serialized by the atomic swap of the tail, then the previous tail is linked to the
+		// new one. Until the link is visible the consumer stops at the previous tail, leaving this message and any message posted
+		// after it for the next call
+		PostedMessage previous = tail.getAndSet(message);
+		previous.next = message;
+	}
+
+	/** Dispatches the telegrams posted by other threads since the last call. A telegram whose post is still in progress is not
+	 * waited for; it will be dispatched by the next call. Must be called on the owner thread. */
+	public void dispatchPostedMessages () {
+		PostedMessage message;
+		while ((message = head.next) != null) {
+			// The message becomes the new head, so release the references it holds before dispatching
+			head = message;
+			float delay = message.delay;
+			Telegraph sender = message.sender;
+			Telegraph receiver = message.receiver;
+			Object extraInfo = message.extraInfo;
+			message.sender = null;
+			message.receiver = null;
+			message.extraInfo = null;
+			super.dispatchMessage(delay, sender, receiver, message.message, extraInfo);
+		}
+	}
+
+	/** Dispatches the telegrams posted by other threads, then any telegrams with a timestamp that has expired. Must be called on
+	 * the owner thread, each time through the main game loop.
+	 * @param deltaTime the time span between the current frame and the last frame in seconds */
+	@Override
+	public void update (float deltaTime) {
+		dispatchPostedMessages();
+		super.update(deltaTime);
+	}
+
+	/** A message posted by a thread other than the owner, linked in the queue of posted messages.
+	 * 
+	 * @author agent */
+	static class PostedMessage {
+		float delay;
+		Telegraph sender;
+		Telegraph receiver;
+		int message;
+		Object extraInfo;
+		volatile PostedMessage next;
+	}
+}
@@ -16,40 +16,102 @@
 
 package com.badlogic.gdx.ai.msg;
 
+import java.util.Comparator;
+
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IdentityMap;
 import com.badlogic.gdx.utils.IntMap;
 import com.badlogic.gdx.utils.Pool;
+import com.badlogic.gdx.utils.SnapshotArray;
+import com.badlogic.gdx.utils.Sort;
+import com.badlogic.gdx.utils.TimeUtils;
 import com.badlogic.gdx.utils.reflect.ClassReflection;
 
 /** A {@code MessageDispatcher} is in charge of the creation, dispatch, and management of telegrams.
+ * <p>
+ * Each dispatcher owns the pool its telegrams are obtained from, so different dispatchers can be safely used by different
+ * threads. Delayed telegrams are ordered by time stamp only, with ties broken by the order they have been dispatched; this way
+ * queueing a telegram never calls the {@code equals} method of senders and receivers, unless the uniqueness of the queue is
+ * enabled.
+ * <p>
+ * Listeners can be safely added or removed while a telegram is being dispatched: the listeners of a message code are kept in a
+ * copy-on-write array, so the dispatch in progress is not affected.
+ * <p>
+ * Bursts of broadcast telegrams can be dispatched as a batch by enclosing them between {@link #beginBatch()} and
+ * {@link #endBatch()}. Listeners are looked up once per message code and {@link BatchTelegraph batch listeners} handle all the
+ * telegrams with the same code in a single call.
+ * <p>
+ * Delayed telegrams flooding the queue, like a message asking an agent to re-evaluate its situation sent on every frame, can be
+ * coalesced by setting a {@link CoalescingPolicy} for their message code. The policy decides what happens when a telegram is
+ * dispatched while another one with the same receiver and message code is still pending. The losing telegram is removed from the
+ * queue right away, so the queue holds at most one telegram per receiver and coalesced message code, including the telegrams
+ * already pending when the policy is set.
+ * <p>
+ * Setting a {@link MessageMetricsSink} makes the dispatcher report what happens to its telegrams, including the time spent in the
+ * message handling methods and the delivery lag of delayed telegrams. Without a sink, which is the default, the only cost is a null
+ * check. Debug mode is meant for tracing single telegrams instead, since it logs a line for each of them.
  * 
  * @author davebaol */
 public class MessageDispatcher {
 
 	private static final String LOG_TAG = MessageDispatcher.class.getSimpleName();
 
-	private static final Pool<Telegram> pool = new Pool<Telegram>(16) {
+	private final Pool<Telegram> pool = new Pool<Telegram>(16) {
 		protected Telegram newObject () {
 			return new Telegram();
 		}
 	};
 
-	private PriorityQueue<Telegram> queue;
+	private TelegramQueue queue;
+
+	private static final Comparator<Telegram> MESSAGE_COMPARATOR = new Comparator<Telegram>() {
+		@Override
+		public int compare (Telegram t1, Telegram t2) {
+			return t1.message < t2.message ? -1 : (t1.message == t2.message ? 0 : 1);
+		}
+	};
+
+	private static final Comparator<Telegram> SEQUENCE_COMPARATOR = new Comparator<Telegram>() {
+		@Override
+		public int compare (Telegram t1, Telegram t2) {
+			return t1.sequence < t2.sequence ? -1 : (t1.sequence == t2.sequence ? 0 : 1);
+		}
+	};
 
-	private IntMap<Array<Telegraph>> msgListeners;
+	private IntMap<SnapshotArray<Telegraph>> msgListeners;
 
 	private IntMap<Array<TelegramProvider>> msgProviders;
 
+	private IntMap<Coalescing> coalescings;
+
 	private float currentTime;
 
+	private long nextSequence;
+
 	private boolean debugEnabled;
 
-	/** Creates a {@code MessageDispatcher} */
+	private MessageMetricsSink metricsSink;
+
+	private int batchDepth;
+	private boolean dischargingBatch;
+	private Array<Telegram> batchTelegrams;
+	private Array<Telegram> dischargedBatchTelegrams;
+	private Sort batchSort;
+	private final TelegramBatch batch = new TelegramBatch();
+
+	/** Creates a {@code MessageDispatcher} using a {@link PriorityTelegramQueue} for delayed telegrams. */
 	public MessageDispatcher () {
-		this.queue = new PriorityQueue<Telegram>();
-		this.msgListeners = new IntMap<Array<Telegraph>>();
+		this(new PriorityTelegramQueue());
+	}
+
+	/** Creates a {@code MessageDispatcher} using the given queue for delayed telegrams.
+	 * @param queue the queue of delayed telegrams */
+	public MessageDispatcher (TelegramQueue queue) {
+		this.queue = queue;
+		this.msgListeners = new IntMap<SnapshotArray<Telegraph>>();
 		this.msgProviders = new IntMap<Array<TelegramProvider>>();
+		this.coalescings = new IntMap<Coalescing>();
 	}
 
 	/** Returns the current time. */
@@ -67,15 +129,26 @@ public class MessageDispatcher {
 		this.debugEnabled = debugEnabled;
 	}
 
+	/** Returns the sink receiving the metrics of this dispatcher, or {@code null} if metrics are disabled. */
+	public MessageMetricsSink getMetricsSink () {
+		return metricsSink;
+	}
+
+	/** Sets the sink receiving the metrics of this dispatcher.
+	 * @param metricsSink the metrics sink; {@code null} to disable metrics */
+	public void setMetricsSink (MessageMetricsSink metricsSink) {
+		this.metricsSink = metricsSink;
+	}
+
 	/** Registers a listener for the specified message code. Messages without an explicit receiver are broadcasted to all its
 	 * registered listeners.
 	 * @param listener the listener to add
 	 * @param msg the message code */
 	public void addListener (Telegraph listener, int msg) {
-		Array<Telegraph> listeners = msgListeners.get(msg);
+		SnapshotArray<Telegraph> listeners = msgListeners.get(msg);
 		if (listeners == null) {
 			// Associate an empty unordered array with the message code
-			listeners = new Array<Telegraph>(false, 16);
+			listeners = new SnapshotArray<Telegraph>(false, 16, Telegraph.class);
 			msgListeners.put(msg, listeners);
 		}
 		listeners.add(listener);
@@ -129,7 +202,7 @@ public class MessageDispatcher {
 	 * @param listener the listener to remove
 	 * @param msg the message code */
 	public void removeListener (Telegraph listener, int msg) {
-		Array<Telegraph> listeners = msgListeners.get(msg);
+		SnapshotArray<Telegraph> listeners = msgListeners.get(msg);
 		if (listeners != null) {
 			listeners.removeValue(listener, true);
 		}
@@ -182,13 +255,127 @@ public class MessageDispatcher {
 		msgProviders.clear();
 	}
 
+	/** Sets the policy coalescing the delayed telegrams with the given message code. If the message code had no policy, the
+	 * telegrams already pending with that code are coalesced right away, in the order they have been dispatched; otherwise the
+	 * pending telegrams are already coalesced and the new policy is applied to the telegrams dispatched from now on.
+	 * @param msg the message code
+	 * @param policy the coalescing policy; {@code null} to disable coalescing for the message code
+	 * @throws IllegalArgumentException if {@code policy} is {@link CoalescingPolicy#Merge Merge}, which needs an
+	 *            {@link ExtraInfoMerger} */
+	public void setCoalescingPolicy (int msg, CoalescingPolicy policy) {
+		setCoalescingPolicy(msg, policy, null);
+	}
+
+	/** Sets the policy coalescing the delayed telegrams with the given message code. If the message code had no policy, the
+	 * telegrams already pending with that code are coalesced right away, in the order they have been dispatched; otherwise the
+	 * pending telegrams are already coalesced and the new policy is applied to the telegrams dispatched from now on.
+	 * @param msg the message code
+	 * @param policy the coalescing policy; {@code null} to disable coalescing for the message code
+	 * @param merger the extra info merger, only used by the {@link CoalescingPolicy#Merge Merge} policy
+	 * @throws IllegalArgumentException if {@code policy} is {@link CoalescingPolicy#Merge Merge} and {@code merger} is
+	 *            {@code null} */
+	public void setCoalescingPolicy (int msg, CoalescingPolicy policy, ExtraInfoMerger merger) {
+		if (policy == null) {
+			coalescings.remove(msg);
+			return;
+		}
+		if (policy == CoalescingPolicy.Merge && merger == null)
+			throw new IllegalArgumentException("The Merge policy needs an extra info merger");
+		Coalescing coalescing = coalescings.get(msg);
+		if (coalescing != null) {
+			// Keep the index of the pending telegrams, which are coalesced regardless of the policy
+			coalescing.policy = policy;
+			coalescing.merger = merger;
+			return;
+		}
+		coalescing = new Coalescing(policy, merger);
+		coalescings.put(msg, coalescing);
+		if (queue.size() > 0) coalescePending(msg, coalescing);
+	}
+
+	/** Coalesces the pending telegrams with the given message code as if the policy had been set before they were dispatched. */
+	private void coalescePending (int msg, Coalescing coalescing) {
+		Array<Telegram> telegrams = new Array<Telegram>();
+		for (int i = 0, n = queue.size(); i < n; i++) {
+			Telegram telegram = queue.get(i);
+			if (telegram.message == msg) telegrams.add(telegram);
+		}
+		new Sort().sort(telegrams, SEQUENCE_COMPARATOR);
+		for (int i = 0; i < telegrams.size; i++) {
+			Telegram telegram = telegrams.get(i);
+			Telegram pending = coalescing.get(telegram.receiver);
+			if (pending != null) {
+				Telegram loser = coalescing.policy.replaces(pending, telegram, coalescing.merger) ? pending : telegram;
+				queue.remove(loser);
+				pool.free(loser);
+				if (metricsSink != null) metricsSink.messageDiscarded(msg);
+				if (loser == telegram) continue;
+			}
+			coalescing.put(telegram.receiver, telegram);
+		}
+	}
+
+	/** Returns the policy coalescing the delayed telegrams with the given message code, or {@code null} if they're not coalesced.
+	 * @param msg the message code */
+	public CoalescingPolicy getCoalescingPolicy (int msg) {
+		Coalescing coalescing = coalescings.get(msg);
+		return coalescing == null ? null : coalescing.policy;
+	}
+
 	/** Removes all the telegrams from the queue and releases them to the internal pool. */
 	public void clearQueue () {
 		for (int i = 0; i < queue.size(); i++) {
-			pool.free(queue.get(i));
+			Telegram telegram = queue.get(i);
+			if (metricsSink != null) metricsSink.messageDiscarded(telegram.message);
+			pool.free(telegram);
 		}
 		queue.clear();
+		for (Coalescing coalescing : coalescings.values())
+			coalescing.clear();
 		currentTime = 0;
+		nextSequence = 0;
+	}
+
+	/** Returns the queue of delayed telegrams; used by {@link MessageQueueSerializer}. */
+	TelegramQueue getQueue () {
+		return queue;
+	}
+
+	/** Returns the sequence number of the next delayed telegram; used by {@link MessageQueueSerializer}. */
+	long getNextSequence () {
+		return nextSequence;
+	}
+
+	/** Returns a telegram from the pool; used by {@link MessageQueueSerializer}. */
+	Telegram obtainTelegram () {
+		return pool.obtain();
+	}
+
+	/** Returns a telegram that has not been queued to the pool; used by {@link MessageQueueSerializer}. */
+	void freeTelegram (Telegram telegram) {
+		pool.free(telegram);
+	}
+
+	/** Clears the queue and sets the time and the sequence number of the next delayed telegram of a restored queue; used by
+	 * {@link MessageQueueSerializer}. */
+	void beginRestore (float currentTime, long nextSequence) {
+		clearQueue();
+		this.currentTime = currentTime;
+		this.nextSequence = nextSequence;
+	}
+
+	/** Puts a restored telegram back in the queue, bypassing the coalescing policies since the telegram was already accepted when it
+	 * was dispatched; used by {@link MessageQueueSerializer}. */
+	void restore (Telegram telegram) {
+		if (!queue.add(telegram)) {
+			pool.free(telegram);
+			return;
+		}
+		if (coalescings.size > 0) {
+			Coalescing coalescing = coalescings.get(telegram.message);
+			if (coalescing != null) coalescing.put(telegram.receiver, telegram);
+		}
+		if (metricsSink != null) metricsSink.messageRestored(telegram.message);
 	}
 
 	/** Removes all the telegrams from the queue and the registered listeners for all the messages. */
@@ -344,6 +531,8 @@ public class MessageDispatcher {
 	 * @param extraInfo an optional object */
 	public void dispatchMessage (float delay, Telegraph sender, Telegraph receiver, int msg, Object extraInfo) {
 
+		if (metricsSink != null) metricsSink.messageDispatched(msg, delay);
+
 		// Get a telegram from the pool
 		Telegram telegram = pool.obtain();
 		telegram.sender = sender;
@@ -351,8 +540,15 @@ public class MessageDispatcher {
 		telegram.message = msg;
 		telegram.extraInfo = extraInfo;
 
-		// If there is no delay, route telegram immediately
-		if (delay <= 0.0f) {
+		// If there is no delay, route telegram immediately, unless it's a broadcast within a batch
+		if (delay <= 0.0f && batchDepth > 0 && receiver == null) {
+			if (batchTelegrams == null) {
+				batchTelegrams = new Array<Telegram>();
+				dischargedBatchTelegrams = new Array<Telegram>();
+				batchSort = new Sort(); // Sort.instance() is shared among threads
+			}
+			batchTelegrams.add(telegram);
+		} else if (delay <= 0.0f) {
 			if (debugEnabled)
 				Gdx.app.log(LOG_TAG, "Instant telegram dispatched at time: " + currentTime + " by " + sender + " for " + receiver
 					+ ". Msg is " + msg);
@@ -360,14 +556,38 @@ public class MessageDispatcher {
 			// Send the telegram to the recipient
 			discharge(telegram);
 		} else {
-			// Set the timestamp for the delayed telegram
+			// Set the timestamp for the delayed telegram and its sequence number to preserve the dispatch order of simultaneous
+			// telegrams
 			telegram.setTimestamp(this.currentTime + delay);
+			telegram.sequence = nextSequence++;
+
+			// Let the coalescing policy decide whether the telegram replaces the pending one with same receiver and message code
+			Coalescing coalescing = coalescings.size == 0 ? null : coalescings.get(msg);
+			Telegram pending = coalescing == null ? null : coalescing.get(receiver);
+			if (pending != null && !coalescing.policy.replaces(pending, telegram, coalescing.merger)) {
+				if (metricsSink != null) metricsSink.messageDiscarded(msg);
+				pool.free(telegram);
+				if (debugEnabled)
+					Gdx.app.log(LOG_TAG, "Delayed telegram from " + sender + " for " + receiver + " coalesced. Msg is " + msg);
+				return;
+			}
 
 			// Put the telegram in the queue
 			boolean added = queue.add(telegram);
 
-			// Return it to the pool if has been rejected
-			if (!added) pool.free(telegram);
+			if (added) {
+				// Take the replaced telegram out of the queue, so there's at most one pending telegram per receiver and message code
+				if (pending != null) {
+					queue.remove(pending);
+					pool.free(pending);
+					if (metricsSink != null) metricsSink.messageDiscarded(msg);
+				}
+				if (coalescing != null) coalescing.put(receiver, telegram);
+			} else {
+				// Return it to the pool if has been rejected
+				if (metricsSink != null) metricsSink.messageDiscarded(msg);
+				pool.free(telegram);
+			}
 
 			if (debugEnabled) {
 				if (added)
@@ -380,6 +600,25 @@ public class MessageDispatcher {
 		}
 	}
 
+	/** Starts a batch. Until the matching call to {@link #endBatch()}, immediate telegrams without an explicit receiver are not
+	 * dispatched, but collected to be dispatched all together at the end of the batch. Delayed telegrams and telegrams with an
+	 * explicit receiver are dispatched as usual.
+	 * <p>
+	 * Batches can be nested: telegrams are dispatched at the end of the outermost batch. */
+	public void beginBatch () {
+		batchDepth++;
+	}
+
+	/** Ends a batch started by {@link #beginBatch()}. If it's the outermost batch, the telegrams collected so far are grouped by
+	 * message code and each group is dispatched to the listeners registered for its code. The listeners are looked up once per
+	 * group: {@link BatchTelegraph batch listeners} handle the whole group with a single call, while the other listeners handle
+	 * the telegrams of the group one by one.
+	 * @throws IllegalStateException if there is no batch to end */
+	public void endBatch () {
+		if (batchDepth == 0) throw new IllegalStateException("endBatch called without beginBatch");
+		if (--batchDepth == 0 && batchTelegrams != null && batchTelegrams.size > 0) dischargeBatch();
+	}
+
 	/** Dispatches any telegrams with a timestamp that has expired. Any dispatched telegrams are removed from the queue.
 	 * <p>
 	 * This method must be called each time through the main game loop.
@@ -387,14 +626,16 @@ public class MessageDispatcher {
 	public void update (float deltaTime) {
 		currentTime += deltaTime;
 
-		// Peek at the queue to see if any telegrams need dispatching.
 		// Remove all telegrams from the front of the queue that have gone
 		// past their time stamp.
 		Telegram telegram;
-		while ((telegram = queue.peek()) != null) {
+		while ((telegram = queue.poll(currentTime)) != null) {
+			if (coalescings.size > 0) {
+				Coalescing coalescing = coalescings.get(telegram.message);
+				if (coalescing != null) coalescing.remove(telegram);
+			}
 
-			// Exit loop if the telegram is in the future
-			if (telegram.getTimestamp() > currentTime) break;
+			if (metricsSink != null) metricsSink.messageDelivered(telegram.message, currentTime - telegram.getTimestamp());
 
 			if (debugEnabled) {
 				Gdx.app.log(LOG_TAG, "Queued telegram ready for dispatch: Sent to " + telegram.receiver + ". Msg is "
@@ -403,17 +644,16 @@ public class MessageDispatcher {
 
 			// Send the telegram to the recipient
 			discharge(telegram);
-
-			// Remove it from the queue
-			queue.poll();
 		}
 
+		if (metricsSink != null) metricsSink.queueUpdated(currentTime, queue.size());
 	}
 
 	/** Scans the queue and passes pending messages to the given callback in any particular order.
 	 * <p>
 	 * Typically this method is used to save (serialize) pending messages and restore (deserialize and schedule) them back on game
-	 * loading.
+	 * loading. See also {@link MessageQueueSerializer}, which does the same through a compact binary format that preserves the exact
+	 * time stamps and the delivery order of simultaneous telegrams.
 	 * @param callback The callback used to report pending messages individually. **/
 	public void scanQueue (PendingMessageCallback callback) {
 		int queueSize = queue.size();
@@ -429,31 +669,203 @@ public class MessageDispatcher {
 	 * receiving agents with the specified telegram then returns the telegram to the pool.
 	 * @param telegram the telegram to discharge */
 	private void discharge (Telegram telegram) {
+		long startTime = metricsSink != null ? TimeUtils.nanoTime() : 0;
+		boolean handled;
 		if (telegram.receiver != null) {
 			// Dispatch the telegram to the receiver specified by the telegram itself
-			if (!telegram.receiver.handleMessage(telegram)) {
+			handled = telegram.receiver.handleMessage(telegram);
+			if (!handled) {
 				// Telegram could not be handled
 				if (debugEnabled) Gdx.app.log(LOG_TAG, "Message " + telegram.message + " not handled");
 			}
 		} else {
 			// Dispatch the telegram to all the registered receivers
 			int handledCount = 0;
-			Array<Telegraph> listeners = msgListeners.get(telegram.message);
+			SnapshotArray<Telegraph> listeners = msgListeners.get(telegram.message);
 			if (listeners != null) {
-				for (int i = 0; i < listeners.size; i++) {
-					if (listeners.get(i).handleMessage(telegram)) {
-						handledCount++;
+				Telegraph[] items = listeners.begin();
+				try {
+					for (int i = 0, n = listeners.size; i < n; i++) {
+						if (items[i].handleMessage(telegram)) {
+							handledCount++;
+						}
 					}
+				} finally {
+					listeners.end();
 				}
 			}
+			handled = handledCount > 0;
 			// Telegram could not be handled
-			if (debugEnabled && handledCount == 0) Gdx.app.log(LOG_TAG, "Message " + telegram.message + " not handled");
+			if (debugEnabled && !handled) Gdx.app.log(LOG_TAG, "Message " + telegram.message + " not handled");
 		}
 
+		if (metricsSink != null) metricsSink.messageHandled(telegram.message, 1, handled, TimeUtils.nanoTime() - startTime);
+
 		// Release the telegram to the pool
 		pool.free(telegram);
 	}
 
+	/** Dispatches the telegrams collected by the batch, group by group, then releases them to the pool. Telegrams collected by
+	 * batches ended while dispatching are dispatched as well. If a handler throws, the telegrams of the batch being dispatched are
+	 * released without being dispatched to the remaining listeners. */
+	private void dischargeBatch () {
+		// Telegrams collected by a nested batch are picked up by the loop below
+		if (dischargingBatch) return;
+
+		dischargingBatch = true;
+		try {
+			while (batchTelegrams.size > 0) {
+				// Swap the arrays, so that handlers can start new batches while this one is dispatched
+				Array<Telegram> telegrams = batchTelegrams;
+				batchTelegrams = dischargedBatchTelegrams;
+				dischargedBatchTelegrams = telegrams;
+
+				// Group the telegrams by message code; the sort is stable so the dispatch order is kept within each group
+				batchSort.sort(telegrams, MESSAGE_COMPARATOR);
+				for (int start = 0, end; start < telegrams.size; start = end) {
+					int message = telegrams.get(start).message;
+					for (end = start + 1; end < telegrams.size && telegrams.get(end).message == message; end++)
+						;
+					batch.set(telegrams, start, end - start);
+					dischargeBatch(batch);
+				}
+
+				for (int i = 0; i < telegrams.size; i++)
+					pool.free(telegrams.get(i));
+				telegrams.clear();
+			}
+		} finally {
+			// Never dispatch the telegrams again if a handler has thrown
+			Array<Telegram> telegrams = dischargedBatchTelegrams;
+			for (int i = 0; i < telegrams.size; i++)
+				pool.free(telegrams.get(i));
+			telegrams.clear();
+			dischargingBatch = false;
+		}
+	}
+
+	private void dischargeBatch (TelegramBatch batch) {
+		long startTime = metricsSink != null ? TimeUtils.nanoTime() : 0;
+		int handledCount = 0;
+		SnapshotArray<Telegraph> listeners = msgListeners.get(batch.getMessage());
+		if (listeners != null) {
+			Telegraph[] items = listeners.begin();
+			try {
+				for (int i = 0, n = listeners.size; i < n; i++) {
+					Telegraph listener = items[i];
+					if (listener instanceof BatchTelegraph) {
+						if (((BatchTelegraph)listener).handleMessages(batch)) handledCount++;
+					} else {
+						for (int j = 0; j < batch.size(); j++)
+							if (listener.handleMessage(batch.get(j))) handledCount++;
+					}
+				}
+			} finally {
+				listeners.end();
+			}
+		}
+		if (metricsSink != null)
+			metricsSink.messageHandled(batch.getMessage(), batch.size(), handledCount > 0, TimeUtils.nanoTime() - startTime);
+		// Telegrams could not be handled
+		if (debugEnabled && handledCount == 0) Gdx.app.log(LOG_TAG, "Message " + batch.getMessage() + " not handled");
+	}
+
+	/** The enumeration of the policies coalescing the delayed telegrams with the same receiver and message code. Broadcast
+	 * telegrams are coalesced with each other as well. */
+	public enum CoalescingPolicy {
+		/** The new telegram replaces the pending one. */
+		KeepLatest() {
+			@Override
+			boolean replaces (Telegram pending, Telegram telegram, ExtraInfoMerger merger) {
+				return true;
+			}
+		},
+		/** The telegram due first is kept and the other one is discarded. If they're due at the same time the pending telegram is
+		 * kept. */
+		KeepEarliest() {
+			@Override
+			boolean replaces (Telegram pending, Telegram telegram, ExtraInfoMerger merger) {
+				return telegram.getTimestamp() < pending.getTimestamp();
+			}
+		},
+		/** The pending telegram is kept and the extra info of the new telegram is merged into it through an
+		 * {@link ExtraInfoMerger}. */
+		Merge() {
+			@Override
+			boolean replaces (Telegram pending, Telegram telegram, ExtraInfoMerger merger) {
+				pending.extraInfo = merger.merge(pending, telegram.extraInfo);
+				return false;
+			}
+		},
+		/** The new telegram is discarded. */
+		DropNew() {
+			@Override
+			boolean replaces (Telegram pending, Telegram telegram, ExtraInfoMerger merger) {
+				return false;
+			}
+		};
+
+		/** Coalesces the given telegrams.
+		 * @param pending the pending telegram
+		 * @param telegram the telegram just dispatched
+		 * @param merger the extra info merger
+		 * @return {@code true} if the new telegram replaces the pending one; {@code false} if it has to be discarded. */
+		abstract boolean replaces (Telegram pending, Telegram telegram, ExtraInfoMerger merger);
+	}
+
+	/** An {@code ExtraInfoMerger} is used by the {@link CoalescingPolicy#Merge Merge} coalescing policy to merge the extra info of a
+	 * new telegram into the pending one.
+	 * 
+	 * @author agent */
+	public interface ExtraInfoMerger {
+
+		/** Merges the extra info of a new telegram into the pending one.
+		 * @param pending the pending telegram
+		 * @param extraInfo the extra info of the new telegram
+		 * @return the extra info of the pending telegram after the merge */
+		public Object merge (Telegram pending, Object extraInfo);
+	}
+
+	/** The index of the pending telegrams with a given message code, keyed by receiver.
+	 * 
+	 * @author agent */
+	private static class Coalescing {
+		CoalescingPolicy policy;
+		ExtraInfoMerger merger;
+		final IdentityMap<Telegraph, Telegram> pending;
+		Telegram pendingBroadcast;
+
+		Coalescing (CoalescingPolicy policy, ExtraInfoMerger merger) {
+			this.policy = policy;
+			this.merger = merger;
+			this.pending = new IdentityMap<Telegraph, Telegram>();
+		}
+
+		Telegram get (Telegraph receiver) {
+			return receiver == null ? pendingBroadcast : pending.get(receiver);
+		}
+
+		void put (Telegraph receiver, Telegram telegram) {
+			if (receiver == null)
+				pendingBroadcast = telegram;
+			else
+				pending.put(receiver, telegram);
+		}
+
+		void remove (Telegram telegram) {
+			if (get(telegram.receiver) != telegram) return;
+			if (telegram.receiver == null)
+				pendingBroadcast = null;
+			else
+				pending.remove(telegram.receiver);
+		}
+
+		void clear () {
+			pending.clear();
+			pendingBroadcast = null;
+		}
+	}
+
 	/** A {@code PendingMessageCallback} is used by the {@link MessageDispatcher#scanQueue(PendingMessageCallback) scanQueue} method
 	 * of the {@link MessageDispatcher} to report its pending messages individually.
 	 * 
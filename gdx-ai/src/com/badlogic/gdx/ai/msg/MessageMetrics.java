@@ -0,0 +1,206 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.msg;
+
+import com.badlogic.gdx.utils.IntMap;
+
+/** A {@link MessageMetricsSink} collecting, per message code, the number of dispatched, restored, delivered, discarded, handled
+ * and unhandled telegrams, the number of pending telegrams, the time spent in the message handling methods and the delivery lag
+ * of delayed telegrams. Times and lags are also recorded in histograms with power-of-two buckets, so that outliers stand out.
+ * <p>
+ * Typical usage is to periodically log the {@link #getMetrics() metrics} sorted by {@link Metrics#handleTime} to find which
+ * messages eat the frame budget, then {@link #reset()} them.
+ * 
+ * @author agent */
+public class MessageMetrics implements MessageMetricsSink {
+
+	private final IntMap<Metrics> metrics;
+
+	/** The size of the queue at the end of the last update. */
+	public int queueSize;
+
+	/** The largest size of the queue at the end of an update since the creation or the last reset. */
+	public int queuePeak;
+
+	/** Creates an empty {@code MessageMetrics}. */
+	public MessageMetrics () {
+		this.metrics = new IntMap<Metrics>();
+	}
+
+	/** Returns the metrics of the given message code, or {@code null} if no telegram with that code has been dispatched yet.
+	 * @param msg the message code */
+	public Metrics getMetrics (int msg) {
+		return metrics.get(msg);
+	}
+
+	/** Returns the metrics of all the message codes dispatched so far. */
+	public IntMap.Values<Metrics> getMetrics () {
+		return metrics.values();
+	}
+
+	/** Resets all the metrics. The number of pending telegrams is kept, since they're still in the queue. */
+	public void reset () {
+		for (Metrics m : metrics.values())
+			m.reset();
+		queuePeak = queueSize;
+	}
+
+	private Metrics obtain (int msg) {
+		Metrics m = metrics.get(msg);
+		if (m == null) metrics.put(msg, m = new Metrics(msg));
+		return m;
+	}
+
+	@Override
+	public void messageDispatched (int msg, float delay) {
+		Metrics m = obtain(msg);
+		m.dispatchCount++;
+		if (delay > 0) {
+			m.delayedCount++;
+			m.pendingCount++;
+		}
+	}
+
+	@Override
+	public void messageRestored (int msg) {
+		Metrics m = obtain(msg);
+		m.restoredCount++;
+		m.pendingCount++;
+	}
+
+	@Override
+	public void messageDiscarded (int msg) {
+		Metrics m = obtain(msg);
+		m.discardedCount++;
+		m.pendingCount--;
+	}
+
+	@Override
+	public void messageDelivered (int msg, float lag) {
+		Metrics m = obtain(msg);
+		m.deliveredCount++;
+		m.pendingCount--;
+		m.lagHistogram.add((long)(lag * 1000000)); // microseconds
+	}
+
+	@Override
+	public void messageHandled (int msg, int telegramCount, boolean handled, long nanoTime) {
+		Metrics m = obtain(msg);
+		if (handled)
+			m.handledCount += telegramCount;
+		else
+			m.unhandledCount += telegramCount;
+		m.handleTime += nanoTime;
+		m.handleTimeHistogram.add(nanoTime);
+	}
+
+	@Override
+	public void queueUpdated (float currentTime, int queueSize) {
+		this.queueSize = queueSize;
+		if (queueSize > queuePeak) queuePeak = queueSize;
+	}
+
+	/** The metrics of a message code.
+	 * 
+	 * @author agent */
+	public static class Metrics {
+		/** The message code. */
+		public final int message;
+		/** The number of telegrams dispatched, either immediate or delayed. */
+		public int dispatchCount;
+		/** The number of delayed telegrams dispatched. */
+		public int delayedCount;
+		/** The number of delayed telegrams put back in the queue by restoring a snapshot. */
+		public int restoredCount;
+		/** The number of delayed telegrams delivered. */
+		public int deliveredCount;
+		/** The number of delayed telegrams discarded. */
+		public int discardedCount;
+		/** The number of delayed telegrams currently in the queue; this number is not reset. */
+		public int pendingCount;
+		/** The number of telegrams handled by at least one receiver. */
+		public int handledCount;
+		/** The number of telegrams not handled by any receiver. */
+		public int unhandledCount;
+		/** The total time in nanoseconds spent in the message handling methods. */
+		public long handleTime;
+		/** The histogram of the time in nanoseconds spent in the message handling methods, per telegram or batch. */
+		public final Histogram handleTimeHistogram = new Histogram();
+		/** The histogram of the delivery lag of delayed telegrams in microseconds. */
+		public final Histogram lagHistogram = new Histogram();
+
+		public Metrics (int message) {
+			this.message = message;
+		}
+
+		public void reset () {
+			dispatchCount = 0;
+			delayedCount = 0;
+			restoredCount = 0;
+			deliveredCount = 0;
+			discardedCount = 0;
+			handledCount = 0;
+			unhandledCount = 0;
+			handleTime = 0;
+			handleTimeHistogram.reset();
+			lagHistogram.reset();
+		}
+	}
+
+	/** A histogram of non-negative values with power-of-two buckets: bucket 0 counts the zeros and bucket {@code i > 0} counts the
+	 * values in the range [2<sup>i-1</sup>, 2<sup>i</sup>).
+	 * 
+	 * @author agent */
+	public static class Histogram {
+		/** The number of values in each bucket. */
+		public final int[] buckets = new int[64];
+		/** The number of values. */
+		public int count;
+		/** The largest value. */
+		public long max;
+
+		public Histogram () {
+		}
+
+		/** Adds the given value; negative values are counted as zero. */
+		public void add (long value) {
+			if (value < 0) value = 0;
+			buckets[64 - Long.numberOfLeadingZeros(value)]++;
+			count++;
+			if (value > max) max = value;
+		}
+
+		/** Returns an upper bound of the given percentile, that is the exclusive upper bound of the bucket containing it.
+		 * @param percentile the percentile in the range [0, 1] */
+		public long getPercentile (float percentile) {
+			int rank = (int)Math.ceil(percentile * count);
+			int cumulated = 0;
+			for (int i = 0; i < buckets.length; i++) {
+				cumulated += buckets[i];
+				if (cumulated >= rank && cumulated > 0) return i == 63 ? Long.MAX_VALUE : 1L << i;
+			}
+			return 0;
+		}
+
+		public void reset () {
+			for (int i = 0; i < buckets.length; i++)
+				buckets[i] = 0;
+			count = 0;
+			max = 0;
+		}
+	}
+}
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.msg;
+
+/** A {@code MessageMetricsSink} receives the metrics of a {@link MessageDispatcher}, which reports them only when a sink has been
+ * set through {@link MessageDispatcher#setMetricsSink(MessageMetricsSink) setMetricsSink}. When no sink is set the dispatcher
+ * doesn't even read the clock.
+ * <p>
+ * All the methods are called on the thread dispatching the telegrams, so implementations should be as cheap as possible.
+ * {@link MessageMetrics} is a ready-made implementation collecting per message code counters and histograms.
+ * 
+ * @author agent */
+public interface MessageMetricsSink {
+
+	/** Reports that a telegram has been dispatched.
+	 * @param msg the message code
+	 * @param delay the delay in seconds; zero or negative for immediate telegrams */
+	public void messageDispatched (int msg, float delay);
+
+	/** Reports that a delayed telegram has been put back in the queue by a {@link MessageQueueSerializer} restoring a snapshot.
+	 * Restored telegrams are not reported as dispatched, since they were already reported when they were dispatched the first time.
+	 * @param msg the message code */
+	public void messageRestored (int msg);
+
+	/** Reports that a delayed telegram has left the queue without being delivered, because it has been rejected by the queue,
+	 * coalesced with a pending telegram, replaced by a new telegram or cleared.
+	 * @param msg the message code */
+	public void messageDiscarded (int msg);
+
+	/** Reports that a delayed telegram has expired and is about to be delivered.
+	 * @param msg the message code
+	 * @param lag the time in seconds elapsed between the time stamp of the telegram and its delivery */
+	public void messageDelivered (int msg, float lag);
+
+	/** Reports that some telegrams have been handled by their receivers. Each telegram is reported once, no matter how many
+	 * listeners it has been broadcasted to, with the exception of batches that are reported all together.
+	 * @param msg the message code
+	 * @param telegramCount the number of telegrams
+	 * @param handled whether at least one receiver has handled the telegrams
+	 * @param nanoTime the time in nanoseconds spent in the message handling methods of the receivers */
+	public void messageHandled (int msg, int telegramCount, boolean handled, long nanoTime);
+
+	/** Reports the size of the queue at the end of each {@link MessageDispatcher#update(float) update}.
+	 * @param currentTime the current time of the dispatcher
+	 * @param queueSize the number of telegrams in the queue */
+	public void queueUpdated (float currentTime, int queueSize);
+
+}
@@ -0,0 +1,229 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.msg;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import com.badlogic.gdx.utils.Array;
+
+/** A {@code MessageQueueSerializer} writes a snapshot of the delayed telegrams of a {@link MessageDispatcher} to a binary stream and
+ * restores it, for instance for save games or server rollback. Senders, receivers and extra info are written as integer ids
+ * provided by user-supplied {@link IdMapper id mappers}.
+ * <p>
+ * The snapshot holds the current time of the dispatcher and, for each pending telegram, its exact time stamp, its sequence number,
+ * its message code and the ids of its sender, receiver and extra info. Telegrams are written in the internal order of the queue,
+ * which for the default {@link PriorityTelegramQueue} is the order of its heap. Restored telegrams are added to the queue one by
+ * one, so any queue can read any snapshot; when a heap is restored into a {@code PriorityTelegramQueue}, each added telegram is
+ * already in place and its sift up stops at the first comparison, so restoring never has to sort. After a restore the dispatcher
+ * delivers the telegrams exactly as it would have done without the snapshot.
+ * Telegrams are encoded in memory and written with a single call, and integers are written in a variable length format, so a
+ * snapshot takes about a dozen bytes per telegram with small ids.
+ * <p>
+ * When restoring, the coalescing policies of the dispatcher should be the same as when the snapshot was written.
+ * <p>
+ * This class is not available on GWT.
+ * 
+ * @author agent */
+public class MessageQueueSerializer {
+
+	private static final int VERSION = 1;
+
+	private final IdMapper<Telegraph> telegraphMapper;
+	private final IdMapper<Object> extraInfoMapper;
+
+	/** The buffer holding the encoded telegrams, so that the stream is accessed only once per snapshot. */
+	private byte[] buffer;
+	private int position;
+	/** The number of bytes read into the buffer. */
+	private int limit;
+
+	/** The telegrams decoded by {@link #read(MessageDispatcher, DataInput)}, restored only once the whole snapshot is decoded. */
+	private final Array<Telegram> telegrams = new Array<Telegram>();
+
+	/** Creates a {@code MessageQueueSerializer} with the given id mappers.
+	 * @param telegraphMapper the id mapper of senders and receivers
+	 * @param extraInfoMapper the id mapper of extra info */
+	public MessageQueueSerializer (IdMapper<Telegraph> telegraphMapper, IdMapper<Object> extraInfoMapper) {
+		this.telegraphMapper = telegraphMapper;
+		this.extraInfoMapper = extraInfoMapper;
+		this.buffer = new byte[1024];
+	}
+
+	/** Writes the pending telegrams of the given dispatcher to the given output.
+	 * @param dispatcher the message dispatcher
+	 * @param output the output
+	 * @throws IOException if an I/O error occurs */
+	public void write (MessageDispatcher dispatcher, DataOutput output) throws IOException {
+		TelegramQueue queue = dispatcher.getQueue();
+		int queueSize = queue.size();
+		int count = 0;
+		position = 0;
+		for (int i = 0; i < queueSize; i++) {
+			Telegram telegram = queue.get(i);
+			count++;
+			writeInt(Float.floatToIntBits(telegram.getTimestamp()));
+			writeVarLong(telegram.sequence);
+			writeVarInt(telegram.message);
+			// Ids are shifted by one so that null is 0
+			writeVarInt(telegram.sender == null ? 0 : telegraphMapper.getId(telegram.sender) + 1);
+			writeVarInt(telegram.receiver == null ? 0 : telegraphMapper.getId(telegram.receiver) + 1);
+			writeVarInt(telegram.extraInfo == null ? 0 : extraInfoMapper.getId(telegram.extraInfo) + 1);
+		}
+
+		output.writeInt(VERSION);
+		output.writeFloat(dispatcher.getCurrentTime());
+		output.writeLong(dispatcher.getNextSequence());
+		output.writeInt(count);
+		output.writeInt(position);
+		output.write(buffer, 0, position);
+	}
+
+	/** Replaces the pending telegrams of the given dispatcher, as well as its current time, with the ones read from the given
+	 * input. The registered listeners and providers are left untouched. The whole snapshot is decoded before the dispatcher is
+	 * modified, so the pending telegrams are left untouched if the snapshot can't be read.
+	 * @param dispatcher the message dispatcher
+	 * @param input the input
+	 * @throws IOException if an I/O error occurs, or the snapshot has an unsupported version or is truncated or corrupted */
+	public void read (MessageDispatcher dispatcher, DataInput input) throws IOException {
+		int version = input.readInt();
+		if (version != VERSION) throw new IOException("Unsupported message queue snapshot version: " + version);
+		float currentTime = input.readFloat();
+		long nextSequence = input.readLong();
+		int count = input.readInt();
+		int length = input.readInt();
+		if (count < 0 || length < 0) throw new IOException("Corrupted message queue snapshot");
+		if (buffer.length < length) buffer = new byte[length];
+		input.readFully(buffer, 0, length);
+		position = 0;
+		limit = length;
+
+		Array<Telegram> telegrams = this.telegrams;
+		boolean decoded = false;
+		try {
+			for (int i = 0; i < count; i++) {
+				Telegram telegram = dispatcher.obtainTelegram();
+				telegrams.add(telegram);
+				telegram.setTimestamp(Float.intBitsToFloat(readInt()));
+				telegram.sequence = readVarLong();
+				telegram.message = readVarInt();
+				int senderId = readVarInt();
+				int receiverId = readVarInt();
+				int extraInfoId = readVarInt();
+				telegram.sender = senderId == 0 ? null : telegraphMapper.getObject(senderId - 1);
+				telegram.receiver = receiverId == 0 ? null : telegraphMapper.getObject(receiverId - 1);
+				telegram.extraInfo = extraInfoId == 0 ? null : extraInfoMapper.getObject(extraInfoId - 1);
+			}
+			decoded = true;
+		} finally {
+			// Give the telegrams back to the pool if the snapshot is truncated or corrupted
+			if (!decoded) {
+				for (int i = 0; i < telegrams.size; i++)
+					dispatcher.freeTelegram(telegrams.get(i));
+				telegrams.clear();
+			}
+		}
+
+		dispatcher.beginRestore(currentTime, nextSequence);
+		for (int i = 0; i < count; i++)
+			dispatcher.restore(telegrams.get(i));
+		telegrams.clear();
+	}
+
+	private void ensureCapacity (int additional) {
+		if (position + additional > buffer.length) {
+			byte[] newBuffer = new byte[Math.max(buffer.length * 2, position + additional)];
+			System.arraycopy(buffer, 0, newBuffer, 0, position);
+			buffer = newBuffer;
+		}
+	}
+
+	private void writeInt (int value) {
+		ensureCapacity(4);
+		buffer[position++] = (byte)(value >>> 24);
+		buffer[position++] = (byte)(value >>> 16);
+		buffer[position++] = (byte)(value >>> 8);
+		buffer[position++] = (byte)value;
+	}
+
+	private int readInt () throws IOException {
+		if (position + 4 > limit) throw new IOException("Truncated message queue snapshot");
+		return (buffer[position++] & 0xFF) << 24 | (buffer[position++] & 0xFF) << 16 | (buffer[position++] & 0xFF) << 8
+			| (buffer[position++] & 0xFF);
+	}
+
+	private int readByte () throws IOException {
+		if (position >= limit) throw new IOException("Truncated message queue snapshot");
+		return buffer[position++];
+	}
+
+	/** Writes an int using 1 to 5 bytes; small non-negative values take fewer bytes. */
+	private void writeVarInt (int value) {
+		ensureCapacity(5);
+		while ((value & ~0x7F) != 0) {
+			buffer[position++] = (byte)((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buffer[position++] = (byte)value;
+	}
+
+	private int readVarInt () throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = readByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) return value;
+		}
+		throw new IOException("Malformed variable length int");
+	}
+
+	/** Writes a long using 1 to 10 bytes; small non-negative values take fewer bytes. */
+	private void writeVarLong (long value) {
+		ensureCapacity(10);
+		while ((value & ~0x7FL) != 0) {
+			buffer[position++] = (byte)((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buffer[position++] = (byte)value;
+	}
+
+	private long readVarLong () throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = readByte();
+			value |= (long)(b & 0x7F) << shift;
+			if ((b & 0x80) == 0) return value;
+		}
+		throw new IOException("Malformed variable length long");
+	}
+
+	/** An {@code IdMapper} maps objects to integer ids and back. Ids must be non-negative and {@code null} is never passed to nor
+	 * expected from the mapper.
+	 * 
+	 * @param <T> Type of the mapped objects
+	 * 
+	 * @author agent */
+	public interface IdMapper<T> {
+
+		/** Returns the id of the given object. */
+		public int getId (T object);
+
+		/** Returns the object with the given id. */
+		public T getObject (int id);
+	}
+}
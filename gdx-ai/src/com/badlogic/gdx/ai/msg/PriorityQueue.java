@@ -43,7 +43,9 @@ import com.badlogic.gdx.utils.ObjectSet;
  * 
  * <p>
  * Implementation note: this implementation provides O(log(n)) time for the enqueing and dequeing methods ({@code add} and
- * {@code poll} ; and constant time for the retrieval methods ({@code peek} and {@code size}).
+ * {@code poll} ; and constant time for the retrieval methods ({@code peek} and {@code size}). The {@code remove} method takes
+ * linear time to find the element, unless a subclass keeps track of the position of its elements through
+ * {@link #indexChanged(Comparable, int) indexChanged} and {@link #indexOf(Comparable) indexOf}.
  * 
  * @param <E> the type of comparable elements held in this queue
  * 
@@ -108,13 +110,46 @@ public class PriorityQueue<E extends Comparable<E>> {
 		int i = size;
 		if (i >= queue.length) growToSize(i + 1);
 		size = i + 1;
-		if (i == 0)
-			queue[0] = e;
-		else
-			siftUp(i, e);
+		siftUp(i, e);
 		return true;
 	}
 
+	/** Removes the given element from this queue, if present. Elements are compared by identity.
+	 * 
+	 * @return true if the element was removed from this queue, else false */
+	@SuppressWarnings("unchecked")
+	public boolean remove (E e) {
+		int i = indexOf(e);
+		if (i < 0) return false;
+		int s = --size;
+		E x = (E)queue[s];
+		queue[s] = null;
+		if (s != i) {
+			// The last element takes the place of the removed one and moves either down or up the tree
+			siftDown(i, x);
+			if (queue[i] == x) siftUp(i, x);
+		}
+		if (uniqueness) set.remove(e);
+		return true;
+	}
+
+	/** Returns the position of the given element in the heap, or -1 if it's not in this queue. This implementation scans the whole
+	 * heap; subclasses keeping track of the position of their elements can do better.
+	 * 
+	 * @param e the element to look for */
+	protected int indexOf (E e) {
+		for (int i = 0; i < size; i++)
+			if (queue[i] == e) return i;
+		return -1;
+	}
+
+	/** Called whenever an element is stored at a new position of the heap. This implementation does nothing.
+	 * 
+	 * @param e the element
+	 * @param index the new position of the element */
+	protected void indexChanged (E e, int index) {
+	}
+
 	/** Retrieves, but does not remove, the head of this queue. If this queue is empty {@code null} is returned.
 	 * 
 	 * @return the head of this queue */
@@ -173,9 +208,11 @@ public class PriorityQueue<E extends Comparable<E>> {
 			E e = (E)queue[parent];
 			if (x.compareTo(e) >= 0) break;
 			queue[k] = e;
+			indexChanged(e, k);
 			k = parent;
 		}
 		queue[k] = x;
+		indexChanged(x, k);
 	}
 
 	/** Inserts item x at position k, maintaining heap invariant by demoting x down the tree repeatedly until it is less than or
@@ -193,9 +230,11 @@ public class PriorityQueue<E extends Comparable<E>> {
 			if (right < size && c.compareTo((E)queue[right]) > 0) c = (E)queue[child = right];
 			if (x.compareTo(c) <= 0) break;
 			queue[k] = c;
+			indexChanged(c, k);
 			k = child;
 		}
 		queue[k] = x;
+		indexChanged(x, k);
 	}
 
 	/** Increases the capacity of the array.
@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.msg;
+
+/** A {@link TelegramQueue} based on a {@link PriorityQueue}. It provides O(log(n)) time for insertion, retrieval and removal of
+ * telegrams and it's the queue used by default by the {@link MessageDispatcher}.
+ * 
+ * @author agent */
+public class PriorityTelegramQueue extends PriorityQueue<Telegram> implements TelegramQueue {
+
+	/** Creates a {@code PriorityTelegramQueue} with the default initial capacity. */
+	public PriorityTelegramQueue () {
+		super();
+	}
+
+	/** Creates a {@code PriorityTelegramQueue} with the specified initial capacity.
+	 * 
+	 * @param initialCapacity the initial capacity for this queue */
+	public PriorityTelegramQueue (int initialCapacity) {
+		super(initialCapacity);
+	}
+
+	@Override
+	public Telegram poll (float time) {
+		Telegram telegram = peek();
+		if (telegram == null || telegram.getTimestamp() > time) return null;
+		return poll();
+	}
+
+	@Override
+	protected int indexOf (Telegram telegram) {
+		int index = telegram.queueIndex;
+		return index >= 0 && get(index) == telegram ? index : -1;
+	}
+
+	@Override
+	protected void indexChanged (Telegram telegram, int index) {
+		telegram.queueIndex = index;
+	}
+
+}
@@ -35,6 +35,13 @@ public class Telegram implements Comparable<Telegram>, Poolable {
 	 * stamped with the time the message should be dispatched. */
 	private float timestamp;
 
+	/** The order in which this telegram has been queued by its dispatcher. It's used to break ties between telegrams with the same
+	 * time stamp. */
+	long sequence;
+
+	/** The position of this telegram in the queue of its dispatcher, maintained by the queue to remove the telegram quickly. */
+	int queueIndex;
+
 	/** Any additional information that may accompany the message */
 	public Object extraInfo;
 
@@ -59,12 +66,17 @@ public class Telegram implements Comparable<Telegram>, Poolable {
 		this.message = 0;
 		this.extraInfo = null;
 		this.timestamp = 0;
+		this.sequence = 0;
+		this.queueIndex = 0;
 	}
 
+	/** Compares this telegram with the specified one for order. Telegrams are ordered by time stamp and then by the order they have
+	 * been queued, so sender and receiver are never compared. */
 	@Override
 	public int compareTo (Telegram other) {
-		if (this.equals(other)) return 0;
-		return (this.timestamp - other.timestamp < 0) ? -1 : 1;
+		if (this.timestamp != other.timestamp) return this.timestamp < other.timestamp ? -1 : 1;
+		if (this.sequence != other.sequence) return this.sequence < other.sequence ? -1 : 1;
+		return 0;
 	}
 
 	@Override
@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.msg;
+
+import com.badlogic.gdx.utils.Array;
+
+/** A {@code TelegramBatch} is a read-only view on the broadcast telegrams with the same message code collected by a
+ * {@link MessageDispatcher} during a batch. Telegrams are in the order they have been dispatched.
+ * 
+ * @author agent */
+public class TelegramBatch {
+
+	private Array<Telegram> telegrams;
+	private int offset;
+	private int size;
+	private int message;
+
+	TelegramBatch () {
+	}
+
+	void set (Array<Telegram> telegrams, int offset, int size) {
+		this.telegrams = telegrams;
+		this.offset = offset;
+		this.size = size;
+		this.message = telegrams.get(offset).message;
+	}
+
+	/** Returns the message code shared by the telegrams of this batch. */
+	public int getMessage () {
+		return message;
+	}
+
+	/** Returns the number of telegrams in this batch. */
+	public int size () {
+		return size;
+	}
+
+	/** Returns the telegram at the given index.
+	 * @throws IndexOutOfBoundsException if the index is not in the range [0, size) */
+	public Telegram get (int index) {
+		if (index < 0 || index >= size) throw new IndexOutOfBoundsException("index can't be >= size: " + index + " >= " + size);
+		return telegrams.get(offset + index);
+	}
+
+}
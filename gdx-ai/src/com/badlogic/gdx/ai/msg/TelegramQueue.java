@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.msg;
+
+/** A {@code TelegramQueue} holds the delayed telegrams of a {@link MessageDispatcher} until their time stamp expires. The queue
+ * implementation is chosen when the dispatcher is created.
+ * <p>
+ * The queue can be set to accept or reject the insertion of non unique telegrams through the method {@code setUniqueness}.
+ * Uniqueness is disabled by default.
+ * 
+ * @author agent */
+public interface TelegramQueue {
+
+	/** Inserts the specified telegram into this queue. If {@code uniqueness} is enabled and this queue already contains the
+	 * telegram, the call leaves the queue unchanged and returns false.
+	 * 
+	 * @return true if the telegram was added to this queue, else false
+	 * @throws NullPointerException if the specified telegram is null */
+	public boolean add (Telegram telegram);
+
+	/** Retrieves and removes the earliest telegram whose time stamp is not greater than the given time, or returns {@code null} if
+	 * there is no such telegram. Telegrams with the same time stamp are retrieved in the order they have been queued by the
+	 * dispatcher.
+	 * 
+	 * @param time the current time
+	 * @return the earliest expired telegram, or {@code null} if no telegram has expired. */
+	public Telegram poll (float time);
+
+	/** Removes the given telegram from this queue, if present. Telegrams are compared by identity.
+	 * 
+	 * @return true if the telegram was removed from this queue, else false */
+	public boolean remove (Telegram telegram);
+
+	/** Retrieves the telegram at the specified index. If such a telegram doesn't exist {@code null} is returned.
+	 * <p>
+	 * Iterating the queue by index is <em>not</em> guaranteed to traverse the telegrams in any particular order.
+	 * 
+	 * @return the telegram at the specified index in this queue. */
+	public Telegram get (int index);
+
+	/** Returns the number of telegrams in this queue. */
+	public int size ();
+
+	/** Removes all of the telegrams from this queue. The queue will be empty after this call returns. */
+	public void clear ();
+
+	/** Returns a value indicating whether only unique telegrams are allowed to be inserted. */
+	public boolean getUniqueness ();
+
+	/** Sets a flag indicating whether only unique telegrams are allowed to be inserted. */
+	public void setUniqueness (boolean uniqueness);
+
+}
@@ -0,0 +1,276 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.msg;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectSet;
+
+/** A {@link TelegramQueue} based on a hierarchical timing wheel, providing O(1) amortized time for both insertion and retrieval of
+ * telegrams. It's meant for dispatchers having a large number of pending telegrams, where the O(log(n)) cost of the
+ * {@link PriorityTelegramQueue} becomes noticeable.
+ * <p>
+ * Time is divided into ticks of the given resolution. The wheel is made of 4 levels of 256 slots each: a slot of the first level
+ * holds the telegrams of a single tick, while a slot of each next level covers 256 times the ticks of a slot of the previous one.
+ * Telegrams are cascaded to the lower levels as time goes on and moved to a small priority queue when their tick comes, so that
+ * they're still retrieved in the exact order of their time stamps. Telegrams further in the future than the wheel can hold
+ * (2<sup>32</sup> ticks) are kept in an overflow list. Removing a telegram takes time proportional to the number of telegrams sharing its slot.
+ * <p>
+ * The resolution only affects performance: the finer the resolution, the fewer telegrams share the same tick, but the more slots
+ * have to be visited when they're sparse. A resolution close to the duration of a frame is usually a good choice.
+ * 
+ * @author agent */
+public class TimingWheelTelegramQueue implements TelegramQueue {
+
+	private static final int SLOT_BITS = 8;
+	private static final int SLOT_COUNT = 1 << SLOT_BITS;
+	private static final int SLOT_MASK = SLOT_COUNT - 1;
+	private static final int LEVELS = 4;
+
+	private final float resolution;
+
+	/** The slots of each level of the wheel, lazily created. */
+	private final Array<Telegram>[][] wheels;
+
+	/** The telegrams beyond the time span of the wheel. */
+	private final Array<Telegram> overflow;
+
+	/** The telegrams whose tick is not greater than the current tick, ordered by time stamp. */
+	private final PriorityTelegramQueue ready;
+
+	/** The current tick. All the telegrams up to this tick are in the {@link #ready} queue. */
+	private long currentTick;
+
+	/** A set used to check telegrams' uniqueness (if enabled). */
+	private final ObjectSet<Telegram> set;
+
+	/** A flag indicating whether telegrams inserted into the queue must be unique. */
+	private boolean uniqueness;
+
+	/** The number of telegrams in the queue. */
+	private int size;
+
+	// The position of the last telegram accessed by the get method in the wheel, so that sequential access is not quadratic
+	private int scanIndex;
+	private int scanLevel;
+	private int scanSlot;
+	private int scanOffset;
+
+	/** Creates a {@code TimingWheelTelegramQueue} with the given resolution.
+	 * @param resolution the duration of a tick in seconds
+	 * @throws IllegalArgumentException if {@code resolution} is not positive */
+	@SuppressWarnings("unchecked")
+	public TimingWheelTelegramQueue (float resolution) {
+		if (resolution <= 0) throw new IllegalArgumentException("resolution must be positive: " + resolution);
+		this.resolution = resolution;
+		this.wheels = new Array[LEVELS][SLOT_COUNT];
+		this.overflow = new Array<Telegram>(false, 16);
+		this.ready = new PriorityTelegramQueue();
+		this.set = new ObjectSet<Telegram>();
+		this.scanIndex = -1;
+	}
+
+	/** Returns the duration of a tick in seconds. */
+	public float getResolution () {
+		return resolution;
+	}
+
+	@Override
+	public boolean getUniqueness () {
+		return uniqueness;
+	}
+
+	@Override
+	public void setUniqueness (boolean uniqueness) {
+		this.uniqueness = uniqueness;
+	}
+
+	@Override
+	public boolean add (Telegram telegram) {
+		if (telegram == null) throw new NullPointerException();
+		if (uniqueness && !set.add(telegram)) return false;
+		place(telegram);
+		size++;
+		scanIndex = -1;
+		return true;
+	}
+
+	@Override
+	public Telegram poll (float time) {
+		if (size == 0) return null;
+		if (ready.size() == 0 && !advance(tick(time))) return null;
+		Telegram telegram = ready.peek();
+		if (telegram.getTimestamp() > time) return null;
+		ready.poll();
+		size--;
+		scanIndex = -1;
+		if (uniqueness) set.remove(telegram);
+		return telegram;
+	}
+
+	@Override
+	public boolean remove (Telegram telegram) {
+		// The telegrams in the ready queue have their position in the heap, the others the location of their slot
+		int index = telegram.queueIndex;
+		boolean removed;
+		if (index >= 0) {
+			removed = ready.remove(telegram);
+		} else {
+			int location = -1 - index;
+			Array<Telegram> telegrams = location < LEVELS * SLOT_COUNT ? wheels[location >>> SLOT_BITS][location & SLOT_MASK]
+				: overflow;
+			removed = telegrams != null && telegrams.removeValue(telegram, true);
+		}
+		if (!removed) return false;
+		size--;
+		scanIndex = -1;
+		if (uniqueness) set.remove(telegram);
+		return true;
+	}
+
+	@Override
+	public Telegram get (int index) {
+		if (index < 0 || index >= size) return null;
+		int readySize = ready.size();
+		if (index < readySize) return ready.get(index);
+
+		// Resume from the last accessed telegram if possible; otherwise start from the first slot of the wheel
+		int level, slot, offset;
+		if (scanIndex >= readySize && index > scanIndex) {
+			level = scanLevel;
+			slot = scanSlot;
+			offset = scanOffset + index - scanIndex;
+		} else {
+			level = 0;
+			slot = 0;
+			offset = index - readySize;
+		}
+
+		// Skip whole slots until the one containing the telegram
+		while (true) {
+			Array<Telegram> telegrams = level < LEVELS ? wheels[level][slot] : overflow;
+			int count = telegrams == null ? 0 : telegrams.size;
+			if (offset < count) {
+				scanIndex = index;
+				scanLevel = level;
+				scanSlot = slot;
+				scanOffset = offset;
+				return telegrams.get(offset);
+			}
+			if (level == LEVELS) return null;
+			offset -= count;
+			if (++slot == SLOT_COUNT) {
+				slot = 0;
+				level++;
+			}
+		}
+	}
+
+	@Override
+	public int size () {
+		return size;
+	}
+
+	@Override
+	public void clear () {
+		for (int level = 0; level < LEVELS; level++) {
+			Array<Telegram>[] wheel = wheels[level];
+			for (int slot = 0; slot < SLOT_COUNT; slot++)
+				if (wheel[slot] != null) wheel[slot].clear();
+		}
+		overflow.clear();
+		ready.clear();
+		set.clear();
+		currentTick = 0;
+		size = 0;
+		scanIndex = -1;
+	}
+
+	private long tick (float time) {
+		return (long)(time / resolution);
+	}
+
+	/** Puts the given telegram in the ready queue if its tick has come; otherwise in the proper slot of the wheel. */
+	private void place (Telegram telegram) {
+		long tick = tick(telegram.getTimestamp());
+		if (tick <= currentTick) {
+			ready.add(telegram);
+			return;
+		}
+
+		// Find the lowest level whose revolution contains both the current tick and the tick of the telegram
+		long diff = tick ^ currentTick;
+		for (int level = 0; level < LEVELS; level++) {
+			int shift = level * SLOT_BITS;
+			if ((diff >>> (shift + SLOT_BITS)) == 0) {
+				int index = (int)((tick >>> shift) & SLOT_MASK);
+				Array<Telegram> slot = wheels[level][index];
+				if (slot == null) slot = wheels[level][index] = new Array<Telegram>(false, 16);
+				slot.add(telegram);
+				telegram.queueIndex = -1 - ((level << SLOT_BITS) | index);
+				return;
+			}
+		}
+		overflow.add(telegram);
+		telegram.queueIndex = -1 - LEVELS * SLOT_COUNT;
+	}
+
+	/** Moves the current tick forward to the next tick having some telegrams, provided that it's not greater than the given limit.
+	 * @return {@code true} if some telegrams have been moved to the ready queue; {@code false} otherwise. */
+	private boolean advance (long limit) {
+		outer:
+		while (true) {
+			for (int level = 0; level < LEVELS; level++) {
+				int shift = level * SLOT_BITS;
+				Array<Telegram>[] wheel = wheels[level];
+				for (int index = (int)((currentTick >>> shift) & SLOT_MASK) + 1; index < SLOT_COUNT; index++) {
+					Array<Telegram> slot = wheel[index];
+					if (slot == null || slot.size == 0) continue;
+
+					// Move to the first tick of the slot if it's not too late
+					long firstTick = (currentTick & ~((1L << (shift + SLOT_BITS)) - 1)) | ((long)index << shift);
+					if (firstTick > limit) return false;
+					currentTick = firstTick;
+
+					// Cascade the telegrams of the slot to the lower levels, or to the ready queue
+					for (int i = 0; i < slot.size; i++)
+						place(slot.get(i));
+					slot.clear();
+					if (ready.size() > 0) return true;
+					continue outer;
+				}
+			}
+
+			// The wheel is empty, move to the earliest overflowed telegram
+			if (overflow.size == 0) return false;
+			long firstTick = Long.MAX_VALUE;
+			for (int i = 0; i < overflow.size; i++)
+				firstTick = Math.min(firstTick, tick(overflow.get(i).getTimestamp()));
+			if (firstTick > limit) return false;
+			currentTick = firstTick;
+			for (int i = overflow.size - 1; i >= 0; i--) {
+				Telegram telegram = overflow.get(i);
+				long tick = tick(telegram.getTimestamp());
+				if (((tick ^ currentTick) >>> (LEVELS * SLOT_BITS)) == 0) {
+					overflow.removeIndex(i);
+					place(telegram);
+				}
+			}
+			return true;
+		}
+	}
+
+}
@@ -0,0 +1,224 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.pfa;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.badlogic.gdx.ai.msg.MessageDispatcher;
+import com.badlogic.gdx.ai.msg.MessageManager;
+import com.badlogic.gdx.ai.msg.Telegram;
+import com.badlogic.gdx.ai.msg.Telegraph;
+import com.badlogic.gdx.ai.sched.Schedulable;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.TimeUtils;
+
+/** A {@code ConcurrentPathFinderQueue} serves pathfinding requests on a pool of worker threads, each one owning its own
+ * {@link PathFinder} instance created by a {@link PathFinderFactory}. Since path finders keep per-search state, they are never
+ * shared among workers; the graph, on the contrary, is shared and must not be modified while searches are running, and the same
+ * applies to the heuristics of the requests.
+ * <p>
+ * Requests can be submitted from any thread, either by calling {@link #submit(PathFinderRequest)} or by sending a telegram whose
+ * extra info is the request, exactly like {@link PathFinderQueue}. Workers run each search to completion without time slicing. The
+ * completed requests are then collected and their results are sent to the clients through the {@link MessageDispatcher} of the
+ * request by {@link #run(long)}, which must be called by the thread owning the dispatchers, typically the game thread through a
+ * scheduler. This way clients are always notified on the game thread, like with {@link PathFinderQueue}.
+ * <p>
+ * If a client changes the status of the request to {@link PathFinderRequest#SEARCH_NEW} while handling the result, the request is
+ * submitted again.
+ * <p>
+ * Remember to call {@link #dispose()} to stop the workers when the queue is no longer needed.
+ * <p>
+ * This class is not available on GWT.
+ * 
+ * @param <N> Type of node
+ * 
+ * @author agent */
+public class ConcurrentPathFinderQueue<N> implements Schedulable, Telegraph, Disposable {
+
+	/** Stops the worker that receives it. */
+	private final PathFinderRequest<N> poisonPill = new PathFinderRequest<N>();
+
+	LinkedBlockingQueue<PathFinderRequest<N>> requestQueue;
+	ConcurrentLinkedQueue<PathFinderRequest<N>> completedQueue;
+	AtomicInteger pendingRequests;
+	AtomicReference<RuntimeException> workerFailure;
+	Worker<N>[] workers;
+
+	private volatile boolean disposed;
+
+	/** Creates a {@code ConcurrentPathFinderQueue} with as many workers as the available processors minus one, but at least one.
+	 * @param pathFinderFactory the factory creating the path finder of each worker */
+	public ConcurrentPathFinderQueue (PathFinderFactory<N> pathFinderFactory) {
+		this(pathFinderFactory, Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+	}
+
+	/** Creates a {@code ConcurrentPathFinderQueue} with the given number of workers.
+	 * @param pathFinderFactory the factory creating the path finder of each worker
+	 * @param workerCount the number of worker threads */
+	@SuppressWarnings("unchecked")
+	public ConcurrentPathFinderQueue (PathFinderFactory<N> pathFinderFactory, int workerCount) {
+		if (workerCount < 1) throw new IllegalArgumentException("workerCount must be at least 1");
+		this.requestQueue = new LinkedBlockingQueue<PathFinderRequest<N>>();
+		this.completedQueue = new ConcurrentLinkedQueue<PathFinderRequest<N>>();
+		this.pendingRequests = new AtomicInteger();
+		this.workerFailure = new AtomicReference<RuntimeException>();
+		this.workers = new Worker[workerCount];
+		for (int i = 0; i < workerCount; i++) {
+			workers[i] = new Worker<N>(this, pathFinderFactory.newPathFinder());
+			Thread thread = new Thread(workers[i], "PathFinderWorker-" + i);
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	/** Submits the given request. This method can be called from any thread.
+	 * @param request the request to serve
+	 * @throws IllegalStateException if this queue has been disposed */
+	public void submit (PathFinderRequest<N> request) {
+		if (disposed) throw new IllegalStateException("The queue has been disposed");
+		request.status = PathFinderRequest.SEARCH_NEW; // Reset status
+		request.statusChanged = true; // Status has just changed
+		request.executionFrames = 0; // Reset execution frames counter
+		pendingRequests.incrementAndGet();
+		requestQueue.add(request);
+	}
+
+	/** Sends the results of the completed requests to their clients. Must be called on the thread owning the message dispatchers of
+	 * the requests.
+	 * @param timeToRun the maximum time in nanoseconds this method should run on the current frame
+	 * @throws GdxRuntimeException if a search has thrown an exception on a worker thread; the failed request is reported to its
+	 *            client as not found */
+	@Override
+	public void run (long timeToRun) {
+		long lastTime = TimeUtils.nanoTime();
+		PathFinderRequest<N> request;
+		while ((request = completedQueue.poll()) != null) {
+			pendingRequests.decrementAndGet();
+			request.statusChanged = false;
+
+			// Send the result to the client
+			MessageDispatcher dispatcher = request.dispatcher != null ? request.dispatcher : MessageManager.getInstance();
+			dispatcher.dispatchMessage(this, request.client, request.responseMessageCode, request);
+
+			// The client may have renewed the request
+			if (request.statusChanged && request.status == PathFinderRequest.SEARCH_NEW) submit(request);
+
+			// Check the available time
+			long currentTime = TimeUtils.nanoTime();
+			timeToRun -= currentTime - lastTime;
+			if (timeToRun <= PathFinderQueue.TIME_TOLERANCE) break;
+			lastTime = currentTime;
+		}
+
+		// Report any failure occurred on the workers
+		RuntimeException failure = workerFailure.getAndSet(null);
+		if (failure != null) throw new GdxRuntimeException("Pathfinding failed on a worker thread", failure);
+	}
+
+	@Override
+	public boolean handleMessage (Telegram telegram) {
+		@SuppressWarnings("unchecked")
+		PathFinderRequest<N> pfr = (PathFinderRequest<N>)telegram.extraInfo;
+		pfr.client = telegram.sender; // set the client to be notified once the request has completed
+		submit(pfr);
+		return true;
+	}
+
+	/** Returns the number of requests that have been submitted but whose result has not been sent yet. */
+	public int size () {
+		return pendingRequests.get();
+	}
+
+	/** Returns the number of worker threads. */
+	public int getWorkerCount () {
+		return workers.length;
+	}
+
+	/** Stops the workers once they have completed the requests submitted so far. Results not sent yet are discarded. */
+	@Override
+	public void dispose () {
+		if (disposed) return;
+		disposed = true;
+		for (int i = 0; i < workers.length; i++)
+			requestQueue.add(poisonPill);
+	}
+
+	/** A factory of path finders, invoked once per worker thread.
+	 * 
+	 * @param <N> Type of node
+	 * 
+	 * @author agent */
+	public interface PathFinderFactory<N> {
+
+		/** Returns a new path finder. The returned instance is used by a single worker and must not share mutable state with the
+		 * other instances. */
+		public PathFinder<N> newPathFinder ();
+	}
+
+	/** A worker serving requests with its own path finder.
+	 * 
+	 * @param <N> Type of node
+	 * 
+	 * @author agent */
+	static class Worker<N> implements Runnable {
+		final ConcurrentPathFinderQueue<N> queue;
+		final PathFinderRequestControl<N> requestControl;
+
+		Worker (ConcurrentPathFinderQueue<N> queue, PathFinder<N> pathFinder) {
+			this.queue = queue;
+			this.requestControl = new PathFinderRequestControl<N>();
+			requestControl.pathFinder = pathFinder;
+			requestControl.timeTolerance = 0;
+
+			// Results are sent by the queue on the game thread, not by the worker
+			requestControl.server = null;
+		}
+
+		@Override
+		public void run () {
+			try {
+				while (true) {
+					PathFinderRequest<N> request = queue.requestQueue.take();
+					if (request == queue.poisonPill) return;
+					try {
+						execute(request);
+					} catch (RuntimeException e) {
+						// Keep the worker alive; the failure is reported on the game thread
+						request.pathFound = false;
+						queue.workerFailure.compareAndSet(null, e);
+					}
+					queue.completedQueue.add(request);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		void execute (PathFinderRequest<N> request) {
+			// Give the request control as much time as it needs; since initializeSearch and finalizeSearch are
+			// interruptible too, keep calling it until the request has been served
+			do {
+				requestControl.lastTime = TimeUtils.nanoTime();
+				requestControl.timeToRun = Long.MAX_VALUE;
+			} while (!requestControl.execute(request));
+		}
+	}
+}
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.pfa.grid;
+
+import com.badlogic.gdx.ai.pfa.Connection;
+import com.badlogic.gdx.utils.Array;
+
+/** A {@link GridGraph} whose walkable cells are stored in a bitmap. The bit of the cell at column {@code x} and row {@code y} has
+ * index {@code y * width + x}, which is also the index of the node of that cell.
+ * <p>
+ * The connections of the nodes are kept consistent with the bitmap: changing the walkability of a cell through
+ * {@link #setWalkable(int, int, boolean)} updates the connections of the surrounding cells.
+ * 
+ * @param <N> Type of node extending {@link GridNode}
+ * 
+ * @author agent */
+public abstract class BitmapGridGraph<N extends GridNode<N>> implements GridGraph<N> {
+
+	protected final int width;
+	protected final int height;
+
+	/** The walkability bitmap, 32 cells per int. */
+	protected final int[] bitmap;
+
+	protected final Array<N> nodes;
+
+	/** Creates a {@code BitmapGridGraph} with the given size where all cells are blocked.
+	 * @param width the number of columns
+	 * @param height the number of rows */
+	public BitmapGridGraph (int width, int height) {
+		this.width = width;
+		this.height = height;
+		this.bitmap = new int[(width * height + 31) >>> 5];
+		this.nodes = new Array<N>(width * height);
+		for (int y = 0; y < height; y++)
+			for (int x = 0; x < width; x++)
+				nodes.add(createNode(x, y, y * width + x));
+	}
+
+	/** Creates the node of the given cell. This method is called by the constructor for each cell of the grid, so it must not rely on
+	 * the state of subclasses. The node must return an empty modifiable array of connections, which is filled by this graph.
+	 * @param x the column of the cell
+	 * @param y the row of the cell
+	 * @param index the index the node must have */
+	protected abstract N createNode (int x, int y, int index);
+
+	@Override
+	public int getWidth () {
+		return width;
+	}
+
+	@Override
+	public int getHeight () {
+		return height;
+	}
+
+	@Override
+	public N getNode (int x, int y) {
+		return nodes.get(y * width + x);
+	}
+
+	@Override
+	public int getNodeCount () {
+		return nodes.size;
+	}
+
+	@Override
+	public Array<Connection<N>> getConnections (N fromNode) {
+		return fromNode.getConnections();
+	}
+
+	@Override
+	public boolean isWalkable (int x, int y) {
+		if (x < 0 || y < 0 || x >= width || y >= height) return false;
+		int index = y * width + x;
+		return (bitmap[index >>> 5] & (1 << (index & 31))) != 0;
+	}
+
+	/** Sets the walkability of the given cell and updates the connections of the cells around it.
+	 * @param x the column of the cell
+	 * @param y the row of the cell
+	 * @param walkable whether the cell can be walked */
+	public void setWalkable (int x, int y, boolean walkable) {
+		if (setBit(x, y, walkable)) {
+			// Diagonal moves depend on the cells sharing a side with both ends, so the whole 3x3 block is affected
+			int maxX = Math.min(x + 1, width - 1);
+			int maxY = Math.min(y + 1, height - 1);
+			for (int j = Math.max(y - 1, 0); j <= maxY; j++)
+				for (int i = Math.max(x - 1, 0); i <= maxX; i++)
+					connect(i, j);
+		}
+	}
+
+	/** Sets the walkability of all the cells from the given array, where {@code true} means walkable, and rebuilds all the
+	 * connections.
+	 * @param walkable the walkability of the cells, indexed by {@code [x][y]} */
+	public void setWalkable (boolean[][] walkable) {
+		for (int x = 0; x < width; x++)
+			for (int y = 0; y < height; y++)
+				setBit(x, y, walkable[x][y]);
+		for (int y = 0; y < height; y++)
+			for (int x = 0; x < width; x++)
+				connect(x, y);
+	}
+
+	/** Sets the bit of the given cell and returns {@code true} if it has changed. */
+	private boolean setBit (int x, int y, boolean walkable) {
+		int index = y * width + x;
+		int word = bitmap[index >>> 5];
+		int mask = 1 << (index & 31);
+		int newWord = walkable ? word | mask : word & ~mask;
+		bitmap[index >>> 5] = newWord;
+		return newWord != word;
+	}
+
+	/** Rebuilds the outgoing connections of the given cell. */
+	protected void connect (int x, int y) {
+		N node = getNode(x, y);
+		Array<Connection<N>> connections = node.getConnections();
+		connections.clear();
+		if (!isWalkable(x, y)) return;
+		for (int dy = -1; dy <= 1; dy++) {
+			for (int dx = -1; dx <= 1; dx++) {
+				if (dx == 0 && dy == 0) continue;
+				if (!isWalkable(x + dx, y + dy)) continue;
+
+				// Diagonal moves can't cut corners
+				if (dx != 0 && dy != 0 && (!isWalkable(x + dx, y) || !isWalkable(x, y + dy))) continue;
+
+				connections.add(createConnection(node, getNode(x + dx, y + dy)));
+			}
+		}
+	}
+
+	/** Creates the connection between two adjacent cells. By default it returns a {@link GridConnection}.
+	 * @param fromNode the node of the origin cell
+	 * @param toNode the node of the destination cell */
+	protected Connection<N> createConnection (N fromNode, N toNode) {
+		return new GridConnection<N>(fromNode, toNode);
+	}
+
+}
@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.pfa.grid;
+
+import com.badlogic.gdx.ai.pfa.DefaultConnection;
+
+/** A connection between two adjacent cells of a {@link GridGraph}. Its cost depends on whether the move is straight or diagonal.
+ * 
+ * @param <N> Type of node extending {@link GridNode}
+ * 
+ * @author agent */
+public class GridConnection<N extends GridNode<N>> extends DefaultConnection<N> {
+
+	/** The cost of moving to a cell sharing a side with the current one. */
+	public static final float STRAIGHT_COST = 1f;
+
+	/** The cost of moving to a cell sharing a corner with the current one. */
+	public static final float DIAGONAL_COST = 1.4142135f;
+
+	public GridConnection (N fromNode, N toNode) {
+		super(fromNode, toNode);
+	}
+
+	@Override
+	public float getCost () {
+		return fromNode.getX() != toNode.getX() && fromNode.getY() != toNode.getY() ? DIAGONAL_COST : STRAIGHT_COST;
+	}
+
+}
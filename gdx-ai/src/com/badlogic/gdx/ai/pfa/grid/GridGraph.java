@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.pfa.grid;
+
+import com.badlogic.gdx.ai.pfa.indexed.IndexedGraph;
+
+/** A graph representing an 8-connected grid of uniform-cost cells, as required by the {@link JumpPointPathFinder}.
+ * <p>
+ * Each walkable cell is connected to its walkable neighbors. Moving along a row or a column costs
+ * {@link GridConnection#STRAIGHT_COST}, while moving diagonally costs {@link GridConnection#DIAGONAL_COST} and is allowed only
+ * when both the cells sharing a side with the two cells involved are walkable, so that paths never cut corners.
+ * 
+ * @param <N> Type of node extending {@link GridNode}
+ * 
+ * @author agent */
+public interface GridGraph<N extends GridNode<N>> extends IndexedGraph<N> {
+
+	/** Returns the number of columns of this grid. */
+	public int getWidth ();
+
+	/** Returns the number of rows of this grid. */
+	public int getHeight ();
+
+	/** Returns the node of the cell at the given coordinates.
+	 * @param x the column of the cell
+	 * @param y the row of the cell */
+	public N getNode (int x, int y);
+
+	/** Returns {@code true} if the cell at the given coordinates can be walked; {@code false} if it's blocked or outside the grid.
+	 * @param x the column of the cell
+	 * @param y the row of the cell */
+	public boolean isWalkable (int x, int y);
+
+}
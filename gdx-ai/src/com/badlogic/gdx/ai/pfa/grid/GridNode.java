@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.pfa.grid;
+
+import com.badlogic.gdx.ai.pfa.indexed.IndexedNode;
+
+/** A node of a {@link GridGraph}, representing a single cell of the grid.
+ * 
+ * @param <N> Type of node extending {@link GridNode}
+ * 
+ * @author agent */
+public interface GridNode<N extends GridNode<N>> extends IndexedNode<N> {
+
+	/** Returns the column of this cell. */
+	public int getX ();
+
+	/** Returns the row of this cell. */
+	public int getY ();
+
+}
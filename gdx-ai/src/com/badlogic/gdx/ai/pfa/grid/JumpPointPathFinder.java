@@ -0,0 +1,424 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.pfa.grid;
+
+import com.badlogic.gdx.ai.pfa.Connection;
+import com.badlogic.gdx.ai.pfa.GraphPath;
+import com.badlogic.gdx.ai.pfa.Heuristic;
+import com.badlogic.gdx.ai.pfa.PathFinder;
+import com.badlogic.gdx.ai.pfa.PathFinderQueue;
+import com.badlogic.gdx.ai.pfa.PathFinderRequest;
+import com.badlogic.gdx.ai.pfa.PathSmoother;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedAStarPathFinder;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedAStarPathFinder.Metrics;
+import com.badlogic.gdx.ai.utils.IntBinaryHeap;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.TimeUtils;
+
+/** A {@link PathFinder} implementing the Jump Point Search algorithm, which can perform both interruptible and non-interruptible
+ * pathfinding on a uniform-cost {@link GridGraph}.
+ * <p>
+ * Jump Point Search is an A* variant exploiting the symmetries of grid maps. Rather than adding all the neighbors of a node to the
+ * open list, it scans the grid in straight and diagonal lines from the node, skipping all the cells that any optimal path would
+ * cross anyway, and only adds the so-called jump points: the cells where an optimal path may have to turn because of an obstacle,
+ * and the goal. The resulting paths have the same cost as those found by the {@link IndexedAStarPathFinder}, while the open list
+ * sees only a small fraction of the nodes, especially on open maps.
+ * <p>
+ * The returned paths contain every cell crossed, not just the jump points, so that adjacent nodes of the path are always
+ * connected in the graph. This way the paths can be followed step by step or fed to the {@link PathSmoother} as usual.
+ * <p>
+ * The heuristic must be admissible for 8-connected grids, like the octile or the Euclidean distance, in order to get optimal
+ * paths. The connections of the graph are never used during the search; the finder relies on {@link GridGraph#isWalkable(int, int)}
+ * and on the movement rules described by the {@link GridGraph} interface.
+ * <p>
+ * When metrics are enabled, the number of visited nodes is the number of directions scanned from the expanded jump points.
+ * 
+ * @param <N> Type of node extending {@link GridNode}
+ * 
+ * @author agent */
+public class JumpPointPathFinder<N extends GridNode<N>> implements PathFinder<N> {
+	GridGraph<N> graph;
+	float[] costSoFar;
+	float[] estimatedTotalCost;
+	N[] nodes;
+	int[] parents;
+	int[] status;
+	IntBinaryHeap openList;
+	int current;
+	int endX;
+	int endY;
+	public Metrics metrics;
+
+	/** The unique ID for each search run. Used to mark nodes. */
+	private int searchId;
+
+	public JumpPointPathFinder (GridGraph<N> graph) {
+		this(graph, false);
+	}
+
+	@SuppressWarnings("unchecked")
+	public JumpPointPathFinder (GridGraph<N> graph, boolean calculateMetrics) {
+		this.graph = graph;
+		int nodeCount = graph.getNodeCount();
+		this.costSoFar = new float[nodeCount];
+		this.estimatedTotalCost = new float[nodeCount];
+		this.nodes = (N[])new GridNode[nodeCount];
+		this.parents = new int[nodeCount];
+		this.status = new int[nodeCount];
+		this.openList = new IntBinaryHeap(16, nodeCount, false);
+		if (calculateMetrics) this.metrics = new Metrics();
+	}
+
+	@Override
+	public boolean searchConnectionPath (N startNode, N endNode, Heuristic<N> heuristic, GraphPath<Connection<N>> outPath) {
+
+		// Perform Jump Point Search
+		search(startNode, endNode, heuristic);
+
+		// We're here if we've either found the goal, or if we've no more nodes to search, find which
+		if (current != endNode.getIndex()) {
+			// We've run out of nodes without finding the goal, so there's no solution
+			return false;
+		}
+
+		generateConnectionPath(outPath);
+
+		return true;
+	}
+
+	@Override
+	public boolean searchNodePath (N startNode, N endNode, Heuristic<N> heuristic, GraphPath<N> outPath) {
+
+		// Perform Jump Point Search
+		search(startNode, endNode, heuristic);
+
+		// We're here if we've either found the goal, or if we've no more nodes to search, find which
+		if (current != endNode.getIndex()) {
+			// We've run out of nodes without finding the goal, so there's no solution
+			return false;
+		}
+
+		generateNodePath(outPath);
+
+		return true;
+	}
+
+	protected void search (N startNode, N endNode, Heuristic<N> heuristic) {
+
+		initSearch(startNode, endNode, heuristic);
+
+		int endIndex = endNode.getIndex();
+
+		// Iterate through processing each jump point
+		do {
+			// Retrieve the node with smallest estimated total cost from the open list
+			current = openList.pop();
+			status[current] = searchId | CLOSED;
+
+			// Terminate if we reached the goal node
+			if (current == endIndex) return;
+
+			visitChildren(endNode, heuristic);
+
+		} while (openList.size > 0);
+	}
+
+	@Override
+	public boolean search (PathFinderRequest<N> request, long timeToRun) {
+
+		long lastTime = TimeUtils.nanoTime();
+
+		// We have to initialize the search if the status has just changed
+		if (request.statusChanged) {
+			initSearch(request.startNode, request.endNode, request.heuristic);
+			request.statusChanged = false;
+		}
+
+		int endIndex = request.endNode.getIndex();
+
+		// Iterate through processing each jump point
+		do {
+
+			// Check the available time
+			long currentTime = TimeUtils.nanoTime();
+			timeToRun -= currentTime - lastTime;
+			if (timeToRun <= PathFinderQueue.TIME_TOLERANCE) return false;
+
+			// Retrieve the node with smallest estimated total cost from the open list
+			current = openList.pop();
+			status[current] = searchId | CLOSED;
+
+			// Terminate if we reached the goal node; we've found a path.
+			if (current == endIndex) {
+				request.pathFound = true;
+
+				generateNodePath(request.resultPath);
+
+				return true;
+			}
+
+			// Visit current node's successors
+			visitChildren(request.endNode, request.heuristic);
+
+			// Store the current time
+			lastTime = currentTime;
+
+		} while (openList.size > 0);
+
+		// The open list is empty and we've not found a path.
+		request.pathFound = false;
+		return true;
+	}
+
+	protected void initSearch (N startNode, N endNode, Heuristic<N> heuristic) {
+		if (metrics != null) metrics.reset();
+
+		// Increment the search id; the two lowest bits of the status word are reserved to the node category.
+		// A node whose status word doesn't contain the current search id is unvisited.
+		searchId += SEARCH_ID_INCREMENT;
+		if (searchId <= 0) {
+			// The search id has wrapped around, so old marks could be mistaken for the current search
+			for (int i = 0; i < status.length; i++)
+				status[i] = 0;
+			searchId = SEARCH_ID_INCREMENT;
+		}
+
+		// Initialize the open list
+		openList.clear();
+
+		// Initialize the start node and add it to the open list
+		int startIndex = startNode.getIndex();
+		costSoFar[startIndex] = 0;
+		parents[startIndex] = -1;
+		nodes[startIndex] = startNode;
+		addToOpenList(startIndex, heuristic.estimate(startNode, endNode));
+
+		this.endX = endNode.getX();
+		this.endY = endNode.getY();
+		current = -1;
+	}
+
+	protected void visitChildren (N endNode, Heuristic<N> heuristic) {
+		N currentNode = nodes[current];
+		int x = currentNode.getX();
+		int y = currentNode.getY();
+		int parent = parents[current];
+		GridGraph<N> graph = this.graph;
+
+		if (parent < 0) {
+			// The start node has no direction of travel, so all the neighbors must be scanned
+			for (int dy = -1; dy <= 1; dy++) {
+				for (int dx = -1; dx <= 1; dx++) {
+					if (dx == 0 && dy == 0) continue;
+					if (dx != 0 && dy != 0 && (!graph.isWalkable(x + dx, y) || !graph.isWalkable(x, y + dy))) continue;
+					visitSuccessor(x, y, dx, dy, endNode, heuristic);
+				}
+			}
+			return;
+		}
+
+		// Prune the neighbors based on the direction of travel from the parent
+		N parentNode = nodes[parent];
+		int dx = Integer.signum(x - parentNode.getX());
+		int dy = Integer.signum(y - parentNode.getY());
+		if (dx != 0 && dy != 0) {
+			// Moving diagonally: the natural neighbors are the two straight ones and the diagonal one
+			boolean walkableX = graph.isWalkable(x + dx, y);
+			boolean walkableY = graph.isWalkable(x, y + dy);
+			if (walkableY) visitSuccessor(x, y, 0, dy, endNode, heuristic);
+			if (walkableX) visitSuccessor(x, y, dx, 0, endNode, heuristic);
+			if (walkableX && walkableY) visitSuccessor(x, y, dx, dy, endNode, heuristic);
+		} else if (dx != 0) {
+			// Moving horizontally: the cells above and below may be forced neighbors
+			boolean walkableNext = graph.isWalkable(x + dx, y);
+			boolean walkableUp = graph.isWalkable(x, y + 1);
+			boolean walkableDown = graph.isWalkable(x, y - 1);
+			if (walkableNext) {
+				visitSuccessor(x, y, dx, 0, endNode, heuristic);
+				if (walkableUp) visitSuccessor(x, y, dx, 1, endNode, heuristic);
+				if (walkableDown) visitSuccessor(x, y, dx, -1, endNode, heuristic);
+			}
+			if (walkableUp) visitSuccessor(x, y, 0, 1, endNode, heuristic);
+			if (walkableDown) visitSuccessor(x, y, 0, -1, endNode, heuristic);
+		} else {
+			// Moving vertically: the cells on the left and on the right may be forced neighbors
+			boolean walkableNext = graph.isWalkable(x, y + dy);
+			boolean walkableRight = graph.isWalkable(x + 1, y);
+			boolean walkableLeft = graph.isWalkable(x - 1, y);
+			if (walkableNext) {
+				visitSuccessor(x, y, 0, dy, endNode, heuristic);
+				if (walkableRight) visitSuccessor(x, y, 1, dy, endNode, heuristic);
+				if (walkableLeft) visitSuccessor(x, y, -1, dy, endNode, heuristic);
+			}
+			if (walkableRight) visitSuccessor(x, y, 1, 0, endNode, heuristic);
+			if (walkableLeft) visitSuccessor(x, y, -1, 0, endNode, heuristic);
+		}
+	}
+
+	/** Scans the grid from the current node in the given direction and, if a jump point is found, updates its record and adds it
+	 * to the open list. */
+	protected void visitSuccessor (int x, int y, int dx, int dy, N endNode, Heuristic<N> heuristic) {
+		if (metrics != null) metrics.visitedNodes++;
+
+		N node = jump(x + dx, y + dy, dx, dy);
+		if (node == null) return;
+
+		// Jumps are either straight or diagonal, so the cost only depends on the number of steps
+		int steps = Math.max(Math.abs(node.getX() - x), Math.abs(node.getY() - y));
+		float stepCost = dx != 0 && dy != 0 ? GridConnection.DIAGONAL_COST : GridConnection.STRAIGHT_COST;
+		float nodeCost = costSoFar[current] + steps * stepCost;
+
+		int nodeIndex = node.getIndex();
+		float nodeHeuristic;
+		int nodeStatus = status[nodeIndex];
+		if (nodeStatus == (searchId | CLOSED)) { // The node is closed
+
+			// If we didn't find a shorter route, skip
+			if (costSoFar[nodeIndex] <= nodeCost) return;
+
+			// We can use the node's old cost values to calculate its heuristic
+			// without calling the possibly expensive heuristic function
+			nodeHeuristic = estimatedTotalCost[nodeIndex] - costSoFar[nodeIndex];
+		} else if (nodeStatus == (searchId | OPEN)) { // The node is open
+
+			// If our route is no better, then skip
+			if (costSoFar[nodeIndex] <= nodeCost) return;
+
+			// Remove it from the open list (it will be re-added with the new cost)
+			openList.remove(nodeIndex);
+
+			// We can use the node's old cost values to calculate its heuristic
+			// without calling the possibly expensive heuristic function
+			nodeHeuristic = estimatedTotalCost[nodeIndex] - costSoFar[nodeIndex];
+		} else { // the node is unvisited
+
+			// We'll need to calculate the heuristic value using the function,
+			// since we don't have a record with a previously calculated value
+			nodeHeuristic = heuristic.estimate(node, endNode);
+			nodes[nodeIndex] = node;
+		}
+
+		// Update node's cost and parent
+		costSoFar[nodeIndex] = nodeCost;
+		parents[nodeIndex] = current;
+
+		// Add it to the open list with the estimated total cost
+		addToOpenList(nodeIndex, nodeCost + nodeHeuristic);
+	}
+
+	/** Moves from the given cell in the given direction until a jump point is found.
+	 * @param x the column of the first cell to check
+	 * @param y the row of the first cell to check
+	 * @param dx the horizontal direction of travel, either -1, 0 or 1
+	 * @param dy the vertical direction of travel, either -1, 0 or 1
+	 * @return the node of the jump point, or {@code null} if an obstacle or the border of the grid has been reached. */
+	protected N jump (int x, int y, int dx, int dy) {
+		GridGraph<N> graph = this.graph;
+		while (true) {
+			if (!graph.isWalkable(x, y)) return null;
+
+			// The goal is always a jump point
+			if (x == endX && y == endY) return graph.getNode(x, y);
+
+			if (dx != 0 && dy != 0) {
+				// Moving diagonally, the cell is a jump point if there's a jump point along either straight direction
+				if (jump(x + dx, y, dx, 0) != null || jump(x, y + dy, 0, dy) != null) return graph.getNode(x, y);
+
+				// Diagonal moves can't cut corners
+				if (!graph.isWalkable(x + dx, y) || !graph.isWalkable(x, y + dy)) return null;
+			} else if (dx != 0) {
+				// Moving horizontally, the cell is a jump point if it has a forced neighbor above or below
+				if ((graph.isWalkable(x, y + 1) && !graph.isWalkable(x - dx, y + 1))
+					|| (graph.isWalkable(x, y - 1) && !graph.isWalkable(x - dx, y - 1))) return graph.getNode(x, y);
+			} else {
+				// Moving vertically, the cell is a jump point if it has a forced neighbor on the left or on the right
+				if ((graph.isWalkable(x + 1, y) && !graph.isWalkable(x + 1, y - dy))
+					|| (graph.isWalkable(x - 1, y) && !graph.isWalkable(x - 1, y - dy))) return graph.getNode(x, y);
+			}
+
+			x += dx;
+			y += dy;
+		}
+	}
+
+	protected void generateConnectionPath (GraphPath<Connection<N>> outPath) {
+
+		// Work back along the path, accumulating the connections between each jump point and its parent
+		// outPath.clear();
+		int parent;
+		while ((parent = parents[current]) >= 0) {
+			N node = nodes[current];
+			N parentNode = nodes[parent];
+			int dx = Integer.signum(node.getX() - parentNode.getX());
+			int dy = Integer.signum(node.getY() - parentNode.getY());
+			for (int x = node.getX(), y = node.getY(); x != parentNode.getX() || y != parentNode.getY(); x -= dx, y -= dy) {
+				N toNode = graph.getNode(x, y);
+				outPath.add(findConnection(graph.getNode(x - dx, y - dy), toNode));
+			}
+			current = parent;
+		}
+
+		// Reverse the path
+		outPath.reverse();
+	}
+
+	protected void generateNodePath (GraphPath<N> outPath) {
+
+		// Work back along the path, accumulating the nodes between each jump point and its parent
+		// outPath.clear();
+		int parent;
+		while ((parent = parents[current]) >= 0) {
+			N node = nodes[current];
+			N parentNode = nodes[parent];
+			int dx = Integer.signum(node.getX() - parentNode.getX());
+			int dy = Integer.signum(node.getY() - parentNode.getY());
+			for (int x = node.getX(), y = node.getY(); x != parentNode.getX() || y != parentNode.getY(); x -= dx, y -= dy)
+				outPath.add(graph.getNode(x, y));
+			current = parent;
+		}
+		outPath.add(nodes[current]);
+
+		// Reverse the path
+		outPath.reverse();
+	}
+
+	/** Returns the connection between two adjacent cells. */
+	private Connection<N> findConnection (N fromNode, N toNode) {
+		Array<Connection<N>> connections = graph.getConnections(fromNode);
+		for (int i = 0; i < connections.size; i++) {
+			Connection<N> connection = connections.get(i);
+			if (connection.getToNode() == toNode) return connection;
+		}
+		throw new GdxRuntimeException("No connection between adjacent cells (" + fromNode.getX() + ", " + fromNode.getY()
+			+ ") and (" + toNode.getX() + ", " + toNode.getY() + "); is the graph consistent with its walkability?");
+	}
+
+	protected void addToOpenList (int nodeIndex, float estimatedTotalCost) {
+		openList.add(nodeIndex, estimatedTotalCost);
+		this.estimatedTotalCost[nodeIndex] = estimatedTotalCost;
+		status[nodeIndex] = searchId | OPEN;
+		if (metrics != null) {
+			metrics.openListAdditions++;
+			metrics.openListPeak = Math.max(metrics.openListPeak, openList.size);
+		}
+	}
+
+	private static final int OPEN = 1;
+	private static final int CLOSED = 2;
+	private static final int SEARCH_ID_INCREMENT = 4;
+}
@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.pfa.hpa;
+
+import com.badlogic.gdx.ai.pfa.Connection;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedNode;
+
+/** A connection of a {@link HierarchicalClusterGraph}. It either wraps a connection of the original graph, whose cost is used as
+ * is, or links two entrances of the same cluster with the cost of the shortest path between them.
+ * 
+ * @param <N> Type of node of the original graph
+ * 
+ * @author agent */
+public class ClusterConnection<N extends IndexedNode<N>> implements Connection<ClusterNode<N>> {
+
+	protected ClusterNode<N> fromNode;
+	protected ClusterNode<N> toNode;
+	protected Connection<N> connection;
+	protected float cost;
+
+	/** Creates a {@code ClusterConnection} wrapping the given connection of the original graph. */
+	public ClusterConnection (ClusterNode<N> fromNode, ClusterNode<N> toNode, Connection<N> connection) {
+		this.fromNode = fromNode;
+		this.toNode = toNode;
+		this.connection = connection;
+	}
+
+	/** Creates a {@code ClusterConnection} with the given cost. */
+	public ClusterConnection (ClusterNode<N> fromNode, ClusterNode<N> toNode, float cost) {
+		this.fromNode = fromNode;
+		this.toNode = toNode;
+		this.cost = cost;
+	}
+
+	/** Returns the connection of the original graph wrapped by this connection, or {@code null} if this connection links two
+	 * entrances of the same cluster. */
+	public Connection<N> getConnection () {
+		return connection;
+	}
+
+	@Override
+	public float getCost () {
+		return connection != null ? connection.getCost() : cost;
+	}
+
+	@Override
+	public ClusterNode<N> getFromNode () {
+		return fromNode;
+	}
+
+	@Override
+	public ClusterNode<N> getToNode () {
+		return toNode;
+	}
+
+}
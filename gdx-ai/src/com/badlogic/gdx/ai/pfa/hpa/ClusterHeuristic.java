@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.pfa.hpa;
+
+import com.badlogic.gdx.ai.pfa.Heuristic;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedNode;
+
+/** A {@link Heuristic} for the nodes of a {@link HierarchicalClusterGraph} delegating to a heuristic for the nodes of the original
+ * graph. It works at any level of the hierarchy.
+ * 
+ * @param <N> Type of node of the original graph
+ * 
+ * @author agent */
+public class ClusterHeuristic<N extends IndexedNode<N>> implements Heuristic<ClusterNode<N>> {
+
+	protected Heuristic<N> heuristic;
+
+	public ClusterHeuristic (Heuristic<N> heuristic) {
+		this.heuristic = heuristic;
+	}
+
+	@Override
+	public float estimate (ClusterNode<N> node, ClusterNode<N> endNode) {
+		return heuristic.estimate(node.getNode(), endNode.getNode());
+	}
+
+}
@@ -0,0 +1,63 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.pfa.hpa;
+
+import com.badlogic.gdx.ai.pfa.Connection;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedNode;
+import com.badlogic.gdx.utils.Array;
+
+/** A node of a {@link HierarchicalClusterGraph}. At level 0 it stands for a node of the original graph; at level 1 it stands for a
+ * cluster entrance, that is a node of the original graph that is connected to a different cluster.
+ * 
+ * @param <N> Type of node of the original graph
+ * 
+ * @author agent */
+public class ClusterNode<N extends IndexedNode<N>> implements IndexedNode<ClusterNode<N>> {
+
+	protected final N node;
+	protected final int level;
+	protected final int index;
+	protected final Array<Connection<ClusterNode<N>>> connections;
+
+	public ClusterNode (N node, int level, int index) {
+		this.node = node;
+		this.level = level;
+		this.index = index;
+		this.connections = new Array<Connection<ClusterNode<N>>>(4);
+	}
+
+	/** Returns the node of the original graph. */
+	public N getNode () {
+		return node;
+	}
+
+	/** Returns the level of this node. */
+	public int getLevel () {
+		return level;
+	}
+
+	@Override
+	public int getIndex () {
+		return index;
+	}
+
+	@Override
+	public Array<Connection<ClusterNode<N>>> getConnections () {
+		return connections;
+	}
+
+}
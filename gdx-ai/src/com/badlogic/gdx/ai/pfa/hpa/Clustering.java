@@ -0,0 +1,35 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.pfa.hpa;
+
+/** A {@code Clustering} partitions the nodes of a graph into clusters, typically made up of nodes that are close to each other,
+ * like the square blocks of a tiled map.
+ * 
+ * @param <N> Type of node
+ * 
+ * @author agent */
+public interface Clustering<N> {
+
+	/** Returns the number of clusters. */
+	public int getClusterCount ();
+
+	/** Returns the cluster the given node belongs to, in the range {@code [0, getClusterCount())}. The cluster of a node must never
+	 * change.
+	 * @param node the node */
+	public int getCluster (N node);
+
+}
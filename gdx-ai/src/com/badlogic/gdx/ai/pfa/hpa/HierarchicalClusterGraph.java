@@ -0,0 +1,339 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.pfa.hpa;
+
+import com.badlogic.gdx.ai.pfa.Connection;
+import com.badlogic.gdx.ai.pfa.HierarchicalPathFinder;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedGraph;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedHierarchicalGraph;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedNode;
+import com.badlogic.gdx.ai.utils.IntBinaryHeap;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+
+/** A two-level {@link IndexedHierarchicalGraph} built automatically from any {@link IndexedGraph} and a {@link Clustering} of its
+ * nodes, as described by the HPA* (Hierarchical Path-Finding A*) technique. It can be searched by a {@link HierarchicalPathFinder}
+ * right away.
+ * <p>
+ * Level 0 mirrors the original graph. Level 1 is the abstract graph: its nodes are the cluster entrances, i.e. the nodes having a
+ * connection to or from a different cluster; its connections are the connections of the original graph between clusters plus,
+ * for each pair of entrances of the same cluster, a connection whose cost is the cost of the shortest path between them inside
+ * the cluster. These intra-cluster costs are computed once and cached. A node of level 0 is converted to level 1 into the
+ * entrance of its cluster closest to it.
+ * <p>
+ * When the connections of the original graph change, {@link #updateCluster(int)} must be called for each cluster whose nodes
+ * have changed outgoing connections: only the entrances and the intra-cluster costs of that cluster and of its neighbors are
+ * recomputed. Changes of the cost of a connection between clusters are picked up automatically.
+ * <p>
+ * The hierarchy assumes that every connection of the original graph has a counterpart in the opposite direction, which is the
+ * case of most game maps. The original graph must not add or remove nodes.
+ * 
+ * @param <N> Type of node of the original graph
+ * 
+ * @author agent */
+public class HierarchicalClusterGraph<N extends IndexedNode<N>> extends IndexedHierarchicalGraph<ClusterNode<N>> {
+
+	protected final IndexedGraph<N> graph;
+	protected final Clustering<N> clustering;
+
+	/** The number of nodes of the original graph. Level 0 nodes have the same index as the original nodes, while the level 1 node
+	 * of an entrance has the index of the original node plus this value. */
+	protected final int baseNodeCount;
+
+	int[] clusterOf;
+	IntArray[] clusterMembers;
+	IntArray[] clusterEntrances;
+	boolean[] entrance;
+	int[] incomingCrossings;
+
+	/** The cached level 1 node each level 0 node is converted to, valid as long as its cluster doesn't change. */
+	int[] upperNodes;
+	int[] upperNodeVersions;
+	int[] clusterVersions;
+
+	// Search data for the shortest paths inside clusters
+	float[] costSoFar;
+	int[] visited;
+	int visitId;
+	IntBinaryHeap openList;
+	IntArray affectedClusters;
+
+	/** Creates a {@code HierarchicalClusterGraph} for the given graph.
+	 * @param graph the original graph
+	 * @param nodes the nodes of the original graph
+	 * @param clustering the partition of the nodes into clusters */
+	public HierarchicalClusterGraph (IndexedGraph<N> graph, Array<N> nodes, Clustering<N> clustering) {
+		super(2, graph.getNodeCount() * 2);
+		this.graph = graph;
+		this.clustering = clustering;
+		int n = graph.getNodeCount();
+		this.baseNodeCount = n;
+		int clusterCount = clustering.getClusterCount();
+
+		this.clusterOf = new int[n];
+		this.entrance = new boolean[n];
+		this.incomingCrossings = new int[n];
+		this.upperNodes = new int[n];
+		this.upperNodeVersions = new int[n];
+		this.clusterVersions = new int[clusterCount];
+		this.clusterMembers = new IntArray[clusterCount];
+		this.clusterEntrances = new IntArray[clusterCount];
+		for (int c = 0; c < clusterCount; c++) {
+			clusterMembers[c] = new IntArray();
+			clusterEntrances[c] = new IntArray();
+			clusterVersions[c] = 1;
+		}
+		this.costSoFar = new float[n];
+		this.visited = new int[n];
+		this.openList = new IntBinaryHeap(16, n, false);
+		this.affectedClusters = new IntArray();
+
+		// Create level 0 nodes; level 1 nodes are created on demand
+		for (int i = 0; i < n * 2; i++)
+			this.nodes.add(null);
+		for (int i = 0; i < nodes.size; i++) {
+			N node = nodes.get(i);
+			int index = node.getIndex();
+			this.nodes.set(index, new ClusterNode<N>(node, 0, index));
+			int cluster = clustering.getCluster(node);
+			clusterOf[index] = cluster;
+			clusterMembers[cluster].add(index);
+		}
+
+		// Create level 0 connections and count the connections entering each node from other clusters
+		for (int i = 0; i < n; i++) {
+			Array<Connection<ClusterNode<N>>> connections = rebuildConnections(i);
+			for (int j = 0; j < connections.size; j++) {
+				int to = connections.get(j).getToNode().getIndex();
+				if (clusterOf[to] != clusterOf[i]) incomingCrossings[to]++;
+			}
+		}
+
+		// Find the entrances of all clusters, then connect them
+		for (int c = 0; c < clusterCount; c++)
+			findEntrances(c);
+		for (int c = 0; c < clusterCount; c++)
+			connectEntrances(c);
+	}
+
+	/** Returns the original graph. */
+	public IndexedGraph<N> getGraph () {
+		return graph;
+	}
+
+	/** Returns the level 0 node standing for the given node of the original graph. */
+	public ClusterNode<N> getNode (N node) {
+		return nodes.get(node.getIndex());
+	}
+
+	/** Returns the cluster the given node belongs to. */
+	public int getCluster (ClusterNode<N> node) {
+		return clusterOf[node.getNode().getIndex()];
+	}
+
+	/** Returns the number of entrances of the given cluster. */
+	public int getEntranceCount (int cluster) {
+		return clusterEntrances[cluster].size;
+	}
+
+	/** Returns the level 1 node of the given entrance of the given cluster. */
+	public ClusterNode<N> getEntrance (int cluster, int entrance) {
+		return nodes.get(baseNodeCount + clusterEntrances[cluster].get(entrance));
+	}
+
+	@Override
+	public ClusterNode<N> convertNodeBetweenLevels (int inputLevel, ClusterNode<N> node, int outputLevel) {
+		if (inputLevel < outputLevel) return getUpperNode(node.getIndex());
+		if (inputLevel > outputLevel) return nodes.get(node.getNode().getIndex());
+		return node;
+	}
+
+	/** Updates the hierarchy after the outgoing connections of some nodes of the given cluster have been added, removed or have
+	 * changed their cost. The entrances and the intra-cluster connections of the cluster and of the clusters it's connected to are
+	 * recomputed.
+	 * @param cluster the cluster that has changed */
+	public void updateCluster (int cluster) {
+		IntArray affectedClusters = this.affectedClusters;
+		affectedClusters.clear();
+		affectedClusters.add(cluster);
+
+		// Replace the level 0 connections of the cluster, keeping track of the connections between clusters
+		IntArray members = clusterMembers[cluster];
+		for (int i = 0; i < members.size; i++) {
+			int member = members.get(i);
+			Array<Connection<ClusterNode<N>>> connections = nodes.get(member).getConnections();
+			for (int j = 0; j < connections.size; j++) {
+				int to = connections.get(j).getToNode().getIndex();
+				if (clusterOf[to] != cluster) {
+					incomingCrossings[to]--;
+					if (!affectedClusters.contains(clusterOf[to])) affectedClusters.add(clusterOf[to]);
+				}
+			}
+			connections = rebuildConnections(member);
+			for (int j = 0; j < connections.size; j++) {
+				int to = connections.get(j).getToNode().getIndex();
+				if (clusterOf[to] != cluster) {
+					incomingCrossings[to]++;
+					if (!affectedClusters.contains(clusterOf[to])) affectedClusters.add(clusterOf[to]);
+				}
+			}
+		}
+
+		// Update the entrances of all the affected clusters, then reconnect them
+		for (int i = 0; i < affectedClusters.size; i++)
+			findEntrances(affectedClusters.get(i));
+		for (int i = 0; i < affectedClusters.size; i++)
+			connectEntrances(affectedClusters.get(i));
+	}
+
+	/** Replaces the level 0 connections of the given node with the current connections of the original graph. */
+	protected Array<Connection<ClusterNode<N>>> rebuildConnections (int index) {
+		ClusterNode<N> node = nodes.get(index);
+		Array<Connection<ClusterNode<N>>> connections = node.getConnections();
+		connections.clear();
+		Array<Connection<N>> baseConnections = graph.getConnections(node.getNode());
+		for (int i = 0; i < baseConnections.size; i++) {
+			Connection<N> baseConnection = baseConnections.get(i);
+			connections.add(new ClusterConnection<N>(node, nodes.get(baseConnection.getToNode().getIndex()), baseConnection));
+		}
+		return connections;
+	}
+
+	/** Finds the entrances of the given cluster, making sure they have a level 1 node. */
+	protected void findEntrances (int cluster) {
+		IntArray members = clusterMembers[cluster];
+		IntArray entrances = clusterEntrances[cluster];
+		entrances.clear();
+		for (int i = 0; i < members.size; i++) {
+			int member = members.get(i);
+			boolean isEntrance = incomingCrossings[member] > 0;
+			Array<Connection<ClusterNode<N>>> connections = nodes.get(member).getConnections();
+			for (int j = 0; j < connections.size && !isEntrance; j++)
+				isEntrance = clusterOf[connections.get(j).getToNode().getIndex()] != cluster;
+			entrance[member] = isEntrance;
+			if (isEntrance) {
+				entrances.add(member);
+				getOrCreateUpperNode(member);
+			} else {
+				ClusterNode<N> upperNode = nodes.get(baseNodeCount + member);
+				if (upperNode != null) upperNode.getConnections().clear();
+			}
+		}
+	}
+
+	/** Creates the level 1 connections of the entrances of the given cluster. The entrances of the clusters it's connected to must
+	 * be up to date. */
+	protected void connectEntrances (int cluster) {
+		IntArray entrances = clusterEntrances[cluster];
+		for (int i = 0; i < entrances.size; i++) {
+			int from = entrances.get(i);
+			ClusterNode<N> upperNode = nodes.get(baseNodeCount + from);
+			Array<Connection<ClusterNode<N>>> upperConnections = upperNode.getConnections();
+			upperConnections.clear();
+
+			// Connections to other clusters are the same as in the original graph
+			Array<Connection<ClusterNode<N>>> connections = nodes.get(from).getConnections();
+			for (int j = 0; j < connections.size; j++) {
+				ClusterConnection<N> connection = (ClusterConnection<N>)connections.get(j);
+				int to = connection.getToNode().getIndex();
+				if (clusterOf[to] != cluster)
+					upperConnections.add(new ClusterConnection<N>(upperNode, nodes.get(baseNodeCount + to), connection.getConnection()));
+			}
+
+			// Connections to the other entrances of the cluster cost as the shortest path between them
+			searchCluster(from, cluster, false);
+			for (int j = 0; j < entrances.size; j++) {
+				int to = entrances.get(j);
+				if (to != from && visited[to] == visitId)
+					upperConnections.add(new ClusterConnection<N>(upperNode, nodes.get(baseNodeCount + to), costSoFar[to]));
+			}
+		}
+
+		// Invalidate the level 1 nodes cached for the nodes of this cluster
+		clusterVersions[cluster]++;
+	}
+
+	/** Returns the level 1 node the given level 0 node converts to: the closest entrance reachable inside its cluster or, if there's
+	 * none, a node without connections shared by all the nodes of the cluster reachable from the given one. */
+	protected ClusterNode<N> getUpperNode (int index) {
+		int cluster = clusterOf[index];
+		if (upperNodeVersions[index] != clusterVersions[cluster]) {
+			upperNodes[index] = searchCluster(index, cluster, true);
+			upperNodeVersions[index] = clusterVersions[cluster];
+		}
+		return getOrCreateUpperNode(upperNodes[index]);
+	}
+
+	private ClusterNode<N> getOrCreateUpperNode (int index) {
+		ClusterNode<N> upperNode = nodes.get(baseNodeCount + index);
+		if (upperNode == null) {
+			upperNode = new ClusterNode<N>(nodes.get(index).getNode(), 1, baseNodeCount + index);
+			nodes.set(baseNodeCount + index, upperNode);
+		}
+		return upperNode;
+	}
+
+	/** Runs Dijkstra's algorithm from the given node without leaving its cluster.
+	 * @param start the index of the start node
+	 * @param cluster the cluster of the start node
+	 * @param stopAtEntrance whether the search has to stop at the first entrance
+	 * @return the index of the first entrance reached if {@code stopAtEntrance} is {@code true}; otherwise, or if no entrance can
+	 *         be reached, the smallest index of the nodes reached. */
+	private int searchCluster (int start, int cluster, boolean stopAtEntrance) {
+		if (++visitId == 0) {
+			// The visit id has wrapped around, so old marks could be mistaken for the current search
+			for (int i = 0; i < visited.length; i++)
+				visited[i] = 0;
+			visitId = 1;
+		}
+		float[] costSoFar = this.costSoFar;
+		int[] visited = this.visited;
+		int visitId = this.visitId;
+		IntBinaryHeap openList = this.openList;
+
+		openList.clear();
+		costSoFar[start] = 0;
+		visited[start] = visitId;
+		openList.add(start, 0);
+		int smallest = start;
+		while (openList.size > 0) {
+			int current = openList.pop();
+			if (stopAtEntrance && entrance[current]) return current;
+			if (current < smallest) smallest = current;
+
+			float currentCost = costSoFar[current];
+			Array<Connection<ClusterNode<N>>> connections = nodes.get(current).getConnections();
+			for (int i = 0; i < connections.size; i++) {
+				Connection<ClusterNode<N>> connection = connections.get(i);
+				int to = connection.getToNode().getIndex();
+				if (clusterOf[to] != cluster) continue;
+				float cost = currentCost + connection.getCost();
+				if (cost == Float.POSITIVE_INFINITY) continue;
+				if (visited[to] != visitId) {
+					visited[to] = visitId;
+					costSoFar[to] = cost;
+					openList.add(to, cost);
+				} else if (cost < costSoFar[to] && openList.contains(to)) {
+					costSoFar[to] = cost;
+					openList.setValue(to, cost);
+				}
+			}
+		}
+		return smallest;
+	}
+
+}
@@ -0,0 +1,376 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.pfa.indexed;
+
+import com.badlogic.gdx.ai.pfa.Connection;
+import com.badlogic.gdx.ai.pfa.GraphPath;
+import com.badlogic.gdx.ai.pfa.Heuristic;
+import com.badlogic.gdx.ai.pfa.PathFinder;
+import com.badlogic.gdx.ai.pfa.PathFinderQueue;
+import com.badlogic.gdx.ai.pfa.PathFinderRequest;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedAStarPathFinder.Metrics;
+import com.badlogic.gdx.ai.utils.IntBinaryHeap;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.TimeUtils;
+
+/** A bidirectional variant of the {@link IndexedAStarPathFinder} that can perform both interruptible and non-interruptible
+ * pathfinding on a {@link ReversibleIndexedGraph}.
+ * <p>
+ * Two A* searches run at the same time: a forward search from the start node following the outgoing connections and a backward
+ * search from the end node following the incoming connections. At each step the search with the smaller open list is advanced by
+ * one node. Every time a node reached by one search gets a better cost, the cost of the path through that node is checked against
+ * the best path found so far. The search stops as soon as the smallest estimated total cost in either open list is not less than
+ * the cost of the best path, which guarantees that the path is optimal whenever the heuristic is admissible. On large open maps
+ * the two searches meet in the middle having visited far fewer nodes than a single forward search.
+ * <p>
+ * The backward search calls {@code heuristic.estimate(node, startNode)} to estimate the cost of the path from the start node to
+ * {@code node}, so the heuristic must be admissible in both directions. This is the case of the usual symmetric distances, like
+ * Euclidean or Manhattan, on graphs where the cost of moving between two nodes doesn't depend on the direction.
+ * <p>
+ * Like the {@link FlatIndexedAStarPathFinder}, the search data of both directions are kept in primitive arrays indexed by
+ * {@link IndexedNode#getIndex()}.
+ * 
+ * @param <N> Type of node extending {@link IndexedNode}
+ * 
+ * @author agent */
+public class BidirectionalIndexedAStarPathFinder<N extends IndexedNode<N>> implements PathFinder<N> {
+	ReversibleIndexedGraph<N> graph;
+	Frontier<N> forward;
+	Frontier<N> backward;
+	Heuristic<N> heuristic;
+	float bestCost;
+	int meetingNode;
+	public Metrics metrics;
+
+	/** The unique ID for each search run. Used to mark nodes. */
+	private int searchId;
+
+	public BidirectionalIndexedAStarPathFinder (ReversibleIndexedGraph<N> graph) {
+		this(graph, false);
+	}
+
+	public BidirectionalIndexedAStarPathFinder (ReversibleIndexedGraph<N> graph, boolean calculateMetrics) {
+		this.graph = graph;
+		int nodeCount = graph.getNodeCount();
+		this.forward = new Frontier<N>(nodeCount, false);
+		this.backward = new Frontier<N>(nodeCount, true);
+		if (calculateMetrics) this.metrics = new Metrics();
+	}
+
+	@Override
+	public boolean searchConnectionPath (N startNode, N endNode, Heuristic<N> heuristic, GraphPath<Connection<N>> outPath) {
+
+		// Perform bidirectional AStar
+		search(startNode, endNode, heuristic);
+
+		// We're here if the two searches have met, or if we've no more nodes to search, find which
+		if (meetingNode < 0) {
+			// We've run out of nodes without meeting, so there's no solution
+			return false;
+		}
+
+		generateConnectionPath(outPath);
+
+		return true;
+	}
+
+	@Override
+	public boolean searchNodePath (N startNode, N endNode, Heuristic<N> heuristic, GraphPath<N> outPath) {
+
+		// Perform bidirectional AStar
+		search(startNode, endNode, heuristic);
+
+		// We're here if the two searches have met, or if we've no more nodes to search, find which
+		if (meetingNode < 0) {
+			// We've run out of nodes without meeting, so there's no solution
+			return false;
+		}
+
+		generateNodePath(outPath);
+
+		return true;
+	}
+
+	protected void search (N startNode, N endNode, Heuristic<N> heuristic) {
+
+		initSearch(startNode, endNode, heuristic);
+
+		// Iterate until the best path is known or there are no more nodes to search
+		while (!step()) {
+		}
+	}
+
+	@Override
+	public boolean search (PathFinderRequest<N> request, long timeToRun) {
+
+		long lastTime = TimeUtils.nanoTime();
+
+		// We have to initialize the search if the status has just changed
+		if (request.statusChanged) {
+			initSearch(request.startNode, request.endNode, request.heuristic);
+			request.statusChanged = false;
+		}
+
+		// Iterate through processing each node
+		while (true) {
+
+			// Check the available time
+			long currentTime = TimeUtils.nanoTime();
+			timeToRun -= currentTime - lastTime;
+			if (timeToRun <= PathFinderQueue.TIME_TOLERANCE) return false;
+
+			// Advance the search; terminate when the best path is known or there are no more nodes to search
+			if (step()) {
+				request.pathFound = meetingNode >= 0;
+				if (request.pathFound) generateNodePath(request.resultPath);
+				return true;
+			}
+
+			// Store the current time
+			lastTime = currentTime;
+		}
+	}
+
+	protected void initSearch (N startNode, N endNode, Heuristic<N> heuristic) {
+		if (metrics != null) metrics.reset();
+
+		// Increment the search id; the two lowest bits of the status word are reserved to the node category.
+		// A node whose status word doesn't contain the current search id is unvisited.
+		searchId += SEARCH_ID_INCREMENT;
+		if (searchId <= 0) {
+			// The search id has wrapped around, so old marks could be mistaken for the current search
+			forward.clearStatus();
+			backward.clearStatus();
+			searchId = SEARCH_ID_INCREMENT;
+		}
+
+		this.heuristic = heuristic;
+		this.bestCost = Float.POSITIVE_INFINITY;
+		this.meetingNode = -1;
+
+		// Initialize the two searches, each one starting from its origin and heading to the origin of the other
+		forward.init(startNode, endNode);
+		backward.init(endNode, startNode);
+		addToOpenList(forward, backward, startNode.getIndex(), 0, heuristic.estimate(startNode, endNode));
+		addToOpenList(backward, forward, endNode.getIndex(), 0, heuristic.estimate(endNode, startNode));
+	}
+
+	/** Advances the search by expanding one node.
+	 * @return {@code true} if the search has finished; {@code false} otherwise. */
+	protected boolean step () {
+		IntBinaryHeap forwardOpenList = forward.openList;
+		IntBinaryHeap backwardOpenList = backward.openList;
+
+		// No path can be found if either search has run out of nodes
+		if (forwardOpenList.size == 0 || backwardOpenList.size == 0) return true;
+
+		// The best path is optimal when no open node can lead to a cheaper one
+		if (forwardOpenList.peekValue() >= bestCost || backwardOpenList.peekValue() >= bestCost) return true;
+
+		// Advance the search with fewer open nodes
+		if (forwardOpenList.size <= backwardOpenList.size)
+			visitChildren(forward, backward);
+		else
+			visitChildren(backward, forward);
+		return false;
+	}
+
+	protected void visitChildren (Frontier<N> frontier, Frontier<N> opposite) {
+		// Retrieve the node with smallest estimated total cost from the open list
+		int current = frontier.openList.pop();
+		frontier.status[current] = searchId | CLOSED;
+
+		float[] costSoFar = frontier.costSoFar;
+		float[] estimatedTotalCost = frontier.estimatedTotalCost;
+		int[] status = frontier.status;
+		int searchId = this.searchId;
+		boolean reverse = frontier.reverse;
+
+		// Get current node's outgoing connections, or incoming connections for the backward search
+		N currentNode = frontier.getNode(current);
+		Array<Connection<N>> connections = reverse ? graph.getIncomingConnections(currentNode) : graph.getConnections(currentNode);
+		float currentCostSoFar = costSoFar[current];
+
+		// Loop through each connection in turn
+		for (int i = 0; i < connections.size; i++) {
+			if (metrics != null) metrics.visitedNodes++;
+
+			Connection<N> connection = connections.get(i);
+
+			// Get the cost estimate for the node
+			N node = reverse ? connection.getFromNode() : connection.getToNode();
+			int nodeIndex = node.getIndex();
+			float nodeCost = currentCostSoFar + connection.getCost();
+
+			float nodeHeuristic;
+			int nodeStatus = status[nodeIndex];
+			if (nodeStatus == (searchId | CLOSED)) { // The node is closed
+
+				// If we didn't find a shorter route, skip
+				if (costSoFar[nodeIndex] <= nodeCost) continue;
+
+				// We can use the node's old cost values to calculate its heuristic
+				nodeHeuristic = estimatedTotalCost[nodeIndex] - costSoFar[nodeIndex];
+			} else if (nodeStatus == (searchId | OPEN)) { // The node is open
+
+				// If our route is no better, then skip
+				if (costSoFar[nodeIndex] <= nodeCost) continue;
+
+				// Remove it from the open list (it will be re-added with the new cost)
+				frontier.openList.remove(nodeIndex);
+
+				// We can use the node's old cost values to calculate its heuristic
+				nodeHeuristic = estimatedTotalCost[nodeIndex] - costSoFar[nodeIndex];
+			} else { // the node is unvisited
+
+				// We'll need to calculate the heuristic value using the function
+				nodeHeuristic = heuristic.estimate(node, frontier.target);
+			}
+
+			// Update node's connection and add it to the open list with the estimated total cost
+			frontier.connections[nodeIndex] = connection;
+			addToOpenList(frontier, opposite, nodeIndex, nodeCost, nodeCost + nodeHeuristic);
+		}
+	}
+
+	protected void addToOpenList (Frontier<N> frontier, Frontier<N> opposite, int nodeIndex, float costSoFar,
+		float estimatedTotalCost) {
+		frontier.openList.add(nodeIndex, estimatedTotalCost);
+		frontier.costSoFar[nodeIndex] = costSoFar;
+		frontier.estimatedTotalCost[nodeIndex] = estimatedTotalCost;
+		frontier.status[nodeIndex] = searchId | OPEN;
+
+		// If the opposite search has reached this node too, check whether the path through it is the best so far
+		if ((opposite.status[nodeIndex] & SEARCH_ID_MASK) == searchId) {
+			float pathCost = costSoFar + opposite.costSoFar[nodeIndex];
+			if (pathCost < bestCost) {
+				bestCost = pathCost;
+				meetingNode = nodeIndex;
+			}
+		}
+
+		if (metrics != null) {
+			metrics.openListAdditions++;
+			metrics.openListPeak = Math.max(metrics.openListPeak, forward.openList.size + backward.openList.size);
+		}
+	}
+
+	protected void generateConnectionPath (GraphPath<Connection<N>> outPath) {
+
+		// Work back along the forward path, accumulating connections
+		// outPath.clear();
+		int current = meetingNode;
+		Connection<N> connection;
+		while ((connection = forward.connections[current]) != null) {
+			outPath.add(connection);
+			current = connection.getFromNode().getIndex();
+		}
+
+		// Reverse the forward path
+		outPath.reverse();
+
+		// Work forth along the backward path, accumulating connections
+		current = meetingNode;
+		while ((connection = backward.connections[current]) != null) {
+			outPath.add(connection);
+			current = connection.getToNode().getIndex();
+		}
+	}
+
+	protected void generateNodePath (GraphPath<N> outPath) {
+
+		// Work back along the forward path, accumulating nodes
+		// outPath.clear();
+		int current = meetingNode;
+		Connection<N> connection;
+		while ((connection = forward.connections[current]) != null) {
+			outPath.add(connection.getToNode());
+			current = connection.getFromNode().getIndex();
+		}
+		outPath.add(forward.origin);
+
+		// Reverse the forward path
+		outPath.reverse();
+
+		// Work forth along the backward path, accumulating nodes
+		current = meetingNode;
+		while ((connection = backward.connections[current]) != null) {
+			N node = connection.getToNode();
+			outPath.add(node);
+			current = node.getIndex();
+		}
+	}
+
+	private static final int OPEN = 1;
+	private static final int CLOSED = 2;
+	private static final int SEARCH_ID_INCREMENT = 4;
+	private static final int SEARCH_ID_MASK = ~3;
+
+	/** The search data of one direction of the bidirectional search.
+	 * 
+	 * @param <N> Type of node
+	 * 
+	 * @author agent */
+	static class Frontier<N extends IndexedNode<N>> {
+		/** Whether this frontier follows the connections backwards. */
+		final boolean reverse;
+
+		final float[] costSoFar;
+		final float[] estimatedTotalCost;
+
+		/** The connection through which each node has been reached; for the backward search it's the connection outgoing from the
+		 * node. */
+		final Connection<N>[] connections;
+
+		final int[] status;
+		final IntBinaryHeap openList;
+
+		/** The node this search starts from. */
+		N origin;
+
+		/** The node this search is heading to. */
+		N target;
+
+		@SuppressWarnings("unchecked")
+		Frontier (int nodeCount, boolean reverse) {
+			this.reverse = reverse;
+			this.costSoFar = new float[nodeCount];
+			this.estimatedTotalCost = new float[nodeCount];
+			this.connections = (Connection<N>[])new Connection[nodeCount];
+			this.status = new int[nodeCount];
+			this.openList = new IntBinaryHeap(16, nodeCount, false);
+		}
+
+		void init (N origin, N target) {
+			this.origin = origin;
+			this.target = target;
+			openList.clear();
+			connections[origin.getIndex()] = null;
+		}
+
+		N getNode (int index) {
+			Connection<N> connection = connections[index];
+			if (connection == null) return origin;
+			return reverse ? connection.getFromNode() : connection.getToNode();
+		}
+
+		void clearStatus () {
+			for (int i = 0; i < status.length; i++)
+				status[i] = 0;
+		}
+	}
+}
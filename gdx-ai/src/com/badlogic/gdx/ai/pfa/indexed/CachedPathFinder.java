@@ -0,0 +1,311 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.pfa.indexed;
+
+import com.badlogic.gdx.ai.pfa.Connection;
+import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
+import com.badlogic.gdx.ai.pfa.GraphPath;
+import com.badlogic.gdx.ai.pfa.Heuristic;
+import com.badlogic.gdx.ai.pfa.PathFinder;
+import com.badlogic.gdx.ai.pfa.PathFinderRequest;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.LongMap;
+import com.badlogic.gdx.utils.Predicate;
+
+/** A {@code CachedPathFinder} wraps any {@link PathFinder} and remembers the results of the most recent searches, keyed by the
+ * indices of their start and end nodes. When the same pair of nodes is requested again the cached path is copied into the output
+ * path without searching at all. Failed searches are cached too, so that repeated requests for an unreachable node are cheap.
+ * <p>
+ * The cache holds at most {@link #getCapacity() capacity} paths and discards the least recently used one when it's full. Node
+ * paths and connection paths are cached separately, since they are filled by different methods of the wrapped path finder.
+ * <p>
+ * The heuristic is not part of the key, meaning that the cache assumes that the same heuristic is used for the same pair of
+ * nodes. Also, the cache has no way to know when the graph changes: it's up to you to call {@link #invalidate(int)},
+ * {@link #invalidate(Predicate)} or {@link #invalidateAll()} when it happens. Notice that the partial invalidation methods only
+ * discard the paths that may have become invalid and the failed searches that may have become successful; cached paths not
+ * touching the modified nodes are kept even if a shorter path might be available now.
+ * <p>
+ * Interruptible searches are supported as well: a cache hit completes the request immediately, while a miss is passed on to the
+ * wrapped path finder and its result is cached once the search has finished.
+ * 
+ * @param <N> Type of node
+ * 
+ * @author agent */
+public class CachedPathFinder<N extends IndexedNode<N>> implements PathFinder<N> {
+
+	private final PathFinder<N> pathFinder;
+	private final int capacity;
+
+	private final LongMap<Entry<N>> nodePaths;
+	private final LongMap<Entry<N>> connectionPaths;
+
+	/** Sentinel of the circular list of the cached entries, from the most recently used one to the least recently used one. */
+	private final Entry<N> lru;
+
+	/** Entries discarded from the cache, ready to be reused. */
+	private final Array<Entry<N>> freeEntries;
+
+	private final DefaultGraphPath<N> tmpNodePath;
+	private final DefaultGraphPath<Connection<N>> tmpConnectionPath;
+
+	private PathFinderRequest<N> pendingRequest;
+	private int pendingPathOffset;
+
+	private int hits;
+	private int misses;
+
+	/** Creates a {@code CachedPathFinder} for the given path finder.
+	 * @param pathFinder the path finder performing the searches not found in the cache
+	 * @param capacity the maximum number of paths kept by the cache
+	 * @throws IllegalArgumentException if {@code capacity} is not positive */
+	public CachedPathFinder (PathFinder<N> pathFinder, int capacity) {
+		if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive: " + capacity);
+		this.pathFinder = pathFinder;
+		this.capacity = capacity;
+		this.nodePaths = new LongMap<Entry<N>>();
+		this.connectionPaths = new LongMap<Entry<N>>();
+		this.lru = new Entry<N>();
+		this.lru.previous = this.lru.next = this.lru;
+		this.freeEntries = new Array<Entry<N>>(false, 16);
+		this.tmpNodePath = new DefaultGraphPath<N>();
+		this.tmpConnectionPath = new DefaultGraphPath<Connection<N>>();
+	}
+
+	/** Returns the wrapped path finder. */
+	public PathFinder<N> getPathFinder () {
+		return pathFinder;
+	}
+
+	/** Returns the maximum number of paths kept by this cache. */
+	public int getCapacity () {
+		return capacity;
+	}
+
+	/** Returns the number of paths currently kept by this cache. */
+	public int getSize () {
+		return nodePaths.size + connectionPaths.size;
+	}
+
+	/** Returns the number of searches served by the cache since the creation or the last call to {@link #resetStatistics()}. */
+	public int getHits () {
+		return hits;
+	}
+
+	/** Returns the number of searches passed on to the wrapped path finder since the creation or the last call to
+	 * {@link #resetStatistics()}. */
+	public int getMisses () {
+		return misses;
+	}
+
+	/** Resets the hit and miss counters. */
+	public void resetStatistics () {
+		hits = 0;
+		misses = 0;
+	}
+
+	@Override
+	public boolean searchConnectionPath (N startNode, N endNode, Heuristic<N> heuristic, GraphPath<Connection<N>> outPath) {
+		long key = key(startNode, endNode);
+		Entry<N> entry = connectionPaths.get(key);
+		if (entry != null) {
+			hits++;
+			touch(entry);
+			if (entry.found) copy(entry.connections, outPath);
+			return entry.found;
+		}
+
+		misses++;
+		tmpConnectionPath.clear();
+		boolean found = pathFinder.searchConnectionPath(startNode, endNode, heuristic, tmpConnectionPath);
+		entry = store(connectionPaths, key, true, found);
+		if (found) {
+			entry.connections.addAll(tmpConnectionPath.nodes);
+			copy(tmpConnectionPath.nodes, outPath);
+		}
+		return found;
+	}
+
+	@Override
+	public boolean searchNodePath (N startNode, N endNode, Heuristic<N> heuristic, GraphPath<N> outPath) {
+		long key = key(startNode, endNode);
+		Entry<N> entry = nodePaths.get(key);
+		if (entry != null) {
+			hits++;
+			touch(entry);
+			if (entry.found) copy(entry.nodes, outPath);
+			return entry.found;
+		}
+
+		misses++;
+		tmpNodePath.clear();
+		boolean found = pathFinder.searchNodePath(startNode, endNode, heuristic, tmpNodePath);
+		entry = store(nodePaths, key, false, found);
+		if (found) {
+			entry.nodes.addAll(tmpNodePath.nodes);
+			copy(tmpNodePath.nodes, outPath);
+		}
+		return found;
+	}
+
+	@Override
+	public boolean search (PathFinderRequest<N> request, long timeToRun) {
+		// Look the path up in the cache when the request has just started
+		if (request.statusChanged) {
+			long key = key(request.startNode, request.endNode);
+			Entry<N> entry = nodePaths.get(key);
+			if (entry != null) {
+				hits++;
+				touch(entry);
+				request.statusChanged = false;
+				request.pathFound = entry.found;
+				if (entry.found) copy(entry.nodes, request.resultPath);
+				return true;
+			}
+			misses++;
+			pendingRequest = request;
+			pendingPathOffset = request.resultPath.getCount();
+		}
+
+		if (!pathFinder.search(request, timeToRun)) return false;
+
+		// Cache the result of the search
+		if (request == pendingRequest) {
+			Entry<N> entry = store(nodePaths, key(request.startNode, request.endNode), false, request.pathFound);
+			if (request.pathFound) {
+				GraphPath<N> resultPath = request.resultPath;
+				for (int i = pendingPathOffset, n = resultPath.getCount(); i < n; i++)
+					entry.nodes.add(resultPath.get(i));
+			}
+			pendingRequest = null;
+		}
+		return true;
+	}
+
+	/** Discards the cached paths starting from, ending at or going through the node with the given index. Also discards all the
+	 * cached failures, since a path might exist now. This method should be called whenever the connections of a node change.
+	 * @param nodeIndex the index of the modified node */
+	public void invalidate (int nodeIndex) {
+		for (Entry<N> entry = lru.next, next; entry != lru; entry = next) {
+			next = entry.next;
+			if (!entry.found || entry.touches(nodeIndex)) remove(entry);
+		}
+	}
+
+	/** Discards the cached paths starting from, ending at or going through any node of the given region. Also discards all the
+	 * cached failures, since a path might exist now. This method should be called whenever the connections of several nodes
+	 * change, for instance when a building is placed on a tiled map.
+	 * @param region the predicate telling whether a node has been modified */
+	public void invalidate (Predicate<N> region) {
+		for (Entry<N> entry = lru.next, next; entry != lru; entry = next) {
+			next = entry.next;
+			if (!entry.found || entry.touches(region)) remove(entry);
+		}
+	}
+
+	/** Discards all the cached paths. */
+	public void invalidateAll () {
+		while (lru.next != lru)
+			remove(lru.next);
+	}
+
+	private Entry<N> store (LongMap<Entry<N>> paths, long key, boolean connectionPath, boolean found) {
+		// Make room for the new entry by discarding the least recently used one
+		if (getSize() >= capacity) remove(lru.previous);
+
+		Entry<N> entry = freeEntries.size > 0 ? freeEntries.pop() : new Entry<N>();
+		entry.key = key;
+		entry.connectionPath = connectionPath;
+		entry.found = found;
+		paths.put(key, entry);
+		linkFirst(entry);
+		return entry;
+	}
+
+	private void remove (Entry<N> entry) {
+		if (entry.connectionPath)
+			connectionPaths.remove(entry.key);
+		else
+			nodePaths.remove(entry.key);
+		unlink(entry);
+		entry.nodes.clear();
+		entry.connections.clear();
+		freeEntries.add(entry);
+	}
+
+	private void touch (Entry<N> entry) {
+		unlink(entry);
+		linkFirst(entry);
+	}
+
+	private void linkFirst (Entry<N> entry) {
+		entry.previous = lru;
+		entry.next = lru.next;
+		lru.next.previous = entry;
+		lru.next = entry;
+	}
+
+	private void unlink (Entry<N> entry) {
+		entry.previous.next = entry.next;
+		entry.next.previous = entry.previous;
+		entry.previous = entry.next = null;
+	}
+
+	private static <T> void copy (Array<T> items, GraphPath<T> outPath) {
+		for (int i = 0; i < items.size; i++)
+			outPath.add(items.get(i));
+	}
+
+	private static long key (IndexedNode<?> startNode, IndexedNode<?> endNode) {
+		if (startNode == null || endNode == null) throw new GdxRuntimeException("Start and end nodes can't be null");
+		return ((long)startNode.getIndex() << 32) | (endNode.getIndex() & 0xffffffffL);
+	}
+
+	/** A cached search result, linked in the LRU list.
+	 * 
+	 * @param <N> Type of node
+	 * 
+	 * @author agent */
+	static class Entry<N extends IndexedNode<N>> {
+		long key;
+		boolean connectionPath;
+		boolean found;
+		final Array<N> nodes = new Array<N>();
+		final Array<Connection<N>> connections = new Array<Connection<N>>();
+		Entry<N> previous;
+		Entry<N> next;
+
+		boolean touches (int nodeIndex) {
+			if ((int)(key >>> 32) == nodeIndex || (int)key == nodeIndex) return true;
+			for (int i = 0; i < nodes.size; i++)
+				if (nodes.get(i).getIndex() == nodeIndex) return true;
+			for (int i = 0; i < connections.size; i++)
+				if (connections.get(i).getToNode().getIndex() == nodeIndex) return true;
+			return false;
+		}
+
+		boolean touches (Predicate<N> region) {
+			for (int i = 0; i < nodes.size; i++)
+				if (region.evaluate(nodes.get(i))) return true;
+			for (int i = 0; i < connections.size; i++) {
+				Connection<N> connection = connections.get(i);
+				if ((i == 0 && region.evaluate(connection.getFromNode())) || region.evaluate(connection.getToNode())) return true;
+			}
+			return false;
+		}
+	}
+}
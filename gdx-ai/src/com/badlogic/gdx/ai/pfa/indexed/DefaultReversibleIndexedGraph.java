@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.pfa.indexed;
+
+import com.badlogic.gdx.ai.pfa.Connection;
+import com.badlogic.gdx.utils.Array;
+
+/** The default implementation of a {@link ReversibleIndexedGraph}. The incoming connections are computed from the outgoing
+ * connections of the nodes the first time they are requested; if you later change the connections of the graph you have to call
+ * {@link #invalidateIncomingConnections()}.
+ * <p>
+ * Like any graph shared by the workers of a {@link com.badlogic.gdx.ai.pfa.ConcurrentPathFinderQueue ConcurrentPathFinderQueue},
+ * this graph must not change while searches are running. Requesting the incoming connections is thread-safe: they are built only
+ * once and safely published to all the threads. You can also call {@link #buildIncomingConnections()} before searching to avoid
+ * building them during the first search. Invalidating the incoming connections counts as a change of the graph.
+ * 
+ * @param <N> Type of node extending {@link IndexedNode}
+ * 
+ * @author agent */
+public class DefaultReversibleIndexedGraph<N extends IndexedNode<N>> extends DefaultIndexedGraph<N> implements
+	ReversibleIndexedGraph<N> {
+
+	protected volatile Array<Connection<N>>[] incomingConnections;
+
+	/** Creates a {@code DefaultReversibleIndexedGraph} with no nodes. */
+	public DefaultReversibleIndexedGraph () {
+		super();
+	}
+
+	/** Creates a {@code DefaultReversibleIndexedGraph} with the given capacity and no nodes. */
+	public DefaultReversibleIndexedGraph (int capacity) {
+		super(capacity);
+	}
+
+	/** Creates a {@code DefaultReversibleIndexedGraph} with the given nodes. */
+	public DefaultReversibleIndexedGraph (Array<N> nodes) {
+		super(nodes);
+	}
+
+	@Override
+	public Array<Connection<N>> getIncomingConnections (N toNode) {
+		Array<Connection<N>>[] incoming = incomingConnections;
+		if (incoming == null) incoming = buildIncomingConnections();
+		return incoming[toNode.getIndex()];
+	}
+
+	/** Discards the incoming connections so that they are computed again the next time they are requested. */
+	public void invalidateIncomingConnections () {
+		incomingConnections = null;
+	}
+
+	/** Computes the incoming connections of all the nodes, unless they have already been computed.
+	 * @return the incoming connections indexed by node. */
+	@SuppressWarnings("unchecked")
+	public synchronized Array<Connection<N>>[] buildIncomingConnections () {
+		// Another thread might have built them while this one was waiting for the lock
+		if (incomingConnections != null) return incomingConnections;
+		int nodeCount = getNodeCount();
+		Array<Connection<N>>[] incoming = (Array<Connection<N>>[])new Array[nodeCount];
+		for (int i = 0; i < nodeCount; i++)
+			incoming[i] = new Array<Connection<N>>(4);
+		for (int i = 0; i < nodeCount; i++) {
+			Array<Connection<N>> connections = getConnections(nodes.get(i));
+			for (int j = 0; j < connections.size; j++) {
+				Connection<N> connection = connections.get(j);
+				incoming[connection.getToNode().getIndex()].add(connection);
+			}
+		}
+		// Publish the array only once it's complete
+		return this.incomingConnections = incoming;
+	}
+}
@@ -0,0 +1,307 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.pfa.indexed;
+
+import com.badlogic.gdx.ai.pfa.Connection;
+import com.badlogic.gdx.ai.pfa.GraphPath;
+import com.badlogic.gdx.ai.pfa.Heuristic;
+import com.badlogic.gdx.ai.pfa.PathFinder;
+import com.badlogic.gdx.ai.pfa.PathFinderQueue;
+import com.badlogic.gdx.ai.pfa.PathFinderRequest;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedAStarPathFinder.Metrics;
+import com.badlogic.gdx.ai.utils.IntBinaryHeap;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.TimeUtils;
+
+/** A memory-friendly variant of the {@link IndexedAStarPathFinder} meant for very large graphs.
+ * <p>
+ * Rather than allocating one node record object per graph node, this implementation keeps the search data in parallel primitive
+ * arrays indexed by {@link IndexedNode#getIndex()}: the cost so far, the estimated total cost, the incoming connection and a
+ * status word packing both the search ID and the node category. The open list is an {@link IntBinaryHeap} of node indices. All the
+ * arrays are allocated once at construction time, so no garbage is created during the search and the data accessed by the inner
+ * loop are laid out contiguously in memory.
+ * <p>
+ * The open list breaks ties like the {@link com.badlogic.gdx.utils.BinaryHeap BinaryHeap} used by the
+ * {@link IndexedAStarPathFinder}, but it keeps the heap order when a node whose cost improves is removed from the middle of the
+ * open list. So, given the same graph and heuristic, both path finders usually return the same paths, though this one can find a
+ * cheaper path where the {@code BinaryHeap} order was broken.
+ * 
+ * @param <N> Type of node extending {@link IndexedNode}
+ * 
+ * @author agent */
+public class FlatIndexedAStarPathFinder<N extends IndexedNode<N>> implements PathFinder<N> {
+	IndexedGraph<N> graph;
+	float[] costSoFar;
+	float[] estimatedTotalCost;
+	Connection<N>[] connections;
+	int[] status;
+	IntBinaryHeap openList;
+	int current;
+	N startNode;
+	public Metrics metrics;
+
+	/** The unique ID for each search run. Used to mark nodes. */
+	private int searchId;
+
+	public FlatIndexedAStarPathFinder (IndexedGraph<N> graph) {
+		this(graph, false);
+	}
+
+	@SuppressWarnings("unchecked")
+	public FlatIndexedAStarPathFinder (IndexedGraph<N> graph, boolean calculateMetrics) {
+		this.graph = graph;
+		int nodeCount = graph.getNodeCount();
+		this.costSoFar = new float[nodeCount];
+		this.estimatedTotalCost = new float[nodeCount];
+		this.connections = (Connection<N>[])new Connection[nodeCount];
+		this.status = new int[nodeCount];
+		this.openList = new IntBinaryHeap(16, nodeCount, false);
+		if (calculateMetrics) this.metrics = new Metrics();
+	}
+
+	@Override
+	public boolean searchConnectionPath (N startNode, N endNode, Heuristic<N> heuristic, GraphPath<Connection<N>> outPath) {
+
+		// Perform AStar
+		search(startNode, endNode, heuristic);
+
+		// We're here if we've either found the goal, or if we've no more nodes to search, find which
+		if (current != endNode.getIndex()) {
+			// We've run out of nodes without finding the goal, so there's no solution
+			return false;
+		}
+
+		generateConnectionPath(startNode, outPath);
+
+		return true;
+	}
+
+	@Override
+	public boolean searchNodePath (N startNode, N endNode, Heuristic<N> heuristic, GraphPath<N> outPath) {
+
+		// Perform AStar
+		search(startNode, endNode, heuristic);
+
+		// We're here if we've either found the goal, or if we've no more nodes to search, find which
+		if (current != endNode.getIndex()) {
+			// We've run out of nodes without finding the goal, so there's no solution
+			return false;
+		}
+
+		generateNodePath(startNode, outPath);
+
+		return true;
+	}
+
+	protected void search (N startNode, N endNode, Heuristic<N> heuristic) {
+
+		initSearch(startNode, endNode, heuristic);
+
+		int endIndex = endNode.getIndex();
+
+		// Iterate through processing each node
+		do {
+			// Retrieve the node with smallest estimated total cost from the open list
+			current = openList.pop();
+			status[current] = searchId | CLOSED;
+
+			// Terminate if we reached the goal node
+			if (current == endIndex) return;
+
+			visitChildren(endNode, heuristic);
+
+		} while (openList.size > 0);
+	}
+
+	@Override
+	public boolean search (PathFinderRequest<N> request, long timeToRun) {
+
+		long lastTime = TimeUtils.nanoTime();
+
+		// We have to initialize the search if the status has just changed
+		if (request.statusChanged) {
+			initSearch(request.startNode, request.endNode, request.heuristic);
+			request.statusChanged = false;
+		}
+
+		int endIndex = request.endNode.getIndex();
+
+		// Iterate through processing each node
+		do {
+
+			// Check the available time
+			long currentTime = TimeUtils.nanoTime();
+			timeToRun -= currentTime - lastTime;
+			if (timeToRun <= PathFinderQueue.TIME_TOLERANCE) return false;
+
+			// Retrieve the node with smallest estimated total cost from the open list
+			current = openList.pop();
+			status[current] = searchId | CLOSED;
+
+			// Terminate if we reached the goal node; we've found a path.
+			if (current == endIndex) {
+				request.pathFound = true;
+
+				generateNodePath(request.startNode, request.resultPath);
+
+				return true;
+			}
+
+			// Visit current node's children
+			visitChildren(request.endNode, request.heuristic);
+
+			// Store the current time
+			lastTime = currentTime;
+
+		} while (openList.size > 0);
+
+		// The open list is empty and we've not found a path.
+		request.pathFound = false;
+		return true;
+	}
+
+	protected void initSearch (N startNode, N endNode, Heuristic<N> heuristic) {
+		if (metrics != null) metrics.reset();
+
+		// Increment the search id; the two lowest bits of the status word are reserved to the node category.
+		// A node whose status word doesn't contain the current search id is unvisited.
+		searchId += SEARCH_ID_INCREMENT;
+		if (searchId <= 0) {
+			// The search id has wrapped around, so old marks could be mistaken for the current search
+			for (int i = 0; i < status.length; i++)
+				status[i] = 0;
+			searchId = SEARCH_ID_INCREMENT;
+		}
+
+		// Initialize the open list
+		openList.clear();
+
+		// Initialize the start node and add it to the open list
+		int startIndex = startNode.getIndex();
+		costSoFar[startIndex] = 0;
+		connections[startIndex] = null;
+		addToOpenList(startIndex, heuristic.estimate(startNode, endNode));
+
+		this.startNode = startNode;
+		current = -1;
+	}
+
+	protected void visitChildren (N endNode, Heuristic<N> heuristic) {
+		float[] costSoFar = this.costSoFar;
+		float[] estimatedTotalCost = this.estimatedTotalCost;
+		int[] status = this.status;
+		int searchId = this.searchId;
+
+		// Get current node's outgoing connections; only the start node has no incoming connection
+		Connection<N> currentConnection = this.connections[current];
+		N currentNode = currentConnection != null ? currentConnection.getToNode() : startNode;
+		Array<Connection<N>> connections = graph.getConnections(currentNode);
+		float currentCostSoFar = costSoFar[current];
+
+		// Loop through each connection in turn
+		for (int i = 0; i < connections.size; i++) {
+			if (metrics != null) metrics.visitedNodes++;
+
+			Connection<N> connection = connections.get(i);
+
+			// Get the cost estimate for the node
+			N node = connection.getToNode();
+			int nodeIndex = node.getIndex();
+			float nodeCost = currentCostSoFar + connection.getCost();
+
+			float nodeHeuristic;
+			int nodeStatus = status[nodeIndex];
+			if (nodeStatus == (searchId | CLOSED)) { // The node is closed
+
+				// If we didn't find a shorter route, skip
+				if (costSoFar[nodeIndex] <= nodeCost) continue;
+
+				// We can use the node's old cost values to calculate its heuristic
+				// without calling the possibly expensive heuristic function
+				nodeHeuristic = estimatedTotalCost[nodeIndex] - costSoFar[nodeIndex];
+			} else if (nodeStatus == (searchId | OPEN)) { // The node is open
+
+				// If our route is no better, then skip
+				if (costSoFar[nodeIndex] <= nodeCost) continue;
+
+				// Remove it from the open list (it will be re-added with the new cost)
+				openList.remove(nodeIndex);
+
+				// We can use the node's old cost values to calculate its heuristic
+				// without calling the possibly expensive heuristic function
+				nodeHeuristic = estimatedTotalCost[nodeIndex] - costSoFar[nodeIndex];
+			} else { // the node is unvisited
+
+				// We'll need to calculate the heuristic value using the function,
+				// since we don't have a record with a previously calculated value
+				nodeHeuristic = heuristic.estimate(node, endNode);
+			}
+
+			// Update node's cost and connection
+			costSoFar[nodeIndex] = nodeCost;
+			this.connections[nodeIndex] = connection;
+
+			// Add it to the open list with the estimated total cost
+			addToOpenList(nodeIndex, nodeCost + nodeHeuristic);
+		}
+
+	}
+
+	protected void generateConnectionPath (N startNode, GraphPath<Connection<N>> outPath) {
+
+		// Work back along the path, accumulating connections
+		// outPath.clear();
+		int startIndex = startNode.getIndex();
+		while (current != startIndex) {
+			Connection<N> connection = connections[current];
+			outPath.add(connection);
+			current = connection.getFromNode().getIndex();
+		}
+
+		// Reverse the path
+		outPath.reverse();
+	}
+
+	protected void generateNodePath (N startNode, GraphPath<N> outPath) {
+
+		// Work back along the path, accumulating nodes
+		// outPath.clear();
+		Connection<N> connection;
+		while ((connection = connections[current]) != null) {
+			outPath.add(connection.getToNode());
+			current = connection.getFromNode().getIndex();
+		}
+		outPath.add(startNode);
+
+		// Reverse the path
+		outPath.reverse();
+	}
+
+	protected void addToOpenList (int nodeIndex, float estimatedTotalCost) {
+		openList.add(nodeIndex, estimatedTotalCost);
+		this.estimatedTotalCost[nodeIndex] = estimatedTotalCost;
+		status[nodeIndex] = searchId | OPEN;
+		if (metrics != null) {
+			metrics.openListAdditions++;
+			metrics.openListPeak = Math.max(metrics.openListPeak, openList.size);
+		}
+	}
+
+	private static final int OPEN = 1;
+	private static final int CLOSED = 2;
+	private static final int SEARCH_ID_INCREMENT = 4;
+}
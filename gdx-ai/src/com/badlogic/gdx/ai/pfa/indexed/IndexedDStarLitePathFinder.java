@@ -0,0 +1,487 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.pfa.indexed;
+
+import com.badlogic.gdx.ai.pfa.Connection;
+import com.badlogic.gdx.ai.pfa.GraphPath;
+import com.badlogic.gdx.ai.pfa.Heuristic;
+import com.badlogic.gdx.ai.pfa.PathFinder;
+import com.badlogic.gdx.ai.pfa.PathFinderQueue;
+import com.badlogic.gdx.ai.pfa.PathFinderRequest;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedAStarPathFinder.Metrics;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.TimeUtils;
+
+/** An incremental path finder implementing the D* Lite algorithm, which can perform both interruptible and non-interruptible
+ * pathfinding on a {@link ReversibleIndexedGraph}.
+ * <p>
+ * D* Lite searches backwards from the goal and keeps its results between searches. As long as the goal doesn't change, a new
+ * search reuses them: if the start node has moved along the previous path and nothing has changed in the graph, the new path is
+ * available almost immediately; if some connections have changed, only the part of the search affected by the change is
+ * repaired. This makes replanning after a door closes or a building is placed much cheaper than running a whole new A* search.
+ * <p>
+ * Since the search results belong to a single goal, each agent that needs incremental replanning should have its own
+ * {@code IndexedDStarLitePathFinder}. A search towards a different goal, or with a different heuristic instance, discards the
+ * previous results and starts from scratch. When searches are time-sliced through a {@link PathFinderQueue}, the agent's finder
+ * should be served by a queue of its own, otherwise requests of other agents would keep resetting it.
+ * <p>
+ * When the graph changes, the finder has to be notified with {@link #updateConnection(Connection)} or {@link #updateNode(IndexedNode)}
+ * before the next search; the changes are processed lazily by that search. Connections can be added, removed or have their cost
+ * changed; a cost of {@link Float#POSITIVE_INFINITY} makes a connection impassable. Connection costs must be positive and the
+ * heuristic must be consistent.
+ * 
+ * @param <N> Type of node extending {@link IndexedNode}
+ * 
+ * @author agent */
+public class IndexedDStarLitePathFinder<N extends IndexedNode<N>> implements PathFinder<N> {
+	ReversibleIndexedGraph<N> graph;
+
+	/** The cost of the best path from each node to the goal found so far. */
+	float[] g;
+
+	/** The one-step lookahead cost of each node, based on the {@link #g} values of its successors. */
+	float[] rhs;
+
+	/** The search id each node has been last initialized by. */
+	int[] stamp;
+
+	N[] nodes;
+	KeyQueue queue;
+
+	/** The nodes whose outgoing connections have changed since the last search. */
+	Array<N> changedNodes;
+
+	N startNode;
+	N lastStartNode;
+	N goalNode;
+	Heuristic<N> heuristic;
+
+	/** The key modifier accumulating the heuristic distance the start node has moved since the goal was set. */
+	float km;
+
+	public Metrics metrics;
+
+	/** The unique ID for each goal. Used to mark nodes. */
+	private int searchId;
+
+	public IndexedDStarLitePathFinder (ReversibleIndexedGraph<N> graph) {
+		this(graph, false);
+	}
+
+	@SuppressWarnings("unchecked")
+	public IndexedDStarLitePathFinder (ReversibleIndexedGraph<N> graph, boolean calculateMetrics) {
+		this.graph = graph;
+		int nodeCount = graph.getNodeCount();
+		this.g = new float[nodeCount];
+		this.rhs = new float[nodeCount];
+		this.stamp = new int[nodeCount];
+		this.nodes = (N[])new IndexedNode[nodeCount];
+		this.queue = new KeyQueue(nodeCount);
+		this.changedNodes = new Array<N>(false, 16);
+		if (calculateMetrics) this.metrics = new Metrics();
+	}
+
+	@Override
+	public boolean searchConnectionPath (N startNode, N endNode, Heuristic<N> heuristic, GraphPath<Connection<N>> outPath) {
+
+		// Perform D* Lite
+		search(startNode, endNode, heuristic);
+
+		// If the start node can't reach the goal there's no solution
+		if (getG(startNode.getIndex()) == Float.POSITIVE_INFINITY) return false;
+
+		generateConnectionPath(outPath);
+
+		return true;
+	}
+
+	@Override
+	public boolean searchNodePath (N startNode, N endNode, Heuristic<N> heuristic, GraphPath<N> outPath) {
+
+		// Perform D* Lite
+		search(startNode, endNode, heuristic);
+
+		// If the start node can't reach the goal there's no solution
+		if (getG(startNode.getIndex()) == Float.POSITIVE_INFINITY) return false;
+
+		generateNodePath(outPath);
+
+		return true;
+	}
+
+	protected void search (N startNode, N endNode, Heuristic<N> heuristic) {
+
+		initSearch(startNode, endNode, heuristic);
+
+		// Iterate until the start node is consistent and no inconsistent node can improve its path
+		while (!step()) {
+		}
+	}
+
+	@Override
+	public boolean search (PathFinderRequest<N> request, long timeToRun) {
+
+		long lastTime = TimeUtils.nanoTime();
+
+		// We have to initialize the search if the status has just changed
+		if (request.statusChanged) {
+			initSearch(request.startNode, request.endNode, request.heuristic);
+			request.statusChanged = false;
+		}
+
+		// Iterate through processing each node
+		while (true) {
+
+			// Check the available time
+			long currentTime = TimeUtils.nanoTime();
+			timeToRun -= currentTime - lastTime;
+			if (timeToRun <= PathFinderQueue.TIME_TOLERANCE) return false;
+
+			// Advance the search; terminate when the shortest path is known
+			if (step()) {
+				request.pathFound = getG(startNode.getIndex()) != Float.POSITIVE_INFINITY;
+				if (request.pathFound) generateNodePath(request.resultPath);
+				return true;
+			}
+
+			// Store the current time
+			lastTime = currentTime;
+		}
+	}
+
+	/** Notifies this finder that the cost of the given connection has changed, or that the connection has been added to or removed
+	 * from the graph. The change is taken into account by the next search.
+	 * @param connection the connection that has changed */
+	public void updateConnection (Connection<N> connection) {
+		// Nothing to repair if there's no previous search
+		if (goalNode != null) changedNodes.add(connection.getFromNode());
+	}
+
+	/** Notifies this finder that any connection outgoing from or incoming to the given node has changed. This is typically used
+	 * when a node becomes blocked or walkable again. The change is taken into account by the next search.
+	 * <p>
+	 * The incoming connections are taken from the graph, so if some of them have been removed their origins must be notified
+	 * through {@link #updateConnection(Connection)}.
+	 * @param node the node whose connections have changed */
+	public void updateNode (N node) {
+		// Nothing to repair if there's no previous search
+		if (goalNode == null) return;
+
+		changedNodes.add(node);
+		Array<Connection<N>> incomingConnections = graph.getIncomingConnections(node);
+		for (int i = 0; i < incomingConnections.size; i++)
+			changedNodes.add(incomingConnections.get(i).getFromNode());
+	}
+
+	/** Discards the results of the previous searches, so that the next search starts from scratch. */
+	public void reset () {
+		goalNode = null;
+		changedNodes.clear();
+	}
+
+	/** Recomputes the cost of the given node from its outgoing connections and queues it if it has become inconsistent. */
+	protected void updateOutgoingConnections (N node) {
+		int index = touch(node);
+		if (node != goalNode) rhs[index] = computeRhs(node);
+		updateVertex(index);
+	}
+
+	protected void initSearch (N startNode, N endNode, Heuristic<N> heuristic) {
+		if (metrics != null) metrics.reset();
+
+		this.startNode = startNode;
+
+		if (endNode == goalNode && heuristic == this.heuristic) {
+			// Same goal, keep the previous results; the keys in the queue are now lower bounds, so raise the key modifier
+			// by the distance the start node has moved
+			if (startNode != lastStartNode) {
+				km += heuristic.estimate(lastStartNode, startNode);
+				lastStartNode = startNode;
+			}
+
+			// Queue the nodes affected by the changes of the graph
+			for (int i = 0; i < changedNodes.size; i++)
+				updateOutgoingConnections(changedNodes.get(i));
+			changedNodes.clear();
+			return;
+		}
+
+		// Increment the search id; a node whose stamp doesn't match it is unvisited
+		searchId++;
+		if (searchId <= 0) {
+			// The search id has wrapped around, so old stamps could be mistaken for the current search
+			for (int i = 0; i < stamp.length; i++)
+				stamp[i] = 0;
+			searchId = 1;
+		}
+
+		this.goalNode = endNode;
+		this.lastStartNode = startNode;
+		this.heuristic = heuristic;
+		this.km = 0;
+		queue.clear();
+		changedNodes.clear();
+
+		// Initialize the goal node and add it to the queue
+		int goalIndex = touch(endNode);
+		rhs[goalIndex] = 0;
+		updateVertex(goalIndex);
+	}
+
+	/** Advances the search by processing one node.
+	 * @return {@code true} if the search has finished; {@code false} otherwise. */
+	protected boolean step () {
+		if (queue.size == 0) return true;
+
+		// Terminate if the start node is consistent and its key is not greater than the top key
+		int startIndex = touch(startNode);
+		float startG = g[startIndex];
+		float startRhs = rhs[startIndex];
+		float startK2 = Math.min(startG, startRhs);
+		float startK1 = startK2 + heuristic.estimate(startNode, startNode) + km;
+		int u = queue.peek();
+		float oldK1 = queue.k1[u];
+		float oldK2 = queue.k2[u];
+		if (!KeyQueue.less(oldK1, oldK2, startK1, startK2) && startRhs == startG) return true;
+
+		float newK2 = Math.min(g[u], rhs[u]);
+		float newK1 = newK2 + heuristic.estimate(startNode, nodes[u]) + km;
+		if (KeyQueue.less(oldK1, oldK2, newK1, newK2)) {
+			// The key is out of date because the start node has moved
+			queue.update(u, newK1, newK2);
+		} else if (g[u] > rhs[u]) {
+			// The node is overconsistent, so its cost has decreased: propagate it to the predecessors
+			g[u] = rhs[u];
+			queue.remove(u);
+			Array<Connection<N>> incomingConnections = graph.getIncomingConnections(nodes[u]);
+			for (int i = 0; i < incomingConnections.size; i++) {
+				if (metrics != null) metrics.visitedNodes++;
+				Connection<N> connection = incomingConnections.get(i);
+				N node = connection.getFromNode();
+				int index = touch(node);
+				if (node != goalNode) rhs[index] = Math.min(rhs[index], connection.getCost() + g[u]);
+				updateVertex(index);
+			}
+		} else {
+			// The node is underconsistent, so its cost has increased: reset it and recompute the predecessors that relied on it
+			float oldG = g[u];
+			g[u] = Float.POSITIVE_INFINITY;
+			if (nodes[u] != goalNode) rhs[u] = computeRhs(nodes[u]);
+			updateVertex(u);
+			Array<Connection<N>> incomingConnections = graph.getIncomingConnections(nodes[u]);
+			for (int i = 0; i < incomingConnections.size; i++) {
+				if (metrics != null) metrics.visitedNodes++;
+				Connection<N> connection = incomingConnections.get(i);
+				N node = connection.getFromNode();
+				int index = touch(node);
+				if (node != goalNode && rhs[index] == connection.getCost() + oldG) rhs[index] = computeRhs(node);
+				updateVertex(index);
+			}
+		}
+		return false;
+	}
+
+	/** Makes the given node consistent with the queue: it's in the queue with an up to date key if and only if its {@link #g} and
+	 * {@link #rhs} values differ. */
+	protected void updateVertex (int index) {
+		boolean queued = queue.contains(index);
+		if (g[index] != rhs[index]) {
+			float k2 = Math.min(g[index], rhs[index]);
+			float k1 = k2 + heuristic.estimate(startNode, nodes[index]) + km;
+			if (queued)
+				queue.update(index, k1, k2);
+			else {
+				queue.add(index, k1, k2);
+				if (metrics != null) {
+					metrics.openListAdditions++;
+					metrics.openListPeak = Math.max(metrics.openListPeak, queue.size);
+				}
+			}
+		} else if (queued) {
+			queue.remove(index);
+		}
+	}
+
+	/** Returns the minimum cost of reaching the goal through the successors of the given node. */
+	protected float computeRhs (N node) {
+		float min = Float.POSITIVE_INFINITY;
+		Array<Connection<N>> connections = graph.getConnections(node);
+		for (int i = 0; i < connections.size; i++) {
+			Connection<N> connection = connections.get(i);
+			float cost = connection.getCost() + getG(connection.getToNode().getIndex());
+			if (cost < min) min = cost;
+		}
+		return min;
+	}
+
+	/** Initializes the data of the given node, if not done yet by the current search, and returns its index. */
+	private int touch (N node) {
+		int index = node.getIndex();
+		if (stamp[index] != searchId) {
+			stamp[index] = searchId;
+			g[index] = Float.POSITIVE_INFINITY;
+			rhs[index] = Float.POSITIVE_INFINITY;
+			nodes[index] = node;
+		}
+		return index;
+	}
+
+	private float getG (int index) {
+		return stamp[index] == searchId ? g[index] : Float.POSITIVE_INFINITY;
+	}
+
+	/** Returns the connection leading to the successor of the given node along the shortest path. */
+	private Connection<N> nextConnection (N node) {
+		Connection<N> best = null;
+		float min = Float.POSITIVE_INFINITY;
+		Array<Connection<N>> connections = graph.getConnections(node);
+		for (int i = 0; i < connections.size; i++) {
+			Connection<N> connection = connections.get(i);
+			float cost = connection.getCost() + getG(connection.getToNode().getIndex());
+			if (cost < min) {
+				min = cost;
+				best = connection;
+			}
+		}
+		return best;
+	}
+
+	protected void generateConnectionPath (GraphPath<Connection<N>> outPath) {
+
+		// Work forward along the path, following the cheapest successor of each node
+		// outPath.clear();
+		N current = startNode;
+		for (int steps = 0; current != goalNode; steps++) {
+			if (steps == nodes.length) throw new GdxRuntimeException("Path doesn't reach the goal; are connection costs positive?");
+			Connection<N> connection = nextConnection(current);
+			outPath.add(connection);
+			current = connection.getToNode();
+		}
+	}
+
+	protected void generateNodePath (GraphPath<N> outPath) {
+
+		// Work forward along the path, following the cheapest successor of each node
+		// outPath.clear();
+		N current = startNode;
+		outPath.add(current);
+		for (int steps = 0; current != goalNode; steps++) {
+			if (steps == nodes.length) throw new GdxRuntimeException("Path doesn't reach the goal; are connection costs positive?");
+			current = nextConnection(current).getToNode();
+			outPath.add(current);
+		}
+	}
+
+	/** A binary heap of node indices ordered by a two-part key compared lexicographically.
+	 * 
+	 * @author agent */
+	static class KeyQueue {
+		int size;
+		final int[] heap;
+		final int[] positions;
+		final float[] k1;
+		final float[] k2;
+
+		KeyQueue (int nodeCount) {
+			this.heap = new int[nodeCount];
+			this.positions = new int[nodeCount];
+			this.k1 = new float[nodeCount];
+			this.k2 = new float[nodeCount];
+		}
+
+		static boolean less (float a1, float a2, float b1, float b2) {
+			return a1 < b1 || (a1 == b1 && a2 < b2);
+		}
+
+		boolean contains (int index) {
+			int position = positions[index];
+			return position < size && heap[position] == index;
+		}
+
+		int peek () {
+			return heap[0];
+		}
+
+		void add (int index, float key1, float key2) {
+			k1[index] = key1;
+			k2[index] = key2;
+			heap[size] = index;
+			positions[index] = size;
+			up(size++);
+		}
+
+		void update (int index, float key1, float key2) {
+			k1[index] = key1;
+			k2[index] = key2;
+			int position = positions[index];
+			up(position);
+			down(positions[index]);
+		}
+
+		void remove (int index) {
+			int position = positions[index];
+			int last = heap[--size];
+			if (position < size) {
+				heap[position] = last;
+				positions[last] = position;
+				up(position);
+				down(positions[last]);
+			}
+		}
+
+		void clear () {
+			size = 0;
+		}
+
+		private void up (int position) {
+			int index = heap[position];
+			while (position > 0) {
+				int parentPosition = (position - 1) >> 1;
+				int parent = heap[parentPosition];
+				if (!less(k1[index], k2[index], k1[parent], k2[parent])) break;
+				heap[position] = parent;
+				positions[parent] = position;
+				position = parentPosition;
+			}
+			heap[position] = index;
+			positions[index] = position;
+		}
+
+		private void down (int position) {
+			int index = heap[position];
+			while (true) {
+				int childPosition = 1 + (position << 1);
+				if (childPosition >= size) break;
+				int child = heap[childPosition];
+				if (childPosition + 1 < size) {
+					int right = heap[childPosition + 1];
+					if (less(k1[right], k2[right], k1[child], k2[child])) {
+						childPosition++;
+						child = right;
+					}
+				}
+				if (!less(k1[child], k2[child], k1[index], k2[index])) break;
+				heap[position] = child;
+				positions[child] = position;
+				position = childPosition;
+			}
+			heap[position] = index;
+			positions[index] = position;
+		}
+	}
+}
@@ -0,0 +1,35 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.pfa.indexed;
+
+import com.badlogic.gdx.ai.pfa.Connection;
+import com.badlogic.gdx.utils.Array;
+
+/** An {@link IndexedGraph} that can be traversed backwards, as required by the {@link BidirectionalIndexedAStarPathFinder}.
+ * 
+ * @param <N> Type of node extending {@link IndexedNode}
+ * 
+ * @author agent */
+public interface ReversibleIndexedGraph<N extends IndexedNode<N>> extends IndexedGraph<N> {
+
+	/** Returns the connections incoming to the given node, i.e. the connections whose {@link Connection#getToNode() to node} is the
+	 * given node.
+	 * @param toNode the node whose incoming connections will be returned
+	 * @return the array of connections incoming to the given node. */
+	public Array<Connection<N>> getIncomingConnections (N toNode);
+
+}
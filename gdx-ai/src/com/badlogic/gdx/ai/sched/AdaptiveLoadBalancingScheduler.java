@@ -0,0 +1,338 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.sched;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.TimeUtils;
+
+/** An {@code AdaptiveLoadBalancingScheduler} is a load balancing scheduler that measures the actual cost of its tasks and
+ * periodically moves them to different phases in order to flatten the time spent on each frame. Like the
+ * {@link LoadBalancingScheduler}, it splits the time it is given among the tasks due on the current frame, recalculating the time
+ * left after each task is run.
+ * <p>
+ * Tasks are kept in buckets, one for each frequency and phase pair, so adding and removing tasks takes constant time and each frame
+ * only visits the buckets that are due, rather than testing every task. This makes the scheduler suitable for a population of
+ * tasks changing continuously.
+ * <ul>
+ * <li><b>Cost measurement:</b> each time a task is run, its running time is blended into an exponential moving average. The cost
+ * of a bucket is the sum of the average costs of its tasks.</li>
+ * <li><b>Automatic phasing:</b> {@link #addWithAutomaticPhasing(Schedulable, int)} picks the cheapest phase for the given
+ * frequency, which takes time proportional to the frequency rather than to the number of tasks and frames of a dry run.</li>
+ * <li><b>Rebalancing:</b> every {@code rebalanceInterval} frames, tasks are moved from the most expensive phases of each frequency to
+ * the cheapest one, as long as this reduces the gap between them. Since the frames where the tasks of different frequencies run
+ * together follow from flattening each frequency on its own, rebalancing frequencies separately also flattens their sum. Moving a
+ * task to another phase shifts its next run by less than a period.</li>
+ * </ul>
+ * 
+ * @author agent */
+public class AdaptiveLoadBalancingScheduler extends SchedulerBase<AdaptiveLoadBalancingScheduler.AdaptiveSchedulableRecord> {
+
+	/** The current frame number */
+	protected int frame;
+
+	/** The number of frames between two consecutive rebalancing passes; 0 disables rebalancing. */
+	protected int rebalanceInterval;
+
+	/** The maximum number of tasks moved for each frequency during a rebalancing pass. */
+	protected int maxMovesPerRebalance;
+
+	private final IntMap<FrequencyGroup> groupsByFrequency;
+	private final Array<FrequencyGroup> groups;
+	private final IdentityMap<Schedulable, AdaptiveSchedulableRecord> recordsBySchedulable;
+
+	/** Creates an {@code AdaptiveLoadBalancingScheduler} moving at most 8 tasks per frequency on each rebalancing pass.
+	 * @param rebalanceInterval the number of frames between two consecutive rebalancing passes; 0 disables rebalancing */
+	public AdaptiveLoadBalancingScheduler (int rebalanceInterval) {
+		this(rebalanceInterval, 8);
+	}
+
+	/** Creates an {@code AdaptiveLoadBalancingScheduler}.
+	 * @param rebalanceInterval the number of frames between two consecutive rebalancing passes; 0 disables rebalancing
+	 * @param maxMovesPerRebalance the maximum number of tasks moved for each frequency during a rebalancing pass */
+	public AdaptiveLoadBalancingScheduler (int rebalanceInterval, int maxMovesPerRebalance) {
+		// No dry run is performed by this scheduler
+		super(0);
+		this.frame = 0;
+		this.rebalanceInterval = rebalanceInterval;
+		this.maxMovesPerRebalance = maxMovesPerRebalance;
+		this.groupsByFrequency = new IntMap<FrequencyGroup>();
+		this.groups = new Array<FrequencyGroup>();
+		this.recordsBySchedulable = new IdentityMap<Schedulable, AdaptiveSchedulableRecord>();
+	}
+
+	/** Adds the {@code schedulable} to the list using the given {@code frequency} and the phase whose tasks have the lowest measured
+	 * cost.
+	 * @param schedulable the task to schedule
+	 * @param frequency the frequency */
+	@Override
+	public void addWithAutomaticPhasing (Schedulable schedulable, int frequency) {
+		// Calculate the phase and add the schedulable to the list
+		add(schedulable, frequency, calculatePhase(frequency));
+	}
+
+	/** Adds the {@code schedulable} to the list using the given {@code frequency} and {@code phase}
+	 * @param schedulable the task to schedule
+	 * @param frequency the frequency
+	 * @param phase the phase
+	 * @throws IllegalArgumentException if the {@code schedulable} has already been added to this scheduler */
+	@Override
+	public void add (Schedulable schedulable, int frequency, int phase) {
+		if (recordsBySchedulable.containsKey(schedulable))
+			throw new IllegalArgumentException("Schedulable already added to this scheduler");
+		AdaptiveSchedulableRecord record = new AdaptiveSchedulableRecord(schedulable, frequency,
+			((phase % frequency) + frequency) % frequency);
+		record.index = schedulableRecords.size;
+		schedulableRecords.add(record);
+		recordsBySchedulable.put(schedulable, record);
+		getGroup(frequency).bucket(record.phase).add(record);
+	}
+
+	/** Removes the {@code schedulable} from this scheduler. If it's due on the current frame and has not run yet, it won't run.
+	 * @param schedulable the task to remove
+	 * @return {@code true} if the {@code schedulable} was removed; {@code false} if it was not scheduled by this scheduler. */
+	public boolean remove (Schedulable schedulable) {
+		AdaptiveSchedulableRecord record = recordsBySchedulable.remove(schedulable);
+		if (record == null) return false;
+		record.bucket.remove(record);
+
+		// Fill the hole with the last record
+		AdaptiveSchedulableRecord last = schedulableRecords.pop();
+		if (last != record) {
+			schedulableRecords.set(record.index, last);
+			last.index = record.index;
+		}
+		return true;
+	}
+
+	/** Returns the phase currently used by the given {@code schedulable}, or -1 if it is not scheduled by this scheduler. The phase
+	 * can change over time due to rebalancing. */
+	public int getPhase (Schedulable schedulable) {
+		AdaptiveSchedulableRecord record = recordsBySchedulable.get(schedulable);
+		return record == null ? -1 : record.phase;
+	}
+
+	/** Returns the average running time in nanoseconds of the given {@code schedulable}, or -1 if it is not scheduled by this
+	 * scheduler. */
+	public long getAverageCost (Schedulable schedulable) {
+		AdaptiveSchedulableRecord record = recordsBySchedulable.get(schedulable);
+		return record == null ? -1 : record.averageCost;
+	}
+
+	/** Returns the phase with the lowest measured cost for the given frequency. Ties are broken in favor of the phase with fewer
+	 * tasks, so that tasks not measured yet are spread evenly.
+	 * @param frequency the frequency of the skedulable task to add
+	 * @return the best phase. */
+	@Override
+	protected int calculatePhase (int frequency) {
+		Bucket[] buckets = getGroup(frequency).buckets;
+		int bestPhase = 0;
+		// A phase without bucket has no tasks, so nothing can beat it
+		for (int i = 1; i < frequency && buckets[bestPhase] != null; i++) {
+			Bucket bucket = buckets[i], best = buckets[bestPhase];
+			if (bucket == null ? best.cost > 0 || best.records.size > 0
+				: bucket.cost < best.cost || (bucket.cost == best.cost && bucket.records.size < best.records.size)) bestPhase = i;
+		}
+		return bestPhase;
+	}
+
+	/** Executes the tasks due on this frame, measuring their running time, and rebalances phases when the rebalance interval is
+	 * elapsed. This method must be called once per frame.
+	 * @param timeToRun the maximum time in nanoseconds this scheduler should run on the current frame. */
+	@Override
+	public void run (long timeToRun) {
+		// Increment the frame number
+		frame++;
+
+		// Clear the list of tasks to run
+		runList.size = 0;
+
+		// Collect the buckets due on this frame; a task is due when (frame + phase) % frequency == 0
+		for (int i = 0; i < groups.size; i++) {
+			FrequencyGroup group = groups.get(i);
+			int frequency = group.frequency;
+			Bucket bucket = group.buckets[(frequency - frame % frequency) % frequency];
+			if (bucket != null) runList.addAll(bucket.records);
+		}
+
+		// Keep track of the current time
+		long lastTime = TimeUtils.nanoTime();
+
+		// Find the number of tasks we need to run
+		int numToRun = runList.size;
+
+		// Go through the tasks to run
+		for (int i = 0; i < numToRun; i++) {
+			AdaptiveSchedulableRecord record = runList.get(i);
+
+			// Skip tasks removed by the tasks run before them
+			if (record.bucket == null) continue;
+
+			// Find the available time
+			long currentTime = TimeUtils.nanoTime();
+			timeToRun -= currentTime - lastTime;
+			long availableTime = timeToRun / (numToRun - i);
+
+			// Run the schedulable object and measure its cost
+			record.schedulable.run(availableTime);
+			long endTime = TimeUtils.nanoTime();
+			record.updateCost(endTime - currentTime);
+
+			// Store the current time
+			lastTime = currentTime;
+		}
+
+		if (rebalanceInterval > 0 && frame % rebalanceInterval == 0) rebalance();
+	}
+
+	/** Moves tasks from the most expensive phases of each frequency to the cheapest one, as long as this reduces the gap between
+	 * them. At most {@link #maxMovesPerRebalance} tasks are moved for each frequency. */
+	public void rebalance () {
+		for (int i = 0; i < groups.size; i++) {
+			FrequencyGroup group = groups.get(i);
+			if (group.frequency == 1) continue;
+			Bucket[] buckets = group.buckets;
+			for (int moves = 0; moves < maxMovesPerRebalance; moves++) {
+				// Find the least expensive phase
+				int minPhase = 0;
+				for (int p = 1; p < buckets.length; p++)
+					if (group.cost(p) < group.cost(minPhase)) minPhase = p;
+
+				// Find the most expensive phase having a task that reduces its gap from the least expensive phase once moved, i.e. a
+				// task costing less than the gap. Pick the task whose cost is closest to half the gap.
+				int maxPhase = -1;
+				AdaptiveSchedulableRecord best = null;
+				for (int p = 0; p < buckets.length; p++) {
+					if (buckets[p] == null || (maxPhase >= 0 && buckets[p].cost <= buckets[maxPhase].cost)) continue;
+					long gap = buckets[p].cost - group.cost(minPhase);
+					AdaptiveSchedulableRecord candidate = buckets[p].findBestMove(gap);
+					if (candidate != null) {
+						maxPhase = p;
+						best = candidate;
+					}
+				}
+				if (best == null) break;
+
+				buckets[maxPhase].remove(best);
+				best.phase = minPhase;
+				group.bucket(minPhase).add(best);
+			}
+		}
+	}
+
+	private FrequencyGroup getGroup (int frequency) {
+		FrequencyGroup group = groupsByFrequency.get(frequency);
+		if (group == null) {
+			group = new FrequencyGroup(frequency);
+			groupsByFrequency.put(frequency, group);
+			groups.add(group);
+		}
+		return group;
+	}
+
+	/** A scheduled task keeping track of its position and average cost.
+	 * 
+	 * @author agent */
+	protected static class AdaptiveSchedulableRecord extends SchedulableRecord {
+		/** The index of this record in the list of scheduled tasks. */
+		int index;
+		/** The bucket containing this record, or {@code null} if it has been removed. */
+		Bucket bucket;
+		/** The index of this record in its bucket. */
+		int slot;
+		/** The exponential moving average of the running time in nanoseconds. */
+		long averageCost;
+
+		AdaptiveSchedulableRecord (Schedulable schedulable, int frequency, int phase) {
+			super(schedulable, frequency, phase);
+		}
+
+		void updateCost (long cost) {
+			long delta = averageCost == 0 ? cost : (cost - averageCost) / 8;
+			averageCost += delta;
+			if (bucket != null) bucket.cost += delta;
+		}
+	}
+
+	/** The tasks sharing the same frequency and phase. */
+	static class Bucket {
+		final Array<AdaptiveSchedulableRecord> records = new Array<AdaptiveSchedulableRecord>(false, 4);
+		long cost;
+
+		void add (AdaptiveSchedulableRecord record) {
+			record.bucket = this;
+			record.slot = records.size;
+			records.add(record);
+			cost += record.averageCost;
+		}
+
+		/** Returns the record whose cost is closest to half the given gap among the ones costing less than the gap, or {@code null}
+		 * if no such record exists. Records not measured yet are never returned. */
+		AdaptiveSchedulableRecord findBestMove (long gap) {
+			AdaptiveSchedulableRecord best = null;
+			long bestDistance = Long.MAX_VALUE;
+			for (int i = 0; i < records.size; i++) {
+				AdaptiveSchedulableRecord record = records.get(i);
+				if (record.averageCost <= 0 || record.averageCost >= gap) continue;
+				long distance = Math.abs(2 * record.averageCost - gap);
+				if (distance < bestDistance) {
+					bestDistance = distance;
+					best = record;
+				}
+			}
+			return best;
+		}
+
+		void remove (AdaptiveSchedulableRecord record) {
+			// Fill the hole with the last record
+			AdaptiveSchedulableRecord last = records.pop();
+			if (last != record) {
+				records.set(record.slot, last);
+				last.slot = record.slot;
+			}
+			cost -= record.averageCost;
+			record.bucket = null;
+		}
+	}
+
+	/** The buckets of the tasks sharing the same frequency, indexed by phase. The bucket of a phase is created when the first task
+	 * is added to it, so that low frequencies with few tasks don't take memory for all their phases. */
+	static class FrequencyGroup {
+		final int frequency;
+		final Bucket[] buckets;
+
+		FrequencyGroup (int frequency) {
+			this.frequency = frequency;
+			this.buckets = new Bucket[frequency];
+		}
+
+		/** Returns the bucket of the given phase, creating it if needed. */
+		Bucket bucket (int phase) {
+			Bucket bucket = buckets[phase];
+			if (bucket == null) bucket = buckets[phase] = new Bucket();
+			return bucket;
+		}
+
+		/** Returns the cost of the given phase. */
+		long cost (int phase) {
+			Bucket bucket = buckets[phase];
+			return bucket == null ? 0 : bucket.cost;
+		}
+	}
+
+}
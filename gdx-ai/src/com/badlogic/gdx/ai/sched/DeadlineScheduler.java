@@ -0,0 +1,333 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.sched;
+
+import java.util.Comparator;
+
+import com.badlogic.gdx.ai.sched.DeadlineScheduler.DeadlineSchedulableRecord;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.Sort;
+import com.badlogic.gdx.utils.TimeUtils;
+
+/** A {@code DeadlineScheduler} works like a {@link PriorityScheduler} but remembers how each task has used its share of the
+ * available time and guarantees that no task waits too long once it is due.
+ * <ul>
+ * <li><b>Balance:</b> each time a task is run, or is skipped, its nominal share of the frame is added to its balance, while the
+ * time it actually runs is subtracted. A positive balance is a credit earned by a task that has been starved or has returned early,
+ * and is added to the time given to the task on its next run. A negative balance is a debt left by an overrunning task, and shrinks
+ * its next slices. The balance is clamped to {@code maxCarryOver} in both directions, so that neither credit nor debt can grow
+ * without bounds.</li>
+ * <li><b>Max latency:</b> each task has a maximum number of frames it can wait once it is due. The tasks due on a frame are run in
+ * order of deadline, i.e. the frame they became due plus their max latency, so that the most urgent tasks are the first ones to
+ * run when the frame is tight. The max latency defaults to the frequency of the task.</li>
+ * <li><b>Overrun policy:</b> determines what happens to due tasks when the time is short, see {@link OverrunPolicy}. The policy
+ * is never applied to a task that would exceed its max latency.</li>
+ * </ul>
+ * Statistics are collected for each task and can be retrieved through {@link #getStatistics(Schedulable)}.
+ * 
+ * @author agent */
+public class DeadlineScheduler extends SchedulerBase<DeadlineSchedulableRecord> {
+
+	/** The default value of {@code maxCarryOver}, i.e. about a frame at 60 fps. */
+	public static final long DEFAULT_MAX_CARRY_OVER = 16000000L;
+
+	private static final Comparator<DeadlineSchedulableRecord> DEADLINE_COMPARATOR = new Comparator<DeadlineSchedulableRecord>() {
+		@Override
+		public int compare (DeadlineSchedulableRecord r1, DeadlineSchedulableRecord r2) {
+			long d1 = r1.getDeadline(), d2 = r2.getDeadline();
+			return d1 < d2 ? -1 : (d1 > d2 ? 1 : 0);
+		}
+	};
+
+	/** The current frame number */
+	protected int frame;
+
+	/** The policy applied to due tasks when the time is short */
+	protected OverrunPolicy overrunPolicy;
+
+	/** The maximum credit or debt in nanoseconds a task can accumulate */
+	protected long maxCarryOver;
+
+	private final IdentityMap<Schedulable, DeadlineSchedulableRecord> recordsBySchedulable;
+	private final Sort sort;
+
+	/** Creates a {@code DeadlineScheduler} with the {@link OverrunPolicy#Defer Defer} policy and the default max carry over.
+	 * @param dryRunFrames number of frames simulated by the dry run to calculate the phase when adding a schedulable via
+	 *           {@link #addWithAutomaticPhasing(Schedulable, int)} and
+	 *           {@link #addWithAutomaticPhasing(Schedulable, int, float, int)} */
+	public DeadlineScheduler (int dryRunFrames) {
+		this(dryRunFrames, OverrunPolicy.Defer, DEFAULT_MAX_CARRY_OVER);
+	}
+
+	/** Creates a {@code DeadlineScheduler}.
+	 * @param dryRunFrames number of frames simulated by the dry run to calculate the phase when adding a schedulable via
+	 *           {@link #addWithAutomaticPhasing(Schedulable, int)} and
+	 *           {@link #addWithAutomaticPhasing(Schedulable, int, float, int)}
+	 * @param overrunPolicy the policy applied to due tasks when the time is short
+	 * @param maxCarryOver the maximum credit or debt in nanoseconds a task can accumulate */
+	public DeadlineScheduler (int dryRunFrames, OverrunPolicy overrunPolicy, long maxCarryOver) {
+		super(dryRunFrames);
+		this.frame = 0;
+		this.overrunPolicy = overrunPolicy;
+		this.maxCarryOver = maxCarryOver;
+		this.recordsBySchedulable = new IdentityMap<Schedulable, DeadlineSchedulableRecord>();
+		this.sort = new Sort();
+	}
+
+	/** Returns the policy applied to due tasks when the time is short. */
+	public OverrunPolicy getOverrunPolicy () {
+		return overrunPolicy;
+	}
+
+	/** Sets the policy applied to due tasks when the time is short. */
+	public void setOverrunPolicy (OverrunPolicy overrunPolicy) {
+		this.overrunPolicy = overrunPolicy;
+	}
+
+	/** Returns the statistics of the given {@code schedulable}, or {@code null} if it is not scheduled by this scheduler. */
+	public Statistics getStatistics (Schedulable schedulable) {
+		DeadlineSchedulableRecord record = recordsBySchedulable.get(schedulable);
+		return record == null ? null : record.statistics;
+	}
+
+	/** Executes scheduled tasks based on their frequency and phase, along with the tasks deferred by previous frames. This method
+	 * must be called once per frame.
+	 * @param timeToRun the maximum time in nanoseconds this scheduler should run on the current frame. */
+	@Override
+	public void run (long timeToRun) {
+		// Increment the frame number
+		frame++;
+
+		// Clear the list of tasks to run and their total priority
+		runList.size = 0;
+		float totalPriority = 0;
+
+		// Go through each task
+		for (int i = 0; i < schedulableRecords.size; i++) {
+			DeadlineSchedulableRecord record = schedulableRecords.get(i);
+			// If it is due, start waiting
+			if ((frame + record.phase) % record.frequency == 0) {
+				if (record.dueFrame < 0) record.dueFrame = frame;
+				record.pending = true;
+			}
+			// If it is waiting, schedule it
+			if (record.pending) {
+				runList.add(record);
+				totalPriority += record.priority;
+			}
+		}
+
+		// Most urgent tasks first
+		sort.sort(runList, DEADLINE_COMPARATOR);
+
+		// Keep track of the time the frame ends
+		long endOfFrame = TimeUtils.nanoTime() + timeToRun;
+		float priorityLeft = totalPriority;
+
+		// Go through the tasks to run
+		int numToRun = runList.size;
+		for (int i = 0; i < numToRun; i++) {
+			DeadlineSchedulableRecord record = runList.get(i);
+			Statistics statistics = record.statistics;
+
+			// Find the available time and the nominal share of the task
+			long currentTime = TimeUtils.nanoTime();
+			long timeLeft = Math.max(0, endOfFrame - currentTime);
+			long share = priorityLeft > 0 ? (long)(timeLeft * record.priority / priorityLeft) : timeLeft;
+			long nominalShare = (long)(timeToRun * record.priority / totalPriority);
+			priorityLeft -= record.priority;
+
+			// Apply the overrun policy, unless the task is about to exceed its max latency
+			int latency = frame - record.dueFrame;
+			boolean urgent = latency + (overrunPolicy.retryOnNextFrame ? 1 : record.frequency) > record.maxLatency;
+			if (!urgent && overrunPolicy.postpone(record, timeLeft)) {
+				if (overrunPolicy.retryOnNextFrame) {
+					statistics.deferrals++;
+				} else {
+					// The task misses this run, so the share it would have used repays its debt
+					record.pending = false;
+					record.addToBalance(nominalShare, maxCarryOver);
+					statistics.skips++;
+				}
+				continue;
+			}
+
+			// Run the schedulable object with its share plus its credit, or minus its debt
+			long availableTime = Math.min(timeLeft, Math.max(0, share + statistics.balance));
+			record.schedulable.run(availableTime);
+			long elapsedTime = TimeUtils.nanoTime() - currentTime;
+
+			// Update balance and statistics
+			record.addToBalance(nominalShare - elapsedTime, maxCarryOver);
+			record.pending = false;
+			record.dueFrame = -1;
+			statistics.runs++;
+			statistics.totalTime += elapsedTime;
+			if (elapsedTime > availableTime) statistics.overruns++;
+			if (latency > statistics.maxLatency) statistics.maxLatency = latency;
+		}
+	}
+
+	/** Adds the {@code schedulable} to the list using the given {@code frequency}, priority 1, a max latency equal to the
+	 * frequency and a phase calculated by a dry run of the scheduler.
+	 * @param schedulable the task to schedule
+	 * @param frequency the frequency */
+	@Override
+	public void addWithAutomaticPhasing (Schedulable schedulable, int frequency) {
+		addWithAutomaticPhasing(schedulable, frequency, 1f, frequency);
+	}
+
+	/** Adds the {@code schedulable} to the list using the given {@code frequency}, {@code priority} and {@code maxLatency} while
+	 * the phase is calculated by a dry run of the scheduler.
+	 * @param schedulable the task to schedule
+	 * @param frequency the frequency
+	 * @param priority the priority
+	 * @param maxLatency the maximum number of frames the task can wait once it is due */
+	public void addWithAutomaticPhasing (Schedulable schedulable, int frequency, float priority, int maxLatency) {
+		// Calculate the phase and add the schedulable to the list
+		add(schedulable, frequency, calculatePhase(frequency), priority, maxLatency);
+	}
+
+	/** Adds the {@code schedulable} to the list using the given {@code frequency} and {@code phase} with priority 1 and a max
+	 * latency equal to the frequency.
+	 * @param schedulable the task to schedule
+	 * @param frequency the frequency
+	 * @param phase the phase */
+	@Override
+	public void add (Schedulable schedulable, int frequency, int phase) {
+		add(schedulable, frequency, phase, 1f, frequency);
+	}
+
+	/** Adds the {@code schedulable} to the list using the given {@code frequency}, {@code phase}, {@code priority} and
+	 * {@code maxLatency}.
+	 * @param schedulable the task to schedule
+	 * @param frequency the frequency
+	 * @param phase the phase
+	 * @param priority the priority
+	 * @param maxLatency the maximum number of frames the task can wait once it is due
+	 * @throws IllegalArgumentException if the {@code schedulable} has already been added to this scheduler */
+	public void add (Schedulable schedulable, int frequency, int phase, float priority, int maxLatency) {
+		if (recordsBySchedulable.containsKey(schedulable))
+			throw new IllegalArgumentException("Schedulable already added to this scheduler");
+		// Compile the record and add it to the list
+		DeadlineSchedulableRecord record = new DeadlineSchedulableRecord(schedulable, frequency, phase, priority, maxLatency);
+		schedulableRecords.add(record);
+		recordsBySchedulable.put(schedulable, record);
+	}
+
+	/** The policy applied to due tasks when the time is short.
+	 * 
+	 * @author agent */
+	public enum OverrunPolicy {
+		/** Tasks in debt skip their due runs, repaying their nominal share each time, until the debt is repaid. The skipped run is
+		 * lost, so the task is run again on its next due frame. */
+		Skip(false) {
+			@Override
+			boolean postpone (DeadlineSchedulableRecord record, long timeLeft) {
+				return record.statistics.balance < 0;
+			}
+		},
+		/** Due tasks finding no time left on the frame are deferred to the next frame, where they are run before the tasks with a
+		 * later deadline. */
+		Defer(true) {
+			@Override
+			boolean postpone (DeadlineSchedulableRecord record, long timeLeft) {
+				return timeLeft <= 0;
+			}
+		},
+		/** Due tasks are always run. An overrun shrinks the time given to the other tasks of the same frame, while the debt shrinks
+		 * the future slices of the overrunning task. */
+		ShrinkOthers(false) {
+			@Override
+			boolean postpone (DeadlineSchedulableRecord record, long timeLeft) {
+				return false;
+			}
+		};
+
+		/** Whether postponed tasks are run on the next frame, rather than on their next due frame. */
+		final boolean retryOnNextFrame;
+
+		private OverrunPolicy (boolean retryOnNextFrame) {
+			this.retryOnNextFrame = retryOnNextFrame;
+		}
+
+		/** Returns {@code true} if the given due task must not run on the current frame.
+		 * @param record the due task
+		 * @param timeLeft the time in nanoseconds left on the current frame */
+		abstract boolean postpone (DeadlineSchedulableRecord record, long timeLeft);
+	}
+
+	/** The statistics of a scheduled task. The balance is retained by {@link #reset()}.
+	 * 
+	 * @author agent */
+	public static class Statistics {
+		/** The number of times the task has been run */
+		public int runs;
+		/** The number of runs skipped by the {@link OverrunPolicy#Skip Skip} policy */
+		public int skips;
+		/** The number of times the task has been deferred to the next frame by the {@link OverrunPolicy#Defer Defer} policy */
+		public int deferrals;
+		/** The number of runs lasting longer than the available time */
+		public int overruns;
+		/** The total running time in nanoseconds */
+		public long totalTime;
+		/** The maximum number of frames the task has waited once due */
+		public int maxLatency;
+		/** The current credit, if positive, or debt, if negative, in nanoseconds */
+		public long balance;
+
+		/** Resets all the statistics but the balance. */
+		public void reset () {
+			runs = 0;
+			skips = 0;
+			deferrals = 0;
+			overruns = 0;
+			totalTime = 0;
+			maxLatency = 0;
+		}
+	}
+
+	/** A scheduled task with priority, max latency and balance.
+	 * 
+	 * @author agent */
+	static class DeadlineSchedulableRecord extends SchedulerBase.SchedulableRecord {
+		float priority;
+		int maxLatency;
+		/** The frame the task became due without being run yet, or -1 if it's not waiting. */
+		int dueFrame;
+		/** Whether the task has to be run on the current frame. */
+		boolean pending;
+		final Statistics statistics;
+
+		DeadlineSchedulableRecord (Schedulable schedulable, int frequency, int phase, float priority, int maxLatency) {
+			super(schedulable, frequency, phase);
+			this.priority = priority;
+			this.maxLatency = maxLatency;
+			this.dueFrame = -1;
+			this.statistics = new Statistics();
+		}
+
+		long getDeadline () {
+			return (long)dueFrame + maxLatency;
+		}
+
+		void addToBalance (long amount, long maxCarryOver) {
+			statistics.balance = Math.max(-maxCarryOver, Math.min(maxCarryOver, statistics.balance + amount));
+		}
+	}
+
+}
@@ -18,6 +18,8 @@ package com.badlogic.gdx.ai.sched;
 
 import com.badlogic.gdx.ai.sched.SchedulerBase.SchedulableRecord;
 import com.badlogic.gdx.ai.utils.ArithmeticUtils;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
 import com.badlogic.gdx.utils.TimeUtils;
 
 /** A {@code LoadBalancingScheduler} understands the time it has to run and distributes this time among the tasks that need to be
@@ -45,6 +47,8 @@ import com.badlogic.gdx.utils.TimeUtils;
  * we have an LCM of 2310). Despite being a good approach in practice, it has a theoretical chance that it will still produce
  * heavy spikes, if the lookahead isn't at least as large as the size of the LCM.</li>
  * </ul>
+ * Tasks are indexed by frequency and phase, so finding the tasks due on a frame takes time proportional to the number of distinct
+ * frequencies plus the number of due tasks, rather than to the number of scheduled tasks.
  * 
  * @author davebaol */
 public class LoadBalancingScheduler extends SchedulerBase<SchedulableRecord> {
@@ -52,12 +56,17 @@ public class LoadBalancingScheduler extends SchedulerBase<SchedulableRecord> {
 	/** The current frame number */
 	protected int frame;
 
+	private final IntMap<FrequencyRing> ringsByFrequency;
+	private final Array<FrequencyRing> rings;
+
 	/** Creates a {@code LoadBalancingScheduler}.
 	 * @param dryRunFrames number of frames simulated by the dry run to calculate the phase when adding a schedulable via
 	 *           {@link #addWithAutomaticPhasing(Schedulable, int)} */
 	public LoadBalancingScheduler (int dryRunFrames) {
 		super(dryRunFrames);
 		this.frame = 0;
+		this.ringsByFrequency = new IntMap<FrequencyRing>();
+		this.rings = new Array<FrequencyRing>();
 	}
 
 	/** Adds the {@code schedulable} to the list using the given {@code frequency} and a phase calculated by a dry run of the
@@ -73,7 +82,29 @@ public class LoadBalancingScheduler extends SchedulerBase<SchedulableRecord> {
 	@Override
 	public void add (Schedulable schedulable, int frequency, int phase) {
 		// Compile the record and add it to the list
-		schedulableRecords.add(new SchedulableRecord(schedulable, frequency, phase));
+		SchedulableRecord record = new SchedulableRecord(schedulable, frequency, phase);
+		schedulableRecords.add(record);
+
+		// Index the record by frequency and phase
+		FrequencyRing ring = ringsByFrequency.get(frequency);
+		if (ring == null) {
+			ring = new FrequencyRing(frequency);
+			ringsByFrequency.put(frequency, ring);
+			rings.add(ring);
+		}
+		ring.slot(((phase % frequency) + frequency) % frequency).add(record);
+	}
+
+	/** Clears the run list and fills it with the tasks due on the current frame, i.e. the ones whose
+	 * {@code (frame + phase) % frequency} is 0. */
+	protected void fillRunList () {
+		runList.size = 0;
+		for (int i = 0; i < rings.size; i++) {
+			FrequencyRing ring = rings.get(i);
+			int frequency = ring.frequency;
+			Array<SchedulableRecord> slot = ring.slots[(frequency - frame % frequency) % frequency];
+			if (slot != null) runList.addAll(slot);
+		}
 	}
 
 	/** Executes scheduled tasks based on their frequency and phase. This method must be called once per frame.
@@ -83,15 +114,8 @@ public class LoadBalancingScheduler extends SchedulerBase<SchedulableRecord> {
 		// Increment the frame number
 		frame++;
 
-		// Clear the list of tasks to run
-		runList.size = 0;
-
-		// Go through each task
-		for (int i = 0; i < schedulableRecords.size; i++) {
-			SchedulableRecord record = schedulableRecords.get(i);
-			// If it is due, schedule it
-			if ((frame + record.phase) % record.frequency == 0) runList.add(record);
-		}
+		// Collect the tasks to run
+		fillRunList();
 
 		// Keep track of the current time
 		long lastTime = TimeUtils.nanoTime();
@@ -114,4 +138,26 @@ public class LoadBalancingScheduler extends SchedulerBase<SchedulableRecord> {
 		}
 	}
 
+	/** The tasks sharing the same frequency, indexed by phase. The slot of a phase is created when the first task is added to it,
+	 * so that low frequencies with few tasks don't take memory for all their phases.
+	 * 
+	 * @author agent */
+	static class FrequencyRing {
+		final int frequency;
+		final Array<SchedulableRecord>[] slots;
+
+		@SuppressWarnings("unchecked")
+		FrequencyRing (int frequency) {
+			this.frequency = frequency;
+			this.slots = new Array[frequency];
+		}
+
+		/** Returns the slot of the given phase, creating it if needed. */
+		Array<SchedulableRecord> slot (int phase) {
+			Array<SchedulableRecord> slot = slots[phase];
+			if (slot == null) slot = slots[phase] = new Array<SchedulableRecord>(false, 4);
+			return slot;
+		}
+	}
+
 }
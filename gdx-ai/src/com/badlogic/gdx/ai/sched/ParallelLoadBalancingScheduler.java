@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.sched;
+
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.badlogic.gdx.ai.sched.SchedulerBase.SchedulableRecord;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.TimeUtils;
+
+/** A {@code ParallelLoadBalancingScheduler} is a {@link LoadBalancingScheduler} distributing the tasks due on each frame across a
+ * pool of worker threads. Frequency and phase work exactly like in {@link LoadBalancingScheduler}.
+ * <p>
+ * Only the tasks implementing {@link ParallelSchedulable} are run on the workers. The other tasks are considered thread-confined
+ * and are run on the thread calling {@link #run(long)}, which then helps the workers with the parallel tasks left. The
+ * {@code run} method returns when all the tasks due on the current frame have completed.
+ * <p>
+ * The time to run is the wall-clock time of the whole frame. Thread-confined tasks share it like in a
+ * {@link LoadBalancingScheduler}, while each parallel task gets the time left divided by the number of parallel tasks each
+ * thread still has to run. This way every task still receives its time budget, but the budget of parallel tasks is multiplied by
+ * the number of threads.
+ * <p>
+ * Remember to call {@link #dispose()} to stop the workers when the scheduler is no longer needed.
+ * <p>
+ * This class is not available on GWT.
+ * 
+ * @author agent */
+public class ParallelLoadBalancingScheduler extends LoadBalancingScheduler implements Disposable {
+
+	/** The tasks to run on the current frame that can be run on any thread. */
+	protected Array<SchedulableRecord> parallelRunList;
+
+	/** Synchronizes the workers with the thread calling {@link #run(long)} at the beginning and at the end of each frame. */
+	private final Phaser phaser;
+
+	/** The index of the next parallel task to run. */
+	private final AtomicInteger nextParallelTask;
+
+	private final AtomicReference<Throwable> workerFailure;
+
+	private final int threadCount;
+
+	private volatile long deadline;
+	private volatile boolean disposed;
+
+	/** Creates a {@code ParallelLoadBalancingScheduler} with as many workers as the available processors minus one, but at least
+	 * one.
+	 * @param dryRunFrames number of frames simulated by the dry run to calculate the phase when adding a schedulable via
+	 *           {@link #addWithAutomaticPhasing(Schedulable, int)} */
+	public ParallelLoadBalancingScheduler (int dryRunFrames) {
+		this(dryRunFrames, Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+	}
+
+	/** Creates a {@code ParallelLoadBalancingScheduler} with the given number of workers.
+	 * @param dryRunFrames number of frames simulated by the dry run to calculate the phase when adding a schedulable via
+	 *           {@link #addWithAutomaticPhasing(Schedulable, int)}
+	 * @param workerCount the number of worker threads */
+	public ParallelLoadBalancingScheduler (int dryRunFrames, int workerCount) {
+		super(dryRunFrames);
+		if (workerCount < 1) throw new IllegalArgumentException("workerCount must be at least 1");
+		this.parallelRunList = new Array<SchedulableRecord>();
+		this.phaser = new Phaser(workerCount + 1);
+		this.nextParallelTask = new AtomicInteger();
+		this.workerFailure = new AtomicReference<Throwable>();
+		this.threadCount = workerCount + 1;
+		for (int i = 0; i < workerCount; i++) {
+			Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run () {
+					while (true) {
+						// Wait for the beginning of the frame
+						phaser.arriveAndAwaitAdvance();
+						if (disposed) {
+							phaser.arriveAndDeregister();
+							return;
+						}
+						runParallelTasks();
+						// Signal the end of the frame
+						phaser.arriveAndAwaitAdvance();
+					}
+				}
+			}, "SchedulerWorker-" + i);
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	/** Returns the number of threads running the parallel tasks, including the thread calling {@link #run(long)}. */
+	public int getThreadCount () {
+		return threadCount;
+	}
+
+	/** Executes scheduled tasks based on their frequency and phase, running the parallel ones on the workers. This method must be
+	 * called once per frame, always by the same thread.
+	 * <p>
+	 * Exceptions thrown by thread-confined tasks propagate as they are, but only after the parallel tasks of the current frame have
+	 * completed, so the scheduler keeps working on the next frames.
+	 * @param timeToRun the maximum time in nanoseconds this scheduler should run on the current frame.
+	 * @throws GdxRuntimeException if a parallel task has thrown an exception or an error
+	 * @throws IllegalStateException if this scheduler has been disposed */
+	@Override
+	public void run (long timeToRun) {
+		if (disposed) throw new IllegalStateException("The scheduler has been disposed");
+
+		// Increment the frame number
+		frame++;
+
+		// Collect the tasks to run, then move the parallel ones to their own list
+		fillRunList();
+		parallelRunList.size = 0;
+		int confined = 0;
+		for (int i = 0; i < runList.size; i++) {
+			SchedulableRecord record = runList.get(i);
+			if (record.schedulable instanceof ParallelSchedulable)
+				parallelRunList.add(record);
+			else
+				runList.set(confined++, record);
+		}
+		runList.truncate(confined);
+
+		// Keep track of the current time
+		long lastTime = TimeUtils.nanoTime();
+		deadline = lastTime + timeToRun;
+
+		// Let the workers start on the parallel tasks
+		boolean parallel = parallelRunList.size > 0;
+		if (parallel) {
+			nextParallelTask.set(0);
+			phaser.arriveAndAwaitAdvance();
+		}
+
+		Throwable failure = null;
+		try {
+			// Run the thread-confined tasks
+			int numToRun = runList.size;
+			for (int i = 0; i < numToRun; i++) {
+				// Find the available time
+				long currentTime = TimeUtils.nanoTime();
+				timeToRun -= currentTime - lastTime;
+				long availableTime = timeToRun / (numToRun - i);
+
+				// Run the schedulable object
+				runList.get(i).schedulable.run(availableTime);
+
+				// Store the current time
+				lastTime = currentTime;
+			}
+		} finally {
+			// Even if a thread-confined task has thrown, the workers must reach the end of the frame before the exception
+			// propagates, otherwise the next frame would pair its start with their end
+			if (parallel) {
+				// Help the workers, then wait for them to complete
+				runParallelTasks();
+				phaser.arriveAndAwaitAdvance();
+				failure = workerFailure.getAndSet(null);
+			}
+		}
+
+		// Report any failure occurred on the workers
+		if (failure != null) throw new GdxRuntimeException("Scheduled task failed on a worker thread", failure);
+	}
+
+	/** Runs the parallel tasks not claimed by other threads yet. */
+	private void runParallelTasks () {
+		Array<SchedulableRecord> tasks = parallelRunList;
+		int numToRun = tasks.size;
+		int i;
+		while ((i = nextParallelTask.getAndIncrement()) < numToRun) {
+			// Divide the time left by the number of tasks each thread still has to run
+			long timeLeft = deadline - TimeUtils.nanoTime();
+			int tasksPerThread = (numToRun - i + threadCount - 1) / threadCount;
+			try {
+				tasks.get(i).schedulable.run(timeLeft / tasksPerThread);
+			} catch (Throwable t) {
+				// Errors are caught too, since a dead worker would never reach the end of the frame
+				workerFailure.compareAndSet(null, t);
+			}
+		}
+	}
+
+	/** Stops the worker threads. Calling {@link #run(long)} after this method throws an {@link IllegalStateException}. */
+	@Override
+	public void dispose () {
+		if (disposed) return;
+		disposed = true;
+		// Wake up the workers waiting for the next frame, so that they can exit
+		phaser.arriveAndDeregister();
+	}
+
+}
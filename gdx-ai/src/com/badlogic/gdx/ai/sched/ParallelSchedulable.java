@@ -0,0 +1,25 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.sched;
+
+/** A {@code ParallelSchedulable} is a {@link Schedulable} declaring that it can be run on any thread, concurrently with other
+ * schedulables. A {@link ParallelLoadBalancingScheduler} runs such schedulables on its worker threads, while the schedulables not
+ * implementing this interface are considered thread-confined and always run on the thread calling the scheduler.
+ * 
+ * @author agent */
+public interface ParallelSchedulable extends Schedulable {
+}
@@ -0,0 +1,294 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.steer.proximities;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.ai.steer.Steerable;
+import com.badlogic.gdx.math.Vector;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+
+/** A {@code SpatialHash} partitions the space into a uniform grid of cubic (or square, in 2D) cells and stores the agents by the
+ * cell their position falls in. Cells are mapped to the buckets of a hash table so that the grid is unbounded and its memory
+ * footprint only depends on the number of agents. It's meant to be shared by the {@link SpatialHashProximity proximities} of all
+ * the agents so that finding the neighbors of an agent costs time proportional to the number of agents around it rather than to
+ * the total number of agents.
+ * <p>
+ * The hash is a snapshot of the agent positions taken by {@link #rebuild()}, which is typically called once per frame before the
+ * agents are updated. Alternatively, {@link #refresh()} rebuilds the hash only the first time it's called in a frame, which is what
+ * the proximities do, so you don't have to call anything explicitly. Rebuilding takes linear time, doesn't create garbage once the
+ * internal arrays have grown to fit the agents and copes with agents added to or removed from the array between frames.
+ * <p>
+ * For best performance the cell size should be about the query radius plus the bounding radius of the agents: smaller cells mean
+ * more cells to visit for each query, larger cells mean more agents to reject.
+ * 
+ * @param <T> Type of vector, either {@link Vector2} or {@link Vector3}
+ * 
+ * @author agent */
+public class SpatialHash<T extends Vector<T>> {
+
+	private static final int PRIME_X = 73856093;
+	private static final int PRIME_Y = 19349663;
+	private static final int PRIME_Z = 83492791;
+
+	private Array<? extends Steerable<T>> agents;
+	private float cellSize;
+	private float invCellSize;
+
+	private int mask;
+	private int[] bucketStart;
+	private Steerable<T>[] sortedAgents;
+	private int[] sortedCellX;
+	private int[] sortedCellY;
+	private int[] sortedCellZ;
+	private int[] agentBuckets;
+	private int agentCount;
+	private float maxBoundingRadius;
+	private long frameId;
+
+	/** Creates a {@code SpatialHash} for the given agents.
+	 * @param agents the agents; the array is not copied, so later additions and removals are taken into account on the next rebuild
+	 * @param cellSize the side of a cell */
+	public SpatialHash (Array<? extends Steerable<T>> agents, float cellSize) {
+		this.agents = agents;
+		setCellSize(cellSize);
+		this.frameId = -1;
+		this.bucketStart = new int[1];
+		this.agentBuckets = new int[0];
+		this.sortedCellX = new int[0];
+		this.sortedCellY = new int[0];
+		this.sortedCellZ = new int[0];
+		this.sortedAgents = newAgentArray(0);
+	}
+
+	/** Returns the agents stored by this hash. */
+	public Array<? extends Steerable<T>> getAgents () {
+		return agents;
+	}
+
+	/** Sets the agents stored by this hash. The change takes effect on the next rebuild. */
+	public void setAgents (Array<? extends Steerable<T>> agents) {
+		this.agents = agents;
+		this.frameId = -1;
+	}
+
+	/** Returns the side of a cell. */
+	public float getCellSize () {
+		return cellSize;
+	}
+
+	/** Sets the side of a cell. The change takes effect on the next rebuild. */
+	public void setCellSize (float cellSize) {
+		if (cellSize <= 0) throw new IllegalArgumentException("cellSize must be positive");
+		this.cellSize = cellSize;
+		this.invCellSize = 1f / cellSize;
+		this.frameId = -1;
+	}
+
+	/** Returns the largest bounding radius of the agents as of the last rebuild. */
+	public float getMaxBoundingRadius () {
+		return maxBoundingRadius;
+	}
+
+	/** Rebuilds this hash if it hasn't been rebuilt yet during the current frame. */
+	public void refresh () {
+		long currentFrameId = Gdx.graphics.getFrameId();
+		if (frameId != currentFrameId) {
+			rebuild();
+			frameId = currentFrameId;
+		}
+	}
+
+	/** Rebuilds this hash from the current agent positions. */
+	public void rebuild () {
+		Array<? extends Steerable<T>> agents = this.agents;
+		int n = agentCount = agents.size;
+
+		// Make room for the agents, keeping the load factor of the table at most 0.5
+		int buckets = Math.max(16, nextPowerOfTwo(n << 1));
+		if (bucketStart.length != buckets + 1) bucketStart = new int[buckets + 1];
+		if (agentBuckets.length < n) {
+			int capacity = Math.max(n, (int)(agentBuckets.length * 1.75f));
+			agentBuckets = new int[capacity];
+			sortedCellX = new int[capacity];
+			sortedCellY = new int[capacity];
+			sortedCellZ = new int[capacity];
+			sortedAgents = newAgentArray(capacity);
+		}
+		mask = buckets - 1;
+
+		// Counting sort of the agents by bucket: first count the agents per bucket...
+		int[] bucketStart = this.bucketStart;
+		for (int i = 0; i <= buckets; i++)
+			bucketStart[i] = 0;
+		float maxBoundingRadius = 0;
+		for (int i = 0; i < n; i++) {
+			Steerable<T> agent = agents.get(i);
+			int bucket = bucketOf(agent.getPosition());
+			agentBuckets[i] = bucket;
+			bucketStart[bucket + 1]++;
+			maxBoundingRadius = Math.max(maxBoundingRadius, agent.getBoundingRadius());
+		}
+		this.maxBoundingRadius = maxBoundingRadius;
+
+		// ...then turn counts into start offsets...
+		for (int i = 0; i < buckets; i++)
+			bucketStart[i + 1] += bucketStart[i];
+
+		// ...and finally place the agents, using the start offsets as insertion cursors that we restore afterwards
+		for (int i = 0; i < n; i++) {
+			Steerable<T> agent = agents.get(i);
+			int slot = bucketStart[agentBuckets[i]]++;
+			sortedAgents[slot] = agent;
+			storeCell(slot, agent.getPosition());
+		}
+		for (int i = buckets; i > 0; i--)
+			bucketStart[i] = bucketStart[i - 1];
+		bucketStart[0] = 0;
+
+		// Clear stale references so removed agents can be garbage collected
+		for (int i = n; i < sortedAgents.length && sortedAgents[i] != null; i++)
+			sortedAgents[i] = null;
+	}
+
+	/** Reports to the given callback every agent stored in a cell overlapping the axis-aligned box centered at the given position and
+	 * extending {@code extent} along each axis. Agents are reported at most once, but some of them can be farther than the extent,
+	 * so the callback is expected to perform the exact test.
+	 * @param center the center of the box
+	 * @param extent the half side of the box
+	 * @param callback the callback
+	 * @return the number of agents for which the callback returned {@code true}. */
+	public int query (T center, float extent, QueryCallback<T> callback) {
+		int x0, x1, y0, y1, z0, z1;
+		if (center instanceof Vector2) {
+			Vector2 c = (Vector2)center;
+			x0 = cellCoord(c.x - extent);
+			x1 = cellCoord(c.x + extent);
+			y0 = cellCoord(c.y - extent);
+			y1 = cellCoord(c.y + extent);
+			z0 = z1 = 0;
+		} else if (center instanceof Vector3) {
+			Vector3 c = (Vector3)center;
+			x0 = cellCoord(c.x - extent);
+			x1 = cellCoord(c.x + extent);
+			y0 = cellCoord(c.y - extent);
+			y1 = cellCoord(c.y + extent);
+			z0 = cellCoord(c.z - extent);
+			z1 = cellCoord(c.z + extent);
+		} else {
+			throw unsupportedVector(center);
+		}
+
+		// If the box covers more cells than the agents, a linear scan is cheaper
+		long cellCount = (long)(x1 - x0 + 1) * (y1 - y0 + 1) * (z1 - z0 + 1);
+		if (cellCount > agentCount) {
+			int count = 0;
+			for (int i = 0; i < agentCount; i++) {
+				if (sortedCellX[i] >= x0 && sortedCellX[i] <= x1 && sortedCellY[i] >= y0 && sortedCellY[i] <= y1
+					&& sortedCellZ[i] >= z0 && sortedCellZ[i] <= z1 && callback.report(sortedAgents[i])) count++;
+			}
+			return count;
+		}
+
+		int count = 0;
+		for (int z = z0; z <= z1; z++)
+			for (int y = y0; y <= y1; y++)
+				for (int x = x0; x <= x1; x++)
+					count += queryCell(x, y, z, callback);
+		return count;
+	}
+
+	private int queryCell (int x, int y, int z, QueryCallback<T> callback) {
+		// Different cells may share the same bucket, so only the agents really belonging to the cell are reported;
+		// this also guarantees that each agent is reported at most once per query
+		int count = 0;
+		int bucket = hash(x, y, z) & mask;
+		for (int i = bucketStart[bucket], end = bucketStart[bucket + 1]; i < end; i++) {
+			if (sortedCellX[i] == x && sortedCellY[i] == y && sortedCellZ[i] == z && callback.report(sortedAgents[i])) count++;
+		}
+		return count;
+	}
+
+	private int bucketOf (T position) {
+		if (position instanceof Vector2) {
+			Vector2 p = (Vector2)position;
+			return hash(cellCoord(p.x), cellCoord(p.y), 0) & mask;
+		}
+		if (position instanceof Vector3) {
+			Vector3 p = (Vector3)position;
+			return hash(cellCoord(p.x), cellCoord(p.y), cellCoord(p.z)) & mask;
+		}
+		throw unsupportedVector(position);
+	}
+
+	private void storeCell (int slot, T position) {
+		if (position instanceof Vector2) {
+			Vector2 p = (Vector2)position;
+			sortedCellX[slot] = cellCoord(p.x);
+			sortedCellY[slot] = cellCoord(p.y);
+			sortedCellZ[slot] = 0;
+		} else {
+			Vector3 p = (Vector3)position;
+			sortedCellX[slot] = cellCoord(p.x);
+			sortedCellY[slot] = cellCoord(p.y);
+			sortedCellZ[slot] = cellCoord(p.z);
+		}
+	}
+
+	private int cellCoord (float coord) {
+		return (int)Math.floor(coord * invCellSize);
+	}
+
+	private static int hash (int x, int y, int z) {
+		int h = x * PRIME_X ^ y * PRIME_Y ^ z * PRIME_Z;
+		// Spread the high bits over the low bits used to index the buckets
+		return h ^ (h >>> 16);
+	}
+
+	private static int nextPowerOfTwo (int value) {
+		int v = value - 1;
+		v |= v >> 1;
+		v |= v >> 2;
+		v |= v >> 4;
+		v |= v >> 8;
+		v |= v >> 16;
+		return v + 1;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Steerable<T>[] newAgentArray (int capacity) {
+		return (Steerable<T>[])new Steerable[capacity];
+	}
+
+	private static IllegalArgumentException unsupportedVector (Object vector) {
+		return new IllegalArgumentException("SpatialHash only supports Vector2 and Vector3, not " + vector.getClass().getName());
+	}
+
+	/** The callback used by {@link SpatialHash#query(Vector, float, QueryCallback) query} to report the candidate agents.
+	 * 
+	 * @param <T> Type of vector, either {@link Vector2} or {@link Vector3}
+	 * 
+	 * @author agent */
+	public interface QueryCallback<T extends Vector<T>> {
+
+		/** Reports a candidate agent.
+		 * @param agent the agent
+		 * @return {@code true} if the agent has been accepted; {@code false} otherwise. */
+		public boolean report (Steerable<T> agent);
+	}
+}
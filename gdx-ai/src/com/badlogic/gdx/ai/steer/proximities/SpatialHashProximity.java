@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.steer.proximities;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.ai.steer.Steerable;
+import com.badlogic.gdx.ai.steer.proximities.SpatialHash.QueryCallback;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector;
+import com.badlogic.gdx.utils.Array;
+
+/** A {@code SpatialHashProximity} finds the agents that are within the radius of the owner and, optionally, within its field of
+ * view, like {@link RadiusProximity} and {@link FieldOfViewProximity} respectively. Instead of scanning the whole list of agents,
+ * it only examines the agents stored in the cells of a {@link SpatialHash} around the owner, so that group behaviors over large
+ * crowds no longer take quadratic time.
+ * <p>
+ * The same {@code SpatialHash} is meant to be shared by the proximities of all the agents. It's refreshed automatically the first
+ * time a proximity uses it in a frame, see {@link SpatialHash#refresh()}.
+ * <p>
+ * Unlike the other proximities, this class doesn't use the tag of the agents to remember the neighbors found in the current frame;
+ * it keeps them in an internal array instead, so that sharing the agents among many owners gives correct results and each
+ * subsequent {@link #findNeighbors(ProximityCallback) findNeighbors} call in the same frame takes time proportional to the number of
+ * neighbors.
+ * 
+ * @param <T> Type of vector, either 2D or 3D, implementing the {@link Vector} interface
+ * 
+ * @author agent */
+public class SpatialHashProximity<T extends Vector<T>> extends ProximityBase<T> {
+
+	/** The spatial hash of the agents. */
+	protected SpatialHash<T> spatialHash;
+
+	/** The radius of this proximity. */
+	protected float radius;
+
+	/** The angle in radians of this proximity. */
+	protected float angle;
+
+	private float coneThreshold;
+	private long frameId;
+	private Array<Steerable<T>> neighbors;
+	private ProximityCallback<T> callback;
+	private QueryCallback<T> candidateCallback;
+	private T ownerOrientation;
+	private T toAgent;
+
+	/** Creates a {@code SpatialHashProximity} for the specified owner, spatial hash and radius, with no field of view limitation.
+	 * @param owner the owner of this proximity
+	 * @param spatialHash the spatial hash of the agents
+	 * @param radius the radius of this proximity */
+	public SpatialHashProximity (Steerable<T> owner, SpatialHash<T> spatialHash, float radius) {
+		this(owner, spatialHash, radius, MathUtils.PI2);
+	}
+
+	/** Creates a {@code SpatialHashProximity} for the specified owner, spatial hash and cone area defined by the given radius and
+	 * angle in radians.
+	 * @param owner the owner of this proximity
+	 * @param spatialHash the spatial hash of the agents
+	 * @param radius the radius of the cone area
+	 * @param angle the angle in radians of the cone area; values greater than or equal to 2 PI disable the field of view test */
+	public SpatialHashProximity (Steerable<T> owner, SpatialHash<T> spatialHash, float radius, float angle) {
+		super(owner, spatialHash.getAgents());
+		this.spatialHash = spatialHash;
+		this.radius = radius;
+		setAngle(angle);
+		this.frameId = -1;
+		this.neighbors = new Array<Steerable<T>>(false, 16);
+		this.ownerOrientation = owner.getPosition().cpy().setZero();
+		this.toAgent = owner.getPosition().cpy().setZero();
+		this.candidateCallback = new QueryCallback<T>() {
+			@Override
+			public boolean report (Steerable<T> agent) {
+				return reportCandidate(agent);
+			}
+		};
+	}
+
+	/** Returns the spatial hash of this proximity. */
+	public SpatialHash<T> getSpatialHash () {
+		return spatialHash;
+	}
+
+	/** Sets the spatial hash of this proximity. */
+	public void setSpatialHash (SpatialHash<T> spatialHash) {
+		this.spatialHash = spatialHash;
+		this.agents = spatialHash.getAgents();
+		this.frameId = -1;
+	}
+
+	/** Returns the radius of this proximity. */
+	public float getRadius () {
+		return radius;
+	}
+
+	/** Sets the radius of this proximity. */
+	public void setRadius (float radius) {
+		this.radius = radius;
+	}
+
+	/** Returns the angle of this proximity in radians. */
+	public float getAngle () {
+		return angle;
+	}
+
+	/** Sets the angle of this proximity in radians. Values greater than or equal to 2 PI disable the field of view test. */
+	public void setAngle (float angle) {
+		this.angle = angle;
+		this.coneThreshold = (float)Math.cos(angle * 0.5f);
+	}
+
+	@Override
+	public void setOwner (Steerable<T> owner) {
+		super.setOwner(owner);
+		this.frameId = -1;
+	}
+
+	@Override
+	public int findNeighbors (ProximityCallback<T> callback) {
+		// Check current frame id to avoid repeating calculations
+		// when this proximity is used by multiple group behaviors.
+		if (this.frameId != Gdx.graphics.getFrameId()) {
+			// Save the frame id
+			this.frameId = Gdx.graphics.getFrameId();
+
+			// Make sure the spatial hash reflects the agent positions in this frame
+			spatialHash.refresh();
+
+			// Transform owner orientation to a Vector
+			if (angle < MathUtils.PI2) owner.angleToVector(ownerOrientation, owner.getOrientation());
+
+			// Examine the agents around the owner; the extent of the query accounts for the largest bounding radius
+			neighbors.clear();
+			this.callback = callback;
+			spatialHash.query(owner.getPosition(), radius + spatialHash.getMaxBoundingRadius(), candidateCallback);
+			this.callback = null;
+			return neighbors.size;
+		}
+
+		// Report the neighbors found earlier in this frame
+		int neighborCount = 0;
+		for (int i = 0; i < neighbors.size; i++) {
+			if (callback.reportNeighbor(neighbors.get(i))) neighborCount++;
+		}
+		return neighborCount;
+	}
+
+	/** Performs the exact test on a candidate agent reported by the spatial hash and, if it passes, reports the agent to the
+	 * callback of the current {@link #findNeighbors(ProximityCallback) findNeighbors} call. */
+	private boolean reportCandidate (Steerable<T> agent) {
+		// Make sure the agent being examined isn't the owner
+		if (agent == owner) return false;
+
+		toAgent.set(agent.getPosition()).sub(owner.getPosition());
+
+		// The bounding radius of the agent is taken into account by adding it to the range
+		float range = radius + agent.getBoundingRadius();
+		float toAgentLen2 = toAgent.len2();
+		if (toAgentLen2 >= range * range) return false;
+
+		// Make sure the agent is within the field of view of the owner, if any
+		if (angle < MathUtils.PI2 && ownerOrientation.dot(toAgent) <= coneThreshold * (float)Math.sqrt(toAgentLen2)) return false;
+
+		if (!callback.reportNeighbor(agent)) return false;
+		neighbors.add(agent);
+		return true;
+	}
+
+}
@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright 2014 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.ai.utils;
+
+/** A binary heap of integer elements, each associated to a float value, that doesn't create any object when elements are added
+ * or removed. Elements must be in the range {@code [0, elementCapacity)} and each element can be in the heap at most once; the
+ * heap position of every element is tracked so that it can be removed or updated in O(log n).
+ * <p>
+ * Element ordering is the same as the one of {@link com.badlogic.gdx.utils.BinaryHeap BinaryHeap} for additions, pops and value
+ * updates. Unlike {@code BinaryHeap}, which only sifts down the element moved into the slot of a removed element, this heap
+ * restores the order in both directions, so removing an element that isn't at the top never breaks the heap order.
+ * 
+ * @author agent */
+public class IntBinaryHeap {
+	public int size;
+
+	private int[] elements;
+	private float[] values;
+	private int[] positions;
+	private final boolean isMaxHeap;
+
+	/** Creates a min {@code IntBinaryHeap} for the elements in the range {@code [0, elementCapacity)}.
+	 * @param elementCapacity the number of distinct elements that can be added to this heap */
+	public IntBinaryHeap (int elementCapacity) {
+		this(16, elementCapacity, false);
+	}
+
+	/** Creates an {@code IntBinaryHeap} for the elements in the range {@code [0, elementCapacity)}.
+	 * @param capacity the initial capacity of this heap
+	 * @param elementCapacity the number of distinct elements that can be added to this heap
+	 * @param isMaxHeap whether this is a max heap or a min heap */
+	public IntBinaryHeap (int capacity, int elementCapacity, boolean isMaxHeap) {
+		this.isMaxHeap = isMaxHeap;
+		this.elements = new int[Math.max(1, capacity)];
+		this.values = new float[elements.length];
+		this.positions = new int[elementCapacity];
+	}
+
+	/** Adds the given element to this heap. The element must not be already in the heap.
+	 * @param element the element to add
+	 * @param value the value of the element */
+	public void add (int element, float value) {
+		// Expand if necessary.
+		if (size == elements.length) {
+			int[] newElements = new int[size << 1];
+			float[] newValues = new float[size << 1];
+			System.arraycopy(elements, 0, newElements, 0, size);
+			System.arraycopy(values, 0, newValues, 0, size);
+			elements = newElements;
+			values = newValues;
+		}
+		// Insert at end and bubble up.
+		elements[size] = element;
+		values[size] = value;
+		positions[element] = size;
+		up(size++);
+	}
+
+	/** Returns the element at the top of this heap without removing it.
+	 * @throws IllegalStateException if the heap is empty */
+	public int peek () {
+		if (size == 0) throw new IllegalStateException("The heap is empty.");
+		return elements[0];
+	}
+
+	/** Returns the value of the element at the top of this heap.
+	 * @throws IllegalStateException if the heap is empty */
+	public float peekValue () {
+		if (size == 0) throw new IllegalStateException("The heap is empty.");
+		return values[0];
+	}
+
+	/** Removes and returns the element at the top of this heap. */
+	public int pop () {
+		return removeAt(0);
+	}
+
+	/** Removes the given element from this heap. The element must be in the heap. */
+	public void remove (int element) {
+		removeAt(positions[element]);
+	}
+
+	/** Returns {@code true} if the given element is in this heap; {@code false} otherwise. */
+	public boolean contains (int element) {
+		if (element < 0 || element >= positions.length) return false;
+		int position = positions[element];
+		return position < size && elements[position] == element;
+	}
+
+	/** Returns the value of the given element. The element must be in the heap. */
+	public float getValue (int element) {
+		return values[positions[element]];
+	}
+
+	/** Changes the value of the given element and restores the heap order. The element must be in the heap. */
+	public void setValue (int element, float value) {
+		int index = positions[element];
+		float oldValue = values[index];
+		values[index] = value;
+		if (value < oldValue ^ isMaxHeap)
+			up(index);
+		else
+			down(index);
+	}
+
+	/** Removes all the elements from this heap. */
+	public void clear () {
+		size = 0;
+	}
+
+	/** Returns the number of distinct elements this heap can hold. */
+	public int getElementCapacity () {
+		return positions.length;
+	}
+
+	private int removeAt (int index) {
+		int removed = elements[index];
+		float removedValue = values[index];
+		--size;
+		if (index < size) {
+			// Move the last element into the freed slot, then restore the order in either direction since the moved element
+			// can be smaller than the parent of the slot when the removed element isn't the top
+			float movedValue = values[size];
+			elements[index] = elements[size];
+			values[index] = movedValue;
+			positions[elements[index]] = index;
+			if (movedValue < removedValue ^ isMaxHeap)
+				up(index);
+			else
+				down(index);
+		}
+		return removed;
+	}
+
+	private void up (int index) {
+		int[] elements = this.elements;
+		float[] values = this.values;
+		int[] positions = this.positions;
+		int element = elements[index];
+		float value = values[index];
+		while (index > 0) {
+			int parentIndex = (index - 1) >> 1;
+			float parentValue = values[parentIndex];
+			if (value < parentValue ^ isMaxHeap) {
+				int parent = elements[parentIndex];
+				elements[index] = parent;
+				values[index] = parentValue;
+				positions[parent] = index;
+				index = parentIndex;
+			} else
+				break;
+		}
+		elements[index] = element;
+		values[index] = value;
+		positions[element] = index;
+	}
+
+	private void down (int index) {
+		int[] elements = this.elements;
+		float[] values = this.values;
+		int[] positions = this.positions;
+		int size = this.size;
+
+		int element = elements[index];
+		float value = values[index];
+
+		while (true) {
+			int leftIndex = 1 + (index << 1);
+			if (leftIndex >= size) break;
+			int rightIndex = leftIndex + 1;
+
+			// Always have a left child.
+			float leftValue = values[leftIndex];
+
+			// May have a right child.
+			boolean hasRight = rightIndex < size;
+			float rightValue = hasRight ? values[rightIndex] : (isMaxHeap ? Float.MIN_VALUE : Float.MAX_VALUE);
+
+			// The smallest of the three values is the parent.
+			int childIndex;
+			float childValue;
+			if (!hasRight || (leftValue < rightValue ^ isMaxHeap)) {
+				if (leftValue == value || (leftValue > value ^ isMaxHeap)) break;
+				childIndex = leftIndex;
+				childValue = leftValue;
+			} else {
+				if (rightValue == value || (rightValue > value ^ isMaxHeap)) break;
+				childIndex = rightIndex;
+				childValue = rightValue;
+			}
+			int child = elements[childIndex];
+			elements[index] = child;
+			values[index] = childValue;
+			positions[child] = index;
+			index = childIndex;
+		}
+
+		elements[index] = element;
+		values[index] = value;
+		positions[element] = index;
+	}
+}
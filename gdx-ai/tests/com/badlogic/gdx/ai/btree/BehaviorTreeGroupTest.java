@@ -0,0 +1,211 @@
+package com.badlogic.gdx.ai.btree;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.badlogic.gdx.ai.btree.BehaviorTreeGroup.GroupMessageDispatcher;
+import com.badlogic.gdx.ai.btree.annotation.ParallelSafeTask;
+import com.badlogic.gdx.ai.btree.annotation.StatelessTask;
+import com.badlogic.gdx.ai.btree.branch.Selector;
+import com.badlogic.gdx.ai.btree.branch.Sequence;
+import com.badlogic.gdx.ai.btree.decorator.Random;
+import com.badlogic.gdx.ai.btree.leaf.Success;
+import com.badlogic.gdx.ai.btree.leaf.Wait;
+import com.badlogic.gdx.ai.msg.Telegram;
+import com.badlogic.gdx.ai.msg.Telegraph;
+import com.badlogic.gdx.utils.IntArray;
+
+public class BehaviorTreeGroupTest {
+
+    private static final int TREES = 100;
+    private static final int FRAMES = 3;
+
+    @Test
+    public void step_WhenTreesAreMixed_ExpectedParallelMessagesInTreeOrderThenSequentialOnes() {
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        final BehaviorTreeGroup<Npc> group = new BehaviorTreeGroup<>(pool, 7);
+        final GroupMessageDispatcher dispatcher = new GroupMessageDispatcher();
+        final Receiver receiver = new Receiver();
+        final Npc[] npcs = new Npc[TREES];
+        for (int i = 0; i < TREES; i++) {
+            npcs[i] = new Npc(i, dispatcher, receiver);
+            // Every tenth tree uses a task that is not parallel safe
+            final Task<Npc> report = i % 10 == 0 ? new UnsafeReport() : new Report();
+            group.add(new BehaviorTree<>(new Sequence<>(new Success<Npc>(), report), npcs[i]));
+        }
+
+        final IntArray expected = new IntArray();
+        for (int i = 0; i < TREES; i++) {
+            Assert.assertEquals("Unexpected parallel flag for tree " + i, i % 10 != 0, group.isParallel(i));
+        }
+        for (int frame = 0; frame < FRAMES; frame++) {
+            for (int i = 0; i < TREES; i++) {
+                if (i % 10 != 0) expected.add(i);
+            }
+            for (int i = 0; i < TREES; i += 10) {
+                expected.add(i);
+            }
+            group.step();
+        }
+        pool.shutdown();
+
+        Assert.assertFalse("Message handled on a pool thread", receiver.wrongThread);
+        Assert.assertEquals("Unexpected messages", expected, receiver.messages);
+        for (int i = 0; i < TREES; i++) {
+            Assert.assertEquals("Unexpected step count for tree " + i, FRAMES, npcs[i].steps);
+        }
+    }
+
+    @Test
+    public void step_WhenParallelTreesFitOneChunk_ExpectedMessagesDeferredAnyway() {
+        final BehaviorTreeGroup<Npc> group = new BehaviorTreeGroup<>(new ForkJoinPool(2), 64);
+        final GroupMessageDispatcher dispatcher = new GroupMessageDispatcher();
+        final Receiver receiver = new Receiver();
+        group.add(new BehaviorTree<>(new UnsafeReport(), new Npc(0, dispatcher, receiver)));
+        group.add(new BehaviorTree<>(new Report(), new Npc(1, dispatcher, receiver)));
+
+        group.step();
+        group.getPool().shutdown();
+
+        // The parallel tree comes first even if added later
+        Assert.assertEquals("Unexpected messages", 2, receiver.messages.size);
+        Assert.assertEquals("Unexpected first message", 1, receiver.messages.get(0));
+        Assert.assertEquals("Unexpected second message", 0, receiver.messages.get(1));
+    }
+
+    @Test
+    public void step_WhenParallelTreeThrows_ExpectedExceptionOnCallingThread() {
+        final BehaviorTreeGroup<Npc> group = new BehaviorTreeGroup<>(new ForkJoinPool(2), 1);
+        final GroupMessageDispatcher dispatcher = new GroupMessageDispatcher();
+        final Receiver receiver = new Receiver();
+        group.add(new BehaviorTree<>(new Report(), new Npc(0, dispatcher, receiver)));
+        group.add(new BehaviorTree<>(new Report(), (Npc)null));
+
+        try {
+            group.step();
+            Assert.fail("Exception not propagated");
+        } catch (NullPointerException e) {
+            // Expected
+        } finally {
+            group.getPool().shutdown();
+        }
+    }
+
+    @Test
+    public void getStepTime_WhenTreeIsStepped_ExpectedMeasuredPerTree() {
+        final BehaviorTreeGroup<Npc> group = new BehaviorTreeGroup<>(new ForkJoinPool(2), 1);
+        final GroupMessageDispatcher dispatcher = new GroupMessageDispatcher();
+        final Receiver receiver = new Receiver();
+        group.add(new BehaviorTree<>(new Report(), new Npc(0, dispatcher, receiver)));
+        group.add(new BehaviorTree<>(new Busy(), new Npc(1, dispatcher, receiver)));
+        Assert.assertEquals("Unexpected time before stepping", 0, group.getStepTime(1));
+
+        group.step();
+        group.getPool().shutdown();
+
+        Assert.assertTrue("Busy tree not measured", group.getStepTime(1) >= Busy.NANOS);
+        Assert.assertTrue("Busy tree not the most expensive", group.getStepTime(1) > group.getStepTime(0));
+    }
+
+    @Test
+    public void isParallelSafe_WhenTasksUseSharedState_ExpectedFalse() {
+        Assert.assertTrue("Safe tree",
+            BehaviorTreeGroup.isParallelSafe(new BehaviorTree<>(new Selector<>(new Report(), new Wait<Npc>(1f)))));
+
+        final Selector<Npc> randomSelector = new Selector<>(new Report());
+        randomSelector.deterministic = false;
+        Assert.assertFalse("Non-deterministic selector", BehaviorTreeGroup.isParallelSafe(new BehaviorTree<>(randomSelector)));
+        Assert.assertFalse("Random decorator",
+            BehaviorTreeGroup.isParallelSafe(new BehaviorTree<>(new Random<>(new Report()))));
+        Assert.assertFalse("Unannotated leaf", BehaviorTreeGroup.isParallelSafe(new BehaviorTree<>(new UnsafeReport())));
+        Assert.assertTrue("Annotated tree", BehaviorTreeGroup.isParallelSafe(new SafeTree(new UnsafeReport())));
+    }
+
+    @Test
+    public void isParallelSafe_WhenFlyweightTreeSharesLeaves_ExpectedFalse() {
+        final FlyweightArchetype<Npc> cloning = new FlyweightArchetype<>(new Sequence<>(new Report(), new Report()));
+        Assert.assertTrue("Flyweight tree cloning its leaves",
+            BehaviorTreeGroup.isParallelSafe(cloning.createBehaviorTree(null)));
+
+        final FlyweightArchetype<Npc> sharing = new FlyweightArchetype<>(new Sequence<>(new Report(), new StatelessReport()));
+        Assert.assertFalse("Flyweight tree sharing a leaf", BehaviorTreeGroup.isParallelSafe(sharing.createBehaviorTree(null)));
+    }
+
+    static class Npc {
+        final int id;
+        final GroupMessageDispatcher dispatcher;
+        final Telegraph receiver;
+        int steps;
+
+        Npc(final int id, final GroupMessageDispatcher dispatcher, final Telegraph receiver) {
+            this.id = id;
+            this.dispatcher = dispatcher;
+            this.receiver = receiver;
+        }
+    }
+
+    @ParallelSafeTask
+    static class Report extends LeafTask<Npc> {
+        @Override
+        public void run() {
+            final Npc npc = getObject();
+            npc.steps++;
+            npc.dispatcher.dispatchMessage(null, npc.receiver, npc.id);
+            success();
+        }
+
+        @Override
+        protected Task<Npc> copyTo(final Task<Npc> task) {
+            return task;
+        }
+    }
+
+    static class UnsafeReport extends Report {
+    }
+
+    @ParallelSafeTask
+    @StatelessTask
+    static class StatelessReport extends Report {
+    }
+
+    @ParallelSafeTask
+    static class Busy extends LeafTask<Npc> {
+        static final long NANOS = 2000000;
+
+        @Override
+        public void run() {
+            final long start = System.nanoTime();
+            while (System.nanoTime() - start < NANOS) {
+                // Spin
+            }
+            success();
+        }
+
+        @Override
+        protected Task<Npc> copyTo(final Task<Npc> task) {
+            return task;
+        }
+    }
+
+    @ParallelSafeTask
+    static class SafeTree extends BehaviorTree<Npc> {
+        SafeTree(final Task<Npc> rootTask) {
+            super(rootTask);
+        }
+    }
+
+    static class Receiver implements Telegraph {
+        final Thread owner = Thread.currentThread();
+        final IntArray messages = new IntArray();
+        boolean wrongThread;
+
+        @Override
+        public boolean handleMessage(final Telegram msg) {
+            wrongThread |= Thread.currentThread() != owner;
+            messages.add(msg.message);
+            return true;
+        }
+    }
+}
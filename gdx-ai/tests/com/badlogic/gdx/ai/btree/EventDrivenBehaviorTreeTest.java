@@ -0,0 +1,205 @@
+package com.badlogic.gdx.ai.btree;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.badlogic.gdx.ai.btree.Task.Status;
+import com.badlogic.gdx.ai.btree.branch.Parallel;
+import com.badlogic.gdx.ai.btree.branch.Sequence;
+import com.badlogic.gdx.ai.btree.leaf.Wait;
+import com.badlogic.gdx.ai.msg.MessageDispatcher;
+
+public class EventDrivenBehaviorTreeTest {
+
+    private static final int MSG_ALARM = 7;
+    private static final int MSG_OTHER = 8;
+
+    @Test
+    public void step_WhenLeafAwaitsMessage_ExpectedNoRunsUntilMessageReceived() {
+        final Listen listen = new Listen();
+        final Counter after = new Counter();
+        final BehaviorTree<Npc> tree = new BehaviorTree<>(new Sequence<>(listen, after), new Npc());
+        tree.setEventDriven(true);
+        final MessageDispatcher dispatcher = new MessageDispatcher();
+        dispatcher.addListener(tree, MSG_ALARM);
+        dispatcher.addListener(tree, MSG_OTHER);
+
+        tree.step();
+        Assert.assertTrue("Tree not suspended", tree.isSuspended());
+        for (int i = 0; i < 100; i++) {
+            tree.step();
+        }
+        Assert.assertEquals("Suspended leaf run again", 1, listen.runs);
+
+        // A telegram not awaited doesn't wake the tree up
+        dispatcher.dispatchMessage(MSG_OTHER);
+        tree.step();
+        Assert.assertEquals("Woken up by a telegram not awaited", 1, listen.runs);
+
+        dispatcher.dispatchMessage(MSG_ALARM);
+        Assert.assertFalse("Tree not woken up", tree.isSuspended());
+        tree.step();
+        Assert.assertEquals("Unexpected run count", 2, listen.runs);
+        Assert.assertEquals("Leaf didn't see the telegram", Status.SUCCEEDED, listen.getStatus());
+        Assert.assertEquals("Next leaf not run", 1, after.runs);
+    }
+
+    @Test
+    public void step_WhenAnotherLeafIsRunning_ExpectedTreeNotSuspended() {
+        final Listen listen = new Listen();
+        final Counter poll = new Counter();
+        poll.runningSteps = Integer.MAX_VALUE;
+        final BehaviorTree<Npc> tree = new BehaviorTree<>(new Parallel<>(listen, poll), new Npc());
+        tree.setEventDriven(true);
+
+        for (int i = 0; i < 10; i++) {
+            tree.step();
+        }
+
+        Assert.assertFalse("Tree suspended", tree.isSuspended());
+        Assert.assertEquals("Unexpected runs of the suspended leaf", 10, listen.runs);
+        Assert.assertEquals("Unexpected runs of the polling leaf", 10, poll.runs);
+    }
+
+    @Test
+    public void step_WhenLeafAwaitsBlackboardChange_ExpectedWokenUpByNotification() {
+        final AwaitHunger await = new AwaitHunger();
+        final BehaviorTree<Npc> tree = new BehaviorTree<>(await, new Npc());
+        tree.setEventDriven(true);
+
+        tree.step();
+        tree.step();
+        Assert.assertTrue("Tree not suspended", tree.isSuspended());
+        Assert.assertEquals("Suspended leaf run again", 1, await.runs);
+
+        tree.getObject().hungry = true;
+        tree.notifyBlackboardChanged();
+        tree.step();
+        Assert.assertEquals("Unexpected run count", 2, await.runs);
+        Assert.assertEquals("Unexpected status", Status.SUCCEEDED, await.getStatus());
+    }
+
+    @Test
+    public void step_WhenWaitIsSuspended_ExpectedWokenUpByTimeout() throws InterruptedException {
+        final Counter after = new Counter();
+        final BehaviorTree<Npc> tree = new BehaviorTree<>(new Sequence<>(new Wait<Npc>(0.05f), after), new Npc());
+        tree.setEventDriven(true);
+
+        tree.step();
+        Assert.assertTrue("Tree not suspended", tree.isSuspended());
+        tree.step();
+        Assert.assertEquals("Next leaf run too early", 0, after.runs);
+
+        Thread.sleep(80);
+        tree.step();
+        Assert.assertFalse("Tree still suspended", tree.isSuspended());
+        Assert.assertEquals("Next leaf not run", 1, after.runs);
+    }
+
+    @Test
+    public void step_WhenTreeIsNotEventDriven_ExpectedSuspensionActsAsRunning() {
+        final Listen listen = new Listen();
+        final BehaviorTree<Npc> tree = new BehaviorTree<>(listen, new Npc());
+
+        for (int i = 0; i < 10; i++) {
+            tree.step();
+        }
+
+        Assert.assertFalse("Tree suspended", tree.isSuspended());
+        Assert.assertEquals("Unexpected run count", 10, listen.runs);
+    }
+
+    @Test
+    public void step_WhenFlyweightTreeIsEventDriven_ExpectedSameSuspension() {
+        final FlyweightArchetype<Npc> archetype = new FlyweightArchetype<>(new Sequence<>(new Listen(), new Counter()));
+        final FlyweightBehaviorTree<Npc> tree = archetype.createBehaviorTree(new Npc());
+        tree.setEventDriven(true);
+        final MessageDispatcher dispatcher = new MessageDispatcher();
+
+        tree.step();
+        Assert.assertTrue("Tree not suspended", tree.isSuspended());
+        tree.step();
+        Assert.assertEquals("Unexpected status of the listening leaf", Status.RUNNING, tree.getTaskStatus(1));
+
+        dispatcher.dispatchMessage(null, tree, MSG_ALARM);
+        tree.step();
+        Assert.assertEquals("Listening leaf not ended", Status.SUCCEEDED, tree.getTaskStatus(1));
+        Assert.assertEquals("Next leaf not run", Status.SUCCEEDED, tree.getTaskStatus(2));
+    }
+
+    @Test
+    public void reset_WhenTreeIsSuspended_ExpectedRunAgainFromScratch() {
+        final Listen listen = new Listen();
+        final BehaviorTree<Npc> tree = new BehaviorTree<>(listen, new Npc());
+        tree.setEventDriven(true);
+        tree.step();
+        Assert.assertTrue("Tree not suspended", tree.isSuspended());
+
+        tree.reset();
+        Assert.assertFalse("Tree still suspended", tree.isSuspended());
+        tree.step();
+        Assert.assertEquals("Unexpected run count", 2, listen.runs);
+    }
+
+    static class Npc {
+        boolean hungry;
+    }
+
+    /** Waits for the alarm telegram. */
+    public static class Listen extends LeafTask<Npc> {
+        int runs;
+
+        @Override
+        public void run() {
+            runs++;
+            if (tree.hasReceivedMessage(MSG_ALARM))
+                success();
+            else
+                suspendUntilMessage(MSG_ALARM);
+        }
+
+        @Override
+        protected Task<Npc> copyTo(final Task<Npc> task) {
+            return task;
+        }
+    }
+
+    /** Waits for the npc to get hungry. */
+    public static class AwaitHunger extends LeafTask<Npc> {
+        int runs;
+
+        @Override
+        public void run() {
+            runs++;
+            if (getObject().hungry)
+                success();
+            else
+                suspendUntilBlackboardChanged();
+        }
+
+        @Override
+        protected Task<Npc> copyTo(final Task<Npc> task) {
+            return task;
+        }
+    }
+
+    /** Keeps running for the given number of steps, polling. */
+    public static class Counter extends LeafTask<Npc> {
+        int runs;
+        int runningSteps;
+
+        @Override
+        public void run() {
+            if (runs++ < runningSteps)
+                running();
+            else
+                success();
+        }
+
+        @Override
+        protected Task<Npc> copyTo(final Task<Npc> task) {
+            ((Counter)task).runningSteps = runningSteps;
+            return task;
+        }
+    }
+}
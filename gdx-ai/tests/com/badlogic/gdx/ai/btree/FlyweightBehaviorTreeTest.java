@@ -0,0 +1,341 @@
+package com.badlogic.gdx.ai.btree;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.badlogic.gdx.ai.btree.Task.Status;
+import com.badlogic.gdx.ai.btree.annotation.StatelessTask;
+import com.badlogic.gdx.ai.btree.branch.Parallel;
+import com.badlogic.gdx.ai.btree.branch.Selector;
+import com.badlogic.gdx.ai.btree.branch.Sequence;
+import com.badlogic.gdx.ai.btree.decorator.AlwaysFail;
+import com.badlogic.gdx.ai.btree.decorator.AlwaysSucceed;
+import com.badlogic.gdx.ai.btree.decorator.Invert;
+import com.badlogic.gdx.ai.btree.decorator.Random;
+import com.badlogic.gdx.ai.btree.decorator.Repeat;
+import com.badlogic.gdx.ai.btree.decorator.SemaphoreGuard;
+import com.badlogic.gdx.ai.btree.decorator.UntilFail;
+import com.badlogic.gdx.ai.btree.decorator.UntilSuccess;
+import com.badlogic.gdx.ai.btree.leaf.Failure;
+import com.badlogic.gdx.ai.btree.leaf.Success;
+import com.badlogic.gdx.ai.utils.NonBlockingSemaphoreRepository;
+import com.badlogic.gdx.ai.utils.random.ConstantFloatDistribution;
+import com.badlogic.gdx.ai.utils.random.ConstantIntegerDistribution;
+import com.badlogic.gdx.math.MathUtils;
+
+public class FlyweightBehaviorTreeTest {
+
+    private static final int AGENTS = 5;
+    private static final int STEPS = 300;
+
+    @Test
+    public void step_WhenComparedWithClonedTrees_ExpectedSameEventsAndNotifications() {
+        final FlyweightArchetype<Agent> archetype = new FlyweightArchetype<>(createBehavior());
+
+        final String[] expected = run(archetype, false);
+        final String[] actual = run(archetype, true);
+
+        for (int i = 0; i < AGENTS; i++) {
+            Assert.assertTrue("Empty log", expected[i].length() > 0);
+            Assert.assertEquals("Unexpected log for agent " + i, expected[i], actual[i]);
+        }
+    }
+
+    @Test
+    public void createBehaviorTree_WhenLeavesAreStateless_ExpectedOnlyStatefulLeavesCloned() {
+        final FlyweightArchetype<Agent> archetype = new FlyweightArchetype<>(createBehavior());
+
+        // 6 Act leaves, 1 CountingFailure leaf and 1 custom sequence; Cond, Success and Failure leaves are shared
+        Assert.assertEquals("Unexpected clone count", 8, archetype.getCloneCount());
+
+        final FlyweightBehaviorTree<Agent> tree = archetype.createBehaviorTree(new Agent(0));
+        Assert.assertSame("Unexpected archetype", archetype, tree.getArchetype());
+        Assert.assertNull("Unexpected status", tree.getTaskStatus(0));
+        tree.step();
+        Assert.assertNotNull("Status not set", tree.getTaskStatus(0));
+    }
+
+    @Test
+    public void compile_WhenTreeIsNested_ExpectedPreorderProgramWithSubtreeEnds() {
+        final Sequence<Agent> inner = new Sequence<>(new Success<Agent>(), new Failure<Agent>());
+        final Selector<Agent> root = new Selector<>(new Invert<>(inner), new Success<Agent>());
+        final FlyweightArchetype<Agent> archetype = new FlyweightArchetype<>(root);
+
+        Assert.assertEquals("Unexpected node count", 6, archetype.getNodeCount());
+        final int[] opcodes = {FlyweightArchetype.SELECTOR, FlyweightArchetype.INVERT, FlyweightArchetype.SEQUENCE,
+            FlyweightArchetype.LEAF, FlyweightArchetype.LEAF, FlyweightArchetype.LEAF};
+        final int[] ends = {6, 5, 5, 4, 5, 6};
+        for (int pc = 0; pc < opcodes.length; pc++) {
+            Assert.assertEquals("Unexpected opcode at " + pc, opcodes[pc], archetype.code[2 * pc] & 0xFF);
+            Assert.assertEquals("Unexpected end at " + pc, ends[pc], archetype.code[2 * pc + 1]);
+        }
+        Assert.assertEquals("Unexpected node", 2, archetype.getNode(inner));
+
+        final FlyweightBehaviorTree<Agent> tree = archetype.createBehaviorTree(new Agent(0));
+        tree.step();
+        Assert.assertEquals("Unexpected sequence status", Status.FAILED, tree.getTaskStatus(2));
+        Assert.assertEquals("Unexpected invert status", Status.SUCCEEDED, tree.getTaskStatus(1));
+        Assert.assertNull("Unexpected status of the last child", tree.getTaskStatus(5));
+        Assert.assertEquals("Unexpected root status", Status.SUCCEEDED, tree.getTaskStatus(0));
+    }
+
+    @Test
+    public void cloneTask_WhenFlyweightTreeIsCloned_ExpectedNewInstanceSharingArchetype() {
+        final FlyweightArchetype<Agent> archetype = new FlyweightArchetype<>(createBehavior());
+        final FlyweightBehaviorTree<Agent> tree = archetype.createBehaviorTree(new Agent(0));
+        tree.step();
+
+        @SuppressWarnings("unchecked")
+        final FlyweightBehaviorTree<Agent> clone = (FlyweightBehaviorTree<Agent>) tree.cloneTask();
+        Assert.assertSame("Unexpected archetype", archetype, clone.getArchetype());
+        Assert.assertNull("State copied", clone.getTaskStatus(0));
+    }
+
+    @Test
+    public void step_WhenSemaphoreGuardIsShared_ExpectedOnlyOneInstanceAcquiringIt() {
+        NonBlockingSemaphoreRepository.addSemaphore("flyweightTest", 1);
+        final FlyweightArchetype<Agent> archetype = new FlyweightArchetype<>(new SemaphoreGuard<>("flyweightTest",
+                new Act("guarded", 2, 0)));
+        final FlyweightBehaviorTree<Agent> first = archetype.createBehaviorTree(new Agent(0));
+        final FlyweightBehaviorTree<Agent> second = archetype.createBehaviorTree(new Agent(0));
+
+        first.step();
+        second.step();
+        Assert.assertEquals("Unexpected status", Status.RUNNING, first.getTaskStatus(0));
+        Assert.assertEquals("Unexpected status", Status.FAILED, second.getTaskStatus(0));
+
+        // The first instance releases the semaphore when it succeeds
+        first.step();
+        second.step();
+        Assert.assertEquals("Unexpected status", Status.SUCCEEDED, first.getTaskStatus(0));
+        Assert.assertEquals("Unexpected status", Status.RUNNING, second.getTaskStatus(0));
+
+        // The second instance releases the semaphore when it's cancelled
+        second.reset();
+        Assert.assertTrue("Semaphore not released", NonBlockingSemaphoreRepository.getSemaphore("flyweightTest").acquire());
+        NonBlockingSemaphoreRepository.removeSemaphore("flyweightTest");
+    }
+
+    private static String[] run(FlyweightArchetype<Agent> archetype, boolean flyweight) {
+        MathUtils.random.setSeed(42);
+        final BehaviorTree<Agent> archetypeTree = new BehaviorTree<>(archetype.getTask(0));
+        @SuppressWarnings("unchecked")
+        final BehaviorTree<Agent>[] trees = new BehaviorTree[AGENTS];
+        for (int i = 0; i < AGENTS; i++) {
+            final Agent agent = new Agent(i * 23);
+            if (flyweight) {
+                trees[i] = archetype.createBehaviorTree(agent);
+            } else {
+                @SuppressWarnings("unchecked")
+                final BehaviorTree<Agent> tree = (BehaviorTree<Agent>) archetypeTree.cloneTask();
+                tree.setObject(agent);
+                trees[i] = tree;
+            }
+            trees[i].addListener(new LogListener(agent.log));
+        }
+        for (int step = 0; step < STEPS; step++) {
+            for (final BehaviorTree<Agent> tree : trees) {
+                tree.getObject().log.append("#").append(step).append('\n');
+                tree.step();
+                if (step == STEPS / 2) {
+                    tree.reset();
+                }
+            }
+        }
+        final String[] logs = new String[AGENTS];
+        for (int i = 0; i < AGENTS; i++) {
+            logs[i] = trees[i].getObject().log.toString();
+        }
+        return logs;
+    }
+
+    private static Task<Agent> createBehavior() {
+        final Selector<Agent> root = new Selector<>();
+
+        final Sequence<Agent> rest = new Sequence<>();
+        rest.addChild(new Cond("tired", 20));
+        rest.addChild(new Act("sleep", 3, 45));
+        root.addChild(rest);
+
+        final Parallel<Agent> work = new Parallel<>();
+        work.addChild(new Act("work", 2, -5));
+        work.addChild(new AlwaysSucceed<>(new Invert<>(new Cond("tired2", 20))));
+        final Sequence<Agent> chores = new Sequence<>();
+        chores.addChild(new AlwaysSucceed<>(new Cond("tired3", 20)));
+        chores.addChild(new Act("chore", 1, -1));
+        work.addChild(new Invert<>(new Invert<>(new AlwaysSucceed<>(chores))));
+        final Sequence<Agent> guardedWork = new Sequence<>(new Cond("fit", 60), work);
+        root.addChild(guardedWork);
+
+        final Parallel<Agent> play = new Parallel<>(Parallel.Policy.Selector);
+        play.addChild(new Repeat<>(new ConstantIntegerDistribution(3), new Act("jump", 2, -2)));
+        play.addChild(new Invert<>(new Random<>(new ConstantFloatDistribution(0.5f), new Act("dice", 1, -1))));
+        play.addChild(new UntilSuccess<>(new CountingFailure("try", 3)));
+        final CustomSequence<Agent> custom = new CustomSequence<>();
+        custom.addChild(new Act("custom", 2, -1));
+        custom.addChild(new AlwaysFail<>(new Success<Agent>()));
+        final Sequence<Agent> guardedPlay = new Sequence<>(new Cond("bored", 80), play, new UntilFail<>(custom));
+        root.addChild(guardedPlay);
+
+        root.addChild(new Sequence<>(new Random<Agent>(new ConstantFloatDistribution(0.3f)), new Failure<Agent>()));
+        root.addChild(new Act("idle", 2, 7));
+        return root;
+    }
+
+    static class Agent {
+        int energy;
+        final StringBuilder log = new StringBuilder();
+
+        Agent(int energy) {
+            this.energy = energy;
+        }
+    }
+
+    static class LogListener implements BehaviorTree.Listener<Agent> {
+        final StringBuilder log;
+
+        LogListener(StringBuilder log) {
+            this.log = log;
+        }
+
+        @Override
+        public void statusUpdated(Task<Agent> task, Status previousStatus) {
+            final String name = task instanceof Named ? ((Named) task).getName() : task.getClass().getSimpleName();
+            log.append(name).append(' ').append(previousStatus).append("->").append(task.getStatus()).append('\n');
+        }
+
+        @Override
+        public void childAdded(Task<Agent> task, int index) {
+        }
+    }
+
+    interface Named {
+        String getName();
+    }
+
+    @StatelessTask
+    public static class Cond extends LeafTask<Agent> implements Named {
+        String name;
+        int threshold;
+
+        public Cond() {
+        }
+
+        Cond(String name, int threshold) {
+            this.name = name;
+            this.threshold = threshold;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public void run() {
+            if (getObject().energy < threshold) {
+                success();
+            } else {
+                fail();
+            }
+        }
+
+        @Override
+        protected Task<Agent> copyTo(Task<Agent> task) {
+            final Cond cond = (Cond) task;
+            cond.name = name;
+            cond.threshold = threshold;
+            return task;
+        }
+    }
+
+    public static class Act extends LeafTask<Agent> implements Named {
+        String name;
+        int steps;
+        int delta;
+        int count;
+
+        public Act() {
+        }
+
+        Act(String name, int steps, int delta) {
+            this.name = name;
+            this.steps = steps;
+            this.delta = delta;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public void start() {
+            count = 0;
+            getObject().log.append(name).append(" start\n");
+        }
+
+        @Override
+        public void run() {
+            if (++count < steps) {
+                running();
+            } else {
+                getObject().energy += delta;
+                success();
+            }
+        }
+
+        @Override
+        public void end() {
+            getObject().log.append(name).append(" end ").append(count).append('\n');
+        }
+
+        @Override
+        protected Task<Agent> copyTo(Task<Agent> task) {
+            final Act act = (Act) task;
+            act.name = name;
+            act.steps = steps;
+            act.delta = delta;
+            return task;
+        }
+    }
+
+    public static class CountingFailure extends LeafTask<Agent> implements Named {
+        String name;
+        int failures;
+        int count;
+
+        public CountingFailure() {
+        }
+
+        CountingFailure(String name, int failures) {
+            this.name = name;
+            this.failures = failures;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public void run() {
+            if (count++ % (failures + 1) < failures) {
+                fail();
+            } else {
+                success();
+            }
+        }
+
+        @Override
+        protected Task<Agent> copyTo(Task<Agent> task) {
+            final CountingFailure counting = (CountingFailure) task;
+            counting.name = name;
+            counting.failures = failures;
+            return task;
+        }
+    }
+
+    public static class CustomSequence<E> extends Sequence<E> {
+    }
+}
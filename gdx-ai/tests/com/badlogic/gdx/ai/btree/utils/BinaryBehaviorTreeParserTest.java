@@ -0,0 +1,152 @@
+package com.badlogic.gdx.ai.btree.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.badlogic.gdx.ai.btree.BehaviorTree;
+import com.badlogic.gdx.ai.btree.LeafTask;
+import com.badlogic.gdx.ai.btree.Task;
+import com.badlogic.gdx.ai.btree.annotation.TaskAttribute;
+import com.badlogic.gdx.ai.btree.branch.Parallel;
+import com.badlogic.gdx.ai.btree.branch.Selector;
+import com.badlogic.gdx.ai.btree.decorator.Include;
+import com.badlogic.gdx.ai.btree.decorator.Random;
+import com.badlogic.gdx.ai.btree.decorator.Repeat;
+import com.badlogic.gdx.ai.btree.decorator.SemaphoreGuard;
+import com.badlogic.gdx.ai.btree.leaf.Wait;
+import com.badlogic.gdx.ai.utils.random.ConstantFloatDistribution;
+import com.badlogic.gdx.ai.utils.random.GaussianFloatDistribution;
+import com.badlogic.gdx.ai.utils.random.LongDistribution;
+import com.badlogic.gdx.ai.utils.random.TriangularLongDistribution;
+import com.badlogic.gdx.ai.utils.random.UniformIntegerDistribution;
+import com.badlogic.gdx.ai.utils.random.UniformLongDistribution;
+import com.badlogic.gdx.utils.SerializationException;
+
+public class BinaryBehaviorTreeParserTest {
+
+    private static final String TREE = "import attrs:\"" + AttributeTask.class.getName() + "\"\n"
+        + "root\n"
+        + "  selector deterministic:false\n"
+        + "    parallel policy:\"selector\"\n"
+        + "      wait seconds:\"gaussian,1.5,0.25\"\n"
+        + "      repeat times:\"uniform,2,4\"\n"
+        + "        attrs count:7 big:12345678901 ratio:0.125 letter:\"x\" label:\"dog\" mode:\"fast\" range:\"triangular,1,9,3\"\n"
+        + "    semaphoreGuard name:\"door\"\n"
+        + "      random success:0.3\n"
+        + "    include subtree:\"other.tree\" lazy:true\n";
+
+    @Test
+    public void parse_WhenTreeIsCompiled_ExpectedSameStructureAndAttributes() {
+        final BehaviorTree<Object> tree = compileAndParse(TREE);
+
+        final Selector<Object> selector = (Selector<Object>)tree.getChild(0);
+        Assert.assertFalse("Unexpected deterministic", selector.deterministic);
+        Assert.assertEquals("Unexpected child count", 3, selector.getChildCount());
+
+        final Parallel<Object> parallel = (Parallel<Object>)selector.getChild(0);
+        Assert.assertEquals("Unexpected policy", Parallel.Policy.Selector, parallel.policy);
+
+        final GaussianFloatDistribution seconds = (GaussianFloatDistribution)((Wait<Object>)parallel.getChild(0)).seconds;
+        Assert.assertEquals("Unexpected mean", 1.5f, seconds.getMean(), 0f);
+        Assert.assertEquals("Unexpected standard deviation", 0.25f, seconds.getStandardDeviation(), 0f);
+
+        final Repeat<Object> repeat = (Repeat<Object>)parallel.getChild(1);
+        final UniformIntegerDistribution times = (UniformIntegerDistribution)repeat.times;
+        Assert.assertEquals("Unexpected low", 2, times.getLow());
+        Assert.assertEquals("Unexpected high", 4, times.getHigh());
+
+        final AttributeTask attrs = (AttributeTask)repeat.getChild(0);
+        Assert.assertEquals("Unexpected int", 7, attrs.count);
+        Assert.assertEquals("Unexpected long", 12345678901L, attrs.big);
+        Assert.assertEquals("Unexpected double", 0.125, attrs.ratio, 0);
+        Assert.assertEquals("Unexpected char", 'x', attrs.letter);
+        Assert.assertEquals("Unexpected string", "dog", attrs.label);
+        Assert.assertEquals("Unexpected enum", Mode.FAST, attrs.mode);
+        Assert.assertNull("Unexpected unspecified attribute", attrs.unset);
+        final TriangularLongDistribution range = (TriangularLongDistribution)attrs.range;
+        Assert.assertEquals("Unexpected low", 1, range.getLow());
+        Assert.assertEquals("Unexpected high", 9, range.getHigh());
+        Assert.assertEquals("Unexpected mode", 3, range.getMode(), 0);
+
+        final SemaphoreGuard<Object> guard = (SemaphoreGuard<Object>)selector.getChild(1);
+        Assert.assertEquals("Unexpected name", "door", guard.name);
+        final ConstantFloatDistribution success = (ConstantFloatDistribution)((Random<Object>)guard.getChild(0)).success;
+        Assert.assertEquals("Unexpected success", 0.3f, success.getValue(), 0f);
+
+        final Include<Object> include = (Include<Object>)selector.getChild(2);
+        Assert.assertEquals("Unexpected subtree", "other.tree", include.subtree);
+        Assert.assertTrue("Unexpected lazy", include.lazy);
+    }
+
+    @Test
+    public void parse_WhenParserIsReused_ExpectedIndependentTrees() {
+        final BinaryBehaviorTreeParser<Object> parser = new BinaryBehaviorTreeParser<>();
+        final byte[] bytes = compile(TREE);
+
+        final BehaviorTree<Object> first = parser.parse(new ByteArrayInputStream(bytes), null);
+        final BehaviorTree<Object> second = parser.parse(new ByteArrayInputStream(bytes), "blackboard");
+
+        Assert.assertNotSame("Shared root task", first.getChild(0), second.getChild(0));
+        Assert.assertEquals("Unexpected blackboard", "blackboard", second.getObject());
+        Assert.assertEquals("Unexpected child count", first.getChild(0).getChildCount(), second.getChild(0).getChildCount());
+    }
+
+    @Test(expected = SerializationException.class)
+    public void parse_WhenDataIsNotBinaryTree_ExpectedSerializationException() {
+        new BinaryBehaviorTreeParser<Object>().parse(new ByteArrayInputStream("root\n  wait".getBytes()), null);
+    }
+
+    @Test
+    public void write_WhenTreeIsProgrammatic_ExpectedDistributionsPreserved() {
+        final AttributeTask task = new AttributeTask();
+        task.range = new UniformLongDistribution(-5, 5);
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new BinaryBehaviorTreeCompiler().write(task, output);
+
+        final BehaviorTree<Object> tree = new BinaryBehaviorTreeParser<Object>().parse(
+            new ByteArrayInputStream(output.toByteArray()), null);
+
+        final UniformLongDistribution range = (UniformLongDistribution)((AttributeTask)tree.getChild(0)).range;
+        Assert.assertEquals("Unexpected low", -5, range.getLow());
+        Assert.assertEquals("Unexpected high", 5, range.getHigh());
+    }
+
+    private static byte[] compile(String text) {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new BinaryBehaviorTreeCompiler().compile(new StringReader(text), output);
+        return output.toByteArray();
+    }
+
+    private static BehaviorTree<Object> compileAndParse(String text) {
+        return new BinaryBehaviorTreeParser<Object>().parse(new ByteArrayInputStream(compile(text)), null);
+    }
+
+    public enum Mode {
+        SLOW, FAST
+    }
+
+    public static class AttributeTask extends LeafTask<Object> {
+        @TaskAttribute public int count;
+        @TaskAttribute public long big;
+        @TaskAttribute public double ratio;
+        @TaskAttribute public char letter;
+        @TaskAttribute public String label;
+        @TaskAttribute public Mode mode;
+        @TaskAttribute public String unset;
+        @TaskAttribute public LongDistribution range;
+
+        @Override
+        public void run() {
+            success();
+        }
+
+        @Override
+        protected Task<Object> copyTo(Task<Object> task) {
+            return task;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.badlogic.gdx.ai.msg;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.badlogic.gdx.utils.IntArray;
+
+public class ConcurrentMessageDispatcherTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int MESSAGES_PER_PRODUCER = 20000;
+
+    @Test
+    public void update_WhenWorkersPostMessages_ExpectedDeliveryOnOwnerThreadInPostingOrder() throws InterruptedException {
+        final ConcurrentMessageDispatcher dispatcher = new ConcurrentMessageDispatcher();
+        final Receiver[] receivers = new Receiver[PRODUCERS];
+        for (int i = 0; i < PRODUCERS; i++) {
+            receivers[i] = new Receiver();
+        }
+
+        final CountDownLatch done = new CountDownLatch(PRODUCERS);
+        for (int p = 0; p < PRODUCERS; p++) {
+            final Receiver receiver = receivers[p];
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < MESSAGES_PER_PRODUCER; i++) {
+                        // Odd messages are delayed by one frame
+                        dispatcher.dispatchMessage(i % 2 == 0 ? 0f : 0.01f, null, receiver, i);
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+
+        // Keep updating while the workers post their messages
+        while (done.getCount() > 0) {
+            dispatcher.update(0.02f);
+        }
+        dispatcher.update(0.02f);
+        dispatcher.update(0.02f);
+
+        for (final Receiver receiver : receivers) {
+            Assert.assertFalse("Message handled on a worker thread", receiver.wrongThread);
+            Assert.assertEquals("Unexpected message count", MESSAGES_PER_PRODUCER, receiver.evenMessages.size
+                    + receiver.oddMessages.size);
+            for (int i = 0; i < receiver.evenMessages.size; i++) {
+                Assert.assertEquals("Unexpected order", 2 * i, receiver.evenMessages.get(i));
+            }
+            for (int i = 0; i < receiver.oddMessages.size; i++) {
+                Assert.assertEquals("Unexpected order", 2 * i + 1, receiver.oddMessages.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void dispatchMessage_WhenCalledOnOwnerThread_ExpectedImmediateDelivery() {
+        final ConcurrentMessageDispatcher dispatcher = new ConcurrentMessageDispatcher();
+        final Receiver receiver = new Receiver();
+
+        dispatcher.dispatchMessage(null, receiver, 2);
+
+        Assert.assertEquals("Message not delivered", 1, receiver.evenMessages.size);
+    }
+
+    private static class Receiver implements Telegraph {
+
+        final Thread owner = Thread.currentThread();
+        final IntArray evenMessages = new IntArray();
+        final IntArray oddMessages = new IntArray();
+        boolean wrongThread;
+
+        @Override
+        public boolean handleMessage(final Telegram msg) {
+            wrongThread |= Thread.currentThread() != owner;
+            (msg.message % 2 == 0 ? evenMessages : oddMessages).add(msg.message);
+            return true;
+        }
+    }
+
+}
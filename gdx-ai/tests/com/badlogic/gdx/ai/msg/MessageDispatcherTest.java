@@ -0,0 +1,311 @@
+package com.badlogic.gdx.ai.msg;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
+
+public class MessageDispatcherTest {
+
+    @Test
+    public void update_WhenTelegramsHaveSameTimestamp_ExpectedDispatchOrder() {
+        final MessageDispatcher dispatcher = new MessageDispatcher();
+        final Recorder recorder = new Recorder();
+
+        for (int i = 0; i < 100; i++) {
+            dispatcher.dispatchMessage(i % 2 == 0 ? 1f : 2f, null, recorder, i);
+        }
+        dispatcher.update(3f);
+
+        Assert.assertEquals("Unexpected message count", 100, recorder.messages.size);
+        for (int i = 0; i < 50; i++) {
+            Assert.assertEquals("Unexpected order", 2 * i, recorder.messages.get(i));
+            Assert.assertEquals("Unexpected order", 2 * i + 1, recorder.messages.get(50 + i));
+        }
+    }
+
+    @Test
+    public void dispatchMessage_WhenDelayed_ExpectedNoEqualsCalls() {
+        final MessageDispatcher dispatcher = new MessageDispatcher();
+        final Recorder[] recorders = new Recorder[50];
+        for (int i = 0; i < recorders.length; i++) {
+            recorders[i] = new Recorder() {
+                @Override
+                public boolean equals(final Object obj) {
+                    throw new AssertionError("equals called");
+                }
+
+                @Override
+                public int hashCode() {
+                    throw new AssertionError("hashCode called");
+                }
+            };
+        }
+
+        for (int i = 0; i < 500; i++) {
+            dispatcher.dispatchMessage(1f + (i % 7), recorders[(i * 13) % recorders.length], recorders[i % recorders.length], i);
+        }
+        dispatcher.update(10f);
+
+        int handled = 0;
+        for (final Recorder recorder : recorders) {
+            handled += recorder.messages.size;
+        }
+        Assert.assertEquals("Unexpected message count", 500, handled);
+    }
+
+    @Test
+    public void endBatch_WhenBroadcastsCollected_ExpectedOneCallPerMessageCode() {
+        final MessageDispatcher dispatcher = new MessageDispatcher();
+        final BatchRecorder batchRecorder = new BatchRecorder();
+        final Recorder recorder = new Recorder();
+        dispatcher.addListener(batchRecorder, 1);
+        dispatcher.addListener(batchRecorder, 2);
+        dispatcher.addListener(recorder, 2);
+
+        dispatcher.beginBatch();
+        for (int i = 0; i < 1000; i++) {
+            dispatcher.dispatchMessage(i % 3 == 0 ? 1 : 2, Integer.valueOf(i));
+        }
+        Assert.assertEquals("Telegrams dispatched before the end of the batch", 0, recorder.messages.size);
+        dispatcher.endBatch();
+
+        Assert.assertEquals("Unexpected batch count", 2, batchRecorder.batchSizes.size);
+        Assert.assertEquals("Unexpected batch size", 334, batchRecorder.batchSizes.get(0));
+        Assert.assertEquals("Unexpected batch size", 666, batchRecorder.batchSizes.get(1));
+        Assert.assertEquals("Unexpected message count", 666, recorder.messages.size);
+        int previous = -1;
+        for (int i = 0; i < batchRecorder.extraInfos.size; i++) {
+            final int extraInfo = batchRecorder.extraInfos.get(i);
+            if (i != 334) {
+                Assert.assertTrue("Dispatch order not kept within the batch", extraInfo > previous);
+            }
+            previous = extraInfo;
+        }
+    }
+
+    @Test
+    public void endBatch_WhenListenerThrowsOnce_ExpectedNoTelegramDispatchedAgain() {
+        final MessageDispatcher dispatcher = new MessageDispatcher();
+        final Recorder recorder = new Recorder() {
+            boolean thrown;
+
+            @Override
+            public boolean handleMessage(final Telegram msg) {
+                if (!thrown) {
+                    thrown = true;
+                    throw new IllegalStateException("Listener failure");
+                }
+                return super.handleMessage(msg);
+            }
+        };
+        dispatcher.addListener(recorder, 1);
+
+        dispatcher.beginBatch();
+        dispatcher.dispatchMessage(1);
+        dispatcher.dispatchMessage(1);
+        try {
+            dispatcher.endBatch();
+            Assert.fail("Listener failure expected");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+        recorder.messages.clear();
+
+        // Only the telegrams of the new batch are dispatched
+        dispatcher.beginBatch();
+        dispatcher.dispatchMessage(2);
+        dispatcher.dispatchMessage(1);
+        dispatcher.endBatch();
+        Assert.assertEquals("Stale telegrams dispatched again", 1, recorder.messages.size);
+    }
+
+    @Test
+    public void dispatchMessage_WhenListenersChangeDuringDispatch_ExpectedDispatchUnaffected() {
+        final MessageDispatcher dispatcher = new MessageDispatcher();
+        final Recorder added = new Recorder();
+        final Recorder[] recorders = new Recorder[5];
+        for (int i = 0; i < recorders.length; i++) {
+            final boolean first = i == 0;
+            recorders[i] = new Recorder() {
+                @Override
+                public boolean handleMessage(final Telegram msg) {
+                    if (first) {
+                        // Remove all the other listeners and add a new one
+                        for (int j = 1; j < recorders.length; j++) {
+                            dispatcher.removeListener(recorders[j], 1);
+                        }
+                        dispatcher.addListener(added, 1);
+                    }
+                    return super.handleMessage(msg);
+                }
+            };
+            dispatcher.addListener(recorders[i], 1);
+        }
+
+        dispatcher.dispatchMessage(1);
+
+        for (final Recorder recorder : recorders) {
+            Assert.assertEquals("Listener skipped", 1, recorder.messages.size);
+        }
+        Assert.assertEquals("Listener added during dispatch was called", 0, added.messages.size);
+
+        dispatcher.dispatchMessage(1);
+        Assert.assertEquals("Listener not added", 1, added.messages.size);
+        Assert.assertEquals("Listener not removed", 1, recorders[1].messages.size);
+    }
+
+    @Test
+    public void update_WhenCoalescingPoliciesSet_ExpectedOneTelegramPerReceiverAndCode() {
+        final MessageDispatcher dispatcher = new MessageDispatcher();
+        dispatcher.setCoalescingPolicy(1, MessageDispatcher.CoalescingPolicy.KeepLatest);
+        dispatcher.setCoalescingPolicy(2, MessageDispatcher.CoalescingPolicy.KeepEarliest);
+        dispatcher.setCoalescingPolicy(3, MessageDispatcher.CoalescingPolicy.Merge, new MessageDispatcher.ExtraInfoMerger() {
+            @Override
+            public Object merge(final Telegram pending, final Object extraInfo) {
+                return (Integer)pending.extraInfo + (Integer)extraInfo;
+            }
+        });
+        dispatcher.setCoalescingPolicy(4, MessageDispatcher.CoalescingPolicy.DropNew);
+        final ExtraInfoRecorder first = new ExtraInfoRecorder();
+        final ExtraInfoRecorder second = new ExtraInfoRecorder();
+
+        for (int msg = 1; msg <= 5; msg++) {
+            for (final ExtraInfoRecorder receiver : new ExtraInfoRecorder[] {first, second}) {
+                dispatcher.dispatchMessage(2f, null, receiver, msg, 1);
+                dispatcher.dispatchMessage(3f, null, receiver, msg, 10);
+                dispatcher.dispatchMessage(1f, null, receiver, msg, 100);
+            }
+        }
+        final int[] pending = new int[1];
+        dispatcher.scanQueue(new MessageDispatcher.PendingMessageCallback() {
+            @Override
+            public void report(final float delay, final Telegraph sender, final Telegraph receiver, final int message,
+                    final Object extraInfo) {
+                pending[0]++;
+            }
+        });
+        Assert.assertEquals("Unexpected pending count", 2 * (4 + 3), pending[0]);
+        dispatcher.update(5f);
+
+        for (final ExtraInfoRecorder receiver : new ExtraInfoRecorder[] {first, second}) {
+            Assert.assertEquals("KeepLatest", "[100]", receiver.extraInfos.get(1).toString());
+            Assert.assertEquals("KeepEarliest", "[100]", receiver.extraInfos.get(2).toString());
+            Assert.assertEquals("Merge", "[111]", receiver.extraInfos.get(3).toString());
+            Assert.assertEquals("DropNew", "[1]", receiver.extraInfos.get(4).toString());
+            Assert.assertEquals("No policy", "[100, 1, 10]", receiver.extraInfos.get(5).toString());
+        }
+
+        // Telegrams dispatched after the pending ones have been delivered are not coalesced with them
+        dispatcher.dispatchMessage(1f, null, first, 4, 1000);
+        dispatcher.update(1f);
+        Assert.assertEquals("DropNew after delivery", "[1, 1000]", first.extraInfos.get(4).toString());
+    }
+
+    @Test
+    public void setCoalescingPolicy_WhenTelegramsPendingOrPolicyChanged_ExpectedOneTelegramPerReceiver() {
+        final MessageDispatcher dispatcher = new MessageDispatcher();
+        final ExtraInfoRecorder first = new ExtraInfoRecorder();
+        final ExtraInfoRecorder second = new ExtraInfoRecorder();
+        for (final ExtraInfoRecorder receiver : new ExtraInfoRecorder[] {first, second}) {
+            dispatcher.dispatchMessage(2f, null, receiver, 1, 1);
+            dispatcher.dispatchMessage(3f, null, receiver, 1, 10);
+        }
+
+        // The telegrams already pending are coalesced as soon as the policy is set
+        dispatcher.setCoalescingPolicy(1, MessageDispatcher.CoalescingPolicy.KeepLatest);
+        Assert.assertEquals("Pending telegrams not coalesced", 2, dispatcher.getQueue().size());
+
+        // Changing the policy keeps coalescing with the telegrams pending under the previous one
+        dispatcher.setCoalescingPolicy(1, MessageDispatcher.CoalescingPolicy.Merge, new MessageDispatcher.ExtraInfoMerger() {
+            @Override
+            public Object merge(final Telegram pending, final Object extraInfo) {
+                return (Integer)pending.extraInfo + (Integer)extraInfo;
+            }
+        });
+        dispatcher.dispatchMessage(1f, null, first, 1, 100);
+        dispatcher.dispatchMessage(1f, null, second, 1, 100);
+        Assert.assertEquals("Duplicate telegrams queued", 2, dispatcher.getQueue().size());
+
+        dispatcher.update(5f);
+        for (final ExtraInfoRecorder receiver : new ExtraInfoRecorder[] {first, second}) {
+            Assert.assertEquals("Unexpected delivery", "[110]", receiver.extraInfos.get(1).toString());
+        }
+    }
+
+    @Test
+    public void dispatchMessage_WhenCoalescedEveryFrame_ExpectedOneQueuedTelegramPerReceiver() {
+        for (final TelegramQueue queue : new TelegramQueue[] {new PriorityTelegramQueue(), new TimingWheelTelegramQueue(1f / 60f)}) {
+            final MessageDispatcher dispatcher = new MessageDispatcher(queue);
+            dispatcher.setCoalescingPolicy(1, MessageDispatcher.CoalescingPolicy.KeepLatest);
+            final ExtraInfoRecorder[] receivers = new ExtraInfoRecorder[10];
+            for (int i = 0; i < receivers.length; i++) {
+                receivers[i] = new ExtraInfoRecorder();
+            }
+
+            // A re-evaluate message sent on every frame keeps replacing the pending one
+            for (int frame = 0; frame < 600; frame++) {
+                for (final ExtraInfoRecorder receiver : receivers) {
+                    dispatcher.dispatchMessage(1f, null, receiver, 1, frame);
+                }
+                dispatcher.update(1f / 60f);
+                Assert.assertEquals("Replaced telegrams left in the queue", receivers.length, queue.size());
+            }
+
+            dispatcher.update(1f);
+            for (final ExtraInfoRecorder receiver : receivers) {
+                Assert.assertEquals("Unexpected delivery", "[599]", receiver.extraInfos.get(1).toString());
+            }
+            Assert.assertEquals("Unexpected size", 0, queue.size());
+        }
+    }
+
+    private static class ExtraInfoRecorder implements Telegraph {
+
+        final IntMap<Array<Object>> extraInfos = new IntMap<>();
+
+        @Override
+        public boolean handleMessage(final Telegram msg) {
+            if (!extraInfos.containsKey(msg.message)) {
+                extraInfos.put(msg.message, new Array<>());
+            }
+            extraInfos.get(msg.message).add(msg.extraInfo);
+            return true;
+        }
+    }
+
+    private static class BatchRecorder implements BatchTelegraph {
+
+        final IntArray batchSizes = new IntArray();
+        final IntArray extraInfos = new IntArray();
+
+        @Override
+        public boolean handleMessage(final Telegram msg) {
+            throw new AssertionError("Telegram not batched");
+        }
+
+        @Override
+        public boolean handleMessages(final TelegramBatch batch) {
+            batchSizes.add(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                Assert.assertEquals("Unexpected message", batch.getMessage(), batch.get(i).message);
+                extraInfos.add((Integer)batch.get(i).extraInfo);
+            }
+            return true;
+        }
+    }
+
+    private static class Recorder implements Telegraph {
+
+        final IntArray messages = new IntArray();
+
+        @Override
+        public boolean handleMessage(final Telegram msg) {
+            messages.add(msg.message);
+            return true;
+        }
+    }
+
+}
@@ -0,0 +1,120 @@
+package com.badlogic.gdx.ai.msg;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MessageMetricsTest {
+
+    @Test
+    public void update_WhenMetricsSinkSet_ExpectedCountsPerMessageCode() {
+        final MessageDispatcher dispatcher = new MessageDispatcher();
+        final MessageMetrics metrics = new MessageMetrics();
+        dispatcher.setMetricsSink(metrics);
+        dispatcher.setCoalescingPolicy(2, MessageDispatcher.CoalescingPolicy.DropNew);
+        final Telegraph handler = new Telegraph() {
+            @Override
+            public boolean handleMessage(final Telegram msg) {
+                return msg.message != 3;
+            }
+        };
+        dispatcher.addListener(handler, 1);
+
+        dispatcher.dispatchMessage(1);
+        dispatcher.dispatchMessage(3);
+        for (int i = 0; i < 10; i++) {
+            dispatcher.dispatchMessage(0.5f, null, handler, 1);
+            dispatcher.dispatchMessage(0.5f + i, null, handler, 2);
+            dispatcher.dispatchMessage(0.5f, null, handler, 3);
+        }
+        dispatcher.update(0.25f);
+        dispatcher.update(0.5f);
+
+        final MessageMetrics.Metrics first = metrics.getMetrics(1);
+        Assert.assertEquals("Unexpected dispatch count", 11, first.dispatchCount);
+        Assert.assertEquals("Unexpected delayed count", 10, first.delayedCount);
+        Assert.assertEquals("Unexpected delivered count", 10, first.deliveredCount);
+        Assert.assertEquals("Unexpected pending count", 0, first.pendingCount);
+        Assert.assertEquals("Unexpected handled count", 11, first.handledCount);
+        Assert.assertEquals("Unexpected lag count", 10, first.lagHistogram.count);
+        Assert.assertTrue("Unexpected lag", first.lagHistogram.getPercentile(1f) >= 250000);
+
+        final MessageMetrics.Metrics second = metrics.getMetrics(2);
+        Assert.assertEquals("Unexpected discarded count", 9, second.discardedCount);
+        Assert.assertEquals("Unexpected delivered count", 1, second.deliveredCount);
+        Assert.assertEquals("Unexpected pending count", 0, second.pendingCount);
+
+        final MessageMetrics.Metrics third = metrics.getMetrics(3);
+        Assert.assertEquals("Unexpected unhandled count", 11, third.unhandledCount);
+        Assert.assertEquals("Unexpected handled count", 0, third.handledCount);
+        Assert.assertEquals("Unexpected queue size", 0, metrics.queueSize);
+        Assert.assertEquals("Unexpected queue peak", 21, metrics.queuePeak);
+
+        metrics.reset();
+        Assert.assertEquals("Metrics not reset", 0, metrics.getMetrics(1).dispatchCount);
+    }
+
+    @Test
+    public void read_WhenSnapshotRestored_ExpectedRestoredNotCountedAsDispatched() throws IOException {
+        final MessageDispatcher original = new MessageDispatcher();
+        for (int i = 0; i < 10; i++) {
+            original.dispatchMessage(1f + i, 1);
+        }
+        original.update(0.5f);
+        final MessageQueueSerializer serializer = new MessageQueueSerializer(new NullIdMapper<Telegraph>(),
+                new NullIdMapper<Object>());
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        serializer.write(original, new DataOutputStream(bytes));
+
+        final MessageDispatcher restored = new MessageDispatcher();
+        final MessageMetrics metrics = new MessageMetrics();
+        restored.setMetricsSink(metrics);
+        serializer.read(restored, new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        final MessageMetrics.Metrics first = metrics.getMetrics(1);
+        Assert.assertEquals("Restored telegrams counted as dispatched", 0, first.dispatchCount);
+        Assert.assertEquals("Unexpected restored count", 10, first.restoredCount);
+        Assert.assertEquals("Unexpected pending count", 10, first.pendingCount);
+        Assert.assertEquals("Unexpected lag count", 0, first.lagHistogram.count);
+
+        restored.update(20f);
+        Assert.assertEquals("Unexpected delivered count", 10, first.deliveredCount);
+        Assert.assertEquals("Unexpected pending count", 0, first.pendingCount);
+    }
+
+    @Test
+    public void getPercentile_WhenValuesAdded_ExpectedBucketUpperBound() {
+        final MessageMetrics.Histogram histogram = new MessageMetrics.Histogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.add(100);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.add(5000);
+        }
+
+        Assert.assertEquals(128, histogram.getPercentile(0.5f));
+        Assert.assertEquals(128, histogram.getPercentile(0.9f));
+        Assert.assertEquals(8192, histogram.getPercentile(0.99f));
+        Assert.assertEquals(5000, histogram.max);
+    }
+
+    /** Maps no object at all, since the telegrams of the test have neither sender, receiver nor extra info. */
+    private static class NullIdMapper<T> implements MessageQueueSerializer.IdMapper<T> {
+
+        @Override
+        public int getId(final T object) {
+            throw new AssertionError("Unexpected object");
+        }
+
+        @Override
+        public T getObject(final int id) {
+            throw new AssertionError("Unexpected id");
+        }
+    }
+
+}
@@ -0,0 +1,173 @@
+package com.badlogic.gdx.ai.msg;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.badlogic.gdx.utils.Array;
+
+public class MessageQueueSerializerTest {
+
+    @Test
+    public void read_WhenSnapshotRestored_ExpectedSameDeliveryAsOriginal() throws IOException {
+        final Random random = new Random(42);
+        final StringBuilder originalLog = new StringBuilder();
+        final StringBuilder restoredLog = new StringBuilder();
+        final Array<Telegraph> originalAgents = createAgents(originalLog);
+        final Array<Telegraph> restoredAgents = createAgents(restoredLog);
+        final Array<Object> extraInfos = new Array<>();
+        for (int i = 0; i < 10; i++) {
+            extraInfos.add("info" + i);
+        }
+
+        final MessageDispatcher original = new MessageDispatcher();
+        for (int i = 0; i < 20000; i++) {
+            final float delay = (1 + random.nextInt(100)) / 10f; // many telegrams share the same time stamp
+            final Telegraph sender = random.nextBoolean() ? null : originalAgents.get(random.nextInt(originalAgents.size));
+            final Telegraph receiver = originalAgents.get(random.nextInt(originalAgents.size));
+            final Object extraInfo = random.nextBoolean() ? null : extraInfos.get(random.nextInt(extraInfos.size));
+            original.dispatchMessage(delay, sender, receiver, random.nextInt(50), extraInfo);
+        }
+        original.update(0.35f);
+        originalLog.setLength(0);
+
+        // Save the original queue and restore it in a new dispatcher with equivalent agents
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new MessageQueueSerializer(new ArrayIdMapper<>(originalAgents), new ArrayIdMapper<>(extraInfos)).write(original,
+                new DataOutputStream(bytes));
+        final MessageDispatcher restored = new MessageDispatcher();
+        final long start = System.nanoTime();
+        new MessageQueueSerializer(new ArrayIdMapper<>(restoredAgents), new ArrayIdMapper<>(extraInfos)).read(restored,
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        final long restoreTime = System.nanoTime() - start;
+
+        Assert.assertEquals("Unexpected current time", original.getCurrentTime(), restored.getCurrentTime(), 0f);
+        Assert.assertTrue("Snapshot too large: " + bytes.size(), bytes.size() < 20000 * 16);
+        Assert.assertTrue("Restore too slow: " + restoreTime, restoreTime < 1000000000L);
+        for (int frame = 0; frame < 700; frame++) {
+            original.update(1f / 60f);
+            restored.update(1f / 60f);
+        }
+        Assert.assertEquals("Unexpected delivery", originalLog.toString(), restoredLog.toString());
+        Assert.assertTrue("Nothing delivered", originalLog.length() > 0);
+    }
+
+    @Test
+    public void read_WhenTelegramsCoalesced_ExpectedSameHeapLayout() throws IOException {
+        final Random random = new Random(5);
+        final Array<Telegraph> agents = createAgents(new StringBuilder());
+        final MessageDispatcher original = new MessageDispatcher();
+        final MessageDispatcher restored = new MessageDispatcher();
+        for (final MessageDispatcher dispatcher : new MessageDispatcher[] {original, restored}) {
+            dispatcher.setCoalescingPolicy(0, MessageDispatcher.CoalescingPolicy.KeepLatest);
+        }
+
+        // The replaced telegrams leave holes in the middle of the heap
+        for (int i = 0; i < 5000; i++) {
+            original.dispatchMessage(1 + random.nextFloat() * 10, null, agents.get(random.nextInt(agents.size)),
+                    random.nextInt(3), null);
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final MessageQueueSerializer serializer = new MessageQueueSerializer(new ArrayIdMapper<>(agents),
+                new ArrayIdMapper<>(new Array<>()));
+        serializer.write(original, new DataOutputStream(bytes));
+        serializer.read(restored, new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        final TelegramQueue originalQueue = original.getQueue();
+        final TelegramQueue restoredQueue = restored.getQueue();
+        Assert.assertEquals("Unexpected size", originalQueue.size(), restoredQueue.size());
+        for (int i = 0; i < originalQueue.size(); i++) {
+            Assert.assertEquals("Telegram moved at " + i, originalQueue.get(i).sequence, restoredQueue.get(i).sequence);
+        }
+    }
+
+    @Test
+    public void read_WhenSnapshotTruncatedOrCorrupted_ExpectedIOException() throws IOException {
+        final Array<Telegraph> agents = createAgents(new StringBuilder());
+        final MessageDispatcher original = new MessageDispatcher();
+        for (int i = 0; i < 100; i++) {
+            original.dispatchMessage(1 + i, null, agents.get(i % agents.size), i, null);
+        }
+        final MessageQueueSerializer serializer = new MessageQueueSerializer(new ArrayIdMapper<>(agents),
+                new ArrayIdMapper<>(new Array<>()));
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        serializer.write(original, new DataOutputStream(bytes));
+        final byte[] snapshot = bytes.toByteArray();
+
+        // The stream ends before the telegrams
+        final byte[] truncated = new byte[snapshot.length - 10];
+        System.arraycopy(snapshot, 0, truncated, 0, truncated.length);
+        assertReadFails(serializer, truncated);
+
+        // The telegram count, following version, current time and next sequence, is larger than the encoded telegrams
+        final byte[] corrupted = snapshot.clone();
+        corrupted[19]++;
+        assertReadFails(serializer, corrupted);
+
+        // The length of the encoded telegrams is negative
+        corrupted[19]--;
+        corrupted[20] = (byte)0x80;
+        assertReadFails(serializer, corrupted);
+    }
+
+    private static void assertReadFails(final MessageQueueSerializer serializer, final byte[] snapshot) {
+        final StringBuilder log = new StringBuilder();
+        final Array<Telegraph> agents = createAgents(log);
+        final MessageDispatcher dispatcher = new MessageDispatcher();
+        dispatcher.dispatchMessage(1, null, agents.get(0), 7, null);
+        dispatcher.dispatchMessage(2, null, agents.get(1), 8, null);
+        try {
+            serializer.read(dispatcher, new DataInputStream(new ByteArrayInputStream(snapshot)));
+            Assert.fail("IOException expected");
+        } catch (IOException e) {
+            // Expected
+        }
+
+        // The telegrams pending before the failed read are still delivered
+        Assert.assertEquals("Unexpected current time", 0f, dispatcher.getCurrentTime(), 0f);
+        Assert.assertEquals("Unexpected queue size", 2, dispatcher.getQueue().size());
+        dispatcher.update(3);
+        Assert.assertEquals("Unexpected delivery", "0:7:null,1:8:null,", log.toString());
+    }
+
+    private static Array<Telegraph> createAgents(final StringBuilder log) {
+        final Array<Telegraph> agents = new Array<>();
+        for (int i = 0; i < 20; i++) {
+            final int id = i;
+            agents.add(new Telegraph() {
+                @Override
+                public boolean handleMessage(final Telegram msg) {
+                    log.append(id).append(':').append(msg.message).append(':').append(msg.extraInfo).append(',');
+                    return true;
+                }
+            });
+        }
+        return agents;
+    }
+
+    private static class ArrayIdMapper<T> implements MessageQueueSerializer.IdMapper<T> {
+
+        final Array<T> objects;
+
+        ArrayIdMapper(final Array<T> objects) {
+            this.objects = objects;
+        }
+
+        @Override
+        public int getId(final T object) {
+            return objects.indexOf(object, true);
+        }
+
+        @Override
+        public T getObject(final int id) {
+            return objects.get(id);
+        }
+    }
+
+}
@@ -0,0 +1,191 @@
+package com.badlogic.gdx.ai.msg;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TimingWheelTelegramQueueTest {
+
+    @Test
+    public void poll_WhenTimeAdvances_ExpectedSameOrderAsPriorityQueue() {
+        final Random random = new Random(42);
+        final TimingWheelTelegramQueue wheel = new TimingWheelTelegramQueue(0.01f);
+        final PriorityTelegramQueue heap = new PriorityTelegramQueue();
+        long sequence = 0;
+        float time = 0;
+
+        for (int frame = 0; frame < 2000; frame++) {
+            for (int i = random.nextInt(20); i > 0; i--) {
+                // Mostly short delays, some long ones and a few beyond the span of the wheel
+                final int kind = random.nextInt(100);
+                final float delay = kind < 80 ? random.nextFloat() : kind < 99 ? random.nextFloat() * 1000 : 5e7f;
+                final Telegram telegram = new Telegram();
+                telegram.message = i;
+                telegram.setTimestamp(time + delay);
+                telegram.sequence = sequence++;
+                Assert.assertTrue(wheel.add(telegram));
+                heap.add(telegram);
+            }
+
+            time += random.nextInt(10) == 0 ? random.nextFloat() * 50 : 1f / 60f;
+            Telegram expected;
+            while ((expected = heap.poll(time)) != null) {
+                Assert.assertSame("Unexpected telegram", expected, wheel.poll(time));
+            }
+            Assert.assertNull("Telegram polled too early", wheel.poll(time));
+            Assert.assertEquals("Unexpected size", heap.size(), wheel.size());
+        }
+
+        // Drain the far future telegrams too
+        time = 1e8f;
+        Telegram expected;
+        while ((expected = heap.poll(time)) != null) {
+            Assert.assertSame("Unexpected telegram", expected, wheel.poll(time));
+        }
+        Assert.assertEquals("Unexpected size", 0, wheel.size());
+    }
+
+    @Test
+    public void get_WhenIteratingByIndex_ExpectedEachTelegramOnce() {
+        final Random random = new Random(7);
+        final TimingWheelTelegramQueue wheel = new TimingWheelTelegramQueue(1f / 60f);
+        final IdentityHashMap<Telegram, Boolean> telegrams = new IdentityHashMap<>();
+
+        for (int i = 0; i < 5000; i++) {
+            final Telegram telegram = new Telegram();
+            telegram.setTimestamp(random.nextFloat() * (i % 3 == 0 ? 1e6f : 10f));
+            telegram.sequence = i;
+            wheel.add(telegram);
+            telegrams.put(telegram, Boolean.TRUE);
+        }
+        for (int i = 0; i < 100; i++) {
+            telegrams.remove(wheel.poll(5f));
+        }
+
+        Assert.assertEquals("Unexpected size", telegrams.size(), wheel.size());
+        for (int i = 0; i < wheel.size(); i++) {
+            Assert.assertNotNull("Telegram reported twice or unknown", telegrams.remove(wheel.get(i)));
+        }
+        Assert.assertTrue("Telegrams not reported", telegrams.isEmpty());
+        Assert.assertNull(wheel.get(wheel.size()));
+    }
+
+    @Test
+    public void add_WhenUniquenessEnabled_ExpectedDuplicatesRejected() {
+        final TimingWheelTelegramQueue wheel = new TimingWheelTelegramQueue(0.1f);
+        wheel.setUniqueness(true);
+
+        final Telegram telegram = new Telegram();
+        telegram.message = 1;
+        telegram.setTimestamp(3f);
+        final Telegram duplicate = new Telegram();
+        duplicate.message = 1;
+        duplicate.setTimestamp(3f);
+        duplicate.sequence = 1;
+
+        Assert.assertTrue(wheel.add(telegram));
+        Assert.assertFalse("Duplicate accepted", wheel.add(duplicate));
+        Assert.assertSame(telegram, wheel.poll(3f));
+        Assert.assertTrue("Telegram not accepted after poll", wheel.add(duplicate));
+    }
+
+    @Test
+    public void remove_WhenTelegramsRemovedAtRandom_ExpectedRemainingOnesPolledInOrder() {
+        final Random random = new Random(11);
+        final TimingWheelTelegramQueue wheel = new TimingWheelTelegramQueue(0.01f);
+        // The plain priority queue doesn't track the position of the telegrams, which are shared with the wheel
+        final PriorityQueue<Telegram> heap = new PriorityQueue<>();
+        final ArrayList<Telegram> remaining = new ArrayList<>();
+        float time = 0;
+
+        for (int i = 0; i < 5000; i++) {
+            final Telegram telegram = new Telegram();
+            telegram.setTimestamp(time + (i % 50 == 0 ? 5e7f : random.nextFloat() * 100));
+            telegram.sequence = i;
+            wheel.add(telegram);
+            heap.add(telegram);
+            remaining.add(telegram);
+
+            // Remove a random telegram now and then, wherever it is in the wheel
+            if (random.nextInt(3) == 0) {
+                final Telegram removed = remaining.remove(random.nextInt(remaining.size()));
+                Assert.assertTrue("Telegram not removed from the wheel", wheel.remove(removed));
+                Assert.assertTrue("Telegram not removed from the heap", heap.remove(removed));
+                Assert.assertFalse("Telegram removed twice from the wheel", wheel.remove(removed));
+                Assert.assertFalse("Telegram removed twice from the heap", heap.remove(removed));
+            }
+            if (i % 100 == 0) {
+                time += 1f;
+                Telegram expected;
+                while ((expected = heap.peek()) != null && expected.getTimestamp() <= time) {
+                    heap.poll();
+                    Assert.assertSame("Unexpected telegram", expected, wheel.poll(time));
+                    removeIdentity(remaining, expected);
+                }
+            }
+            Assert.assertEquals("Unexpected size", remaining.size(), wheel.size());
+            Assert.assertEquals("Unexpected size", remaining.size(), heap.size());
+        }
+
+        Collections.sort(remaining);
+        for (final Telegram expected : remaining) {
+            Assert.assertSame("Unexpected telegram", expected, heap.poll());
+            Assert.assertSame("Unexpected telegram", expected, wheel.poll(1e8f));
+        }
+        Assert.assertEquals("Unexpected size", 0, wheel.size());
+    }
+
+    @Test
+    public void update_WhenUsingTimingWheel_ExpectedSameDeliveryAsDefaultDispatcher() {
+        final Random random = new Random(3);
+        final MessageDispatcher heapDispatcher = new MessageDispatcher();
+        final MessageDispatcher wheelDispatcher = new MessageDispatcher(new TimingWheelTelegramQueue(1f / 60f));
+        final StringBuilder heapLog = new StringBuilder();
+        final StringBuilder wheelLog = new StringBuilder();
+        final Telegraph heapReceiver = new Logger(heapLog);
+        final Telegraph wheelReceiver = new Logger(wheelLog);
+
+        for (int frame = 0; frame < 600; frame++) {
+            for (int i = 0; i < 5; i++) {
+                final float delay = random.nextFloat() * 3;
+                final int msg = random.nextInt(1000);
+                heapDispatcher.dispatchMessage(delay, null, heapReceiver, msg);
+                wheelDispatcher.dispatchMessage(delay, null, wheelReceiver, msg);
+            }
+            heapDispatcher.update(1f / 60f);
+            wheelDispatcher.update(1f / 60f);
+        }
+
+        Assert.assertEquals("Unexpected delivery", heapLog.toString(), wheelLog.toString());
+    }
+
+    private static void removeIdentity(final ArrayList<Telegram> telegrams, final Telegram telegram) {
+        for (int i = 0; i < telegrams.size(); i++) {
+            if (telegrams.get(i) == telegram) {
+                telegrams.remove(i);
+                return;
+            }
+        }
+        Assert.fail("Telegram not found");
+    }
+
+    private static class Logger implements Telegraph {
+
+        final StringBuilder log;
+
+        Logger(final StringBuilder log) {
+            this.log = log;
+        }
+
+        @Override
+        public boolean handleMessage(final Telegram msg) {
+            log.append(msg.message).append(',');
+            return true;
+        }
+    }
+
+}
@@ -0,0 +1,142 @@
+package com.badlogic.gdx.ai.pfa;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.badlogic.gdx.ai.msg.MessageDispatcher;
+import com.badlogic.gdx.ai.msg.Telegram;
+import com.badlogic.gdx.ai.msg.Telegraph;
+import com.badlogic.gdx.ai.pfa.ConcurrentPathFinderQueue.PathFinderFactory;
+import com.badlogic.gdx.ai.pfa.indexed.DefaultIndexedGraph;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedAStarPathFinder;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedNode;
+import com.badlogic.gdx.utils.Array;
+
+public class ConcurrentPathFinderQueueTest {
+
+    private static final int SIZE = 60;
+    private static final int RESPONSE_CODE = 42;
+
+    @Test
+    public void run_WhenManyRequestsSubmitted_ExpectedSameResultsAsSingleThreadedFinder() throws InterruptedException {
+        final Grid graph = createRandomGrid(new Random(3));
+        final ConcurrentPathFinderQueue<Tile> queue = new ConcurrentPathFinderQueue<>(new PathFinderFactory<Tile>() {
+            @Override
+            public PathFinder<Tile> newPathFinder() {
+                return new IndexedAStarPathFinder<>(graph);
+            }
+        }, 4);
+        final MessageDispatcher dispatcher = new MessageDispatcher();
+        final Client client = new Client();
+
+        final Random random = new Random(11);
+        final Array<PathFinderRequest<Tile>> requests = new Array<>();
+        for (int i = 0; i < 200; i++) {
+            final PathFinderRequest<Tile> request = new PathFinderRequest<>(graph.getNodes().get(random.nextInt(SIZE * SIZE)),
+                    graph.getNodes().get(random.nextInt(SIZE * SIZE)), new Manhattan(), new DefaultGraphPath<Tile>(), dispatcher);
+            request.client = client;
+            request.responseMessageCode = RESPONSE_CODE;
+            requests.add(request);
+            queue.submit(request);
+        }
+
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (client.responses < requests.size && System.currentTimeMillis() < deadline) {
+            queue.run(Long.MAX_VALUE);
+            Thread.sleep(1);
+        }
+        queue.dispose();
+
+        Assert.assertEquals("Unexpected number of responses", requests.size, client.responses);
+        Assert.assertEquals("Unexpected pending requests", 0, queue.size());
+
+        final IndexedAStarPathFinder<Tile> reference = new IndexedAStarPathFinder<>(graph);
+        for (final PathFinderRequest<Tile> request : requests) {
+            final DefaultGraphPath<Tile> expectedPath = new DefaultGraphPath<>();
+            final boolean found = reference.searchNodePath(request.startNode, request.endNode, request.heuristic, expectedPath);
+            Assert.assertEquals("Unexpected search result", found, request.pathFound);
+            Assert.assertEquals("Unexpected request status", PathFinderRequest.SEARCH_FINALIZED, request.status);
+            if (found) {
+                Assert.assertEquals("Unexpected path", expectedPath.nodes, ((DefaultGraphPath<Tile>) request.resultPath).nodes);
+            }
+        }
+    }
+
+    private static class Client implements Telegraph {
+        int responses;
+
+        @Override
+        public boolean handleMessage(final Telegram msg) {
+            Assert.assertEquals("Unexpected message code", RESPONSE_CODE, msg.message);
+            responses++;
+            return true;
+        }
+    }
+
+    private static Grid createRandomGrid(final Random random) {
+        final Array<Tile> tiles = new Array<>(SIZE * SIZE);
+        for (int i = 0; i < SIZE * SIZE; i++) {
+            tiles.add(new Tile(i, i % SIZE, i / SIZE, random.nextFloat() < 0.25f));
+        }
+        for (final Tile tile : tiles) {
+            if (tile.wall) {
+                continue;
+            }
+            if (tile.x > 0) tile.connect(tiles.get(tile.index - 1));
+            if (tile.x < SIZE - 1) tile.connect(tiles.get(tile.index + 1));
+            if (tile.y > 0) tile.connect(tiles.get(tile.index - SIZE));
+            if (tile.y < SIZE - 1) tile.connect(tiles.get(tile.index + SIZE));
+        }
+        return new Grid(tiles);
+    }
+
+    private static class Grid extends DefaultIndexedGraph<Tile> {
+        Grid(final Array<Tile> tiles) {
+            super(tiles);
+        }
+
+        Array<Tile> getNodes() {
+            return nodes;
+        }
+    }
+
+    private static class Tile implements IndexedNode<Tile> {
+        final int index;
+        final int x;
+        final int y;
+        final boolean wall;
+        final Array<Connection<Tile>> connections = new Array<>(4);
+
+        Tile(final int index, final int x, final int y, final boolean wall) {
+            this.index = index;
+            this.x = x;
+            this.y = y;
+            this.wall = wall;
+        }
+
+        void connect(final Tile other) {
+            if (!other.wall) {
+                connections.add(new DefaultConnection<>(this, other));
+            }
+        }
+
+        @Override
+        public int getIndex() {
+            return index;
+        }
+
+        @Override
+        public Array<Connection<Tile>> getConnections() {
+            return connections;
+        }
+    }
+
+    private static class Manhattan implements Heuristic<Tile> {
+        @Override
+        public float estimate(final Tile node, final Tile endNode) {
+            return Math.abs(endNode.x - node.x) + Math.abs(endNode.y - node.y);
+        }
+    }
+}
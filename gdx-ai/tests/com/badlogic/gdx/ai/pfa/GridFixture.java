@@ -0,0 +1,195 @@
+package com.badlogic.gdx.ai.pfa;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.junit.Assert;
+
+import com.badlogic.gdx.ai.pfa.grid.GridNode;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedGraph;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedNode;
+import com.badlogic.gdx.utils.Array;
+
+/** Random grids with 8-way weighted connections and a plain Dijkstra search, shared by the path finder tests to check that the
+ * paths they find are optimal. It's public only because the path finder tests live in the sub-packages. */
+public final class GridFixture {
+
+    public static final int WIDTH = 40;
+    public static final int HEIGHT = 30;
+
+    private GridFixture() {
+    }
+
+    /** Creates the graph under test from the nodes of a random grid. */
+    public interface GraphFactory<G extends IndexedGraph<Tile>> {
+        G newGraph(Array<Tile> nodes);
+    }
+
+    /** Creates a {@link #WIDTH} by {@link #HEIGHT} grid whose nodes are blocked with the given probability. Blocked nodes have no
+     * outgoing connections; straight connections cost 1 and diagonal ones cost the square root of 2. Nodes are indexed row by
+     * row. */
+    public static <G extends IndexedGraph<Tile>> G createRandomGrid(final Random random, final float obstacleDensity,
+            final GraphFactory<G> factory) {
+        final Tile[][] nodes = new Tile[WIDTH][HEIGHT];
+        final boolean[][] blocked = new boolean[WIDTH][HEIGHT];
+        final Array<Tile> indexedNodes = new Array<>(WIDTH * HEIGHT);
+
+        int index = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++, index++) {
+                nodes[x][y] = new Tile(index, x, y);
+                blocked[x][y] = random.nextFloat() < obstacleDensity;
+                indexedNodes.add(nodes[x][y]);
+            }
+        }
+
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                if (blocked[x][y]) {
+                    continue;
+                }
+                for (int dy = -1; dy <= 1; dy++) {
+                    for (int dx = -1; dx <= 1; dx++) {
+                        final int nx = x + dx;
+                        final int ny = y + dy;
+                        if ((dx == 0 && dy == 0) || nx < 0 || ny < 0 || nx >= WIDTH || ny >= HEIGHT || blocked[nx][ny]) {
+                            continue;
+                        }
+                        nodes[x][y].connections.add(new WeightedConnection(nodes[x][y], nodes[nx][ny],
+                                dx != 0 && dy != 0 ? 1.4142135f : 1f));
+                    }
+                }
+            }
+        }
+
+        return factory.newGraph(indexedNodes);
+    }
+
+    /** Computes the cost of the shortest path with a plain Dijkstra search. */
+    public static <N extends IndexedNode<N>> float dijkstra(final IndexedGraph<N> graph, final N startNode, final N endNode) {
+        final float[] distance = new float[graph.getNodeCount()];
+        Arrays.fill(distance, Float.POSITIVE_INFINITY);
+        distance[startNode.getIndex()] = 0;
+        final PriorityQueue<N> queue = new PriorityQueue<>(16, new Comparator<N>() {
+            @Override
+            public int compare(final N a, final N b) {
+                return Float.compare(distance[a.getIndex()], distance[b.getIndex()]);
+            }
+        });
+        queue.add(startNode);
+        while (!queue.isEmpty()) {
+            final N node = queue.poll();
+            if (node == endNode) {
+                break;
+            }
+            final Array<Connection<N>> connections = graph.getConnections(node);
+            for (int i = 0; i < connections.size; i++) {
+                final N toNode = connections.get(i).getToNode();
+                final float cost = distance[node.getIndex()] + connections.get(i).getCost();
+                if (cost < distance[toNode.getIndex()]) {
+                    queue.remove(toNode);
+                    distance[toNode.getIndex()] = cost;
+                    queue.add(toNode);
+                }
+            }
+        }
+        return distance[endNode.getIndex()];
+    }
+
+    /** Returns the cost of the given node path, failing if two adjacent nodes of the path are not connected. */
+    public static <N extends IndexedNode<N>> float nodePathCost(final GraphPath<N> path) {
+        float cost = 0;
+        for (int i = 1; i < path.getCount(); i++) {
+            final Array<Connection<N>> connections = path.get(i - 1).getConnections();
+            float stepCost = Float.POSITIVE_INFINITY;
+            boolean connected = false;
+            for (int j = 0; j < connections.size; j++) {
+                if (connections.get(j).getToNode() == path.get(i)) {
+                    stepCost = Math.min(stepCost, connections.get(j).getCost());
+                    connected = true;
+                }
+            }
+            Assert.assertTrue("Adjacent path nodes are not connected", connected);
+            cost += stepCost;
+        }
+        return cost;
+    }
+
+    /** Returns the cost of the given connection path, failing unless it's a chain of graph connections from the start node to the
+     * end node. */
+    public static <N extends IndexedNode<N>> float connectionPathCost(final N startNode, final N endNode,
+            final GraphPath<Connection<N>> path) {
+        N current = startNode;
+        float cost = 0;
+        for (int i = 0; i < path.getCount(); i++) {
+            Assert.assertTrue("Not a graph connection", current.getConnections().contains(path.get(i), true));
+            cost += path.get(i).getCost();
+            current = path.get(i).getToNode();
+        }
+        Assert.assertSame("Path doesn't reach the end node", endNode, current);
+        return cost;
+    }
+
+    public static class Tile implements GridNode<Tile> {
+
+        public final int index;
+        public final int x;
+        public final int y;
+        private final Array<Connection<Tile>> connections;
+
+        public Tile(final int index, final int x, final int y) {
+            this.index = index;
+            this.x = x;
+            this.y = y;
+            this.connections = new Array<>(8);
+        }
+
+        @Override
+        public int getIndex() {
+            return index;
+        }
+
+        @Override
+        public int getX() {
+            return x;
+        }
+
+        @Override
+        public int getY() {
+            return y;
+        }
+
+        @Override
+        public Array<Connection<Tile>> getConnections() {
+            return connections;
+        }
+    }
+
+    /** A connection whose cost can be changed, like the one of a door being closed. */
+    public static class WeightedConnection extends DefaultConnection<Tile> {
+
+        public float cost;
+
+        public WeightedConnection(final Tile fromNode, final Tile toNode, final float cost) {
+            super(fromNode, toNode);
+            this.cost = cost;
+        }
+
+        @Override
+        public float getCost() {
+            return cost;
+        }
+    }
+
+    public static class OctileDistance<N extends GridNode<N>> implements Heuristic<N> {
+        @Override
+        public float estimate (final N node, final N endNode) {
+            final int dx = Math.abs(endNode.getX() - node.getX());
+            final int dy = Math.abs(endNode.getY() - node.getY());
+            return Math.max(dx, dy) + 0.41421356f * Math.min(dx, dy);
+        }
+    }
+
+}
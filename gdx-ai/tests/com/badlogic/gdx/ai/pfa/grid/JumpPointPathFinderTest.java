@@ -0,0 +1,223 @@
+package com.badlogic.gdx.ai.pfa.grid;
+
+import static com.badlogic.gdx.ai.pfa.GridFixture.connectionPathCost;
+import static com.badlogic.gdx.ai.pfa.GridFixture.dijkstra;
+import static com.badlogic.gdx.ai.pfa.GridFixture.nodePathCost;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.badlogic.gdx.ai.pfa.Connection;
+import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
+import com.badlogic.gdx.ai.pfa.GridFixture.OctileDistance;
+import com.badlogic.gdx.ai.pfa.PathFinderRequest;
+import com.badlogic.gdx.ai.pfa.indexed.FlatIndexedAStarPathFinder;
+import com.badlogic.gdx.utils.Array;
+
+public class JumpPointPathFinderTest {
+
+    private static final int WIDTH = 48;
+    private static final int HEIGHT = 32;
+
+    private static final OctileDistance<Cell> HEURISTIC = new OctileDistance<>();
+
+    @Test
+    public void searchNodePath_WhenComparedToDijkstra_ExpectedOptimalConnectedPath() {
+        final Random random = new Random(42);
+
+        // Enough searches to expose open list ordering bugs, which make a few paths slightly longer than optimal
+        for (int map = 0; map < 100; map++) {
+            final Grid graph = createRandomGrid(random, 0.05f + 0.004f * map);
+            final JumpPointPathFinder<Cell> pathfinder = new JumpPointPathFinder<>(graph);
+
+            for (int search = 0; search < 100; search++) {
+                final Cell startNode = randomWalkableCell(random, graph);
+                final Cell endNode = randomWalkableCell(random, graph);
+
+                final float expectedCost = dijkstra(graph, startNode, endNode);
+                final DefaultGraphPath<Cell> path = new DefaultGraphPath<>();
+                final boolean found = pathfinder.searchNodePath(startNode, endNode, HEURISTIC, path);
+
+                Assert.assertEquals("Unexpected search result", expectedCost != Float.POSITIVE_INFINITY, found);
+                if (found) {
+                    Assert.assertSame(startNode, path.get(0));
+                    Assert.assertSame(endNode, path.get(path.getCount() - 1));
+                    Assert.assertEquals("Unexpected path cost", expectedCost, nodePathCost(path), 1e-3f);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void searchConnectionPath_WhenPathFound_ExpectedChainOfGraphConnections() {
+        final Random random = new Random(3);
+        final Grid graph = createRandomGrid(random, 0.2f);
+        final JumpPointPathFinder<Cell> pathfinder = new JumpPointPathFinder<>(graph);
+
+        for (int search = 0; search < 100; search++) {
+            final Cell startNode = randomWalkableCell(random, graph);
+            final Cell endNode = randomWalkableCell(random, graph);
+
+            final DefaultGraphPath<Connection<Cell>> path = new DefaultGraphPath<>();
+            if (pathfinder.searchConnectionPath(startNode, endNode, HEURISTIC, path)) {
+                Assert.assertEquals("Unexpected path cost", dijkstra(graph, startNode, endNode),
+                        connectionPathCost(startNode, endNode, path), 1e-3f);
+            }
+        }
+    }
+
+    @Test
+    public void searchNodePath_WhenOpenMap_ExpectedFewerOpenListAdditionsThanAStar() {
+        final Grid graph = createRandomGrid(new Random(5), 0.05f);
+        final JumpPointPathFinder<Cell> jps = new JumpPointPathFinder<>(graph, true);
+        final FlatIndexedAStarPathFinder<Cell> astar = new FlatIndexedAStarPathFinder<>(graph, true);
+
+        final Cell startNode = firstWalkableCell(graph, 0);
+        final Cell endNode = firstWalkableCell(graph, graph.getNodeCount() - 1);
+        Assert.assertTrue(jps.searchNodePath(startNode, endNode, HEURISTIC, new DefaultGraphPath<Cell>()));
+        Assert.assertTrue(astar.searchNodePath(startNode, endNode, HEURISTIC, new DefaultGraphPath<Cell>()));
+
+        Assert.assertTrue(jps.metrics.openListAdditions * 2 < astar.metrics.openListAdditions);
+    }
+
+    @Test
+    public void searchWithRequest_WhenComparedToBlockingSearch_ExpectedSameNodePath() {
+        final Random random = new Random(7);
+        final Grid graph = createRandomGrid(random, 0.2f);
+        final JumpPointPathFinder<Cell> pathfinder = new JumpPointPathFinder<>(graph);
+
+        for (int search = 0; search < 100; search++) {
+            final Cell startNode = randomWalkableCell(random, graph);
+            final Cell endNode = randomWalkableCell(random, graph);
+
+            final DefaultGraphPath<Cell> expectedPath = new DefaultGraphPath<>();
+            final boolean expectedResult = pathfinder.searchNodePath(startNode, endNode, HEURISTIC, expectedPath);
+
+            final PathFinderRequest<Cell> request = new PathFinderRequest<>(startNode, endNode, HEURISTIC,
+                    new DefaultGraphPath<Cell>());
+            request.statusChanged = true;
+            // A tiny time slice forces the search to be resumed many times
+            while (!pathfinder.search(request, 20000)) {
+            }
+
+            Assert.assertEquals("Unexpected search result", expectedResult, request.pathFound);
+            if (expectedResult) {
+                Assert.assertEquals("Unexpected path", expectedPath.nodes, ((DefaultGraphPath<Cell>)request.resultPath).nodes);
+            }
+        }
+    }
+
+    @Test
+    public void setWalkable_WhenSingleCellChanges_ExpectedSameConnectionsAsFullRebuild() {
+        final Random random = new Random(11);
+        final boolean[][] walkable = randomWalkability(random, 0.3f);
+        final Grid graph = new Grid();
+        graph.setWalkable(walkable);
+
+        for (int i = 0; i < 200; i++) {
+            final int x = random.nextInt(WIDTH);
+            final int y = random.nextInt(HEIGHT);
+            walkable[x][y] = !walkable[x][y];
+            graph.setWalkable(x, y, walkable[x][y]);
+        }
+
+        final Grid expected = new Grid();
+        expected.setWalkable(walkable);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                Assert.assertEquals(walkable[x][y], graph.isWalkable(x, y));
+                final Array<Connection<Cell>> actualConnections = graph.getNode(x, y).getConnections();
+                final Array<Connection<Cell>> expectedConnections = expected.getNode(x, y).getConnections();
+                Assert.assertEquals("Unexpected connection count", expectedConnections.size, actualConnections.size);
+                for (int i = 0; i < expectedConnections.size; i++) {
+                    Assert.assertEquals(expectedConnections.get(i).getToNode().getIndex(),
+                            actualConnections.get(i).getToNode().getIndex());
+                }
+            }
+        }
+    }
+
+    private static Cell randomWalkableCell(final Random random, final Grid graph) {
+        while (true) {
+            final int x = random.nextInt(WIDTH);
+            final int y = random.nextInt(HEIGHT);
+            if (graph.isWalkable(x, y)) {
+                return graph.getNode(x, y);
+            }
+        }
+    }
+
+    private static Cell firstWalkableCell(final Grid graph, final int fromIndex) {
+        final int step = fromIndex == 0 ? 1 : -1;
+        for (int i = fromIndex;; i += step) {
+            if (graph.isWalkable(i % WIDTH, i / WIDTH)) {
+                return graph.getNode(i % WIDTH, i / WIDTH);
+            }
+        }
+    }
+
+    private static boolean[][] randomWalkability(final Random random, final float obstacleDensity) {
+        final boolean[][] walkable = new boolean[WIDTH][HEIGHT];
+        for (int x = 0; x < WIDTH; x++) {
+            for (int y = 0; y < HEIGHT; y++) {
+                walkable[x][y] = random.nextFloat() >= obstacleDensity;
+            }
+        }
+        return walkable;
+    }
+
+    private static Grid createRandomGrid(final Random random, final float obstacleDensity) {
+        final Grid graph = new Grid();
+        graph.setWalkable(randomWalkability(random, obstacleDensity));
+        return graph;
+    }
+
+    private static class Grid extends BitmapGridGraph<Cell> {
+
+        public Grid() {
+            super(WIDTH, HEIGHT);
+        }
+
+        @Override
+        protected Cell createNode(final int x, final int y, final int index) {
+            return new Cell(x, y, index);
+        }
+    }
+
+    private static class Cell implements GridNode<Cell> {
+
+        private final int x;
+        private final int y;
+        private final int index;
+        private final Array<Connection<Cell>> connections = new Array<>(8);
+
+        public Cell(final int x, final int y, final int index) {
+            this.x = x;
+            this.y = y;
+            this.index = index;
+        }
+
+        @Override
+        public int getX() {
+            return x;
+        }
+
+        @Override
+        public int getY() {
+            return y;
+        }
+
+        @Override
+        public int getIndex() {
+            return index;
+        }
+
+        @Override
+        public Array<Connection<Cell>> getConnections() {
+            return connections;
+        }
+    }
+
+}
@@ -0,0 +1,242 @@
+package com.badlogic.gdx.ai.pfa.hpa;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.badlogic.gdx.ai.pfa.Connection;
+import com.badlogic.gdx.ai.pfa.DefaultConnection;
+import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
+import com.badlogic.gdx.ai.pfa.Heuristic;
+import com.badlogic.gdx.ai.pfa.HierarchicalPathFinder;
+import com.badlogic.gdx.ai.pfa.indexed.DefaultIndexedGraph;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedAStarPathFinder;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedNode;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+
+public class HierarchicalClusterGraphTest {
+
+    private static final int SIZE = 32;
+    private static final int CLUSTER_SIZE = 8;
+
+    @Test
+    public void searchNodePath_WhenFollowingEachLeg_ExpectedToReachEveryReachableGoal() {
+        final Random random = new Random(42);
+
+        for (int map = 0; map < 5; map++) {
+            final Grid grid = new Grid(random, 0.3f);
+            final HierarchicalClusterGraph<Tile> graph = new HierarchicalClusterGraph<>(grid, grid.tiles, new BlockClustering());
+            final HierarchicalPathFinder<ClusterNode<Tile>> pathfinder = new HierarchicalPathFinder<>(graph,
+                    new IndexedAStarPathFinder<>(graph));
+            final ClusterHeuristic<Tile> heuristic = new ClusterHeuristic<>(new ManhattanDistance());
+
+            for (int search = 0; search < 50; search++) {
+                final Tile startTile = grid.tiles.get(random.nextInt(grid.tiles.size));
+                final Tile endTile = grid.tiles.get(random.nextInt(grid.tiles.size));
+                if (startTile == endTile) {
+                    continue;
+                }
+                final boolean reachable = grid.reachable(startTile, endTile);
+
+                ClusterNode<Tile> current = graph.getNode(startTile);
+                final ClusterNode<Tile> end = graph.getNode(endTile);
+                boolean found = true;
+                for (int leg = 0; current != end; leg++) {
+                    Assert.assertTrue("Too many legs", leg < SIZE * SIZE);
+                    final DefaultGraphPath<ClusterNode<Tile>> path = new DefaultGraphPath<>();
+                    found = pathfinder.searchNodePath(current, end, heuristic, path);
+                    if (!found) {
+                        break;
+                    }
+                    Assert.assertSame("Leg doesn't start from the current node", current, path.get(0));
+                    for (int i = 1; i < path.getCount(); i++) {
+                        Assert.assertEquals("Leg not at level 0", 0, path.get(i).getLevel());
+                        Assert.assertTrue("Broken leg", path.get(i - 1).getNode().isConnectedTo(path.get(i).getNode()));
+                    }
+                    current = path.get(path.getCount() - 1);
+                }
+
+                Assert.assertEquals("Unexpected search result", reachable, found);
+            }
+        }
+    }
+
+    @Test
+    public void updateCluster_WhenWallsChange_ExpectedSameHierarchyAsFreshBuild() {
+        final Random random = new Random(7);
+        final Grid grid = new Grid(random, 0.25f);
+        final BlockClustering clustering = new BlockClustering();
+        final HierarchicalClusterGraph<Tile> graph = new HierarchicalClusterGraph<>(grid, grid.tiles, clustering);
+
+        for (int change = 0; change < 100; change++) {
+            // Toggle a random tile between wall and floor, then update the clusters whose connections have changed
+            final Tile tile = grid.tiles.get(random.nextInt(grid.tiles.size));
+            final IntArray changedClusters = grid.toggle(tile, clustering);
+            for (int i = 0; i < changedClusters.size; i++) {
+                graph.updateCluster(changedClusters.get(i));
+            }
+
+            if (change % 10 == 9) {
+                assertSameHierarchy(new HierarchicalClusterGraph<>(grid, grid.tiles, clustering), graph, clustering, grid.tiles);
+            }
+        }
+    }
+
+    private static void assertSameHierarchy(final HierarchicalClusterGraph<Tile> expected,
+            final HierarchicalClusterGraph<Tile> actual, final BlockClustering clustering, final Array<Tile> tiles) {
+        for (int cluster = 0; cluster < clustering.getClusterCount(); cluster++) {
+            Assert.assertEquals("Unexpected entrance count", expected.getEntranceCount(cluster), actual.getEntranceCount(cluster));
+            for (int i = 0; i < expected.getEntranceCount(cluster); i++) {
+                final ClusterNode<Tile> expectedEntrance = expected.getEntrance(cluster, i);
+                final ClusterNode<Tile> actualEntrance = actual.getEntrance(cluster, i);
+                Assert.assertSame("Unexpected entrance", expectedEntrance.getNode(), actualEntrance.getNode());
+                final Array<Connection<ClusterNode<Tile>>> expectedConnections = expectedEntrance.getConnections();
+                final Array<Connection<ClusterNode<Tile>>> actualConnections = actualEntrance.getConnections();
+                Assert.assertEquals("Unexpected connection count", expectedConnections.size, actualConnections.size);
+                for (int j = 0; j < expectedConnections.size; j++) {
+                    Assert.assertSame(expectedConnections.get(j).getToNode().getNode(), actualConnections.get(j).getToNode().getNode());
+                    Assert.assertEquals(expectedConnections.get(j).getCost(), actualConnections.get(j).getCost(), 1e-4f);
+                }
+            }
+        }
+        for (int i = 0; i < SIZE * SIZE; i++) {
+            final Tile tile = tiles.get(i);
+            final ClusterNode<Tile> expectedNode = expected.getNode(tile);
+            final ClusterNode<Tile> actualNode = actual.getNode(tile);
+            Assert.assertSame("Unexpected upper node", expected.convertNodeBetweenLevels(0, expectedNode, 1).getNode(),
+                    actual.convertNodeBetweenLevels(0, actualNode, 1).getNode());
+        }
+    }
+
+    private static class Grid extends DefaultIndexedGraph<Tile> {
+
+        final Array<Tile> tiles;
+        final boolean[] walls;
+
+        public Grid(final Random random, final float wallDensity) {
+            super(SIZE * SIZE);
+            tiles = nodes;
+            walls = new boolean[SIZE * SIZE];
+            for (int y = 0; y < SIZE; y++) {
+                for (int x = 0; x < SIZE; x++) {
+                    nodes.add(new Tile(x, y));
+                    walls[y * SIZE + x] = random.nextFloat() < wallDensity;
+                }
+            }
+            for (int i = 0; i < tiles.size; i++) {
+                connect(tiles.get(i));
+            }
+        }
+
+        Tile getTile(final int x, final int y) {
+            return nodes.get(y * SIZE + x);
+        }
+
+        void connect(final Tile tile) {
+            tile.getConnections().clear();
+            if (walls[tile.getIndex()]) {
+                return;
+            }
+            final int[][] offsets = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+            for (final int[] offset : offsets) {
+                final int x = tile.x + offset[0];
+                final int y = tile.y + offset[1];
+                if (x >= 0 && y >= 0 && x < SIZE && y < SIZE && !walls[y * SIZE + x]) {
+                    tile.getConnections().add(new DefaultConnection<>(tile, getTile(x, y)));
+                }
+            }
+        }
+
+        /** Toggles the given tile and returns the clusters of the tiles whose connections have changed. */
+        IntArray toggle(final Tile tile, final BlockClustering clustering) {
+            walls[tile.getIndex()] = !walls[tile.getIndex()];
+            final IntArray clusters = new IntArray();
+            for (int y = Math.max(tile.y - 1, 0); y <= Math.min(tile.y + 1, SIZE - 1); y++) {
+                for (int x = Math.max(tile.x - 1, 0); x <= Math.min(tile.x + 1, SIZE - 1); x++) {
+                    final Tile neighbor = getTile(x, y);
+                    connect(neighbor);
+                    final int cluster = clustering.getCluster(neighbor);
+                    if (!clusters.contains(cluster)) {
+                        clusters.add(cluster);
+                    }
+                }
+            }
+            return clusters;
+        }
+
+        boolean reachable(final Tile startTile, final Tile endTile) {
+            final boolean[] visited = new boolean[SIZE * SIZE];
+            final Array<Tile> stack = new Array<>();
+            stack.add(startTile);
+            visited[startTile.getIndex()] = true;
+            while (stack.size > 0) {
+                final Tile tile = stack.pop();
+                if (tile == endTile) {
+                    return true;
+                }
+                for (int i = 0; i < tile.getConnections().size; i++) {
+                    final Tile next = tile.getConnections().get(i).getToNode();
+                    if (!visited[next.getIndex()]) {
+                        visited[next.getIndex()] = true;
+                        stack.add(next);
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    private static class Tile implements IndexedNode<Tile> {
+
+        final int x;
+        final int y;
+        private final Array<Connection<Tile>> connections = new Array<>(4);
+
+        public Tile(final int x, final int y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        boolean isConnectedTo(final Tile tile) {
+            for (int i = 0; i < connections.size; i++) {
+                if (connections.get(i).getToNode() == tile) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public int getIndex() {
+            return y * SIZE + x;
+        }
+
+        @Override
+        public Array<Connection<Tile>> getConnections() {
+            return connections;
+        }
+    }
+
+    private static class BlockClustering implements Clustering<Tile> {
+
+        @Override
+        public int getClusterCount() {
+            return (SIZE / CLUSTER_SIZE) * (SIZE / CLUSTER_SIZE);
+        }
+
+        @Override
+        public int getCluster(final Tile tile) {
+            return (tile.y / CLUSTER_SIZE) * (SIZE / CLUSTER_SIZE) + tile.x / CLUSTER_SIZE;
+        }
+    }
+
+    private static class ManhattanDistance implements Heuristic<Tile> {
+        @Override
+        public float estimate(final Tile node, final Tile endNode) {
+            return Math.abs(endNode.x - node.x) + Math.abs(endNode.y - node.y);
+        }
+    }
+
+}
@@ -0,0 +1,146 @@
+package com.badlogic.gdx.ai.pfa.indexed;
+
+import static com.badlogic.gdx.ai.pfa.GridFixture.connectionPathCost;
+import static com.badlogic.gdx.ai.pfa.GridFixture.createRandomGrid;
+import static com.badlogic.gdx.ai.pfa.GridFixture.dijkstra;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.badlogic.gdx.ai.pfa.Connection;
+import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
+import com.badlogic.gdx.ai.pfa.GridFixture.GraphFactory;
+import com.badlogic.gdx.ai.pfa.GridFixture.OctileDistance;
+import com.badlogic.gdx.ai.pfa.GridFixture.Tile;
+import com.badlogic.gdx.ai.pfa.PathFinderRequest;
+import com.badlogic.gdx.utils.Array;
+
+public class BidirectionalIndexedAStarPathFinderTest {
+
+    private static final OctileDistance<Tile> HEURISTIC = new OctileDistance<>();
+
+    private static final GraphFactory<DefaultReversibleIndexedGraph<Tile>> GRAPH_FACTORY =
+            new GraphFactory<DefaultReversibleIndexedGraph<Tile>>() {
+        @Override
+        public DefaultReversibleIndexedGraph<Tile> newGraph(final Array<Tile> nodes) {
+            return new DefaultReversibleIndexedGraph<>(nodes);
+        }
+    };
+
+    @Test
+    public void searchConnectionPath_WhenComparedToDijkstra_ExpectedOptimalCost() {
+        final Random random = new Random(42);
+
+        for (int map = 0; map < 20; map++) {
+            final DefaultReversibleIndexedGraph<Tile> graph = createRandomGrid(random, 0.3f, GRAPH_FACTORY);
+
+            final BidirectionalIndexedAStarPathFinder<Tile> pathfinder = new BidirectionalIndexedAStarPathFinder<>(graph, true);
+
+            for (int search = 0; search < 50; search++) {
+                final Tile startNode = graph.nodes.get(random.nextInt(graph.nodes.size));
+                final Tile endNode = graph.nodes.get(random.nextInt(graph.nodes.size));
+
+                final float expectedCost = dijkstra(graph, startNode, endNode);
+                final DefaultGraphPath<Connection<Tile>> actualPath = new DefaultGraphPath<>();
+                final boolean actualResult = pathfinder.searchConnectionPath(startNode, endNode, HEURISTIC, actualPath);
+
+                Assert.assertEquals("Unexpected search result", expectedCost != Float.POSITIVE_INFINITY, actualResult);
+                if (actualResult) {
+                    Assert.assertEquals("Unexpected path cost", expectedCost, connectionPathCost(startNode, endNode, actualPath),
+                            1e-3f);
+                }
+                Assert.assertTrue("Expected metrics", pathfinder.metrics.openListAdditions > 0);
+            }
+        }
+    }
+
+    @Test
+    public void searchNodePath_WhenStartEqualsEnd_ExpectedSingleNodePath() {
+        final DefaultReversibleIndexedGraph<Tile> graph = createRandomGrid(new Random(1), 0f, GRAPH_FACTORY);
+        final BidirectionalIndexedAStarPathFinder<Tile> pathfinder = new BidirectionalIndexedAStarPathFinder<>(graph);
+        final Tile node = graph.nodes.get(100);
+
+        final DefaultGraphPath<Tile> path = new DefaultGraphPath<>();
+        Assert.assertTrue(pathfinder.searchNodePath(node, node, HEURISTIC, path));
+        Assert.assertEquals(1, path.getCount());
+        Assert.assertSame(node, path.get(0));
+    }
+
+    @Test
+    public void searchWithRequest_WhenComparedToBlockingSearch_ExpectedSameNodePath() {
+        final Random random = new Random(7);
+        final DefaultReversibleIndexedGraph<Tile> graph = createRandomGrid(random, 0.2f, GRAPH_FACTORY);
+
+        final BidirectionalIndexedAStarPathFinder<Tile> pathfinder = new BidirectionalIndexedAStarPathFinder<>(graph);
+
+        for (int search = 0; search < 100; search++) {
+            final Tile startNode = graph.nodes.get(random.nextInt(graph.nodes.size));
+            final Tile endNode = graph.nodes.get(random.nextInt(graph.nodes.size));
+
+            final DefaultGraphPath<Tile> expectedPath = new DefaultGraphPath<>();
+            final boolean expectedResult = pathfinder.searchNodePath(startNode, endNode, HEURISTIC, expectedPath);
+
+            final PathFinderRequest<Tile> request = new PathFinderRequest<>(startNode, endNode, HEURISTIC,
+                    new DefaultGraphPath<Tile>());
+            request.statusChanged = true;
+            // A tiny time slice forces the search to be resumed many times
+            while (!pathfinder.search(request, 20000)) {
+            }
+
+            Assert.assertEquals("Unexpected search result", expectedResult, request.pathFound);
+            if (expectedResult) {
+                Assert.assertEquals("Unexpected path", expectedPath.nodes, ((DefaultGraphPath<Tile>)request.resultPath).nodes);
+            }
+        }
+    }
+
+    @Test
+    public void getIncomingConnections_WhenRequestedByManyThreads_ExpectedSameCompleteConnections() throws InterruptedException {
+        final DefaultReversibleIndexedGraph<Tile> graph = createRandomGrid(new Random(3), 0.2f, GRAPH_FACTORY);
+        int outgoing = 0;
+        for (int i = 0; i < graph.nodes.size; i++)
+            outgoing += graph.getConnections(graph.nodes.get(i)).size;
+        final int expectedCount = outgoing;
+
+        for (int round = 0; round < 20; round++) {
+            graph.invalidateIncomingConnections();
+            final CountDownLatch start = new CountDownLatch(1);
+            final Thread[] threads = new Thread[4];
+            final Object[][] seen = new Object[threads.length][];
+            final int[] counts = new int[threads.length];
+            for (int t = 0; t < threads.length; t++) {
+                final int thread = t;
+                threads[t] = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            start.await();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        seen[thread] = new Object[graph.nodes.size];
+                        for (int i = 0; i < graph.nodes.size; i++) {
+                            final Array<Connection<Tile>> incoming = graph.getIncomingConnections(graph.nodes.get(i));
+                            seen[thread][i] = incoming;
+                            counts[thread] += incoming.size;
+                        }
+                    }
+                });
+                threads[t].start();
+            }
+            start.countDown();
+            for (Thread thread : threads)
+                thread.join();
+
+            for (int t = 0; t < threads.length; t++) {
+                Assert.assertEquals("Incomplete incoming connections", expectedCount, counts[t]);
+                for (int i = 0; i < graph.nodes.size; i++)
+                    Assert.assertSame("Incoming connections built more than once", seen[0][i], seen[t][i]);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,197 @@
+package com.badlogic.gdx.ai.pfa.indexed;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.badlogic.gdx.ai.pfa.Connection;
+import com.badlogic.gdx.ai.pfa.DefaultConnection;
+import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
+import com.badlogic.gdx.ai.pfa.Heuristic;
+import com.badlogic.gdx.ai.pfa.PathFinderRequest;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Predicate;
+
+public class CachedPathFinderTest {
+
+    private static final int SIZE = 10;
+
+    @Test
+    public void searchNodePath_WhenSameNodesRequestedTwice_ExpectedSamePathFromCache() {
+        final Grid graph = new Grid();
+        final CachedPathFinder<Tile> pathfinder = new CachedPathFinder<>(new IndexedAStarPathFinder<>(graph), 8);
+
+        final DefaultGraphPath<Tile> first = new DefaultGraphPath<>();
+        Assert.assertTrue(pathfinder.searchNodePath(graph.getTile(0, 0), graph.getTile(9, 9), new ManhattanDistance(), first));
+        final DefaultGraphPath<Tile> second = new DefaultGraphPath<>();
+        Assert.assertTrue(pathfinder.searchNodePath(graph.getTile(0, 0), graph.getTile(9, 9), new ManhattanDistance(), second));
+
+        Assert.assertEquals("Unexpected hits", 1, pathfinder.getHits());
+        Assert.assertEquals("Unexpected misses", 1, pathfinder.getMisses());
+        Assert.assertEquals("Unexpected path", first.nodes, second.nodes);
+        Assert.assertNotSame("Cached path not copied", first.nodes, second.nodes);
+    }
+
+    @Test
+    public void searchConnectionPath_WhenCapacityExceeded_ExpectedLeastRecentlyUsedEvicted() {
+        final Grid graph = new Grid();
+        final CachedPathFinder<Tile> pathfinder = new CachedPathFinder<>(new IndexedAStarPathFinder<>(graph), 2);
+        final Tile start = graph.getTile(0, 0);
+
+        search(pathfinder, start, graph.getTile(1, 1));
+        search(pathfinder, start, graph.getTile(2, 2));
+        search(pathfinder, start, graph.getTile(1, 1)); // hit, (2, 2) becomes the least recently used
+        search(pathfinder, start, graph.getTile(3, 3)); // miss, evicts (2, 2)
+        search(pathfinder, start, graph.getTile(1, 1)); // hit
+        search(pathfinder, start, graph.getTile(2, 2)); // miss
+
+        Assert.assertEquals("Unexpected size", 2, pathfinder.getSize());
+        Assert.assertEquals("Unexpected hits", 2, pathfinder.getHits());
+        Assert.assertEquals("Unexpected misses", 4, pathfinder.getMisses());
+    }
+
+    @Test
+    public void invalidate_WhenNodeChanges_ExpectedOnlyPathsThroughItAndFailuresDiscarded() {
+        final Grid graph = new Grid();
+        final CachedPathFinder<Tile> pathfinder = new CachedPathFinder<>(new IndexedAStarPathFinder<>(graph), 8);
+        final Tile start = graph.getTile(0, 0);
+        final Tile walled = graph.getTile(5, 5);
+        graph.setWall(walled, true);
+
+        Assert.assertEquals("Unexpected search result", 0, search(pathfinder, start, walled).getCount());
+        final DefaultGraphPath<Tile> path = search(pathfinder, start, graph.getTile(0, 9));
+        final Tile crossed = path.get(4);
+        search(pathfinder, start, graph.getTile(9, 0));
+        Assert.assertEquals("Unexpected size", 3, pathfinder.getSize());
+
+        graph.setWall(walled, false);
+        pathfinder.invalidate(walled.getIndex());
+        Assert.assertEquals("Failure not discarded", 2, pathfinder.getSize());
+        Assert.assertTrue("Unexpected search result", search(pathfinder, start, walled).getCount() > 0);
+
+        pathfinder.invalidate(new Predicate<Tile>() {
+            @Override
+            public boolean evaluate(final Tile tile) {
+                return tile == crossed;
+            }
+        });
+        Assert.assertEquals("Unexpected size", 2, pathfinder.getSize());
+        Assert.assertEquals("Unexpected hits", 0, pathfinder.getHits());
+        search(pathfinder, start, graph.getTile(9, 0));
+        Assert.assertEquals("Unrelated path discarded", 1, pathfinder.getHits());
+        search(pathfinder, start, graph.getTile(0, 9));
+        Assert.assertEquals("Path through modified region not discarded", 5, pathfinder.getMisses());
+    }
+
+    @Test
+    public void search_WhenCachedPathRequested_ExpectedRequestCompletedImmediately() {
+        final Grid graph = new Grid();
+        final CachedPathFinder<Tile> pathfinder = new CachedPathFinder<>(new IndexedAStarPathFinder<>(graph), 8);
+        final Tile start = graph.getTile(0, 0);
+        final Tile end = graph.getTile(7, 3);
+
+        final PathFinderRequest<Tile> request = new PathFinderRequest<>(start, end, new ManhattanDistance(),
+                new DefaultGraphPath<Tile>(), null);
+        request.statusChanged = true;
+        while (!pathfinder.search(request, Long.MAX_VALUE)) {
+        }
+        Assert.assertTrue(request.pathFound);
+
+        final DefaultGraphPath<Tile> path = new DefaultGraphPath<>();
+        Assert.assertTrue(pathfinder.searchNodePath(start, end, new ManhattanDistance(), path));
+        Assert.assertEquals("Unexpected hits", 1, pathfinder.getHits());
+        Assert.assertEquals("Unexpected path", ((DefaultGraphPath<Tile>)request.resultPath).nodes, path.nodes);
+
+        final PathFinderRequest<Tile> cachedRequest = new PathFinderRequest<>(start, end, new ManhattanDistance(),
+                new DefaultGraphPath<Tile>(), null);
+        cachedRequest.statusChanged = true;
+        Assert.assertTrue("Search not completed", pathfinder.search(cachedRequest, 0));
+        Assert.assertTrue(cachedRequest.pathFound);
+        Assert.assertEquals("Unexpected path", path.nodes, ((DefaultGraphPath<Tile>)cachedRequest.resultPath).nodes);
+    }
+
+    private static DefaultGraphPath<Tile> search(final CachedPathFinder<Tile> pathfinder, final Tile start, final Tile end) {
+        final DefaultGraphPath<Connection<Tile>> path = new DefaultGraphPath<>();
+        final boolean found = pathfinder.searchConnectionPath(start, end, new ManhattanDistance(), path);
+        final DefaultGraphPath<Tile> nodes = new DefaultGraphPath<>();
+        if (found) {
+            nodes.add(start);
+            for (final Connection<Tile> connection : path) {
+                nodes.add(connection.getToNode());
+            }
+        }
+        return nodes;
+    }
+
+    private static class Grid extends DefaultIndexedGraph<Tile> {
+
+        final boolean[] walls = new boolean[SIZE * SIZE];
+
+        public Grid() {
+            super(SIZE * SIZE);
+            for (int y = 0; y < SIZE; y++) {
+                for (int x = 0; x < SIZE; x++) {
+                    nodes.add(new Tile(x, y));
+                }
+            }
+            for (int i = 0; i < nodes.size; i++) {
+                connect(nodes.get(i));
+            }
+        }
+
+        Tile getTile(final int x, final int y) {
+            return nodes.get(y * SIZE + x);
+        }
+
+        void setWall(final Tile tile, final boolean wall) {
+            walls[tile.getIndex()] = wall;
+            for (int i = 0; i < nodes.size; i++) {
+                connect(nodes.get(i));
+            }
+        }
+
+        private void connect(final Tile tile) {
+            tile.getConnections().clear();
+            if (walls[tile.getIndex()]) {
+                return;
+            }
+            final int[][] offsets = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+            for (final int[] offset : offsets) {
+                final int x = tile.x + offset[0];
+                final int y = tile.y + offset[1];
+                if (x >= 0 && y >= 0 && x < SIZE && y < SIZE && !walls[y * SIZE + x]) {
+                    tile.getConnections().add(new DefaultConnection<>(tile, getTile(x, y)));
+                }
+            }
+        }
+    }
+
+    private static class Tile implements IndexedNode<Tile> {
+
+        final int x;
+        final int y;
+        private final Array<Connection<Tile>> connections = new Array<>(4);
+
+        public Tile(final int x, final int y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        @Override
+        public int getIndex() {
+            return y * SIZE + x;
+        }
+
+        @Override
+        public Array<Connection<Tile>> getConnections() {
+            return connections;
+        }
+    }
+
+    private static class ManhattanDistance implements Heuristic<Tile> {
+        @Override
+        public float estimate(final Tile node, final Tile endNode) {
+            return Math.abs(endNode.x - node.x) + Math.abs(endNode.y - node.y);
+        }
+    }
+
+}
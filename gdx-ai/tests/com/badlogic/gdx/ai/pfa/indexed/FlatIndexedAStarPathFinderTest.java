@@ -0,0 +1,88 @@
+package com.badlogic.gdx.ai.pfa.indexed;
+
+import static com.badlogic.gdx.ai.pfa.GridFixture.connectionPathCost;
+import static com.badlogic.gdx.ai.pfa.GridFixture.createRandomGrid;
+import static com.badlogic.gdx.ai.pfa.GridFixture.dijkstra;
+import static com.badlogic.gdx.ai.pfa.GridFixture.nodePathCost;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.badlogic.gdx.ai.pfa.Connection;
+import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
+import com.badlogic.gdx.ai.pfa.GridFixture.GraphFactory;
+import com.badlogic.gdx.ai.pfa.GridFixture.OctileDistance;
+import com.badlogic.gdx.ai.pfa.GridFixture.Tile;
+import com.badlogic.gdx.utils.Array;
+
+public class FlatIndexedAStarPathFinderTest {
+
+    private static final OctileDistance<Tile> HEURISTIC = new OctileDistance<>();
+
+    private static final GraphFactory<DefaultIndexedGraph<Tile>> GRAPH_FACTORY = new GraphFactory<DefaultIndexedGraph<Tile>>() {
+        @Override
+        public DefaultIndexedGraph<Tile> newGraph(final Array<Tile> nodes) {
+            return new DefaultIndexedGraph<>(nodes);
+        }
+    };
+
+    @Test
+    public void searchNodePath_WhenComparedToIndexedAStarAndDijkstra_ExpectedOptimalPaths() {
+        final Random random = new Random(42);
+
+        for (int map = 0; map < 20; map++) {
+            final DefaultIndexedGraph<Tile> graph = createRandomGrid(random, 0.3f, GRAPH_FACTORY);
+
+            final IndexedAStarPathFinder<Tile> reference = new IndexedAStarPathFinder<>(graph, true);
+            final FlatIndexedAStarPathFinder<Tile> pathfinder = new FlatIndexedAStarPathFinder<>(graph, true);
+
+            for (int search = 0; search < 50; search++) {
+                final Tile startNode = graph.nodes.get(random.nextInt(graph.nodes.size));
+                final Tile endNode = graph.nodes.get(random.nextInt(graph.nodes.size));
+
+                final DefaultGraphPath<Tile> expectedPath = new DefaultGraphPath<>();
+                final DefaultGraphPath<Tile> actualPath = new DefaultGraphPath<>();
+                final boolean expectedResult = reference.searchNodePath(startNode, endNode, HEURISTIC, expectedPath);
+                final boolean actualResult = pathfinder.searchNodePath(startNode, endNode, HEURISTIC, actualPath);
+
+                Assert.assertEquals("Unexpected search result", expectedResult, actualResult);
+                if (actualResult) {
+                    Assert.assertSame(startNode, actualPath.get(0));
+                    Assert.assertSame(endNode, actualPath.get(actualPath.getCount() - 1));
+                    final float cost = nodePathCost(actualPath);
+                    Assert.assertEquals("Unexpected path cost", dijkstra(graph, startNode, endNode), cost, 1e-3f);
+                    // The reference open list only sifts down on removal, so its paths can be longer but never shorter
+                    Assert.assertTrue("Path longer than the reference", cost <= nodePathCost(expectedPath) + 1e-3f);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void searchConnectionPath_WhenComparedToDijkstra_ExpectedOptimalChainOfConnections() {
+        final Random random = new Random(7);
+        final DefaultIndexedGraph<Tile> graph = createRandomGrid(random, 0.2f, GRAPH_FACTORY);
+
+        final IndexedAStarPathFinder<Tile> reference = new IndexedAStarPathFinder<>(graph);
+        final FlatIndexedAStarPathFinder<Tile> pathfinder = new FlatIndexedAStarPathFinder<>(graph);
+
+        for (int search = 0; search < 100; search++) {
+            final Tile startNode = graph.nodes.get(random.nextInt(graph.nodes.size));
+            final Tile endNode = graph.nodes.get(random.nextInt(graph.nodes.size));
+
+            final DefaultGraphPath<Connection<Tile>> expectedPath = new DefaultGraphPath<>();
+            final DefaultGraphPath<Connection<Tile>> actualPath = new DefaultGraphPath<>();
+            final boolean expectedResult = reference.searchConnectionPath(startNode, endNode, HEURISTIC, expectedPath);
+            final boolean actualResult = pathfinder.searchConnectionPath(startNode, endNode, HEURISTIC, actualPath);
+
+            Assert.assertEquals("Unexpected search result", expectedResult, actualResult);
+            if (actualResult) {
+                Assert.assertEquals("Unexpected path cost", dijkstra(graph, startNode, endNode),
+                        connectionPathCost(startNode, endNode, actualPath), 1e-3f);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,174 @@
+package com.badlogic.gdx.ai.pfa.indexed;
+
+import static com.badlogic.gdx.ai.pfa.GridFixture.HEIGHT;
+import static com.badlogic.gdx.ai.pfa.GridFixture.WIDTH;
+import static com.badlogic.gdx.ai.pfa.GridFixture.connectionPathCost;
+import static com.badlogic.gdx.ai.pfa.GridFixture.createRandomGrid;
+import static com.badlogic.gdx.ai.pfa.GridFixture.dijkstra;
+import static com.badlogic.gdx.ai.pfa.GridFixture.nodePathCost;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.badlogic.gdx.ai.pfa.Connection;
+import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
+import com.badlogic.gdx.ai.pfa.GridFixture.GraphFactory;
+import com.badlogic.gdx.ai.pfa.GridFixture.OctileDistance;
+import com.badlogic.gdx.ai.pfa.GridFixture.Tile;
+import com.badlogic.gdx.ai.pfa.GridFixture.WeightedConnection;
+import com.badlogic.gdx.ai.pfa.PathFinderRequest;
+import com.badlogic.gdx.utils.Array;
+
+public class IndexedDStarLitePathFinderTest {
+
+    private static final OctileDistance<Tile> HEURISTIC = new OctileDistance<>();
+
+    private static final GraphFactory<Grid> GRAPH_FACTORY = new GraphFactory<Grid>() {
+        @Override
+        public Grid newGraph(final Array<Tile> nodes) {
+            return new Grid(nodes);
+        }
+    };
+
+    @Test
+    public void searchNodePath_WhenAgentMovesAndConnectionsChange_ExpectedOptimalPaths() {
+        final Random random = new Random(42);
+
+        for (int map = 0; map < 10; map++) {
+            final Grid graph = createRandomGrid(random, 0.2f, GRAPH_FACTORY);
+            final IndexedDStarLitePathFinder<Tile> pathfinder = new IndexedDStarLitePathFinder<>(graph);
+
+            Tile startNode = randomNode(random, graph);
+            final Tile endNode = randomNode(random, graph);
+
+            for (int move = 0; move < 30; move++) {
+                final DefaultGraphPath<Connection<Tile>> path = new DefaultGraphPath<>();
+                final float expectedCost = dijkstra(graph, startNode, endNode);
+                final boolean found = pathfinder.searchConnectionPath(startNode, endNode, HEURISTIC, path);
+
+                Assert.assertEquals("Unexpected search result", expectedCost != Float.POSITIVE_INFINITY, found);
+                if (!found) {
+                    break;
+                }
+                Assert.assertEquals("Unexpected path cost", expectedCost, connectionPathCost(startNode, endNode, path), 1e-3f);
+
+                // Move the agent one step along the path
+                if (path.getCount() > 0) {
+                    startNode = path.get(0).getToNode();
+                }
+
+                // Change the cost of a few random connections, possibly blocking them
+                for (int i = 0; i < 5; i++) {
+                    final Tile node = randomNode(random, graph);
+                    if (node.getConnections().size == 0) {
+                        continue;
+                    }
+                    final Array<Connection<Tile>> connections = node.getConnections();
+                    final WeightedConnection connection = (WeightedConnection)connections.get(random.nextInt(connections.size));
+                    final float baseCost = connection.getFromNode().x != connection.getToNode().x
+                            && connection.getFromNode().y != connection.getToNode().y ? 1.4142135f : 1f;
+                    connection.cost = random.nextInt(4) == 0 ? Float.POSITIVE_INFINITY : baseCost * (1 + 3 * random.nextFloat());
+                    pathfinder.updateConnection(connection);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void searchNodePath_WhenWallPlaced_ExpectedRepairCheaperThanFullSearch() {
+        final Grid graph = createRandomGrid(new Random(3), 0.1f, GRAPH_FACTORY);
+        final IndexedDStarLitePathFinder<Tile> pathfinder = new IndexedDStarLitePathFinder<>(graph, true);
+        final Tile startNode = firstConnectedNode(graph, 0);
+        final Tile endNode = firstConnectedNode(graph, graph.getNodeCount() - 1);
+
+        final DefaultGraphPath<Tile> path = new DefaultGraphPath<>();
+        Assert.assertTrue(pathfinder.searchNodePath(startNode, endNode, HEURISTIC, path));
+
+        // Place a short vertical wall across the path close to the agent by making the connections to its nodes impassable
+        final Tile crossed = path.get(3);
+        final Array<Tile> wall = new Array<>();
+        for (int y = Math.max(crossed.y - 3, 0); y <= Math.min(crossed.y + 3, HEIGHT - 1); y++) {
+            final Tile node = graph.getNode(crossed.x, y);
+            final Array<Connection<Tile>> incoming = graph.getIncomingConnections(node);
+            for (int i = 0; i < incoming.size; i++) {
+                ((WeightedConnection)incoming.get(i)).cost = Float.POSITIVE_INFINITY;
+            }
+            wall.add(node);
+        }
+        for (int i = 0; i < wall.size; i++) {
+            pathfinder.updateNode(wall.get(i));
+        }
+
+        path.clear();
+        Assert.assertTrue(pathfinder.searchNodePath(startNode, endNode, HEURISTIC, path));
+        for (int i = 0; i < wall.size; i++) {
+            Assert.assertFalse("Path crosses the wall", path.nodes.contains(wall.get(i), true));
+        }
+        Assert.assertEquals(dijkstra(graph, startNode, endNode), nodePathCost(path), 1e-3f);
+
+        final IndexedDStarLitePathFinder<Tile> fresh = new IndexedDStarLitePathFinder<>(graph, true);
+        Assert.assertTrue(fresh.searchNodePath(startNode, endNode, HEURISTIC, new DefaultGraphPath<Tile>()));
+        Assert.assertTrue("Repair should be cheaper than a full search",
+                pathfinder.metrics.openListAdditions < fresh.metrics.openListAdditions);
+
+        // Searching again with nothing changed requires no work at all
+        path.clear();
+        Assert.assertTrue(pathfinder.searchNodePath(startNode, endNode, HEURISTIC, path));
+        Assert.assertEquals(0, pathfinder.metrics.openListAdditions);
+    }
+
+    @Test
+    public void searchWithRequest_WhenComparedToBlockingSearch_ExpectedSameNodePath() {
+        final Random random = new Random(7);
+        final Grid graph = createRandomGrid(random, 0.2f, GRAPH_FACTORY);
+        final IndexedDStarLitePathFinder<Tile> reference = new IndexedDStarLitePathFinder<>(graph);
+        final IndexedDStarLitePathFinder<Tile> pathfinder = new IndexedDStarLitePathFinder<>(graph);
+
+        for (int search = 0; search < 50; search++) {
+            final Tile startNode = randomNode(random, graph);
+            final Tile endNode = randomNode(random, graph);
+
+            final DefaultGraphPath<Tile> expectedPath = new DefaultGraphPath<>();
+            final boolean expectedResult = reference.searchNodePath(startNode, endNode, HEURISTIC, expectedPath);
+
+            final PathFinderRequest<Tile> request = new PathFinderRequest<>(startNode, endNode, HEURISTIC,
+                    new DefaultGraphPath<Tile>());
+            request.statusChanged = true;
+            // A tiny time slice forces the search to be resumed many times
+            while (!pathfinder.search(request, 20000)) {
+            }
+
+            Assert.assertEquals("Unexpected search result", expectedResult, request.pathFound);
+            if (expectedResult) {
+                Assert.assertEquals("Unexpected path", expectedPath.nodes, ((DefaultGraphPath<Tile>)request.resultPath).nodes);
+            }
+        }
+    }
+
+    private static Tile firstConnectedNode(final Grid graph, final int fromIndex) {
+        final int step = fromIndex == 0 ? 1 : -1;
+        for (int i = fromIndex;; i += step) {
+            if (graph.nodes.get(i).getConnections().size > 0) {
+                return graph.nodes.get(i);
+            }
+        }
+    }
+
+    private static Tile randomNode(final Random random, final Grid graph) {
+        return graph.nodes.get(random.nextInt(graph.nodes.size));
+    }
+
+    private static class Grid extends DefaultReversibleIndexedGraph<Tile> {
+
+        public Grid(final Array<Tile> nodes) {
+            super(nodes);
+        }
+
+        public Tile getNode(final int x, final int y) {
+            return nodes.get(y * WIDTH + x);
+        }
+    }
+
+}
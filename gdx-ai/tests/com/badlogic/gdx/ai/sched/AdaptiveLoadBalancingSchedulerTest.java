@@ -0,0 +1,127 @@
+package com.badlogic.gdx.ai.sched;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.badlogic.gdx.utils.IntArray;
+
+public class AdaptiveLoadBalancingSchedulerTest {
+
+    @Test
+    public void run_WhenTasksHaveDifferentFrequencies_ExpectedSameFramesAsLoadBalancingScheduler() {
+        final int[] clock = new int[1];
+        final AdaptiveLoadBalancingScheduler adaptive = new AdaptiveLoadBalancingScheduler(0);
+        final LoadBalancingScheduler reference = new LoadBalancingScheduler(100);
+        final CountingTask[] adaptiveTasks = new CountingTask[12];
+        final CountingTask[] referenceTasks = new CountingTask[12];
+        for (int i = 0; i < adaptiveTasks.length; i++) {
+            final int frequency = 1 + i % 5;
+            final int phase = i * 7;
+            adaptiveTasks[i] = new CountingTask(clock);
+            referenceTasks[i] = new CountingTask(clock);
+            adaptive.add(adaptiveTasks[i], frequency, phase);
+            reference.add(referenceTasks[i], frequency, phase);
+        }
+
+        for (int f = 0; f < 60; f++) {
+            clock[0] = f;
+            adaptive.run(1000000L);
+            reference.run(1000000L);
+        }
+
+        for (int i = 0; i < adaptiveTasks.length; i++) {
+            Assert.assertEquals("Unexpected frames for task " + i, referenceTasks[i].frames, adaptiveTasks[i].frames);
+        }
+    }
+
+    @Test
+    public void remove_WhenTaskIsRemoved_ExpectedNoMoreRuns() {
+        final int[] clock = new int[1];
+        final AdaptiveLoadBalancingScheduler scheduler = new AdaptiveLoadBalancingScheduler(0);
+        final CountingTask removed = new CountingTask(clock);
+        final CountingTask kept = new CountingTask(clock);
+        scheduler.add(removed, 1, 0);
+        scheduler.add(kept, 1, 0);
+        scheduler.run(1000000L);
+
+        Assert.assertTrue("Task not removed", scheduler.remove(removed));
+        Assert.assertFalse("Task removed twice", scheduler.remove(removed));
+        Assert.assertEquals("Unexpected phase", -1, scheduler.getPhase(removed));
+        scheduler.run(1000000L);
+
+        Assert.assertEquals("Unexpected run count", 1, removed.frames.size);
+        Assert.assertEquals("Unexpected run count", 2, kept.frames.size);
+    }
+
+    @Test
+    public void addWithAutomaticPhasing_WhenPhasesAreUneven_ExpectedLeastLoadedPhase() {
+        final int[] clock = new int[1];
+        final AdaptiveLoadBalancingScheduler scheduler = new AdaptiveLoadBalancingScheduler(0);
+        final CountingTask task = new CountingTask(clock);
+        scheduler.add(new CountingTask(clock), 3, 0);
+        scheduler.add(new CountingTask(clock), 3, 1);
+        scheduler.addWithAutomaticPhasing(task, 3);
+        Assert.assertEquals("Unexpected phase", 2, scheduler.getPhase(task));
+    }
+
+    @Test
+    public void run_WhenTasksAreClumped_ExpectedRebalancedPhases() {
+        final int[] clock = new int[1];
+        final int frequency = 4;
+        final AdaptiveLoadBalancingScheduler scheduler = new AdaptiveLoadBalancingScheduler(frequency * 4);
+        final CountingTask[] tasks = new CountingTask[8];
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i] = new SpinningTask(clock, 200000L);
+            // All tasks on the same phase
+            scheduler.add(tasks[i], frequency, 0);
+        }
+
+        // Let the scheduler measure the tasks and rebalance them
+        for (int f = 0; f < frequency * 8; f++) {
+            scheduler.run(1000000000L);
+        }
+
+        final int[] tasksPerPhase = new int[frequency];
+        for (final CountingTask task : tasks) {
+            tasksPerPhase[scheduler.getPhase(task)]++;
+            Assert.assertTrue("Cost not measured", scheduler.getAverageCost(task) > 0);
+        }
+        // Measured costs are noisy, so tasks are not necessarily split evenly
+        for (int p = 0; p < frequency; p++) {
+            Assert.assertTrue("No tasks on phase " + p, tasksPerPhase[p] > 0);
+            Assert.assertTrue("Too many tasks on phase " + p, tasksPerPhase[p] <= tasks.length / 2);
+        }
+    }
+
+    private static class CountingTask implements Schedulable {
+        final IntArray frames = new IntArray();
+        final int[] clock;
+
+        CountingTask(int[] clock) {
+            this.clock = clock;
+        }
+
+        @Override
+        public void run(long nanoTimeToRun) {
+            frames.add(clock[0]);
+        }
+    }
+
+    private static class SpinningTask extends CountingTask {
+        final long cost;
+
+        SpinningTask(int[] clock, long cost) {
+            super(clock);
+            this.cost = cost;
+        }
+
+        @Override
+        public void run(long nanoTimeToRun) {
+            super.run(nanoTimeToRun);
+            final long end = System.nanoTime() + cost;
+            while (System.nanoTime() < end) {
+                // Spin
+            }
+        }
+    }
+}
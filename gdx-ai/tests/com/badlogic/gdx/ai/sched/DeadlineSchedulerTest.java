@@ -0,0 +1,130 @@
+package com.badlogic.gdx.ai.sched;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.badlogic.gdx.ai.sched.DeadlineScheduler.OverrunPolicy;
+import com.badlogic.gdx.ai.sched.DeadlineScheduler.Statistics;
+import com.badlogic.gdx.utils.Array;
+
+public class DeadlineSchedulerTest {
+
+    @Test
+    public void run_WhenNoTimeIsLeftWithDeferPolicy_ExpectedRunOnMaxLatency() {
+        final DeadlineScheduler scheduler = new DeadlineScheduler(100, OverrunPolicy.Defer, 1000000L);
+        final RecordingTask task = new RecordingTask(null);
+        scheduler.add(task, 1, 0, 1f, 3);
+
+        for (int f = 0; f < 12; f++) {
+            scheduler.run(0);
+        }
+
+        final Statistics statistics = scheduler.getStatistics(task);
+        Assert.assertEquals("Unexpected runs", 3, statistics.runs);
+        Assert.assertEquals("Unexpected deferrals", 9, statistics.deferrals);
+        Assert.assertEquals("Unexpected max latency", 3, statistics.maxLatency);
+    }
+
+    @Test
+    public void run_WhenTaskOverrunsWithSkipPolicy_ExpectedSkippedRunsUntilDebtIsRepaid() {
+        final DeadlineScheduler scheduler = new DeadlineScheduler(100, OverrunPolicy.Skip, 10000000L);
+        final SpinningTask greedy = new SpinningTask(1000000L);
+        final RecordingTask polite = new RecordingTask(null);
+        scheduler.add(greedy, 1, 0, 1f, 100);
+        scheduler.add(polite, 1, 0, 1f, 100);
+
+        final int frames = 20;
+        for (int f = 0; f < frames; f++) {
+            scheduler.run(200000L);
+        }
+
+        final Statistics greedyStatistics = scheduler.getStatistics(greedy);
+        Assert.assertTrue("Overruns not detected", greedyStatistics.overruns > 0);
+        Assert.assertTrue("Runs not skipped", greedyStatistics.skips > 0);
+        Assert.assertEquals("Unexpected total", frames, greedyStatistics.runs + greedyStatistics.skips);
+        Assert.assertTrue("Too many runs", greedyStatistics.runs < frames / 2);
+        Assert.assertEquals("Unexpected runs", frames, scheduler.getStatistics(polite).runs);
+        Assert.assertEquals("Unexpected skips", 0, scheduler.getStatistics(polite).skips);
+    }
+
+    @Test
+    public void run_WhenTaskReturnsEarly_ExpectedCreditOnFollowingRuns() {
+        final long timeToRun = 1000000L;
+        final DeadlineScheduler scheduler = new DeadlineScheduler(100, OverrunPolicy.ShrinkOthers, 10 * timeToRun);
+        final RecordingTask saver = new RecordingTask(null);
+        final RecordingTask other = new RecordingTask(null);
+        scheduler.add(saver, 1, 0, 1f, 1);
+        scheduler.add(other, 1, 0, 1f, 1);
+
+        for (int f = 0; f < 5; f++) {
+            scheduler.run(timeToRun);
+        }
+
+        Assert.assertTrue("Credit not accumulated", scheduler.getStatistics(saver).balance > timeToRun);
+        // The saver runs first and its credit lets it use more than its half of the frame
+        final long lastTimeToRun = saver.timesToRun.peek();
+        Assert.assertTrue("Credit not used: " + lastTimeToRun, lastTimeToRun > timeToRun * 3 / 4);
+    }
+
+    @Test
+    public void run_WhenTasksHaveDifferentMaxLatency_ExpectedEarliestDeadlineFirst() {
+        final DeadlineScheduler scheduler = new DeadlineScheduler(100, OverrunPolicy.ShrinkOthers, 1000000L);
+        final Array<String> order = new Array<>();
+        scheduler.add(new RecordingTask(order, "relaxed"), 1, 0, 1f, 10);
+        scheduler.add(new RecordingTask(order, "urgent"), 1, 0, 1f, 1);
+        scheduler.add(new RecordingTask(order, "normal"), 1, 0, 1f, 5);
+
+        scheduler.run(1000000L);
+
+        Assert.assertEquals("Unexpected order", "[urgent, normal, relaxed]", order.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void add_WhenSchedulableAlreadyAdded_ExpectedIllegalArgumentException() {
+        final DeadlineScheduler scheduler = new DeadlineScheduler(100);
+        final RecordingTask task = new RecordingTask(null);
+        scheduler.add(task, 1, 0);
+        scheduler.add(task, 2, 0);
+    }
+
+    private static class RecordingTask implements Schedulable {
+        final Array<String> order;
+        final String name;
+        final Array<Long> timesToRun = new Array<>();
+
+        RecordingTask(Array<String> order) {
+            this(order, null);
+        }
+
+        RecordingTask(Array<String> order, String name) {
+            this.order = order;
+            this.name = name;
+        }
+
+        @Override
+        public void run(long nanoTimeToRun) {
+            timesToRun.add(nanoTimeToRun);
+            if (order != null) {
+                order.add(name);
+            }
+        }
+    }
+
+    private static class SpinningTask extends RecordingTask {
+        final long cost;
+
+        SpinningTask(long cost) {
+            super(null);
+            this.cost = cost;
+        }
+
+        @Override
+        public void run(long nanoTimeToRun) {
+            super.run(nanoTimeToRun);
+            final long end = System.nanoTime() + cost;
+            while (System.nanoTime() < end) {
+                // Spin
+            }
+        }
+    }
+}
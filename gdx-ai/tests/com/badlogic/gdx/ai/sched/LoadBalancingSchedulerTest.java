@@ -0,0 +1,58 @@
+package com.badlogic.gdx.ai.sched;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LoadBalancingSchedulerTest {
+
+    @Test
+    public void run_WhenTasksHaveVariousFrequenciesAndPhases_ExpectedRunOnlyWhenDue() {
+        final LoadBalancingScheduler scheduler = new LoadBalancingScheduler(100);
+        final int[] frequencies = {1, 2, 3, 5, 7, 30};
+        final int[] phases = {0, 1, 4, 29, 45};
+        final Task[] tasks = new Task[frequencies.length * phases.length];
+        int n = 0;
+        for (final int frequency : frequencies) {
+            for (final int phase : phases) {
+                tasks[n] = new Task(frequency, phase);
+                scheduler.add(tasks[n], frequency, phase);
+                n++;
+            }
+        }
+
+        final int frames = 210;
+        for (int frame = 1; frame <= frames; frame++) {
+            for (final Task task : tasks) {
+                task.frame = frame;
+            }
+            scheduler.run(1000000L);
+            for (final Task task : tasks) {
+                final boolean due = (frame + task.phase) % task.frequency == 0;
+                Assert.assertEquals("Unexpected run on frame " + frame + " for frequency " + task.frequency + " and phase "
+                        + task.phase, due, task.lastRunFrame == frame);
+            }
+        }
+        for (final Task task : tasks) {
+            Assert.assertEquals("Unexpected run count", frames / task.frequency, task.runs);
+        }
+    }
+
+    private static class Task implements Schedulable {
+        final int frequency;
+        final int phase;
+        int frame;
+        int lastRunFrame;
+        int runs;
+
+        Task(int frequency, int phase) {
+            this.frequency = frequency;
+            this.phase = phase;
+        }
+
+        @Override
+        public void run(long nanoTimeToRun) {
+            lastRunFrame = frame;
+            runs++;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.badlogic.gdx.ai.sched;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+public class ParallelLoadBalancingSchedulerTest {
+
+    private static final long TIME_TO_RUN = 1000000000L;
+
+    @Test
+    public void run_WhenTasksAreDue_ExpectedConfinedTasksOnCallerThreadAndParallelTasksRunOnce() {
+        final ParallelLoadBalancingScheduler scheduler = new ParallelLoadBalancingScheduler(100, 3);
+        try {
+            final ConfinedTask[] confined = new ConfinedTask[5];
+            final ParallelTask[] parallel = new ParallelTask[200];
+            for (int i = 0; i < confined.length; i++) {
+                confined[i] = new ConfinedTask();
+                scheduler.add(confined[i], 1, 0);
+            }
+            for (int i = 0; i < parallel.length; i++) {
+                parallel[i] = new ParallelTask();
+                scheduler.add(parallel[i], 2, i % 2);
+            }
+
+            final int frames = 10;
+            for (int f = 0; f < frames; f++) {
+                scheduler.run(TIME_TO_RUN);
+            }
+
+            final Thread caller = Thread.currentThread();
+            for (final ConfinedTask task : confined) {
+                Assert.assertEquals("Unexpected run count", frames, task.runs);
+                Assert.assertFalse("Confined task run on a worker thread", task.wrongThread);
+                Assert.assertSame("Unexpected thread", caller, task.thread);
+            }
+            for (final ParallelTask task : parallel) {
+                Assert.assertEquals("Unexpected run count", frames / 2, task.runs.get());
+                Assert.assertTrue("Unexpected time budget", task.minTimeToRun > 0);
+            }
+        } finally {
+            scheduler.dispose();
+        }
+    }
+
+    @Test
+    public void run_WhenParallelTaskThrows_ExpectedExceptionOnCallerThread() {
+        final ParallelLoadBalancingScheduler scheduler = new ParallelLoadBalancingScheduler(100, 2);
+        try {
+            final ParallelTask[] tasks = new ParallelTask[10];
+            for (int i = 0; i < tasks.length; i++) {
+                tasks[i] = new ParallelTask();
+                scheduler.add(tasks[i], 1, 0);
+            }
+            scheduler.add(new ParallelSchedulable() {
+                @Override
+                public void run(long nanoTimeToRun) {
+                    throw new IllegalStateException("boom");
+                }
+            }, 1, 0);
+            try {
+                scheduler.run(TIME_TO_RUN);
+                Assert.fail("Exception expected");
+            } catch (GdxRuntimeException e) {
+                Assert.assertTrue("Unexpected cause", e.getCause() instanceof IllegalStateException);
+            }
+
+            // The failure doesn't prevent the other tasks from running
+            for (final ParallelTask task : tasks) {
+                Assert.assertEquals("Unexpected run count", 1, task.runs.get());
+            }
+        } finally {
+            scheduler.dispose();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void run_WhenConfinedTaskThrows_ExpectedLaterFramesStillUseWorkers() {
+        final ParallelLoadBalancingScheduler scheduler = new ParallelLoadBalancingScheduler(100, 2);
+        try {
+            final SleepingTask[] tasks = new SleepingTask[8];
+            for (int i = 0; i < tasks.length; i++) {
+                tasks[i] = new SleepingTask();
+                scheduler.add(tasks[i], 1, 0);
+            }
+            final AtomicInteger confinedRuns = new AtomicInteger();
+            scheduler.add(new Schedulable() {
+                @Override
+                public void run(long nanoTimeToRun) {
+                    if (confinedRuns.incrementAndGet() == 1) {
+                        throw new IllegalStateException("boom");
+                    }
+                }
+            }, 1, 0);
+
+            try {
+                scheduler.run(TIME_TO_RUN);
+                Assert.fail("Exception expected");
+            } catch (IllegalStateException e) {
+                // The confined exception propagates as it is
+            }
+            for (final SleepingTask task : tasks) {
+                Assert.assertEquals("Parallel task not completed within the failed frame", 1, task.runs.get());
+            }
+
+            final Thread caller = Thread.currentThread();
+            final int frames = 5;
+            for (int f = 0; f < frames; f++) {
+                for (final SleepingTask task : tasks) {
+                    task.thread = null;
+                }
+                scheduler.run(TIME_TO_RUN);
+
+                int workerRuns = 0;
+                for (final SleepingTask task : tasks) {
+                    Assert.assertEquals("Unexpected run count", f + 2, task.runs.get());
+                    if (task.thread != caller) {
+                        workerRuns++;
+                    }
+                }
+                Assert.assertTrue("No parallel task run on the workers in frame " + f, workerRuns > 0);
+            }
+            Assert.assertEquals("Unexpected confined run count", frames + 1, confinedRuns.get());
+        } finally {
+            scheduler.dispose();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void run_WhenParallelTaskThrowsError_ExpectedExceptionAndWorkersAlive() {
+        final ParallelLoadBalancingScheduler scheduler = new ParallelLoadBalancingScheduler(100, 2);
+        try {
+            final SleepingTask[] tasks = new SleepingTask[8];
+            for (int i = 0; i < tasks.length; i++) {
+                tasks[i] = new SleepingTask();
+                scheduler.add(tasks[i], 1, 0);
+            }
+            final AtomicInteger failingRuns = new AtomicInteger();
+            scheduler.add(new ParallelSchedulable() {
+                @Override
+                public void run(long nanoTimeToRun) {
+                    if (failingRuns.incrementAndGet() == 1) {
+                        throw new AssertionError("boom");
+                    }
+                }
+            }, 1, 0);
+
+            try {
+                scheduler.run(TIME_TO_RUN);
+                Assert.fail("Exception expected");
+            } catch (GdxRuntimeException e) {
+                Assert.assertTrue("Unexpected cause", e.getCause() instanceof AssertionError);
+            }
+
+            // A dead worker would make this frame wait forever
+            scheduler.run(TIME_TO_RUN);
+            for (final SleepingTask task : tasks) {
+                Assert.assertEquals("Unexpected run count", 2, task.runs.get());
+            }
+            Assert.assertEquals("Unexpected failing task run count", 2, failingRuns.get());
+        } finally {
+            scheduler.dispose();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void run_WhenDisposed_ExpectedIllegalStateException() {
+        final ParallelLoadBalancingScheduler scheduler = new ParallelLoadBalancingScheduler(100, 2);
+        scheduler.dispose();
+        scheduler.run(TIME_TO_RUN);
+    }
+
+    private static class ConfinedTask implements Schedulable {
+        int runs;
+        Thread thread;
+        boolean wrongThread;
+
+        @Override
+        public void run(long nanoTimeToRun) {
+            final Thread current = Thread.currentThread();
+            if (thread == null) {
+                thread = current;
+            } else if (thread != current) {
+                wrongThread = true;
+            }
+            runs++;
+        }
+    }
+
+    private static class ParallelTask implements ParallelSchedulable {
+        final AtomicInteger runs = new AtomicInteger();
+        volatile long minTimeToRun = Long.MAX_VALUE;
+
+        @Override
+        public void run(long nanoTimeToRun) {
+            runs.incrementAndGet();
+            if (nanoTimeToRun < minTimeToRun) {
+                minTimeToRun = nanoTimeToRun;
+            }
+        }
+    }
+
+    private static class SleepingTask implements ParallelSchedulable {
+        final AtomicInteger runs = new AtomicInteger();
+        volatile Thread thread;
+
+        @Override
+        public void run(long nanoTimeToRun) {
+            thread = Thread.currentThread();
+            runs.incrementAndGet();
+            try {
+                // Long enough for the workers to claim some tasks even on a single processor
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
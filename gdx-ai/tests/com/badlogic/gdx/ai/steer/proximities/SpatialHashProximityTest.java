@@ -0,0 +1,174 @@
+package com.badlogic.gdx.ai.steer.proximities;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.ai.steer.Proximity.ProximityCallback;
+import com.badlogic.gdx.ai.steer.Steerable;
+import com.badlogic.gdx.ai.steer.SteerableAdapter;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectSet;
+
+public class SpatialHashProximityTest {
+
+    private static long frameId;
+
+    @BeforeClass
+    public static void installGraphics() {
+        Gdx.graphics = (Graphics) Proxy.newProxyInstance(Graphics.class.getClassLoader(), new Class<?>[] {Graphics.class},
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                        return method.getName().equals("getFrameId") ? frameId : null;
+                    }
+                });
+    }
+
+    @Test
+    public void findNeighbors_WhenAgentsAre2D_ExpectedSameNeighborsAsBruteForce() {
+        final Random random = new Random(42);
+        final Array<Agent<Vector2>> agents = new Array<>();
+        for (int i = 0; i < 500; i++) {
+            agents.add(new Agent<>(new Vector2(random.nextFloat() * 100 - 50, random.nextFloat() * 100 - 50),
+                    random.nextFloat(), random.nextFloat() * MathUtils.PI2));
+        }
+
+        final SpatialHash<Vector2> spatialHash = new SpatialHash<>(agents, 4f);
+        assertSameNeighbors(agents, spatialHash, 3f, MathUtils.PI2);
+        assertSameNeighbors(agents, spatialHash, 7.5f, MathUtils.PI2);
+        assertSameNeighbors(agents, spatialHash, 5f, MathUtils.PI * 0.5f);
+        assertSameNeighbors(agents, spatialHash, 500f, MathUtils.PI2);
+    }
+
+    @Test
+    public void findNeighbors_WhenAgentsAre3D_ExpectedSameNeighborsAsBruteForce() {
+        final Random random = new Random(7);
+        final Array<Agent<Vector3>> agents = new Array<>();
+        for (int i = 0; i < 500; i++) {
+            agents.add(new Agent<>(new Vector3(random.nextFloat() * 40 - 20, random.nextFloat() * 40 - 20,
+                    random.nextFloat() * 40 - 20), random.nextFloat(), 0));
+        }
+
+        final SpatialHash<Vector3> spatialHash = new SpatialHash<>(agents, 5f);
+        assertSameNeighbors(agents, spatialHash, 4f, MathUtils.PI2);
+        assertSameNeighbors(agents, spatialHash, 9f, MathUtils.PI2);
+    }
+
+    @Test
+    public void findNeighbors_WhenAgentsMoveBetweenFrames_ExpectedHashRefreshed() {
+        final Array<Agent<Vector2>> agents = new Array<>();
+        agents.add(new Agent<>(new Vector2(0, 0), 0, 0));
+        agents.add(new Agent<>(new Vector2(100, 0), 0, 0));
+
+        final SpatialHash<Vector2> spatialHash = new SpatialHash<>(agents, 2f);
+        final SpatialHashProximity<Vector2> proximity = new SpatialHashProximity<>(agents.get(0), spatialHash, 5f);
+
+        frameId++;
+        Assert.assertEquals("Unexpected neighbor count", 0, proximity.findNeighbors(new CollectingCallback<Vector2>()));
+
+        agents.get(1).getPosition().set(3, 0);
+        Assert.assertEquals("Unexpected neighbor count on the same frame", 0,
+                proximity.findNeighbors(new CollectingCallback<Vector2>()));
+
+        frameId++;
+        Assert.assertEquals("Unexpected neighbor count on next frame", 1,
+                proximity.findNeighbors(new CollectingCallback<Vector2>()));
+    }
+
+    private static <T extends Vector<T>> void assertSameNeighbors(final Array<Agent<T>> agents,
+            final SpatialHash<T> spatialHash, final float radius, final float angle) {
+        frameId++;
+        final float coneThreshold = (float) Math.cos(angle * 0.5f);
+        for (int i = 0; i < agents.size; i++) {
+            final Agent<T> owner = agents.get(i);
+            final ObjectSet<Steerable<T>> expected = new ObjectSet<>();
+            final T orientation = owner.getPosition().cpy().setZero();
+            owner.angleToVector(orientation, owner.getOrientation());
+            for (int j = 0; j < agents.size; j++) {
+                final Agent<T> agent = agents.get(j);
+                if (agent == owner) {
+                    continue;
+                }
+                final T toAgent = agent.getPosition().cpy().sub(owner.getPosition());
+                final float range = radius + agent.getBoundingRadius();
+                if (toAgent.len2() < range * range
+                        && (angle >= MathUtils.PI2 || orientation.dot(toAgent) > coneThreshold * toAgent.len())) {
+                    expected.add(agent);
+                }
+            }
+
+            final SpatialHashProximity<T> proximity = new SpatialHashProximity<>(owner, spatialHash, radius, angle);
+            final CollectingCallback<T> callback = new CollectingCallback<>();
+            final int count = proximity.findNeighbors(callback);
+
+            Assert.assertEquals("Unexpected neighbor count", expected.size, count);
+            Assert.assertEquals("Duplicate neighbors reported", count, callback.neighbors.size);
+            for (final Steerable<T> neighbor : callback.neighbors) {
+                Assert.assertTrue("Unexpected neighbor", expected.contains(neighbor));
+            }
+
+            final CollectingCallback<T> cachedCallback = new CollectingCallback<>();
+            Assert.assertEquals("Unexpected cached neighbor count", count, proximity.findNeighbors(cachedCallback));
+        }
+    }
+
+    private static class CollectingCallback<T extends Vector<T>> implements ProximityCallback<T> {
+        final Array<Steerable<T>> neighbors = new Array<>();
+
+        @Override
+        public boolean reportNeighbor(final Steerable<T> neighbor) {
+            neighbors.add(neighbor);
+            return true;
+        }
+    }
+
+    private static class Agent<T extends Vector<T>> extends SteerableAdapter<T> {
+        private final T position;
+        private final float boundingRadius;
+        private final float orientation;
+
+        Agent(final T position, final float boundingRadius, final float orientation) {
+            this.position = position;
+            this.boundingRadius = boundingRadius;
+            this.orientation = orientation;
+        }
+
+        @Override
+        public T getPosition() {
+            return position;
+        }
+
+        @Override
+        public float getBoundingRadius() {
+            return boundingRadius;
+        }
+
+        @Override
+        public float getOrientation() {
+            return orientation;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T angleToVector(final T outVector, final float angle) {
+            if (outVector instanceof Vector2) {
+                ((Vector2) outVector).set(-MathUtils.sin(angle), MathUtils.cos(angle));
+            } else {
+                ((Vector3) outVector).set(-MathUtils.sin(angle), MathUtils.cos(angle), 0);
+            }
+            return outVector;
+        }
+    }
+}
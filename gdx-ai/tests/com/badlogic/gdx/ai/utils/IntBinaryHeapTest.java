@@ -0,0 +1,75 @@
+package com.badlogic.gdx.ai.utils;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class IntBinaryHeapTest {
+
+    private static final int ELEMENTS = 64;
+
+    @Test
+    public void pop_WhenElementsAreRemovedFromTheMiddle_ExpectedSortedOrder() {
+        runRandomSequences(false);
+    }
+
+    @Test
+    public void pop_WhenMaxHeapElementsAreRemovedFromTheMiddle_ExpectedSortedOrder() {
+        runRandomSequences(true);
+    }
+
+    @Test
+    public void remove_WhenMovedElementIsSmallerThanNewParent_ExpectedItBubblesUp() {
+        final IntBinaryHeap heap = new IntBinaryHeap(ELEMENTS);
+        // Removing element 5 moves the last element (value 3) under the parent of value 10
+        final float[] values = {1, 10, 2, 11, 12, 20, 3};
+        for (int i = 0; i < values.length; i++)
+            heap.add(i, values[i]);
+
+        heap.remove(4);
+
+        final int[] expected = {0, 2, 6, 1, 3, 5};
+        for (int i = 0; i < expected.length; i++)
+            Assert.assertEquals("Unexpected element at pop " + i, expected[i], heap.pop());
+        Assert.assertEquals("Unexpected size", 0, heap.size);
+    }
+
+    private static void runRandomSequences(boolean isMaxHeap) {
+        final Random random = new Random(42);
+        for (int sequence = 0; sequence < 2000; sequence++) {
+            final IntBinaryHeap heap = new IntBinaryHeap(4, ELEMENTS, isMaxHeap);
+            final boolean[] inHeap = new boolean[ELEMENTS];
+            int count = 0;
+            for (int op = 0; op < 100; op++) {
+                final int element = random.nextInt(ELEMENTS);
+                final int kind = random.nextInt(3);
+                if (!inHeap[element]) {
+                    heap.add(element, random.nextInt(50));
+                    inHeap[element] = true;
+                    count++;
+                } else if (kind == 0) {
+                    heap.remove(element);
+                    inHeap[element] = false;
+                    count--;
+                } else if (kind == 1) {
+                    heap.setValue(element, random.nextInt(50));
+                }
+                Assert.assertEquals("Unexpected size", count, heap.size);
+            }
+
+            float previous = isMaxHeap ? Float.POSITIVE_INFINITY : Float.NEGATIVE_INFINITY;
+            while (heap.size > 0) {
+                final float value = heap.peekValue();
+                final int element = heap.pop();
+                Assert.assertTrue("Element " + element + " popped twice", inHeap[element]);
+                inHeap[element] = false;
+                Assert.assertTrue("Out of order in sequence " + sequence + ": " + value + " after " + previous,
+                    isMaxHeap ? value <= previous : value >= previous);
+                previous = value;
+            }
+            for (int i = 0; i < ELEMENTS; i++)
+                Assert.assertFalse("Element " + i + " lost", inHeap[i]);
+        }
+    }
+}